@@ -1,5 +1,6 @@
 package com.smockin.admin.controller;
 
+import com.smockin.admin.dto.RestfulServerInstanceDTO;
 import com.smockin.admin.exception.AuthException;
 import com.smockin.admin.exception.RecordNotFoundException;
 import com.smockin.admin.exception.ValidationException;
@@ -16,6 +17,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * Created by mgallina.
  */
@@ -43,11 +46,66 @@ public class MockedServerEngineController {
         return new ResponseEntity<>(mockedServerEngineService.restartRest(GeneralUtils.extractOAuthToken(bearerToken)), HttpStatus.OK);
     }
 
+    @RequestMapping(path="/mockedserver/rest/redeploy", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public @ResponseBody ResponseEntity<?> redeployRest(@RequestHeader(value = GeneralUtils.OAUTH_HEADER_NAME, required = false) final String bearerToken) throws MockServerException, RecordNotFoundException, AuthException {
+        return new ResponseEntity<>(mockedServerEngineService.redeployRest(GeneralUtils.extractOAuthToken(bearerToken)), HttpStatus.OK);
+    }
+
     @RequestMapping(path="/mockedserver/rest/status", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
     public @ResponseBody ResponseEntity<MockServerState> restStatus() throws MockServerException {
         return new ResponseEntity<>(mockedServerEngineService.getRestServerState(), HttpStatus.OK);
     }
 
+    //
+    // REST Server Instances
+    @RequestMapping(path="/mockedserver/rest/instance", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public @ResponseBody ResponseEntity<List<RestfulServerInstanceDTO>> getRestInstances() {
+        return new ResponseEntity<>(mockedServerEngineService.loadRestInstances(), HttpStatus.OK);
+    }
+
+    @RequestMapping(path="/mockedserver/rest/instance", method = RequestMethod.PUT, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public @ResponseBody ResponseEntity<String> putRestInstance(@RequestBody final RestfulServerInstanceDTO dto,
+                                                                @RequestHeader(value = GeneralUtils.OAUTH_HEADER_NAME, required = false) final String bearerToken)
+                                                                    throws RecordNotFoundException, AuthException, ValidationException {
+        mockedServerEngineService.saveRestInstance(dto, GeneralUtils.extractOAuthToken(bearerToken));
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @RequestMapping(path="/mockedserver/rest/instance/{name}", method = RequestMethod.DELETE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public @ResponseBody ResponseEntity<String> deleteRestInstance(@PathVariable("name") final String name,
+                                                                   @RequestHeader(value = GeneralUtils.OAUTH_HEADER_NAME, required = false) final String bearerToken)
+                                                                        throws MockServerException, RecordNotFoundException, AuthException {
+        mockedServerEngineService.deleteRestInstance(name, GeneralUtils.extractOAuthToken(bearerToken));
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @RequestMapping(path="/mockedserver/rest/instance/{name}/start", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public @ResponseBody ResponseEntity<?> startRestInstance(@PathVariable("name") final String name,
+                                                             @RequestHeader(value = GeneralUtils.OAUTH_HEADER_NAME, required = false) final String bearerToken)
+                                                                throws MockServerException, RecordNotFoundException, AuthException {
+        return new ResponseEntity<>(mockedServerEngineService.startRestInstance(name, GeneralUtils.extractOAuthToken(bearerToken)), HttpStatus.OK);
+    }
+
+    @RequestMapping(path="/mockedserver/rest/instance/{name}/stop", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public @ResponseBody ResponseEntity<?> stopRestInstance(@PathVariable("name") final String name,
+                                                            @RequestHeader(value = GeneralUtils.OAUTH_HEADER_NAME, required = false) final String bearerToken)
+                                                                throws MockServerException, RecordNotFoundException, AuthException {
+        mockedServerEngineService.shutdownRestInstance(name, GeneralUtils.extractOAuthToken(bearerToken));
+        return new ResponseEntity<String>(HttpStatus.NO_CONTENT);
+    }
+
+    @RequestMapping(path="/mockedserver/rest/instance/{name}/redeploy", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+    public @ResponseBody ResponseEntity<?> redeployRestInstance(@PathVariable("name") final String name,
+                                                                @RequestHeader(value = GeneralUtils.OAUTH_HEADER_NAME, required = false) final String bearerToken)
+                                                                    throws MockServerException, RecordNotFoundException, AuthException {
+        return new ResponseEntity<>(mockedServerEngineService.redeployRestInstance(name, GeneralUtils.extractOAuthToken(bearerToken)), HttpStatus.OK);
+    }
+
+    @RequestMapping(path="/mockedserver/rest/instance/{name}/status", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public @ResponseBody ResponseEntity<MockServerState> restInstanceStatus(@PathVariable("name") final String name) throws MockServerException {
+        return new ResponseEntity<>(mockedServerEngineService.getRestInstanceState(name), HttpStatus.OK);
+    }
+
     //
     // JMS Server
     @RequestMapping(path="/mockedserver/jms/start", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
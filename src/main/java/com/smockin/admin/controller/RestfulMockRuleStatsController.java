@@ -0,0 +1,41 @@
+package com.smockin.admin.controller;
+
+import com.smockin.admin.dto.response.RuleStatsResponseDTO;
+import com.smockin.admin.exception.RecordNotFoundException;
+import com.smockin.admin.exception.ValidationException;
+import com.smockin.admin.service.RestfulMockRuleStatsService;
+import com.smockin.utils.GeneralUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Created by mgallina.
+ */
+@Controller
+public class RestfulMockRuleStatsController {
+
+    @Autowired
+    private RestfulMockRuleStatsService restfulMockRuleStatsService;
+
+    @RequestMapping(path="/restmock/{extId}/rule/stats", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public @ResponseBody ResponseEntity<List<RuleStatsResponseDTO>> get(@PathVariable("extId") final String extId,
+                                                                        @RequestHeader(value = GeneralUtils.OAUTH_HEADER_NAME, required = false) final String bearerToken)
+                                                                            throws RecordNotFoundException, ValidationException {
+        return new ResponseEntity<>(restfulMockRuleStatsService.loadRuleStats(extId, GeneralUtils.extractOAuthToken(bearerToken)), HttpStatus.OK);
+    }
+
+    @RequestMapping(path="/restmock/{extId}/rule/stats", method = RequestMethod.DELETE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public @ResponseBody ResponseEntity<String> reset(@PathVariable("extId") final String extId,
+                                                      @RequestHeader(value = GeneralUtils.OAUTH_HEADER_NAME, required = false) final String bearerToken)
+                                                            throws RecordNotFoundException, ValidationException {
+        restfulMockRuleStatsService.resetRuleStats(extId, GeneralUtils.extractOAuthToken(bearerToken));
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+}
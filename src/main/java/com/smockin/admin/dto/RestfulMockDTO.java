@@ -23,6 +23,10 @@ public class RestfulMockDTO {
     private boolean randomiseDefinitions;
     private boolean proxyForwardWhenNoRuleMatch;
     private boolean proxyPriority;
+    private int maxConcurrentRequests;
+    private int maxQueuedRequests;
+    private int overloadStatusCode = 503;
+    private int overloadRetryAfterSeconds;
     private List<RestfulMockDefinitionDTO> definitions = new ArrayList<RestfulMockDefinitionDTO>();
     private List<RuleDTO> rules = new ArrayList<>();
 
@@ -121,6 +125,34 @@ public class RestfulMockDTO {
         this.proxyPriority = proxyPriority;
     }
 
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+    public void setMaxQueuedRequests(int maxQueuedRequests) {
+        this.maxQueuedRequests = maxQueuedRequests;
+    }
+
+    public int getOverloadStatusCode() {
+        return overloadStatusCode;
+    }
+    public void setOverloadStatusCode(int overloadStatusCode) {
+        this.overloadStatusCode = overloadStatusCode;
+    }
+
+    public int getOverloadRetryAfterSeconds() {
+        return overloadRetryAfterSeconds;
+    }
+    public void setOverloadRetryAfterSeconds(int overloadRetryAfterSeconds) {
+        this.overloadRetryAfterSeconds = overloadRetryAfterSeconds;
+    }
+
     public List<RestfulMockDefinitionDTO> getDefinitions() {
         return definitions;
     }
@@ -0,0 +1,90 @@
+package com.smockin.admin.dto;
+
+import com.smockin.admin.persistence.enums.RestfulServerBindingEnum;
+
+/**
+ * Created by mgallina.
+ */
+public class RestfulServerInstanceDTO {
+
+    private String name;
+    private Integer port;
+    private Integer maxThreads;
+    private Integer minThreads;
+    private Integer timeOutMillis;
+    private RestfulServerBindingEnum bindingType;
+    private String bindingValue;
+    private boolean autoStart;
+
+    public RestfulServerInstanceDTO() {
+
+    }
+
+    public RestfulServerInstanceDTO(String name, Integer port, Integer maxThreads, Integer minThreads, Integer timeOutMillis, RestfulServerBindingEnum bindingType, String bindingValue, boolean autoStart) {
+        this.name = name;
+        this.port = port;
+        this.maxThreads = maxThreads;
+        this.minThreads = minThreads;
+        this.timeOutMillis = timeOutMillis;
+        this.bindingType = bindingType;
+        this.bindingValue = bindingValue;
+        this.autoStart = autoStart;
+    }
+
+    public String getName() {
+        return name;
+    }
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getPort() {
+        return port;
+    }
+    public void setPort(Integer port) {
+        this.port = port;
+    }
+
+    public Integer getMaxThreads() {
+        return maxThreads;
+    }
+    public void setMaxThreads(Integer maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    public Integer getMinThreads() {
+        return minThreads;
+    }
+    public void setMinThreads(Integer minThreads) {
+        this.minThreads = minThreads;
+    }
+
+    public Integer getTimeOutMillis() {
+        return timeOutMillis;
+    }
+    public void setTimeOutMillis(Integer timeOutMillis) {
+        this.timeOutMillis = timeOutMillis;
+    }
+
+    public RestfulServerBindingEnum getBindingType() {
+        return bindingType;
+    }
+    public void setBindingType(RestfulServerBindingEnum bindingType) {
+        this.bindingType = bindingType;
+    }
+
+    public String getBindingValue() {
+        return bindingValue;
+    }
+    public void setBindingValue(String bindingValue) {
+        this.bindingValue = bindingValue;
+    }
+
+    public boolean isAutoStart() {
+        return autoStart;
+    }
+    public void setAutoStart(boolean autoStart) {
+        this.autoStart = autoStart;
+    }
+
+}
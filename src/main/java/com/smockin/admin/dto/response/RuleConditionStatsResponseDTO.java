@@ -0,0 +1,89 @@
+package com.smockin.admin.dto.response;
+
+import com.smockin.admin.persistence.enums.RuleComparatorEnum;
+import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+
+public class RuleConditionStatsResponseDTO {
+
+    private int groupNo;
+    private String field;
+    private RuleMatchingTypeEnum ruleMatchingType;
+    private RuleComparatorEnum comparator;
+    private String matchValue;
+    private long hits;
+    private long misses;
+    private long evaluationNanos;
+
+    public RuleConditionStatsResponseDTO() {
+
+    }
+
+    public RuleConditionStatsResponseDTO(final int groupNo, final String field, final RuleMatchingTypeEnum ruleMatchingType, final RuleComparatorEnum comparator, final String matchValue,
+                                         final long hits, final long misses, final long evaluationNanos) {
+        this.groupNo = groupNo;
+        this.field = field;
+        this.ruleMatchingType = ruleMatchingType;
+        this.comparator = comparator;
+        this.matchValue = matchValue;
+        this.hits = hits;
+        this.misses = misses;
+        this.evaluationNanos = evaluationNanos;
+    }
+
+    public int getGroupNo() {
+        return groupNo;
+    }
+    public void setGroupNo(int groupNo) {
+        this.groupNo = groupNo;
+    }
+
+    public String getField() {
+        return field;
+    }
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public RuleMatchingTypeEnum getRuleMatchingType() {
+        return ruleMatchingType;
+    }
+    public void setRuleMatchingType(RuleMatchingTypeEnum ruleMatchingType) {
+        this.ruleMatchingType = ruleMatchingType;
+    }
+
+    public RuleComparatorEnum getComparator() {
+        return comparator;
+    }
+    public void setComparator(RuleComparatorEnum comparator) {
+        this.comparator = comparator;
+    }
+
+    public String getMatchValue() {
+        return matchValue;
+    }
+    public void setMatchValue(String matchValue) {
+        this.matchValue = matchValue;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getEvaluationNanos() {
+        return evaluationNanos;
+    }
+    public void setEvaluationNanos(long evaluationNanos) {
+        this.evaluationNanos = evaluationNanos;
+    }
+
+}
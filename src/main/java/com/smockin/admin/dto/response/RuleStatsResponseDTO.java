@@ -0,0 +1,69 @@
+package com.smockin.admin.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RuleStatsResponseDTO {
+
+    private String extId;
+    private int orderNo;
+    private long hits;
+    private long misses;
+    private long evaluationNanos;
+    private List<RuleConditionStatsResponseDTO> conditions = new ArrayList<>();
+
+    public RuleStatsResponseDTO() {
+
+    }
+
+    public RuleStatsResponseDTO(final String extId, final int orderNo, final long hits, final long misses, final long evaluationNanos) {
+        this.extId = extId;
+        this.orderNo = orderNo;
+        this.hits = hits;
+        this.misses = misses;
+        this.evaluationNanos = evaluationNanos;
+    }
+
+    public String getExtId() {
+        return extId;
+    }
+    public void setExtId(String extId) {
+        this.extId = extId;
+    }
+
+    public int getOrderNo() {
+        return orderNo;
+    }
+    public void setOrderNo(int orderNo) {
+        this.orderNo = orderNo;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getEvaluationNanos() {
+        return evaluationNanos;
+    }
+    public void setEvaluationNanos(long evaluationNanos) {
+        this.evaluationNanos = evaluationNanos;
+    }
+
+    public List<RuleConditionStatsResponseDTO> getConditions() {
+        return conditions;
+    }
+    public void setConditions(List<RuleConditionStatsResponseDTO> conditions) {
+        this.conditions = conditions;
+    }
+
+}
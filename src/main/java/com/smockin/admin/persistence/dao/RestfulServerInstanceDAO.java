@@ -0,0 +1,13 @@
+package com.smockin.admin.persistence.dao;
+
+import com.smockin.admin.persistence.entity.RestfulServerInstance;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Created by mgallina.
+ */
+public interface RestfulServerInstanceDAO extends JpaRepository<RestfulServerInstance, Long> {
+
+    RestfulServerInstance findByName(final String name);
+
+}
@@ -0,0 +1,31 @@
+package com.smockin.admin.persistence.dao;
+
+import com.smockin.admin.persistence.entity.SequenceState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Created by mgallina.
+ */
+public interface SequenceStateDAO extends JpaRepository<SequenceState, Long> {
+
+    SequenceState findByExtId(final String extId);
+
+    // Moves the next position on in a single statement, so the row stays locked until the claim's transaction completes.
+    // A node still serving an older version of the mock claims from the newer sequence, rather than restarting it.
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SequenceState ss SET ss.nextPosition = ss.nextPosition + :blockSize WHERE ss.extId = :extId AND ss.mockVersion >= :mockVersion")
+    int claimBlock(@Param("extId") final String extId, @Param("mockVersion") final long mockVersion, @Param("blockSize") final long blockSize);
+
+    // Starts the sequence over, claiming the first block, where the mock has changed since the sequence was started.
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SequenceState ss SET ss.mockVersion = :mockVersion, ss.nextPosition = :blockSize WHERE ss.extId = :extId AND ss.mockVersion < :mockVersion")
+    int restartSequence(@Param("extId") final String extId, @Param("mockVersion") final long mockVersion, @Param("blockSize") final long blockSize);
+
+    @Modifying
+    @Query("DELETE FROM SequenceState ss WHERE ss.extId = :extId")
+    int deleteByExtId(@Param("extId") final String extId);
+
+}
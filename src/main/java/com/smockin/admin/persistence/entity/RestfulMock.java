@@ -78,6 +78,22 @@ public class RestfulMock extends Identifier {
     @Column(name = "PROXY_PRTY", nullable = false)
     private boolean proxyPriority;
 
+    @ColumnDefault("0")
+    @Column(name = "MAX_CONCURRENT_REQS", nullable = false)
+    private int maxConcurrentRequests;
+
+    @ColumnDefault("0")
+    @Column(name = "MAX_QUEUED_REQS", nullable = false)
+    private int maxQueuedRequests;
+
+    @ColumnDefault("503")
+    @Column(name = "OVERLOAD_STATUS_CODE", nullable = false)
+    private int overloadStatusCode = 503;
+
+    @ColumnDefault("0")
+    @Column(name = "OVERLOAD_RETRY_AFTER_SECS", nullable = false)
+    private int overloadRetryAfterSeconds;
+
     public RestfulMock() {
     }
 
@@ -207,4 +223,32 @@ public class RestfulMock extends Identifier {
         this.proxyPriority = proxyPriority;
     }
 
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+    public void setMaxQueuedRequests(int maxQueuedRequests) {
+        this.maxQueuedRequests = maxQueuedRequests;
+    }
+
+    public int getOverloadStatusCode() {
+        return overloadStatusCode;
+    }
+    public void setOverloadStatusCode(int overloadStatusCode) {
+        this.overloadStatusCode = overloadStatusCode;
+    }
+
+    public int getOverloadRetryAfterSeconds() {
+        return overloadRetryAfterSeconds;
+    }
+    public void setOverloadRetryAfterSeconds(int overloadRetryAfterSeconds) {
+        this.overloadRetryAfterSeconds = overloadRetryAfterSeconds;
+    }
+
 }
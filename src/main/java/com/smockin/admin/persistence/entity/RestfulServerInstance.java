@@ -0,0 +1,105 @@
+package com.smockin.admin.persistence.entity;
+
+import com.smockin.admin.persistence.enums.RestfulServerBindingEnum;
+
+import javax.persistence.*;
+
+/**
+ * Created by mgallina.
+ *
+ * A dedicated mock REST server, with it's own port and thread pool, serving only the mocks of a given user or category.
+ */
+@Entity
+@Table(name = "REST_SRV_INST")
+public class RestfulServerInstance extends Identifier {
+
+    @Column(name = "NAME", nullable = false, length = 50, unique = true)
+    private String name;
+
+    @Column(name = "PORT", nullable = false, unique = true)
+    private Integer port;
+
+    @Column(name = "MAX_THREADS", nullable = false)
+    private Integer maxThreads;
+
+    @Column(name = "MIN_THREADS", nullable = false)
+    private Integer minThreads;
+
+    @Column(name = "TIME_OUT_MILLIS", nullable = false)
+    private Integer timeOutMillis;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "BINDING_TYPE", nullable = false, length = 10)
+    private RestfulServerBindingEnum bindingType;
+
+    @Column(name = "BINDING_VALUE", nullable = false, length = 50)
+    private String bindingValue;
+
+    @Column(name = "AUTO_START", nullable = false)
+    private boolean autoStart;
+
+    public RestfulServerInstance() {
+
+    }
+
+    public RestfulServerInstance(final String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getPort() {
+        return port;
+    }
+    public void setPort(Integer port) {
+        this.port = port;
+    }
+
+    public Integer getMaxThreads() {
+        return maxThreads;
+    }
+    public void setMaxThreads(Integer maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    public Integer getMinThreads() {
+        return minThreads;
+    }
+    public void setMinThreads(Integer minThreads) {
+        this.minThreads = minThreads;
+    }
+
+    public Integer getTimeOutMillis() {
+        return timeOutMillis;
+    }
+    public void setTimeOutMillis(Integer timeOutMillis) {
+        this.timeOutMillis = timeOutMillis;
+    }
+
+    public RestfulServerBindingEnum getBindingType() {
+        return bindingType;
+    }
+    public void setBindingType(RestfulServerBindingEnum bindingType) {
+        this.bindingType = bindingType;
+    }
+
+    public String getBindingValue() {
+        return bindingValue;
+    }
+    public void setBindingValue(String bindingValue) {
+        this.bindingValue = bindingValue;
+    }
+
+    public boolean isAutoStart() {
+        return autoStart;
+    }
+    public void setAutoStart(boolean autoStart) {
+        this.autoStart = autoStart;
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.smockin.admin.persistence.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * Created by mgallina.
+ *
+ * The next unclaimed position in a SEQ mock's sequence, shared by every smockin node using the same database.
+ * Held under the mock's own ext id, along with the version of the mock the sequence was started for, so that
+ * the sequence only starts over once the mock itself has changed.
+ */
+@Entity
+@Table(name = "SEQ_STATE")
+public class SequenceState extends Identifier {
+
+    @Column(name = "MOCK_VERSION", nullable = false)
+    private long mockVersion;
+
+    @Column(name = "NEXT_POSITION", nullable = false)
+    private long nextPosition;
+
+    public SequenceState() {
+
+    }
+
+    public SequenceState(final String mockExtId, final long mockVersion, final long nextPosition) {
+        setExtId(mockExtId);
+        this.mockVersion = mockVersion;
+        this.nextPosition = nextPosition;
+    }
+
+    public long getMockVersion() {
+        return mockVersion;
+    }
+    public void setMockVersion(long mockVersion) {
+        this.mockVersion = mockVersion;
+    }
+
+    public long getNextPosition() {
+        return nextPosition;
+    }
+    public void setNextPosition(long nextPosition) {
+        this.nextPosition = nextPosition;
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.smockin.admin.persistence.enums;
+
+/**
+ * Created by mgallina.
+ *
+ * What a dedicated REST server instance serves the mocks of.
+ */
+public enum RestfulServerBindingEnum {
+    USER,      // bound by the owning user's ctxPath
+    CATEGORY;  // bound by category name
+}
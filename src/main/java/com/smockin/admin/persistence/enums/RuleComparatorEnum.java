@@ -6,5 +6,10 @@ package com.smockin.admin.persistence.enums;
 public enum RuleComparatorEnum {
     EQUALS,
     CONTAINS,
-    IS_MISSING;
+    IS_MISSING,
+    REGEX,
+    GREATER_THAN,
+    LESS_THAN,
+    BETWEEN,
+    IN_SET;
 }
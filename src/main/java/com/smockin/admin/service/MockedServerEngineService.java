@@ -1,5 +1,6 @@
 package com.smockin.admin.service;
 
+import com.smockin.admin.dto.RestfulServerInstanceDTO;
 import com.smockin.admin.exception.AuthException;
 import com.smockin.admin.exception.RecordNotFoundException;
 import com.smockin.admin.exception.ValidationException;
@@ -8,6 +9,8 @@ import com.smockin.mockserver.dto.MockServerState;
 import com.smockin.mockserver.dto.MockedServerConfigDTO;
 import com.smockin.mockserver.exception.MockServerException;
 
+import java.util.List;
+
 /**
  * Created by mgallina.
  */
@@ -17,6 +20,15 @@ public interface MockedServerEngineService {
     MockServerState getRestServerState() throws MockServerException;
     void shutdownRest(final String token) throws MockServerException, RecordNotFoundException, AuthException;
     MockedServerConfigDTO restartRest(final String token) throws MockServerException, RecordNotFoundException, AuthException;
+    MockedServerConfigDTO redeployRest(final String token) throws MockServerException, RecordNotFoundException, AuthException;
+
+    List<RestfulServerInstanceDTO> loadRestInstances();
+    void saveRestInstance(final RestfulServerInstanceDTO dto, final String token) throws RecordNotFoundException, AuthException, ValidationException;
+    void deleteRestInstance(final String name, final String token) throws MockServerException, RecordNotFoundException, AuthException;
+    MockedServerConfigDTO startRestInstance(final String name, final String token) throws MockServerException, RecordNotFoundException, AuthException;
+    MockServerState getRestInstanceState(final String name) throws MockServerException;
+    void shutdownRestInstance(final String name, final String token) throws MockServerException, RecordNotFoundException, AuthException;
+    MockedServerConfigDTO redeployRestInstance(final String name, final String token) throws MockServerException, RecordNotFoundException, AuthException;
 
     MockedServerConfigDTO startJms(final String token) throws MockServerException, RecordNotFoundException, AuthException;
     MockServerState getJmsServerState() throws MockServerException;
@@ -1,5 +1,6 @@
 package com.smockin.admin.service;
 
+import com.smockin.admin.dto.RestfulServerInstanceDTO;
 import com.smockin.admin.enums.UserModeEnum;
 import com.smockin.admin.exception.AuthException;
 import com.smockin.admin.exception.RecordNotFoundException;
@@ -7,10 +8,13 @@ import com.smockin.admin.exception.ValidationException;
 import com.smockin.admin.persistence.dao.FtpMockDAO;
 import com.smockin.admin.persistence.dao.JmsMockDAO;
 import com.smockin.admin.persistence.dao.RestfulMockDAO;
+import com.smockin.admin.persistence.dao.RestfulServerInstanceDAO;
 import com.smockin.admin.persistence.dao.ServerConfigDAO;
 import com.smockin.admin.persistence.entity.RestfulMock;
+import com.smockin.admin.persistence.entity.RestfulServerInstance;
 import com.smockin.admin.persistence.entity.ServerConfig;
 import com.smockin.admin.persistence.enums.RecordStatusEnum;
+import com.smockin.admin.persistence.enums.RestfulServerBindingEnum;
 import com.smockin.admin.persistence.enums.ServerTypeEnum;
 import com.smockin.admin.service.utils.UserTokenServiceUtils;
 import com.smockin.mockserver.dto.MockServerState;
@@ -18,15 +22,24 @@ import com.smockin.mockserver.dto.MockedServerConfigDTO;
 import com.smockin.mockserver.engine.MockedFtpServerEngine;
 import com.smockin.mockserver.engine.MockedJmsServerEngine;
 import com.smockin.mockserver.engine.MockedRestServerEngine;
+import com.smockin.mockserver.engine.jetty.ExecutorModeEnum;
 import com.smockin.mockserver.exception.MockServerException;
 import com.smockin.utils.GeneralUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Created by mgallina.
@@ -37,6 +50,13 @@ public class MockedServerEngineServiceImpl implements MockedServerEngineService
 
     private final Logger logger = LoggerFactory.getLogger(MockedServerEngineServiceImpl.class);
 
+    private static final List<String> CONNECTOR_NUMERIC_PARAMS = Arrays.asList(
+            GeneralUtils.CONNECTOR_ACCEPTORS_PARAM,
+            GeneralUtils.CONNECTOR_SELECTORS_PARAM,
+            GeneralUtils.CONNECTOR_ACCEPT_QUEUE_SIZE_PARAM,
+            GeneralUtils.CONNECTOR_IDLE_TIMEOUT_MILLIS_PARAM,
+            GeneralUtils.MAX_KEEP_ALIVE_REQUESTS_PARAM);
+
     @Autowired
     private MockedRestServerEngine mockedRestServerEngine;
 
@@ -58,6 +78,9 @@ public class MockedServerEngineServiceImpl implements MockedServerEngineService
     @Autowired
     private ServerConfigDAO serverConfigDAO;
 
+    @Autowired
+    private RestfulServerInstanceDAO restfulServerInstanceDAO;
+
     @Autowired
     private SmockinUserService smockinUserService;
 
@@ -83,12 +106,7 @@ public class MockedServerEngineServiceImpl implements MockedServerEngineService
 
             checkForUnresolvedProxyUserPathMatchConflicts(configDTO);
 
-            final List<RestfulMock> activeMocks =
-                    (UserModeEnum.INACTIVE.equals(smockinUserService.getUserMode()))
-                        ? restfulMockDefinitionDAO.findAllByStatusAndUser(RecordStatusEnum.ACTIVE, smockinUserService.loadDefaultUser().get().getId())
-                        : restfulMockDefinitionDAO.findAllByStatus(RecordStatusEnum.ACTIVE);
-
-            mockedRestServerEngine.start(configDTO, activeMocks);
+            mockedRestServerEngine.start(configDTO, loadActiveRestfulMocks(MockedRestServerEngine.DEFAULT_INSTANCE));
 
             return configDTO;
         } catch (IllegalArgumentException ex) {
@@ -116,6 +134,54 @@ public class MockedServerEngineServiceImpl implements MockedServerEngineService
         return startRest();
     }
 
+    @Override
+    public MockedServerConfigDTO redeployRest(final String token) throws MockServerException, RecordNotFoundException, AuthException {
+
+        smockinUserService.assertCurrentUserIsAdmin(userTokenServiceUtils.loadCurrentUser(token));
+
+        try {
+
+            final MockedServerConfigDTO configDTO = loadServerConfig(ServerTypeEnum.RESTFUL);
+
+            checkForUnresolvedProxyUserPathMatchConflicts(configDTO);
+
+            mockedRestServerEngine.redeploy(configDTO, loadActiveRestfulMocks(MockedRestServerEngine.DEFAULT_INSTANCE));
+
+            return configDTO;
+        } catch (RecordNotFoundException ex) {
+            logger.error("Redeploying REST Mocking Engine, due to missing mock server config", ex);
+            throw new MockServerException("Missing mock REST server config");
+        } catch (MockServerException ex) {
+            logger.error("Redeploying REST Mocking Engine", ex);
+            throw ex;
+        }
+
+    }
+
+    List<RestfulMock> loadActiveRestfulMocks() {
+
+        return (UserModeEnum.INACTIVE.equals(smockinUserService.getUserMode()))
+                ? restfulMockDefinitionDAO.findAllByStatusAndUser(RecordStatusEnum.ACTIVE, smockinUserService.loadDefaultUser().get().getId())
+                : restfulMockDefinitionDAO.findAllByStatus(RecordStatusEnum.ACTIVE);
+    }
+
+    // Mocks bound to a dedicated instance are only ever served by that instance, whether it is running or not.
+    List<RestfulMock> loadActiveRestfulMocks(final String instanceName) {
+
+        final List<RestfulServerInstance> instances = restfulServerInstanceDAO.findAll();
+
+        if (instances.isEmpty()) {
+            return (MockedRestServerEngine.DEFAULT_INSTANCE.equals(instanceName))
+                    ? loadActiveRestfulMocks()
+                    : new ArrayList<>();
+        }
+
+        return loadActiveRestfulMocks()
+                .stream()
+                .filter(m -> instanceName.equals(findBoundInstanceName(m, instances)))
+                .collect(Collectors.toList());
+    }
+
     @Override
     public MockServerState getRestServerState() throws MockServerException {
         return mockedRestServerEngine.getCurrentState();
@@ -140,6 +206,242 @@ public class MockedServerEngineServiceImpl implements MockedServerEngineService
 
     }
 
+    //
+    // Rest Instances
+    @Override
+    public List<RestfulServerInstanceDTO> loadRestInstances() {
+
+        return restfulServerInstanceDAO.findAll()
+                .stream()
+                .map(i -> new RestfulServerInstanceDTO(i.getName(), i.getPort(), i.getMaxThreads(), i.getMinThreads(), i.getTimeOutMillis(), i.getBindingType(), i.getBindingValue(), i.isAutoStart()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void saveRestInstance(final RestfulServerInstanceDTO dto, final String token) throws RecordNotFoundException, AuthException, ValidationException {
+
+        smockinUserService.assertCurrentUserIsAdmin(userTokenServiceUtils.loadCurrentUser(token));
+
+        validateRestInstance(dto);
+
+        RestfulServerInstance instance = restfulServerInstanceDAO.findByName(dto.getName());
+
+        if (instance == null) {
+            instance = new RestfulServerInstance(dto.getName());
+        }
+
+        instance.setPort(dto.getPort());
+        instance.setMaxThreads(dto.getMaxThreads());
+        instance.setMinThreads(dto.getMinThreads());
+        instance.setTimeOutMillis(dto.getTimeOutMillis());
+        instance.setBindingType(dto.getBindingType());
+        instance.setBindingValue(dto.getBindingValue());
+        instance.setAutoStart(dto.isAutoStart());
+
+        restfulServerInstanceDAO.saveAndFlush(instance);
+    }
+
+    @Override
+    public void deleteRestInstance(final String name, final String token) throws MockServerException, RecordNotFoundException, AuthException {
+
+        smockinUserService.assertCurrentUserIsAdmin(userTokenServiceUtils.loadCurrentUser(token));
+
+        final RestfulServerInstance instance = loadRestInstance(name);
+
+        // Any bound mocks are then served by the default instance, once this is next redeployed.
+        shutdownRestInstance(name);
+
+        restfulServerInstanceDAO.delete(instance);
+    }
+
+    @Override
+    public MockedServerConfigDTO startRestInstance(final String name, final String token) throws MockServerException, RecordNotFoundException, AuthException {
+
+        smockinUserService.assertCurrentUserIsAdmin(userTokenServiceUtils.loadCurrentUser(token));
+
+        return startRestInstance(loadRestInstance(name));
+    }
+
+    private MockedServerConfigDTO startRestInstance(final RestfulServerInstance instance) throws MockServerException {
+
+        try {
+
+            final MockedServerConfigDTO configDTO = buildInstanceConfig(instance, loadServerConfig(ServerTypeEnum.RESTFUL));
+
+            mockedRestServerEngine.startInstance(instance.getName(), configDTO, loadActiveRestfulMocks(instance.getName()));
+
+            return configDTO;
+        } catch (RecordNotFoundException ex) {
+            logger.error("Starting REST server instance " + instance.getName() + ", due to missing mock server config", ex);
+            throw new MockServerException("Missing mock REST server config");
+        } catch (MockServerException ex) {
+            logger.error("Starting REST server instance " + instance.getName(), ex);
+            throw ex;
+        }
+
+    }
+
+    @Override
+    public MockServerState getRestInstanceState(final String name) throws MockServerException {
+        return mockedRestServerEngine.getInstanceState(name);
+    }
+
+    @Override
+    public void shutdownRestInstance(final String name, final String token) throws MockServerException, RecordNotFoundException, AuthException {
+
+        smockinUserService.assertCurrentUserIsAdmin(userTokenServiceUtils.loadCurrentUser(token));
+
+        shutdownRestInstance(name);
+    }
+
+    private void shutdownRestInstance(final String name) throws MockServerException {
+
+        try {
+            mockedRestServerEngine.shutdownInstance(name);
+        } catch (MockServerException ex) {
+            logger.error("Stopping REST server instance " + name, ex);
+            throw ex;
+        }
+
+    }
+
+    @Override
+    public MockedServerConfigDTO redeployRestInstance(final String name, final String token) throws MockServerException, RecordNotFoundException, AuthException {
+
+        smockinUserService.assertCurrentUserIsAdmin(userTokenServiceUtils.loadCurrentUser(token));
+
+        final RestfulServerInstance instance = loadRestInstance(name);
+
+        try {
+
+            final MockedServerConfigDTO configDTO = buildInstanceConfig(instance, loadServerConfig(ServerTypeEnum.RESTFUL));
+
+            mockedRestServerEngine.redeployInstance(name, configDTO, loadActiveRestfulMocks(name));
+
+            return configDTO;
+        } catch (RecordNotFoundException ex) {
+            logger.error("Redeploying REST server instance " + name + ", due to missing mock server config", ex);
+            throw new MockServerException("Missing mock REST server config");
+        } catch (MockServerException ex) {
+            logger.error("Redeploying REST server instance " + name, ex);
+            throw ex;
+        }
+
+    }
+
+    RestfulServerInstance loadRestInstance(final String name) throws RecordNotFoundException {
+
+        final RestfulServerInstance instance = restfulServerInstanceDAO.findByName(name);
+
+        if (instance == null) {
+            throw new RecordNotFoundException();
+        }
+
+        return instance;
+    }
+
+    // Instances share the native properties of the main REST server config, other than the proxy server, which only ever runs alongside the default instance.
+    MockedServerConfigDTO buildInstanceConfig(final RestfulServerInstance instance, final MockedServerConfigDTO restConfig) {
+
+        final Map<String, String> nativeProperties = new HashMap<>(restConfig.getNativeProperties());
+        nativeProperties.remove(GeneralUtils.PROXY_SERVER_ENABLED_PARAM);
+
+        return new MockedServerConfigDTO(
+                ServerTypeEnum.RESTFUL,
+                instance.getPort(),
+                instance.getMaxThreads(),
+                instance.getMinThreads(),
+                instance.getTimeOutMillis(),
+                instance.isAutoStart(),
+                false,
+                nativeProperties
+        );
+    }
+
+    /**
+     *
+     * Determines which server instance the given mock is served by.
+     * A category binding is the more specific, so takes precedence over a user binding.
+     *
+     * @param mock
+     * @param instances
+     * @returns String (the instance name, or MockedRestServerEngine.DEFAULT_INSTANCE if unbound)
+     *
+     */
+    String findBoundInstanceName(final RestfulMock mock, final List<RestfulServerInstance> instances) {
+
+        final String categoryName = (mock.getCategory() != null) ? mock.getCategory().getName() : null;
+        final String ctxPath = mock.getCreatedBy().getCtxPath();
+
+        final Optional<RestfulServerInstance> categoryInstance = instances.stream()
+                .filter(i -> RestfulServerBindingEnum.CATEGORY.equals(i.getBindingType())
+                        && i.getBindingValue().equals(categoryName))
+                .findFirst();
+
+        if (categoryInstance.isPresent()) {
+            return categoryInstance.get().getName();
+        }
+
+        return instances.stream()
+                .filter(i -> RestfulServerBindingEnum.USER.equals(i.getBindingType())
+                        && i.getBindingValue().equals(ctxPath))
+                .map(RestfulServerInstance::getName)
+                .findFirst()
+                .orElse(MockedRestServerEngine.DEFAULT_INSTANCE);
+    }
+
+    void validateRestInstance(final RestfulServerInstanceDTO dto) throws ValidationException {
+
+        if (dto == null) {
+            throw new ValidationException("instance is required");
+        }
+        if (StringUtils.isBlank(dto.getName())) {
+            throw new ValidationException("'name' is required");
+        }
+        if (MockedRestServerEngine.DEFAULT_INSTANCE.equalsIgnoreCase(dto.getName())) {
+            throw new ValidationException("'" + MockedRestServerEngine.DEFAULT_INSTANCE + "' is a reserved instance name");
+        }
+        if (dto.getPort() == null) {
+            throw new ValidationException("'port' config value is required");
+        }
+        if (dto.getMaxThreads() == null) {
+            throw new ValidationException("'maxThreads' config value is required");
+        }
+        if (dto.getMinThreads() == null) {
+            throw new ValidationException("'minThreads' config value is required");
+        }
+        if (dto.getTimeOutMillis() == null) {
+            throw new ValidationException("'timeOutMillis' config value is required");
+        }
+        if (dto.getBindingType() == null) {
+            throw new ValidationException("'bindingType' is required");
+        }
+        if (StringUtils.isBlank(dto.getBindingValue())) {
+            throw new ValidationException("'bindingValue' is required");
+        }
+
+        final ServerConfig restConfig = serverConfigDAO.findByServerType(ServerTypeEnum.RESTFUL);
+
+        if (restConfig != null && dto.getPort().equals(restConfig.getPort())) {
+            throw new ValidationException("port " + dto.getPort() + " is already in use by the main REST server");
+        }
+
+        for (RestfulServerInstance existing : restfulServerInstanceDAO.findAll()) {
+
+            if (existing.getName().equals(dto.getName())) {
+                continue;
+            }
+            if (existing.getPort().equals(dto.getPort())) {
+                throw new ValidationException("port " + dto.getPort() + " is already in use by instance '" + existing.getName() + "'");
+            }
+            if (existing.getBindingType().equals(dto.getBindingType())
+                    && existing.getBindingValue().equals(dto.getBindingValue())) {
+                throw new ValidationException(dto.getBindingType() + " '" + dto.getBindingValue() + "' is already bound to instance '" + existing.getName() + "'");
+            }
+        }
+
+    }
+
 
     //
     // JMS
@@ -348,6 +650,16 @@ public class MockedServerEngineServiceImpl implements MockedServerEngineService
             }
         });
 
+        restfulServerInstanceDAO.findAll().stream().forEach(i -> {
+            if (i.isAutoStart()) {
+                try {
+                    startRestInstance(i);
+                } catch (MockServerException ex) {
+                    logger.error("Error auto starting REST server instance : " + i.getName(), ex);
+                }
+            }
+        });
+
     }
 
     void autoStartManager(final ServerTypeEnum serverType) throws MockServerException {
@@ -388,6 +700,45 @@ public class MockedServerEngineServiceImpl implements MockedServerEngineService
             throw new ValidationException("'timeOutMillis' config value is required");
         }
 
+        validateExecutorConfig(dto.getNativeProperties());
+        validateConnectorConfig(dto.getNativeProperties());
+    }
+
+    void validateConnectorConfig(final Map<String, String> nativeProperties) throws ValidationException {
+
+        if (nativeProperties == null) {
+            return;
+        }
+
+        for (String param : CONNECTOR_NUMERIC_PARAMS) {
+
+            final String value = nativeProperties.get(param);
+
+            if (value != null && !NumberUtils.isDigits(value)) {
+                throw new ValidationException("'" + param + "' must be a whole number");
+            }
+        }
+
+    }
+
+    void validateExecutorConfig(final Map<String, String> nativeProperties) throws ValidationException {
+
+        if (nativeProperties == null) {
+            return;
+        }
+
+        final String executorMode = nativeProperties.get(GeneralUtils.EXECUTOR_MODE_PARAM);
+
+        if (executorMode != null && ExecutorModeEnum.findByName(executorMode) == null) {
+            throw new ValidationException("'" + GeneralUtils.EXECUTOR_MODE_PARAM + "' must be one of " + Arrays.toString(ExecutorModeEnum.values()));
+        }
+
+        final String queueSize = nativeProperties.get(GeneralUtils.EXECUTOR_QUEUE_SIZE_PARAM);
+
+        if (queueSize != null && NumberUtils.toInt(queueSize) <= 0) {
+            throw new ValidationException("'" + GeneralUtils.EXECUTOR_QUEUE_SIZE_PARAM + "' must be a positive number");
+        }
+
     }
 
     void checkForUnresolvedProxyUserPathMatchConflicts(final MockedServerConfigDTO config) {
@@ -230,6 +230,8 @@ public class RamlApiImportServiceImpl implements ApiImportService {
                 restfulMockService.createEndpoint(dto, user.getSessionToken());
             } catch (RecordNotFoundException e) {
                 throw new ApiImportException("Unauthorized user access");
+            } catch (ValidationException e) {
+                throw new ApiImportException(e.getMessage());
             }
         });
 
@@ -0,0 +1,17 @@
+package com.smockin.admin.service;
+
+import com.smockin.admin.dto.response.RuleStatsResponseDTO;
+import com.smockin.admin.exception.RecordNotFoundException;
+import com.smockin.admin.exception.ValidationException;
+
+import java.util.List;
+
+/**
+ * Created by mgallina.
+ */
+public interface RestfulMockRuleStatsService {
+
+    List<RuleStatsResponseDTO> loadRuleStats(final String mockExtId, final String token) throws RecordNotFoundException, ValidationException;
+    void resetRuleStats(final String mockExtId, final String token) throws RecordNotFoundException, ValidationException;
+
+}
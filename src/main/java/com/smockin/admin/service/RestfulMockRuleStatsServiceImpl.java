@@ -0,0 +1,124 @@
+package com.smockin.admin.service;
+
+import com.smockin.admin.dto.response.RuleConditionStatsResponseDTO;
+import com.smockin.admin.dto.response.RuleStatsResponseDTO;
+import com.smockin.admin.exception.RecordNotFoundException;
+import com.smockin.admin.exception.ValidationException;
+import com.smockin.admin.persistence.dao.RestfulMockDAO;
+import com.smockin.admin.persistence.entity.RestfulMock;
+import com.smockin.admin.service.utils.UserTokenServiceUtils;
+import com.smockin.mockserver.engine.MockedRestServerEngine;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
+import com.smockin.mockserver.service.bean.CompiledRule;
+import com.smockin.mockserver.service.bean.CompiledRuleCondition;
+import com.smockin.mockserver.service.bean.CompiledRuleGroup;
+import com.smockin.mockserver.service.bean.RuleEvaluationStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Created by mgallina.
+ *
+ * Reports the hit counts and evaluation times gathered by the rule engine, for the rules of a deployed mock.
+ *
+ * These are held against the compiled rules currently serving requests, so start again from zero whenever
+ * the mock is changed (or the server restarted). Mocks which are not deployed have no stats.
+ */
+@Service
+@Transactional
+public class RestfulMockRuleStatsServiceImpl implements RestfulMockRuleStatsService {
+
+    private final Logger logger = LoggerFactory.getLogger(RestfulMockRuleStatsServiceImpl.class);
+
+    @Autowired
+    private RestfulMockDAO restfulMockDAO;
+
+    @Autowired
+    private UserTokenServiceUtils userTokenServiceUtils;
+
+    @Autowired
+    private MockedRestServerEngine mockedRestServerEngine;
+
+    @Override
+    public List<RuleStatsResponseDTO> loadRuleStats(final String mockExtId, final String token) throws RecordNotFoundException, ValidationException {
+        logger.debug("loadRuleStats called");
+
+        final CompiledRestfulMock compiledMock = findDeployedMock(mockExtId, token);
+
+        if (compiledMock == null) {
+            return Collections.emptyList();
+        }
+
+        return compiledMock.getRules()
+                .stream()
+                .map(this::buildRuleStats)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void resetRuleStats(final String mockExtId, final String token) throws RecordNotFoundException, ValidationException {
+        logger.debug("resetRuleStats called");
+
+        final CompiledRestfulMock compiledMock = findDeployedMock(mockExtId, token);
+
+        if (compiledMock == null) {
+            return;
+        }
+
+        compiledMock.getRules().stream().forEach(r -> {
+            r.getStats().reset();
+            r.getConditionGroups()
+                    .stream()
+                    .flatMap(g -> g.getConditions().stream())
+                    .forEach(c -> c.getStats().reset());
+        });
+
+    }
+
+    CompiledRestfulMock findDeployedMock(final String mockExtId, final String token) throws RecordNotFoundException, ValidationException {
+
+        final RestfulMock mock = restfulMockDAO.findByExtId(mockExtId);
+
+        if (mock == null)
+            throw new RecordNotFoundException();
+
+        userTokenServiceUtils.validateRecordOwner(mock.getCreatedBy(), token);
+
+        return mockedRestServerEngine.findDeployedMock(mock.getId());
+    }
+
+    // Conditions are listed in the order the rule engine checks them, which is cheapest first rather than as defined.
+    RuleStatsResponseDTO buildRuleStats(final CompiledRule rule) {
+
+        final RuleEvaluationStats ruleStats = rule.getStats();
+        final RuleStatsResponseDTO dto = new RuleStatsResponseDTO(rule.getExtId(), rule.getOrderNo(),
+                ruleStats.getHits(), ruleStats.getMisses(), ruleStats.getEvaluationNanos());
+
+        int groupNo = 0;
+
+        for (CompiledRuleGroup group : rule.getConditionGroups()) {
+
+            groupNo++;
+
+            for (CompiledRuleCondition condition : group.getConditions()) {
+
+                final RuleEvaluationStats conditionStats = condition.getStats();
+
+                dto.getConditions().add(new RuleConditionStatsResponseDTO(groupNo, condition.getField(), condition.getRuleMatchingType(),
+                        condition.getComparator(), condition.getMatchValue(),
+                        conditionStats.getHits(), conditionStats.getMisses(), conditionStats.getEvaluationNanos()));
+            }
+
+        }
+
+        return dto;
+    }
+
+}
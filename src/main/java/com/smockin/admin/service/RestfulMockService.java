@@ -15,7 +15,7 @@ import java.util.List;
  */
 public interface RestfulMockService {
 
-    String createEndpoint(final RestfulMockDTO dto, final String token) throws RecordNotFoundException;
+    String createEndpoint(final RestfulMockDTO dto, final String token) throws RecordNotFoundException, ValidationException;
     void updateEndpoint(final String mockExtId, final RestfulMockDTO dto, final String token) throws RecordNotFoundException, ValidationException;
     void deleteEndpoint(final String mockExtId, final String token) throws RecordNotFoundException, ValidationException;
     List<RestfulMockResponseDTO> loadAll(final String searchFilter, final String token) throws RecordNotFoundException;
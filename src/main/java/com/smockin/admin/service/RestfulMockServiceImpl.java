@@ -2,6 +2,9 @@ package com.smockin.admin.service;
 
 import com.smockin.admin.dto.ProxyRestDuplicatePriorityDTO;
 import com.smockin.admin.dto.RestfulMockDTO;
+import com.smockin.admin.dto.RuleConditionDTO;
+import com.smockin.admin.dto.RuleDTO;
+import com.smockin.admin.dto.RuleGroupDTO;
 import com.smockin.admin.dto.response.ProxyRestDuplicateDTO;
 import com.smockin.admin.dto.response.RestfulMockResponseDTO;
 import com.smockin.admin.enums.SearchFilterEnum;
@@ -10,14 +13,17 @@ import com.smockin.admin.exception.RecordNotFoundException;
 import com.smockin.admin.exception.ValidationException;
 import com.smockin.admin.persistence.dao.RestfulMockDAO;
 import com.smockin.admin.persistence.dao.RestfulMockDefinitionRuleDAO;
+import com.smockin.admin.persistence.dao.SequenceStateDAO;
 import com.smockin.admin.persistence.entity.RestfulMock;
 import com.smockin.admin.persistence.entity.SmockinUser;
+import com.smockin.admin.persistence.enums.RuleComparatorEnum;
 import com.smockin.admin.service.utils.RestfulMockServiceUtils;
 import com.smockin.admin.service.utils.UserTokenServiceUtils;
 import com.smockin.utils.GeneralUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -48,10 +54,16 @@ public class RestfulMockServiceImpl implements RestfulMockService {
     @Autowired
     private SmockinUserService smockinUserService;
 
+    @Autowired
+    private SequenceStateDAO sequenceStateDAO;
+
     @Override
-    public String createEndpoint(final RestfulMockDTO dto, final String token) throws RecordNotFoundException {
+    public String createEndpoint(final RestfulMockDTO dto, final String token) throws RecordNotFoundException, ValidationException {
         logger.debug("createEndpoint called");
 
+        validateOverloadSettings(dto);
+        validateRuleConditions(dto);
+
         restfulMockServiceUtils.amendPath(dto);
 
         final SmockinUser smockinUser = userTokenServiceUtils.loadCurrentUser(token);
@@ -68,6 +80,11 @@ public class RestfulMockServiceImpl implements RestfulMockService {
                 dto.isProxyForwardWhenNoRuleMatch(),
                 smockinUser);
 
+        mock.setMaxConcurrentRequests(dto.getMaxConcurrentRequests());
+        mock.setMaxQueuedRequests(dto.getMaxQueuedRequests());
+        mock.setOverloadStatusCode(dto.getOverloadStatusCode());
+        mock.setOverloadRetryAfterSeconds(dto.getOverloadRetryAfterSeconds());
+
         restfulMockServiceUtils.populateEndpointDefinitionsAndRules(dto, mock);
 
         // Reassign entity variable, as spring data does not enrich the passed in entity instance with any generated ids.
@@ -82,6 +99,9 @@ public class RestfulMockServiceImpl implements RestfulMockService {
     public void updateEndpoint(final String mockExtId, final RestfulMockDTO dto, final String token) throws RecordNotFoundException, ValidationException {
         logger.debug("updateEndpoint called");
 
+        validateOverloadSettings(dto);
+        validateRuleConditions(dto);
+
         restfulMockServiceUtils.amendPath(dto);
 
         final RestfulMock mock = loadRestMock(mockExtId);
@@ -104,6 +124,10 @@ public class RestfulMockServiceImpl implements RestfulMockService {
         mock.setProxyPushIdOnConnect(dto.isProxyPushIdOnConnect());
         mock.setRandomiseDefinitions(dto.isRandomiseDefinitions());
         mock.setProxyForwardWhenNoRuleMatch(dto.isProxyForwardWhenNoRuleMatch());
+        mock.setMaxConcurrentRequests(dto.getMaxConcurrentRequests());
+        mock.setMaxQueuedRequests(dto.getMaxQueuedRequests());
+        mock.setOverloadStatusCode(dto.getOverloadStatusCode());
+        mock.setOverloadRetryAfterSeconds(dto.getOverloadRetryAfterSeconds());
         mock.setLastUpdated(GeneralUtils.getCurrentDate()); // force update to lastUpdated, as changes to child records do not otherwise change this
 
         restfulMockServiceUtils.populateEndpointDefinitionsAndRules(dto, mock);
@@ -125,6 +149,9 @@ public class RestfulMockServiceImpl implements RestfulMockService {
         userTokenServiceUtils.validateRecordOwner(mock.getCreatedBy(), token);
 
         restfulMockDAO.delete(mock);
+
+        // Mock server nodes never remove shared sequence state themselves, as other nodes may still be using it.
+        sequenceStateDAO.deleteByExtId(mockExtId);
     }
 
     @Override
@@ -171,6 +198,42 @@ public class RestfulMockServiceImpl implements RestfulMockService {
 
     }
 
+    void validateOverloadSettings(final RestfulMockDTO dto) throws ValidationException {
+
+        if (dto.getMaxConcurrentRequests() < 0) {
+            throw new ValidationException("'maxConcurrentRequests' cannot be negative");
+        }
+        if (dto.getMaxQueuedRequests() < 0) {
+            throw new ValidationException("'maxQueuedRequests' cannot be negative");
+        }
+        if (dto.getOverloadStatusCode() != HttpStatus.TOO_MANY_REQUESTS.value()
+                && dto.getOverloadStatusCode() != HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            throw new ValidationException("'overloadStatusCode' must be either " + HttpStatus.TOO_MANY_REQUESTS.value() + " or " + HttpStatus.SERVICE_UNAVAILABLE.value());
+        }
+        if (dto.getOverloadRetryAfterSeconds() < 0) {
+            throw new ValidationException("'overloadRetryAfterSeconds' cannot be negative");
+        }
+
+    }
+
+    // An invalid pattern would otherwise only surface once deployed, as a condition which is never met.
+    void validateRuleConditions(final RestfulMockDTO dto) throws ValidationException {
+
+        for (RuleDTO rule : dto.getRules()) {
+            for (RuleGroupDTO group : rule.getGroups()) {
+                for (RuleConditionDTO condition : group.getConditions()) {
+
+                    if (RuleComparatorEnum.REGEX.equals(condition.getComparator())
+                            && !GeneralUtils.isValidRegex(condition.getValue())) {
+                        throw new ValidationException("Rule " + rule.getOrderNo() + " has an invalid regex on field '" + condition.getField() + "': " + condition.getValue());
+                    }
+
+                }
+            }
+        }
+
+    }
+
     RestfulMock loadRestMock(final String mockExtId) throws RecordNotFoundException {
         logger.debug("loadRestMock called");
 
@@ -38,6 +38,11 @@ public class RestfulMockServiceUtils {
 
             final RestfulMockResponseDTO dto = new RestfulMockResponseDTO(rmd.getExtId(), rmd.getPath(), rmd.getCreatedBy().getCtxPath(), mockedRestServerEngine.getDeploymentStatus(rmd, rmd.getStatus()), rmd.getMethod(), rmd.getStatus(), rmd.getMockType(), rmd.getDateCreated(), rmd.getCreatedBy().getUsername(), rmd.getProxyTimeOutInMillis(), rmd.getWebSocketTimeoutInMillis(), rmd.getSseHeartBeatInMillis(), rmd.isProxyPushIdOnConnect(), rmd.isRandomiseDefinitions(), rmd.isProxyForwardWhenNoRuleMatch(), rmd.isProxyPriority());
 
+            dto.setMaxConcurrentRequests(rmd.getMaxConcurrentRequests());
+            dto.setMaxQueuedRequests(rmd.getMaxQueuedRequests());
+            dto.setOverloadStatusCode(rmd.getOverloadStatusCode());
+            dto.setOverloadRetryAfterSeconds(rmd.getOverloadRetryAfterSeconds());
+
             // Definitions
             for (RestfulMockDefinitionOrder order : rmd.getDefinitions()) {
                 final RestfulMockDefinitionDTO restfulMockDefinitionDTO = new RestfulMockDefinitionDTO(order.getExtId(), order.getOrderNo(), order.getHttpStatusCode(), order.getResponseContentType(), order.getResponseBody(), order.getSleepInMillis(), order.isSuspend(), order.getFrequencyCount(), order.getFrequencyPercentage());
@@ -2,8 +2,6 @@ package com.smockin.mockserver.engine;
 
 import com.smockin.admin.persistence.dao.RestfulMockDAO;
 import com.smockin.admin.persistence.entity.RestfulMock;
-import com.smockin.admin.persistence.entity.RestfulMockDefinitionOrder;
-import com.smockin.admin.persistence.entity.RestfulMockDefinitionRule;
 import com.smockin.admin.persistence.enums.RestMethodEnum;
 import com.smockin.admin.persistence.enums.RestMockTypeEnum;
 import com.smockin.admin.persistence.enums.SmockinUserRoleEnum;
@@ -11,28 +9,53 @@ import com.smockin.admin.websocket.LiveLoggingHandler;
 import com.smockin.mockserver.dto.MockServerState;
 import com.smockin.mockserver.dto.MockedServerConfigDTO;
 import com.smockin.mockserver.dto.ProxyActiveMock;
+import com.smockin.mockserver.engine.jetty.DelayedResponseHandler;
+import com.smockin.mockserver.engine.jetty.ExecutorModeEnum;
+import com.smockin.mockserver.engine.jetty.JettyConnectorConfig;
+import com.smockin.mockserver.engine.jetty.MockedJettyServerFactory;
+import com.smockin.mockserver.engine.route.MockRouteMatch;
+import com.smockin.mockserver.engine.route.MockRouteTrie;
+import com.smockin.mockserver.engine.route.MockRoutingSnapshot;
 import com.smockin.mockserver.exception.MockServerException;
 import com.smockin.mockserver.proxy.ProxyServer;
 import com.smockin.mockserver.service.*;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
+import com.smockin.mockserver.service.bean.EncodedBody;
+import com.smockin.mockserver.service.bean.MockBulkhead;
 import com.smockin.mockserver.service.dto.RestfulResponseDTO;
 import com.smockin.mockserver.service.ws.SparkWebSocketEchoService;
+import com.smockin.utils.CompressionUtils;
 import com.smockin.utils.GeneralUtils;
 import com.smockin.utils.LiveLoggingUtils;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import spark.Request;
 import spark.Response;
-import spark.Spark;
+import spark.Service;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
 
 /**
  * Created by mgallina.
@@ -70,107 +93,367 @@ public class MockedRestServerEngine implements MockServerEngine<MockedServerConf
     @Autowired
     private LiveLoggingHandler liveLoggingHandler;
 
+    @Autowired
+    private RestfulMockCompiler restfulMockCompiler;
+
+
+    private static final RestfulResponseDTO PROXY_NOT_FOUND_RESPONSE = new RestfulResponseDTO(HttpStatus.NOT_FOUND.value());
+    private static final RestfulResponseDTO PROXY_FORWARD_RESPONSE = new RestfulResponseDTO(HttpStatus.TEMPORARY_REDIRECT.value());
+    static final String PRE_ENCODED_BODY_ATTRIBUTE = "PRE_ENCODED_BODY";
+    private static final String DEFAULT_CONTENT_TYPE = "text/html; charset=utf-8";
+
+    // Templated bodies (by their literal length) at or above this are streamed to the client as rendered, rather than built up in full.
+    static final int STREAMED_TEMPLATE_MIN_LENGTH = 256 * 1024;
+
+    // Holds the mocks not bound to a dedicated instance, along with the proxy server (when enabled).
+    public static final String DEFAULT_INSTANCE = "default";
+    private static final String EMBEDDED_SERVER_PREFIX = "smockin-rest-";
 
     private final Object monitor = new Object();
-    private MockServerState serverState = new MockServerState(false, 0);
-    private Map<Long, Date> deployedMocks;
+    private final Map<String, MockedRestServerInstance> instances = new HashMap<>();
+
+    // Serialises the start, stop and (re)deployment of each instance, so a redeploy never builds on a snapshot
+    // which another has since replaced, nor swaps into an instance which has since been stopped.
+    private final ConcurrentMap<String, Object> instanceLocks = new ConcurrentHashMap<>();
+
+    // The mocks the proxy server was last started with (guarded by the default instance's lock).
+    private Set<String> proxyFingerprint;
 
     @Override
     public void start(final MockedServerConfigDTO config, final List<RestfulMock> mocks) throws MockServerException {
         logger.debug("start called");
 
-        initServerConfig(config);
+        synchronized (lockFor(DEFAULT_INSTANCE)) {
+
+            final List<CompiledRestfulMock> compiledMocks = igniteInstance(DEFAULT_INSTANCE, config, mocks);
+
+            initProxyServer(findActiveRestfulMocks(compiledMocks), config);
+        }
+
+    }
+
+    /**
+     *
+     * Starts a dedicated server instance, on it's own port and thread pool, serving only the given mocks.
+     *
+     * Each instance is isolated from all others, so slow or heavily used mocks on one cannot starve the request threads of another.
+     *
+     */
+    public void startInstance(final String name, final MockedServerConfigDTO config, final List<RestfulMock> mocks) throws MockServerException {
+        logger.debug("startInstance called");
+
+        synchronized (lockFor(name)) {
+            igniteInstance(name, config, mocks);
+        }
+
+    }
+
+    Object lockFor(final String name) {
+        return instanceLocks.computeIfAbsent(name, n -> new Object());
+    }
+
+    List<CompiledRestfulMock> igniteInstance(final String name, final MockedServerConfigDTO config, final List<RestfulMock> mocks) throws MockServerException {
+
+        synchronized (monitor) {
+            if (instances.containsKey(name)) {
+                throw new MockServerException("REST server instance '" + name + "' is already running");
+            }
+        }
+
+        final Service http = Service.ignite();
+        final MockedRestServerInstance instance = new MockedRestServerInstance(name, http, config, buildWebSocketFingerprint(mocks));
+
+        initServerConfig(instance);
 
         final boolean logMockCalls =
                 Boolean.valueOf(config.getNativeProperties().getOrDefault(GeneralUtils.LOG_MOCK_CALLS_PARAM, Boolean.FALSE.toString()));
 
-        // Invoke all lazily loaded data and detach entity.
-        invokeAndDetachData(mocks);
+        try {
 
-        // Define all web socket routes first as the Spark framework requires this
-        buildWebSocketEndpoints(mocks, logMockCalls);
+            // Invoke all lazily loaded data and detach entity.
+            invokeAndDetachData(mocks);
+
+            // Define all web socket routes first as the Spark framework requires this
+            buildWebSocketEndpoints(http, mocks, logMockCalls);
 
-        // Handle Cross-Origin Resource Sharing (CORS) support
-        handleCORS(config);
+            // Handle Cross-Origin Resource Sharing (CORS) support
+            handleCORS(http, config);
 
-        // Next handle all HTTP RESTFul web service routes
-        final List<RestfulMock> activeRestfulMocks = buildRESTEndpoints(mocks);
+            // Next handle all HTTP RESTFul and SSE web service routes
+            final List<CompiledRestfulMock> compiledMocks = compileMocks(mocks);
 
-        setDeployedMocks(mocks);
+            instance.setRoutingSnapshot(buildRoutingSnapshot(compiledMocks, buildDeployedMocks(mocks)));
 
-        // Next handle all HTTP SSE web service routes
-        buildSSEEndpoints(mocks, logMockCalls);
+            applyTrafficLogging(http, logMockCalls);
 
-        applyTrafficLogging(logMockCalls);
+            applyRouteDispatcher(instance, logMockCalls);
 
-        applyDefaultRoutes404Hack();
+            clearState(name, compiledMocks);
 
-        initServer(config.getPort());
+            initServer(instance);
 
-        initProxyServer(activeRestfulMocks, config);
+            synchronized (monitor) {
+                instances.put(name, instance);
+            }
+
+            return compiledMocks;
+
+        } catch (RuntimeException ex) {
+
+            // Spark starts the server as soon as the first route is mapped, so this needs stopping, whatever point was reached.
+            http.stop();
+
+            throw ex;
+        }
 
     }
 
+    /**
+     *
+     * Deploys the given mocks without stopping the server.
+     *
+     * A new routing snapshot is built alongside the one currently serving requests and then swapped in atomically,
+     * so the listening socket stays open and in-flight requests complete against the snapshot they started with.
+     * Only mocks whose lastUpdated date (or user path) differs from the deployed version are reloaded,
+     * all other mocks are carried over from the current snapshot as is.
+     *
+     * Spark cannot add or remove web socket routes, nor change it's port or thread pool once running,
+     * so changes to any of these fall back to a full restart.
+     *
+     */
+    public void redeploy(final MockedServerConfigDTO config, final List<RestfulMock> mocks) throws MockServerException {
+        logger.debug("redeploy called");
+
+        synchronized (lockFor(DEFAULT_INSTANCE)) {
+
+            final MockedRestServerInstance instance = findInstance(DEFAULT_INSTANCE);
+
+            if (instance == null) {
+                start(config, mocks);
+                return;
+            }
+
+            if (isRestartRequired(DEFAULT_INSTANCE, config, mocks)) {
+                logger.info("Mock server config or web socket endpoints have changed, performing a full restart");
+                shutdown();
+                start(config, mocks);
+                return;
+            }
+
+            final List<CompiledRestfulMock> deployableMocks = swapRoutingSnapshot(instance, mocks);
+
+            redeployProxyServer(findActiveRestfulMocks(deployableMocks), config);
+        }
+
+    }
+
+    // As per redeploy, but for a dedicated server instance.
+    public void redeployInstance(final String name, final MockedServerConfigDTO config, final List<RestfulMock> mocks) throws MockServerException {
+        logger.debug("redeployInstance called");
+
+        synchronized (lockFor(name)) {
+
+            final MockedRestServerInstance instance = findInstance(name);
+
+            if (instance == null) {
+                startInstance(name, config, mocks);
+                return;
+            }
+
+            if (isRestartRequired(name, config, mocks)) {
+                logger.info("Config or web socket endpoints of REST server instance '" + name + "' have changed, performing a full restart");
+                shutdownInstance(name);
+                startInstance(name, config, mocks);
+                return;
+            }
+
+            swapRoutingSnapshot(instance, mocks);
+        }
+
+    }
+
+    List<CompiledRestfulMock> swapRoutingSnapshot(final MockedRestServerInstance instance, final List<RestfulMock> mocks) {
+
+        final MockRoutingSnapshot<CompiledRestfulMock> current = instance.getRoutingSnapshot();
+
+        final Map<Long, CompiledRestfulMock> unchangedMocks = new HashMap<>();
+        final List<RestfulMock> changedMocks = new ArrayList<>();
+        final Set<String> staleExtIds = new HashSet<>();
+        final Set<Long> mockIds = new HashSet<>();
+
+        mocks.stream().forEach(m -> {
+
+            mockIds.add(m.getId());
+
+            final CompiledRestfulMock deployed = current.getMocks().get(m.getId());
+
+            if (deployed != null
+                    && Objects.equals(current.getDeployedMocks().get(m.getId()), m.getLastUpdated())
+                    && deployed.getUserPath().equals(buildUserPath(m))) {
+                unchangedMocks.put(m.getId(), deployed);
+                return;
+            }
+
+            if (deployed != null) {
+                staleExtIds.add(deployed.getExtId());
+            }
+
+            changedMocks.add(m);
+        });
+
+        current.getMocks()
+                .values()
+                .stream()
+                .filter(d -> !mockIds.contains(d.getId()))
+                .forEach(d -> staleExtIds.add(d.getExtId()));
+
+        // Invoke all lazily loaded data and detach entity, for the changed mocks only.
+        invokeAndDetachData(changedMocks);
+
+        // Mocks must remain in initializationOrder, so unchanged mocks are slotted back in amongst the recompiled ones.
+        final List<CompiledRestfulMock> deployableMocks = mocks.stream()
+                .map(m -> unchangedMocks.containsKey(m.getId()) ? unchangedMocks.get(m.getId()) : compileMock(m))
+                .collect(Collectors.toList());
+
+        instance.setRoutingSnapshot(buildRoutingSnapshot(deployableMocks, buildDeployedMocks(mocks)));
+
+        // Sequence counters are only reset for mocks which have changed or been removed.
+        staleExtIds.stream().forEach(mockOrderingCounterService::clearState);
+
+        if (logger.isDebugEnabled())
+            logger.debug("Redeployed " + deployableMocks.size() + " mocks to REST server instance '" + instance.getName() + "', of which " + changedMocks.size() + " were reloaded");
+
+        return deployableMocks;
+    }
+
+    // Covers the mocks deployed across all running instances.
     @Override
     public Map<Long, Date> loadDeployedMocks() {
-        return Collections.unmodifiableMap(deployedMocks);
+
+        synchronized (monitor) {
+
+            if (instances.size() == 1) {
+                return instances.values().iterator().next().getRoutingSnapshot().getDeployedMocks();
+            }
+
+            final Map<Long, Date> deployedMocks = new HashMap<>();
+
+            instances.values().stream().forEach(i ->
+                deployedMocks.putAll(i.getRoutingSnapshot().getDeployedMocks())
+            );
+
+            return deployedMocks;
+        }
+
+    }
+
+    // The compiled form of the given mock, as currently serving requests on whichever instance it is deployed to (or null if not deployed).
+    public CompiledRestfulMock findDeployedMock(final long mockId) {
+
+        synchronized (monitor) {
+
+            return instances.values()
+                    .stream()
+                    .map(i -> i.getRoutingSnapshot().getMocks().get(mockId))
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .orElse(null);
+        }
+
     }
 
     @Override
     public MockServerState getCurrentState() throws MockServerException {
+        return getInstanceState(DEFAULT_INSTANCE);
+    }
+
+    public MockServerState getInstanceState(final String name) {
+
+        final MockedRestServerInstance instance = findInstance(name);
+
+        return (instance != null)
+                ? new MockServerState(true, instance.getConfig().getPort())
+                : new MockServerState(false, 0);
+    }
+
+    MockedRestServerInstance findInstance(final String name) {
         synchronized (monitor) {
-            return serverState;
+            return instances.get(name);
         }
     }
 
     @Override
     public void shutdown() throws MockServerException {
 
-        try {
+        synchronized (lockFor(DEFAULT_INSTANCE)) {
 
-            serverSideEventService.interruptAndClearAllHeartBeatThreads();
+            try {
 
-            Spark.stop();
+                stopInstance(DEFAULT_INSTANCE);
 
-            // Having dug around the source code, 'Spark.stop()' runs off a different thread when stopping the server and removing it's state such as routes, etc.
-            // This means that calling 'Spark.port()' immediately after stop, results in an IllegalStateException, as the
-            // 'initialized' flag is checked in the current thread and is still marked as true.
-            // (The error thrown: java.lang.IllegalStateException: This must be done before route mapping has begun)
-            // Short of editing the Spark source to fix this, I have therefore had to add this hack to buy the 'stop' thread time to complete.
-            Thread.sleep(3000);
+                proxyServer.shutdown();
+                proxyFingerprint = null;
 
-            synchronized (monitor) {
-                serverState.setRunning(false);
+            } catch (MockServerException ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new MockServerException(ex);
             }
 
-            clearState();
+        }
+
+    }
+
+    public void shutdownInstance(final String name) throws MockServerException {
+        logger.debug("shutdownInstance called");
+
+        synchronized (lockFor(name)) {
+            stopInstance(name);
+        }
+
+    }
+
+    void stopInstance(final String name) throws MockServerException {
 
-            proxyServer.shutdown();
+        final MockedRestServerInstance instance;
+
+        synchronized (monitor) {
+            instance = instances.remove(name);
+        }
+
+        if (instance == null) {
+            return;
+        }
+
+        final Collection<CompiledRestfulMock> mocks = instance.getRoutingSnapshot().getMocks().values();
+
+        try {
+
+            // SSE connections block their request thread, so are released before the server is stopped.
+            serverSideEventService.clearState(findUserPaths(mocks, RestMockTypeEnum.PROXY_SSE));
+
+            instance.getHttp().stop();
+
+            // Spark stops the server off a different thread, so wait for the port to be released, in case of an immediate restart.
+            instance.getHttp().awaitStop();
 
         } catch (Throwable ex) {
             throw new MockServerException(ex);
         } finally {
-            clearDeployedMocks();
+            clearState(name, mocks);
         }
 
     }
 
-    void initServer(final int port) throws MockServerException {
+    void initServer(final MockedRestServerInstance instance) throws MockServerException {
         logger.debug("initServer called");
 
         try {
 
-            clearState();
-
-            Spark.init();
+            instance.getHttp().init();
 
             // Blocks the current thread (using a CountDownLatch under the hood) until the server is fully initialised.
-            Spark.awaitInitialization();
-
-            synchronized (monitor) {
-                serverState.setRunning(true);
-                serverState.setPort(port);
-            }
+            instance.getHttp().awaitInitialization();
 
         } catch (Throwable ex) {
             throw new MockServerException(ex);
@@ -178,31 +461,127 @@ public class MockedRestServerEngine implements MockServerEngine<MockedServerConf
 
     }
 
-    void initServerConfig(final MockedServerConfigDTO config) {
+    void initServerConfig(final MockedRestServerInstance instance) {
         logger.debug("initServerConfig called");
 
+        final String name = instance.getName();
+        final Service http = instance.getHttp();
+        final MockedServerConfigDTO config = instance.getConfig();
+
         if (logger.isDebugEnabled())
             logger.debug(config.toString());
 
-        Spark.port(config.getPort());
-        Spark.threadPool(config.getMaxThreads(), config.getMinThreads(), config.getTimeOutMillis());
+        // Spark looks up the embedded server factory by identifier, so each instance registers it's own.
+        final String embeddedServerIdentifier = EMBEDDED_SERVER_PREFIX + name;
+
+        EmbeddedServers.add(embeddedServerIdentifier, new EmbeddedJettyFactory(buildJettyServerFactory(config, request -> findBulkhead(instance, request))));
+
+        http.embeddedServerIdentifier(embeddedServerIdentifier);
+        http.port(config.getPort());
+        http.threadPool(config.getMaxThreads(), config.getMinThreads(), config.getTimeOutMillis());
     }
 
-    void initProxyServer(final List<RestfulMock> activeMocks, final MockedServerConfigDTO config) {
+    MockedJettyServerFactory buildJettyServerFactory(final MockedServerConfigDTO config, final Function<HttpServletRequest, MockBulkhead> bulkheads) {
+
+        final ExecutorModeEnum executorMode = ExecutorModeEnum.findByName(config.getNativeProperties().get(GeneralUtils.EXECUTOR_MODE_PARAM));
+        final int queueSize = NumberUtils.toInt(config.getNativeProperties().get(GeneralUtils.EXECUTOR_QUEUE_SIZE_PARAM), MockedJettyServerFactory.DEFAULT_QUEUE_SIZE);
+
+        return new MockedJettyServerFactory((executorMode != null) ? executorMode : ExecutorModeEnum.QUEUED, queueSize, buildConnectorConfig(config), bulkheads);
+    }
+
+    /**
+     *
+     * Called by the DelayedResponseHandler ahead of Spark, so a request can be admitted through (or queued for)
+     * the bulkhead of the mock it is for, before any request thread is given over to it.
+     *
+     * The match is held against the request, so dispatch() does not need to route it a second time.
+     *
+     */
+    MockBulkhead findBulkhead(final MockedRestServerInstance instance, final HttpServletRequest request) {
+
+        final RestMethodEnum method = RestMethodEnum.findByName(request.getMethod());
+
+        if (method == null) {
+            return null;
+        }
+
+        final MockRouteMatch<CompiledRestfulMock> match = instance.getRoutingSnapshot().getRoutes().match(method, request.getRequestURI());
+
+        if (match == null) {
+            return null;
+        }
+
+        request.setAttribute(MockRouteMatch.REQUEST_ATTRIBUTE, match);
+
+        return match.getTarget().getBulkhead();
+    }
+
+    JettyConnectorConfig buildConnectorConfig(final MockedServerConfigDTO config) {
+
+        final Map<String, String> nativeProperties = config.getNativeProperties();
+
+        return new JettyConnectorConfig(
+                JettyConnectorConfig.DEFAULT_HOST,
+                config.getPort(),
+                NumberUtils.toInt(nativeProperties.get(GeneralUtils.CONNECTOR_ACCEPTORS_PARAM), JettyConnectorConfig.DEFAULT_ACCEPTORS),
+                NumberUtils.toInt(nativeProperties.get(GeneralUtils.CONNECTOR_SELECTORS_PARAM), JettyConnectorConfig.DEFAULT_SELECTORS),
+                NumberUtils.toInt(nativeProperties.get(GeneralUtils.CONNECTOR_ACCEPT_QUEUE_SIZE_PARAM), JettyConnectorConfig.DEFAULT_ACCEPT_QUEUE_SIZE),
+                NumberUtils.toLong(nativeProperties.get(GeneralUtils.CONNECTOR_IDLE_TIMEOUT_MILLIS_PARAM), JettyConnectorConfig.DEFAULT_IDLE_TIMEOUT_MILLIS),
+                NumberUtils.toInt(nativeProperties.get(GeneralUtils.MAX_KEEP_ALIVE_REQUESTS_PARAM), JettyConnectorConfig.DEFAULT_MAX_KEEP_ALIVE_REQUESTS),
+                BooleanUtils.toBoolean(nativeProperties.get(GeneralUtils.H2C_ENABLED_PARAM)));
+    }
+
+    void initProxyServer(final List<CompiledRestfulMock> activeMocks, final MockedServerConfigDTO config) {
 
         if (!isProxyServerModeEnabled(config)) {
             return;
         }
 
+        final List<ProxyActiveMock> activeProxyMocks = buildActiveProxyMocks(activeMocks);
+
+        proxyServer.start(config, activeProxyMocks);
+
+        proxyFingerprint = buildProxyFingerprint(activeProxyMocks);
+    }
+
+    /**
+     *
+     * Restarts the proxy server following a hot redeploy, but only where the mocks it routes to have changed,
+     * so it's listening socket (and any in-flight connections) are otherwise left alone.
+     *
+     * The proxy's own config cannot have changed here, as any change to the server config forces a full restart.
+     *
+     */
+    void redeployProxyServer(final List<CompiledRestfulMock> activeMocks, final MockedServerConfigDTO config) {
+
+        if (!isProxyServerModeEnabled(config)) {
+            return;
+        }
+
+        final List<ProxyActiveMock> activeProxyMocks = buildActiveProxyMocks(activeMocks);
+        final Set<String> fingerprint = buildProxyFingerprint(activeProxyMocks);
+
+        if (fingerprint.equals(proxyFingerprint)) {
+            return;
+        }
+
+        proxyServer.shutdown();
+        proxyServer.start(config, activeProxyMocks);
+
+        proxyFingerprint = fingerprint;
+    }
+
+    List<ProxyActiveMock> buildActiveProxyMocks(final List<CompiledRestfulMock> activeMocks) {
+
         final List<ProxyActiveMock> activeProxyMocks = new ArrayList<>();
 
         activeMocks.stream()
-                .collect(Collectors.groupingBy(RestfulMock::getPath))
+                .collect(Collectors.groupingBy(CompiledRestfulMock::getPath))
                 .entrySet()
                 .stream()
                 .forEach(g -> {
 
-                    final RestfulMock mock = (g.getValue().size() > 1)
+                    final CompiledRestfulMock mock = (g.getValue().size() > 1)
                             ? g.getValue()
                                 .stream()
                                 .filter(m -> m.isProxyPriority())
@@ -211,10 +590,80 @@ public class MockedRestServerEngine implements MockServerEngine<MockedServerConf
                             : g.getValue()
                                 .get(0);
 
-                    activeProxyMocks.add(new ProxyActiveMock(mock.getPath(), mock.getCreatedBy().getCtxPath(), mock.getMethod()));
+                    activeProxyMocks.add(new ProxyActiveMock(mock.getPath(), mock.getCtxPath(), mock.getMethod()));
                 });
 
-        proxyServer.start(config, activeProxyMocks);
+        return activeProxyMocks;
+    }
+
+    Set<String> buildProxyFingerprint(final List<ProxyActiveMock> activeProxyMocks) {
+
+        return activeProxyMocks.stream()
+                .map(m -> m.getMethod() + ":" + m.getUserCtx() + ":" + m.getPath())
+                .collect(Collectors.toSet());
+    }
+
+    boolean isRestartRequired(final String name, final MockedServerConfigDTO config, final List<RestfulMock> mocks) {
+
+        final MockedRestServerInstance instance = findInstance(name);
+
+        if (instance == null) {
+            return true;
+        }
+
+        final MockedServerConfigDTO deployedConfig = instance.getConfig();
+
+        return !Objects.equals(deployedConfig.getPort(), config.getPort())
+                || !Objects.equals(deployedConfig.getMaxThreads(), config.getMaxThreads())
+                || !Objects.equals(deployedConfig.getMinThreads(), config.getMinThreads())
+                || !Objects.equals(deployedConfig.getTimeOutMillis(), config.getTimeOutMillis())
+                || !Objects.equals(deployedConfig.getNativeProperties(), config.getNativeProperties())
+                || !instance.getWebSocketFingerprint().equals(buildWebSocketFingerprint(mocks));
+    }
+
+    Set<String> buildWebSocketFingerprint(final List<RestfulMock> mocks) {
+
+        return mocks.stream()
+                .filter(m -> RestMockTypeEnum.PROXY_WS.equals(m.getMockType()))
+                .map(m -> m.getId() + ":" + buildUserPath(m) + ":" + ((m.getLastUpdated() != null) ? m.getLastUpdated().getTime() : 0))
+                .collect(Collectors.toSet());
+    }
+
+    MockRoutingSnapshot<CompiledRestfulMock> buildRoutingSnapshot(final List<CompiledRestfulMock> mocks, final Map<Long, Date> deployedMocks) {
+
+        final MockRouteTrie<CompiledRestfulMock> routes = new MockRouteTrie<>();
+
+        buildRESTEndpoints(mocks, routes);
+        buildSSEEndpoints(mocks, routes);
+
+        final Map<Long, CompiledRestfulMock> mocksById = new HashMap<>();
+
+        mocks.stream().forEach(m ->
+            mocksById.put(m.getId(), m)
+        );
+
+        return new MockRoutingSnapshot<>(routes, mocksById, deployedMocks);
+    }
+
+    // Holds the lastUpdated date of each mock exactly as loaded, so deployment status checks compare like for like.
+    Map<Long, Date> buildDeployedMocks(final List<RestfulMock> mocks) {
+
+        final Map<Long, Date> deployedMocks = new HashMap<>();
+
+        mocks.stream().forEach(m ->
+            deployedMocks.put(m.getId(), m.getLastUpdated())
+        );
+
+        return deployedMocks;
+    }
+
+    List<CompiledRestfulMock> findActiveRestfulMocks(final List<CompiledRestfulMock> mocks) {
+
+        return mocks.stream()
+                .filter(m -> RestMockTypeEnum.PROXY_HTTP.equals(m.getMockType())
+                        || RestMockTypeEnum.SEQ.equals(m.getMockType())
+                        || RestMockTypeEnum.RULE.equals(m.getMockType()))
+                .collect(Collectors.toList());
     }
 
     public boolean isProxyServerModeEnabled(final MockedServerConfigDTO config) {
@@ -232,15 +681,27 @@ public class MockedRestServerEngine implements MockServerEngine<MockedServerConf
 
             // Important!
             // Detach all JPA entity beans from EntityManager Context, so they can be
-            // continually accessed again here as a simple data bean
-            // within each request to the mocked REST endpoint.
+            // safely read as simple data beans when compiled below.
+            // (Requests to the mocked REST endpoints are only ever served from the compiled form).
             restfulMockDAO.detach(m);
         });
 
     }
 
     // Expects RestfulMock to be detached
-    void buildWebSocketEndpoints(final List<RestfulMock> mocks, final boolean logMockCalls) {
+    List<CompiledRestfulMock> compileMocks(final List<RestfulMock> mocks) {
+
+        return mocks.stream()
+                .map(this::compileMock)
+                .collect(Collectors.toList());
+    }
+
+    CompiledRestfulMock compileMock(final RestfulMock mock) {
+        return restfulMockCompiler.compile(mock, buildUserPath(mock));
+    }
+
+    // Expects RestfulMock to be detached
+    void buildWebSocketEndpoints(final Service http, final List<RestfulMock> mocks, final boolean logMockCalls) {
 
         //
         // Define all web socket routes first as the Spark framework requires this
@@ -249,24 +710,20 @@ public class MockedRestServerEngine implements MockServerEngine<MockedServerConf
             if (RestMockTypeEnum.PROXY_WS.equals(m.getMockType())) {
                 // Create an echo service instance per web socket route, as we need to hold the path as state within this.
                 final String path = buildUserPath(m);
-                Spark.webSocket(path, new SparkWebSocketEchoService(m.getExtId(), path, m.getWebSocketTimeoutInMillis(), m.isProxyPushIdOnConnect(), webSocketService, logMockCalls));
+                http.webSocket(path, new SparkWebSocketEchoService(m.getExtId(), path, m.getWebSocketTimeoutInMillis(), m.isProxyPushIdOnConnect(), webSocketService, logMockCalls));
             }
         });
     }
 
-    // Expects RestfulMock to be detached
-    void buildSSEEndpoints(final List<RestfulMock> mocks, final boolean logMockCalls) throws MockServerException {
+    void buildSSEEndpoints(final List<CompiledRestfulMock> mocks, final MockRouteTrie<CompiledRestfulMock> routes) throws MockServerException {
 
         mocks.stream().forEach(m -> {
 
             if (RestMockTypeEnum.PROXY_SSE.equals(m.getMockType())) {
 
-                // Remove any suspended rule or sequence responses
-                removeSuspendedResponses(m);
-
                 // NOTE, Java Spark does not currently provide support for NIO SSE. This code therefore BLOCKS the request
                 // thread until the connection is closed by either party.
-                Spark.get(buildUserPath(m), (req, res) -> processSSERequest(m, req, res, logMockCalls));
+                routes.add(RestMethodEnum.GET, m.getUserPath(), m);
 
             }
 
@@ -274,10 +731,9 @@ public class MockedRestServerEngine implements MockServerEngine<MockedServerConf
 
     }
 
-    // Expects RestfulMock to be detached
-    List<RestfulMock> buildRESTEndpoints(final List<RestfulMock> mocks) throws MockServerException {
+    List<CompiledRestfulMock> buildRESTEndpoints(final List<CompiledRestfulMock> mocks, final MockRouteTrie<CompiledRestfulMock> routes) throws MockServerException {
 
-        final List<RestfulMock> activeRestfulMocks = new ArrayList<>();
+        final List<CompiledRestfulMock> activeRestfulMocks = new ArrayList<>();
 
         mocks.stream().forEach( m -> {
 
@@ -285,34 +741,24 @@ public class MockedRestServerEngine implements MockServerEngine<MockedServerConf
                     || RestMockTypeEnum.SEQ.equals(m.getMockType())
                     || RestMockTypeEnum.RULE.equals(m.getMockType())) {
 
-                // Remove any suspended rule or sequence responses
-                removeSuspendedResponses(m);
-
-                final String path = buildUserPath(m);
                 final RestMethodEnum method = m.getMethod();
 
-                activeRestfulMocks.add(m);
-
                 switch (method) {
                     case GET:
-                        Spark.get(path, (req, res) -> processRequest(m, req, res));
-                        break;
                     case POST:
-                        Spark.post(path, (req, res) -> processRequest(m, req, res));
-                        break;
                     case PUT:
-                        Spark.put(path, (req, res) -> processRequest(m, req, res));
-                        break;
                     case DELETE:
-                        Spark.delete(path, (req, res) -> processRequest(m, req, res));
-                        break;
                     case PATCH:
-                        Spark.patch(path, (req, res) -> processRequest(m, req, res));
                         break;
                     default:
                         throw new MockServerException("Unsupported mock definition method type : " + m.getMethod());
                 }
 
+                activeRestfulMocks.add(m);
+
+                // Mocks arrive in initializationOrder, which the route trie uses as it's match priority.
+                routes.add(method, m.getUserPath(), m);
+
             }
 
         });
@@ -320,10 +766,10 @@ public class MockedRestServerEngine implements MockServerEngine<MockedServerConf
         return activeRestfulMocks;
     }
 
-    private void applyTrafficLogging(final boolean logMockCalls) {
+    private void applyTrafficLogging(final Service http, final boolean logMockCalls) {
 
         // Live logging filter
-        Spark.before((request, response) -> {
+        http.before((request, response) -> {
 
             if (request.headers().contains(GeneralUtils.PROXY_MOCK_INTERCEPT_HEADER)) {
                 return;
@@ -347,7 +793,7 @@ public class MockedRestServerEngine implements MockServerEngine<MockedServerConf
             liveLoggingHandler.broadcast(LiveLoggingUtils.buildLiveLogInboundDTO(request.attribute(GeneralUtils.LOG_REQ_ID), request.requestMethod(), request.pathInfo(), reqHeaders, request.body(), false));
         });
 
-        Spark.afterAfter((request, response) -> {
+        http.afterAfter((request, response) -> {
 
             if (request.headers().contains(GeneralUtils.PROXY_MOCK_INTERCEPT_HEADER)
                     || serverSideEventService.SSE_EVENT_STREAM_HEADER.equals(response.raw().getHeader("Content-Type"))) {
@@ -358,97 +804,135 @@ public class MockedRestServerEngine implements MockServerEngine<MockedServerConf
                     .stream()
                     .collect(Collectors.toMap(h -> h, h -> response.raw().getHeader(h)));
 
+            // Pre-encoded and compressed bodies are written straight to the output stream, so are not available from response.body().
+            final String responseBody = (request.attribute(PRE_ENCODED_BODY_ATTRIBUTE) != null)
+                    ? request.attribute(PRE_ENCODED_BODY_ATTRIBUTE)
+                    : response.body();
+
             if (logMockCalls)
-                LiveLoggingUtils.MOCK_TRAFFIC_LOGGER.info(LiveLoggingUtils.buildLiveLogOutboundFileEntry(request.attribute(GeneralUtils.LOG_REQ_ID), response.raw().getStatus(), respHeaders, response.body(), false, false));
+                LiveLoggingUtils.MOCK_TRAFFIC_LOGGER.info(LiveLoggingUtils.buildLiveLogOutboundFileEntry(request.attribute(GeneralUtils.LOG_REQ_ID), response.raw().getStatus(), respHeaders, responseBody, false, false));
 
-            liveLoggingHandler.broadcast(LiveLoggingUtils.buildLiveLogOutboundDTO(request.attribute(GeneralUtils.LOG_REQ_ID), response.raw().getStatus(), respHeaders, response.body(), false, false));
+            liveLoggingHandler.broadcast(LiveLoggingUtils.buildLiveLogOutboundDTO(request.attribute(GeneralUtils.LOG_REQ_ID), response.raw().getStatus(), respHeaders, responseBody, false, false));
         });
 
     }
 
     /**
-     * HACK
      *
-     * Spark.afterAfter does not handle 404 always returning a 200 for some reason.
-     * Also Spark.notFound is not working either, so defaulting all other routes to 404
-     * as a work around
+     * Rather than registering a Spark route per mock (which Spark then matches against with a linear scan),
+     * a single catch all route per HTTP method is registered, which looks up the mock from the route trie.
+     *
+     * This also handles the case where no mock is found, as Spark.notFound and Spark.afterAfter
+     * do not reliably return a 404.
      *
      */
-    private void applyDefaultRoutes404Hack() {
+    private void applyRouteDispatcher(final MockedRestServerInstance instance, final boolean logMockCalls) {
+
+        final Service http = instance.getHttp();
 
-        Spark.head("*", (request, response) -> {
+        http.head("*", (request, response) -> {
             response.status(404);
             return "Mock not found";
         });
 
-        Spark.get("*", (request, response) -> {
+        http.get("*", (request, response) -> dispatch(instance, RestMethodEnum.GET, request, response, logMockCalls));
+        http.post("*", (request, response) -> dispatch(instance, RestMethodEnum.POST, request, response, logMockCalls));
+        http.put("*", (request, response) -> dispatch(instance, RestMethodEnum.PUT, request, response, logMockCalls));
+        http.delete("*", (request, response) -> dispatch(instance, RestMethodEnum.DELETE, request, response, logMockCalls));
+        http.patch("*", (request, response) -> dispatch(instance, RestMethodEnum.PATCH, request, response, logMockCalls));
 
-            if (isWebSocketUpgradeRequest(request)) {
-                response.status(200);
-                return null;
+    }
+
+    String dispatch(final MockedRestServerInstance instance, final RestMethodEnum method, final Request req, final Response res, final boolean logMockCalls) throws IOException {
+
+        // Already routed where the request came through the DelayedResponseHandler (see findBulkhead).
+        MockRouteMatch<CompiledRestfulMock> match = req.attribute(MockRouteMatch.REQUEST_ATTRIBUTE);
+
+        if (match == null) {
+
+            match = instance.getRoutingSnapshot().getRoutes().match(method, req.uri());
+
+            if (match == null) {
+
+                if (RestMethodEnum.GET.equals(method) && isWebSocketUpgradeRequest(req)) {
+                    res.status(200);
+                    return null;
+                }
+
+                res.status(404);
+                return "Mock not found";
             }
 
-            response.status(404);
-            return "Mock not found";
-        });
+            // Exposes the matched path variables and splat to the rule engine and response token handling.
+            req.attribute(MockRouteMatch.REQUEST_ATTRIBUTE, match);
+        }
 
-        Spark.post("*", (request, response) -> {
-            response.status(404);
-            return "Mock not found";
-        });
+        final CompiledRestfulMock mock = match.getTarget();
+        final MockBulkhead bulkhead = mock.getBulkhead();
 
-        Spark.put("*", (request, response) -> {
-            response.status(404);
-            return "Mock not found";
-        });
+        // The DelayedResponseHandler has already admitted the request through the bulkhead (queuing it if need be).
+        if (bulkhead == null
+                || req.attribute(DelayedResponseHandler.SUPPORTED_ATTRIBUTE) != null) {
+            return processMatchedRequest(mock, req, res, logMockCalls);
+        }
 
-        Spark.delete("*", (request, response) -> {
-            response.status(404);
-            return "Mock not found";
-        });
+        // Otherwise (i.e when served from an external container) there is no way to queue without holding the request thread.
+        if (!bulkhead.tryEnter()) {
+            return shedRequest(bulkhead, res);
+        }
 
-        Spark.patch("*", (request, response) -> {
-            response.status(404);
-            return "Mock not found";
-        });
+        try {
+            return processMatchedRequest(mock, req, res, logMockCalls);
+        } finally {
+            bulkhead.exit();
+        }
 
     }
 
-    private boolean isWebSocketUpgradeRequest(final Request request) {
+    String processMatchedRequest(final CompiledRestfulMock mock, final Request req, final Response res, final boolean logMockCalls) throws IOException {
 
-        final Set<String> headerNames = request.headers();
+        if (RestMockTypeEnum.PROXY_SSE.equals(mock.getMockType())) {
+            return processSSERequest(mock, req, res, logMockCalls);
+        }
 
-        return headerNames.contains("Upgrade")
-                && headerNames.contains("Sec-WebSocket-Key")
-                && "websocket".equalsIgnoreCase(request.headers("Upgrade"));
+        return processRequest(mock, req, res);
     }
 
-    private void setDeployedMocks(final List<RestfulMock> activeMocks) {
+    /**
+     *
+     * Turns away a request the mock has no capacity for, with the mock's configured overload status (429 or 503),
+     * and a Retry-After header where set.
+     *
+     */
+    String shedRequest(final MockBulkhead bulkhead, final Response res) {
+        logger.debug("shedRequest called");
 
-        final Map<Long, Date> tempMap = new HashMap<>();
-        activeMocks
-                .stream()
-                .forEach(m -> tempMap.put(m.getId(), m.getLastUpdated()));
+        res.status(bulkhead.getRejectionStatusCode());
 
-        synchronized (monitor) {
-            deployedMocks = tempMap;
+        if (bulkhead.getRetryAfterSeconds() > 0) {
+            res.header(HttpHeaders.RETRY_AFTER, String.valueOf(bulkhead.getRetryAfterSeconds()));
         }
+
+        return HttpStatus.valueOf(bulkhead.getRejectionStatusCode()).getReasonPhrase();
     }
 
-    private void clearDeployedMocks() {
-        synchronized (monitor) {
-            deployedMocks = new HashMap<>();
-        }
+    private boolean isWebSocketUpgradeRequest(final Request request) {
+
+        final Set<String> headerNames = request.headers();
+
+        return headerNames.contains("Upgrade")
+                && headerNames.contains("Sec-WebSocket-Key")
+                && "websocket".equalsIgnoreCase(request.headers("Upgrade"));
     }
 
-    String processRequest(final RestfulMock mock, final Request req, final Response res) {
+    String processRequest(final CompiledRestfulMock mock, final Request req, final Response res) throws IOException {
         logger.debug("processRequest called");
 
         RestfulResponseDTO outcome;
 
         switch (mock.getMockType()) {
             case RULE:
-                outcome = ruleEngine.process(req, mock.getRules());
+                outcome = ruleEngine.process(req, mock.getRules(), mock.getRuleIndex());
                 break;
             case PROXY_HTTP:
                 outcome = proxyService.waitForResponse(req.pathInfo(), mock);
@@ -459,83 +943,337 @@ public class MockedRestServerEngine implements MockServerEngine<MockedServerConf
                 break;
         }
 
+        final boolean delayed;
+
         if (outcome == null) {
             // Load in default values
             outcome = getDefault(mock);
+            delayed = false;
+        } else {
+            delayed = delayResponse(req, outcome.getSleepInMillis());
         }
 
         res.status(outcome.getHttpStatusCode());
         res.type(outcome.getResponseContentType());
 
         // Apply any response headers
-        outcome.getHeaders().entrySet().forEach(e ->
-            res.header(e.getKey(), e.getValue())
-        );
+        for (int i = 0; i < outcome.getHeaderCount(); i++) {
+            res.header(outcome.getHeaderName(i), outcome.getHeaderValue(i));
+        }
 
-        final String response = inboundParamMatchService.enrichWithInboundParamMatches(req, outcome.getResponseBody());
+        if (delayed) {
+            deferResponse(outcome, req, res);
+            return "";
+        }
+
+        return writeResponse(outcome, req, res);
+    }
+
+    /**
+     *
+     * Writes the body of the given outcome, returning whatever is left for Spark to write (if anything).
+     *
+     */
+    String writeResponse(final RestfulResponseDTO outcome, final Request req, final Response res) throws IOException {
+
+        if (outcome.getResponseBodyBytes() != null) {
+            writePreEncodedResponse(outcome, req, res);
+            return "";
+        }
+
+        if (outcome.isTemplated()
+                && outcome.getResponseTemplate().getLiteralLength() >= STREAMED_TEMPLATE_MIN_LENGTH) {
+            writeStreamedTemplateResponse(outcome, req, res);
+            return "";
+        }
+
+        // Only bodies found to contain tokens at compile time need enriching, which is then a single pass over the compiled template.
+        final String response = (outcome.isTemplated())
+                ? inboundParamMatchService.enrichWithInboundParamMatches(req, outcome.getResponseTemplate())
+                : outcome.getResponseBody();
+
+        // Templated bodies can only be compressed once enriched, so this is done per request.
+        if (outcome.isTemplated()
+                && !outcome.isContentEncoded()
+                && response != null
+                && response.length() >= CompressionUtils.MIN_COMPRESSIBLE_LENGTH) {
+
+            res.raw().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+            final String contentEncoding = CompressionUtils.negotiateContentEncoding(req.headers(HttpHeaders.ACCEPT_ENCODING));
+
+            if (contentEncoding != null) {
+                writeCompressedResponse(contentEncoding, response, req, res);
+                return "";
+            }
+        }
 
         return StringUtils.defaultIfBlank(response,"");
     }
 
-    String processSSERequest(final RestfulMock mock, final Request req, final Response res, final boolean logMockCalls) throws IOException {
+    /**
+     *
+     * Rather than sleeping, flags the response to be held back by the DelayedResponseHandler,
+     * which releases the request thread for the duration of the delay.
+     *
+     * @returns boolean (true where the body is to be written by the DelayedResponseHandler, once the delay has passed)
+     *
+     */
+    boolean delayResponse(final Request req, final long sleepInMillis) {
+
+        if (sleepInMillis <= 0) {
+            return false;
+        }
+
+        // Not served via the mock server's own Jetty handler, so can only block the request thread.
+        if (req.attribute(DelayedResponseHandler.SUPPORTED_ATTRIBUTE) == null) {
+            GeneralUtils.checkForAndHandleSleep(sleepInMillis);
+            return false;
+        }
 
-        serverSideEventService.register(buildUserPath(mock), mock.getSseHeartBeatInMillis(), mock.isProxyPushIdOnConnect(), req, res, logMockCalls);
+        req.attribute(DelayedResponseHandler.DELAY_ATTRIBUTE, sleepInMillis);
 
-        return null;
+        return true;
     }
 
-    RestfulResponseDTO getDefault(final RestfulMock restfulMock) {
+    /**
+     *
+     * Hands the resolved outcome to the DelayedResponseHandler, to be written once the delay has passed.
+     * Only the outcome is held onto in the meantime, so pre-encoded bodies are still written without copying
+     * and large templated bodies are still streamed.
+     *
+     */
+    void deferResponse(final RestfulResponseDTO outcome, final Request req, final Response res) {
 
-        if (RestMockTypeEnum.PROXY_HTTP.equals(restfulMock.getMockType())) {
-            return new RestfulResponseDTO(HttpStatus.NOT_FOUND.value());
+        // Held for the live logging filter, which runs before the body is written.
+        req.attribute(PRE_ENCODED_BODY_ATTRIBUTE, (outcome.isTemplated())
+                ? "(templated body, delayed by " + outcome.getSleepInMillis() + " millis)"
+                : outcome.getResponseBody());
+
+        req.attribute(DelayedResponseHandler.DELAYED_WRITE_ATTRIBUTE, (DelayedResponseHandler.DelayedWrite) () -> {
+
+            final String body = writeResponse(outcome, req, res);
+
+            if (!body.isEmpty()) {
+                writeSparkBody(body, req, res);
+            }
+        });
+    }
+
+    // Writes a body as Spark itself would have, being gzipped only where the mock sets a gzip Content-Encoding the client accepts.
+    void writeSparkBody(final String body, final Request req, final Response res) throws IOException {
+
+        final HttpServletResponse raw = res.raw();
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        if (raw.getHeaders(HttpHeaders.CONTENT_ENCODING).contains(CompressionUtils.GZIP)
+                && StringUtils.contains(req.headers(HttpHeaders.ACCEPT_ENCODING), CompressionUtils.GZIP)) {
+
+            try (OutputStream out = CompressionUtils.compressingStream(CompressionUtils.GZIP, raw.getOutputStream(), Deflater.DEFAULT_COMPRESSION)) {
+                out.write(bytes);
+            }
+
+            return;
         }
 
-        if (RestMockTypeEnum.RULE.equals(restfulMock.getMockType())
-                && restfulMock.isProxyForwardWhenNoRuleMatch()) {
-            return new RestfulResponseDTO(HttpStatus.TEMPORARY_REDIRECT.value());
+        writeBody(raw, bytes);
+    }
+
+    /**
+     *
+     * Writes a body encoded at deploy time straight to the servlet output stream, bypassing Spark's own
+     * (per request) String encoding. Setting the Content-Length means Jetty completes the response
+     * as soon as the body is written, so Spark leaves it untouched thereafter.
+     *
+     * Where the body was also compressed at deploy time, the variant matching the request's Accept-Encoding is used.
+     *
+     * Successful GET requests which already hold the body's ETag are answered with a 304.
+     *
+     */
+    void writePreEncodedResponse(final RestfulResponseDTO outcome, final Request req, final Response res) throws IOException {
+
+        final HttpServletResponse raw = res.raw();
+
+        // Held for the live logging filter
+        req.attribute(PRE_ENCODED_BODY_ATTRIBUTE, outcome.getResponseBody());
+
+        if (raw.getContentType() == null) {
+            raw.setContentType(DEFAULT_CONTENT_TYPE);
+        }
+
+        final EncodedBody body;
+
+        if (outcome.isCompressed()) {
+            raw.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            body = outcome.getEncodedBody(CompressionUtils.negotiateContentEncoding(req.headers(HttpHeaders.ACCEPT_ENCODING)));
+        } else {
+            body = outcome.getEncodedBody(null);
+        }
+
+        if (outcome.getHttpStatusCode() >= 200 && outcome.getHttpStatusCode() < 300) {
+
+            raw.setHeader(HttpHeaders.ETAG, body.getETag());
+
+            if (RestMethodEnum.GET.name().equalsIgnoreCase(req.requestMethod())
+                    && isETagMatch(req.headers(HttpHeaders.IF_NONE_MATCH), body.getETag())) {
+                raw.setStatus(HttpStatus.NOT_MODIFIED.value());
+                return;
+            }
+
+        }
+
+        if (body.getContentEncoding() != null) {
+            raw.setHeader(HttpHeaders.CONTENT_ENCODING, body.getContentEncoding());
         }
 
-        final RestfulMockDefinitionOrder mockDefOrder = restfulMock.getDefinitions().get(0);
-        return new RestfulResponseDTO(mockDefOrder.getHttpStatusCode(), mockDefOrder.getResponseContentType(), mockDefOrder.getResponseBody(), mockDefOrder.getResponseHeaders().entrySet());
+        writeBody(raw, body.getBytes());
     }
 
-    void removeSuspendedResponses(final RestfulMock mock) {
+    // Compresses with a pooled Deflater, rather than leaving Spark to create a new GZIPOutputStream per request.
+    void writeCompressedResponse(final String contentEncoding, final String response, final Request req, final Response res) throws IOException {
 
-        final Iterator<RestfulMockDefinitionOrder> definitionsIter =  mock.getDefinitions().iterator();
+        final HttpServletResponse raw = res.raw();
 
+        // Held for the live logging filter
+        req.attribute(PRE_ENCODED_BODY_ATTRIBUTE, response);
 
+        if (raw.getContentType() == null) {
+            raw.setContentType(DEFAULT_CONTENT_TYPE);
+        }
+
+        raw.setHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+
+        writeBody(raw, CompressionUtils.compress(contentEncoding, response.getBytes(StandardCharsets.UTF_8), Deflater.BEST_SPEED));
+    }
+
+    /**
+     *
+     * Renders a large templated body straight to the servlet output stream (compressing on the fly where accepted),
+     * so neither the rendered String nor it's encoded bytes are ever held in full.
+     *
+     * As the final length is not known up front, no Content-Length is set and Jetty sends the body chunked.
+     *
+     */
+    void writeStreamedTemplateResponse(final RestfulResponseDTO outcome, final Request req, final Response res) throws IOException {
+
+        final HttpServletResponse raw = res.raw();
+
+        if (raw.getContentType() == null) {
+            raw.setContentType(DEFAULT_CONTENT_TYPE);
+        }
+
+        OutputStream out = raw.getOutputStream();
+        CompressionUtils.PooledDeflaterOutputStream compressingOut = null;
 
-        while (definitionsIter.hasNext()) {
-            final RestfulMockDefinitionOrder d = definitionsIter.next();
+        if (!outcome.isContentEncoded()) {
 
-            if (d.isSuspend()) {
-                definitionsIter.remove();
+            raw.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+            final String contentEncoding = CompressionUtils.negotiateContentEncoding(req.headers(HttpHeaders.ACCEPT_ENCODING));
+
+            if (contentEncoding != null) {
+                raw.setHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+                compressingOut = CompressionUtils.compressingStream(contentEncoding, out, Deflater.BEST_SPEED);
+                out = compressingOut;
             }
         }
 
-        final Iterator<RestfulMockDefinitionRule> rulesIter =  mock.getRules().iterator();
+        final StreamingBodyWriter writer = StreamingBodyWriter.open(out);
+
+        try {
+            inboundParamMatchService.streamInboundParamMatches(req, outcome.getResponseTemplate(), writer);
+        } catch (IOException | RuntimeException ex) {
+            writer.abandon();
+
+            if (compressingOut != null) {
+                compressingOut.abort();
+            }
+
+            throw ex;
+        }
+
+        // Closing completes the response, so Spark does not then try to write it's own (empty) body.
+        writer.close();
+
+        // Held for the live logging filter, in place of the body itself.
+        req.attribute(PRE_ENCODED_BODY_ATTRIBUTE, "(streamed templated body of " + writer.getBytesWritten() + " bytes)");
+    }
+
+    void writeBody(final HttpServletResponse raw, final byte[] body) throws IOException {
+
+        raw.setContentLength(body.length);
+
+        final ServletOutputStream out = raw.getOutputStream();
+        out.write(body);
+
+        // Marks the response as complete, so Spark does not then try to write it's own (empty) body,
+        // which it would otherwise gzip, given the Content-Encoding header.
+        out.close();
+    }
+
+    // If-None-Match uses the weak comparison, so any 'W/' prefix is ignored.
+    boolean isETagMatch(final String ifNoneMatch, final String eTag) {
+
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (String candidate : StringUtils.split(ifNoneMatch, ',')) {
 
-        while (rulesIter.hasNext()) {
-            final RestfulMockDefinitionRule r = rulesIter.next();
+            final String value = StringUtils.removeStart(candidate.trim(), "W/");
 
-            if (r.isSuspend()) {
-                rulesIter.remove();
+            if ("*".equals(value) || value.equals(eTag)) {
+                return true;
             }
         }
 
+        return false;
     }
 
-    void clearState() {
+    String processSSERequest(final CompiledRestfulMock mock, final Request req, final Response res, final boolean logMockCalls) throws IOException {
+
+        serverSideEventService.register(mock.getUserPath(), mock.getSseHeartBeatInMillis(), mock.isProxyPushIdOnConnect(), req, res, logMockCalls);
+
+        return null;
+    }
+
+    RestfulResponseDTO getDefault(final CompiledRestfulMock restfulMock) {
+
+        if (RestMockTypeEnum.PROXY_HTTP.equals(restfulMock.getMockType())) {
+            return PROXY_NOT_FOUND_RESPONSE;
+        }
+
+        if (RestMockTypeEnum.RULE.equals(restfulMock.getMockType())
+                && restfulMock.isProxyForwardWhenNoRuleMatch()) {
+            return PROXY_FORWARD_RESPONSE;
+        }
+
+        return restfulMock.getDefinitions().get(0).getResponse();
+    }
+
+    void clearState(final String name, final Collection<CompiledRestfulMock> mocks) {
+
+        // Sequence counters, web socket sessions and SSE connections are held per mock, so only those of the given instance are cleared...
+        mocks.stream().forEach(m -> mockOrderingCounterService.clearState(m.getExtId()));
+        webSocketService.clearSessions(findUserPaths(mocks, RestMockTypeEnum.PROXY_WS));
+        serverSideEventService.clearState(findUserPaths(mocks, RestMockTypeEnum.PROXY_SSE));
+
+        // ...whereas the proxy server is shared by all instances, so it's state is only cleared along with the default instance.
+        if (DEFAULT_INSTANCE.equals(name)) {
+            proxyService.clearAllSessions();
+        }
+
+    }
 
-        // Proxy related state
-        webSocketService.clearSession();
-        proxyService.clearAllSessions();
-        mockOrderingCounterService.clearState();
-        serverSideEventService.clearState();
+    Set<String> findUserPaths(final Collection<CompiledRestfulMock> mocks, final RestMockTypeEnum mockType) {
 
+        return mocks.stream()
+                .filter(m -> mockType.equals(m.getMockType()))
+                .map(CompiledRestfulMock::getUserPath)
+                .collect(Collectors.toSet());
     }
 
-    void handleCORS(final MockedServerConfigDTO config) {
+    void handleCORS(final Service http, final MockedServerConfigDTO config) {
 
         final String enableCors = config.getNativeProperties().get(GeneralUtils.ENABLE_CORS_PARAM);
 
@@ -543,7 +1281,7 @@ public class MockedRestServerEngine implements MockServerEngine<MockedServerConf
             return;
         }
 
-        Spark.options("/*", (request, response) -> {
+        http.options("/*", (request, response) -> {
 
             final String accessControlRequestHeaders = request.headers("Access-Control-Request-Headers");
 
@@ -560,7 +1298,7 @@ public class MockedRestServerEngine implements MockServerEngine<MockedServerConf
             return HttpStatus.OK.name();
         });
 
-        Spark.before((request, response) -> {
+        http.before((request, response) -> {
             response.header("Access-Control-Allow-Origin", "*");
 //            response.header("Access-Control-Request-Method", "GET,PUT,POST,DELETE,OPTIONS");
 //            response.header("Access-Control-Allow-Headers", "*");
@@ -0,0 +1,55 @@
+package com.smockin.mockserver.engine;
+
+import com.smockin.mockserver.dto.MockedServerConfigDTO;
+import com.smockin.mockserver.engine.route.MockRoutingSnapshot;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
+import spark.Service;
+
+import java.util.Set;
+
+/**
+ * Created by mgallina.
+ *
+ * A single running Spark service (see Service.ignite()), with it's own port, thread pool, filters and routing snapshot.
+ *
+ * Spark does not allow a service's port or thread pool to be changed, nor a service to be restarted once stopped,
+ * so a new instance is ignited each time a server is started.
+ */
+final class MockedRestServerInstance {
+
+    private final String name;
+    private final Service http;
+    private final MockedServerConfigDTO config;
+    private final Set<String> webSocketFingerprint;
+
+    // Built in full before being published, so is safe to read from request threads without locking.
+    private volatile MockRoutingSnapshot<CompiledRestfulMock> routingSnapshot = MockRoutingSnapshot.empty();
+
+    MockedRestServerInstance(final String name, final Service http, final MockedServerConfigDTO config, final Set<String> webSocketFingerprint) {
+        this.name = name;
+        this.http = http;
+        this.config = config;
+        this.webSocketFingerprint = webSocketFingerprint;
+    }
+
+    String getName() {
+        return name;
+    }
+    Service getHttp() {
+        return http;
+    }
+    MockedServerConfigDTO getConfig() {
+        return config;
+    }
+    Set<String> getWebSocketFingerprint() {
+        return webSocketFingerprint;
+    }
+
+    MockRoutingSnapshot<CompiledRestfulMock> getRoutingSnapshot() {
+        return routingSnapshot;
+    }
+    void setRoutingSnapshot(final MockRoutingSnapshot<CompiledRestfulMock> routingSnapshot) {
+        this.routingSnapshot = routingSnapshot;
+    }
+
+}
@@ -0,0 +1,226 @@
+package com.smockin.mockserver.engine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Created by mgallina.
+ *
+ * UTF-8 Writer over a response's output stream, for bodies which are written out as they are rendered
+ * rather than first being built up as a String (and then encoded into a byte[] of the same size).
+ *
+ * The encoder and it's (small) char and byte buffers are held per thread and reused by each response the thread writes,
+ * unlike an OutputStreamWriter, which allocates it's own on every use.
+ *
+ * Not thread safe, each instance is only to be used by the thread which opened it.
+ */
+public final class StreamingBodyWriter extends Writer {
+
+    static final int CHAR_BUFFER_SIZE = 4096;
+    static final int BYTE_BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<EncoderBuffers> ENCODER_BUFFERS = ThreadLocal.withInitial(EncoderBuffers::new);
+
+    private final OutputStream out;
+    private final EncoderBuffers buffers;
+    private long bytesWritten;
+    private boolean closed;
+
+    private StreamingBodyWriter(final OutputStream out, final EncoderBuffers buffers) {
+        this.out = out;
+        this.buffers = buffers;
+    }
+
+    public static StreamingBodyWriter open(final OutputStream out) {
+
+        EncoderBuffers buffers = ENCODER_BUFFERS.get();
+
+        // Should a writer already be open on this thread, this one gets buffers of it's own.
+        if (buffers.inUse) {
+            buffers = new EncoderBuffers();
+        }
+
+        buffers.acquire();
+
+        return new StreamingBodyWriter(out, buffers);
+    }
+
+    @Override
+    public void write(final int c) throws IOException {
+
+        ensureOpen();
+
+        if (!buffers.chars.hasRemaining()) {
+            encode(false);
+        }
+
+        buffers.chars.put((char) c);
+    }
+
+    @Override
+    public void write(final char[] cbuf, int off, int len) throws IOException {
+
+        ensureOpen();
+
+        while (len > 0) {
+
+            final int n = Math.min(len, buffers.chars.remaining());
+            buffers.chars.put(cbuf, off, n);
+            off += n;
+            len -= n;
+
+            if (!buffers.chars.hasRemaining()) {
+                encode(false);
+            }
+        }
+    }
+
+    @Override
+    public void write(final String str, int off, int len) throws IOException {
+
+        ensureOpen();
+
+        while (len > 0) {
+
+            final int n = Math.min(len, buffers.chars.remaining());
+            buffers.chars.put(str, off, off + n);
+            off += n;
+            len -= n;
+
+            if (!buffers.chars.hasRemaining()) {
+                encode(false);
+            }
+        }
+    }
+
+    // Any trailing high surrogate is held back, until the rest of it's pair is written.
+    @Override
+    public void flush() throws IOException {
+
+        ensureOpen();
+
+        encode(false);
+        drain();
+        out.flush();
+    }
+
+    /**
+     *
+     * Writes out whatever remains buffered and closes the underlying stream, which completes the response.
+     *
+     */
+    @Override
+    public void close() throws IOException {
+
+        if (closed) {
+            return;
+        }
+
+        try {
+
+            encode(true);
+
+            while (buffers.encoder.flush(buffers.bytes).isOverflow()) {
+                drain();
+            }
+
+            drain();
+
+        } finally {
+            closed = true;
+            buffers.release();
+        }
+
+        out.close();
+    }
+
+    // Gives up the thread's buffers without writing anything further (i.e where rendering has failed part way through).
+    public void abandon() {
+
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        buffers.release();
+    }
+
+    // The number of encoded bytes passed on to the underlying stream so far.
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void encode(final boolean endOfInput) throws IOException {
+
+        final CharBuffer chars = buffers.chars;
+        chars.flip();
+
+        while (true) {
+
+            final CoderResult result = buffers.encoder.encode(chars, buffers.bytes, endOfInput);
+
+            if (result.isOverflow()) {
+                drain();
+                continue;
+            }
+
+            if (result.isUnderflow()) {
+                break;
+            }
+
+            result.throwException();
+        }
+
+        chars.compact();
+    }
+
+    private void drain() throws IOException {
+
+        final ByteBuffer bytes = buffers.bytes;
+
+        if (bytes.position() == 0) {
+            return;
+        }
+
+        out.write(bytes.array(), 0, bytes.position());
+        bytesWritten += bytes.position();
+        bytes.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer is closed");
+        }
+    }
+
+    private static final class EncoderBuffers {
+
+        // Replaces malformed input (i.e lone surrogates) as String.getBytes(UTF_8) does.
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+        private final ByteBuffer bytes = ByteBuffer.allocate(BYTE_BUFFER_SIZE);
+        private boolean inUse;
+
+        private void acquire() {
+            inUse = true;
+            encoder.reset();
+            chars.clear();
+            bytes.clear();
+        }
+
+        private void release() {
+            inUse = false;
+        }
+
+    }
+
+}
@@ -0,0 +1,283 @@
+package com.smockin.mockserver.engine.jetty;
+
+import com.smockin.mockserver.service.bean.MockBulkhead;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Created by mgallina.
+ *
+ * Simulates mock response latency without holding onto a request thread.
+ *
+ * Where a mock requests a delay (by setting DELAY_ATTRIBUTE), the response body is held back rather than written,
+ * the request is put into async mode and the request thread is released straight back to the pool.
+ * A hashed wheel timer then hands the mock's DelayedWrite back to the pool once the delay has passed, which writes
+ * the body (pre-encoded, compressed or streamed) exactly as it would have been without the delay. As the body
+ * is never buffered, any number of delayed responses can be in flight on a handful of threads.
+ *
+ * Requests for a mock with a MockBulkhead are admitted through it before reaching Spark. Where the mock is at capacity,
+ * the request is put into async mode and queued in the same way, being re-dispatched once handed a slot.
+ */
+public class DelayedResponseHandler extends HandlerWrapper {
+
+    private final Logger logger = LoggerFactory.getLogger(DelayedResponseHandler.class);
+
+    // Set by this handler, so mocks served from elsewhere (i.e an external container) know to fall back to sleeping.
+    public static final String SUPPORTED_ATTRIBUTE = "RESPONSE_DELAY_SUPPORTED";
+
+    // The delay to apply (as a Long, in millis).
+    public static final String DELAY_ATTRIBUTE = "RESPONSE_DELAY_MILLIS";
+
+    // The DelayedWrite which writes the body of a delayed response, once the delay has passed.
+    public static final String DELAYED_WRITE_ATTRIBUTE = "RESPONSE_DELAYED_WRITE";
+
+    // A Runnable to call once the response has been fully written, whether delayed or not.
+    public static final String COMPLETION_ATTRIBUTE = "RESPONSE_COMPLETION_CALLBACK";
+
+    private static final long TICK_DURATION_MILLIS = 5;
+    private static final int TICKS_PER_WHEEL = 1024;
+
+    // Finds the bulkhead (if any) of the mock a request is for.
+    private final Function<HttpServletRequest, MockBulkhead> bulkheads;
+
+    private HashedWheelTimer timer;
+
+    public DelayedResponseHandler(final Handler handler) {
+        this(handler, null);
+    }
+
+    public DelayedResponseHandler(final Handler handler, final Function<HttpServletRequest, MockBulkhead> bulkheads) {
+        setHandler(handler);
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        timer = new HashedWheelTimer(new DefaultThreadFactory("smockin-response-delay", true), TICK_DURATION_MILLIS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL);
+        super.doStart();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+
+        // Any responses still waiting on the timer are completed by Jetty as it shuts down.
+        timer.stop();
+    }
+
+    @Override
+    public void handle(final String target, final Request baseRequest, final HttpServletRequest request, final HttpServletResponse response) throws IOException, ServletException {
+
+        request.setAttribute(SUPPORTED_ATTRIBUTE, Boolean.TRUE);
+
+        // Queued requests are re-dispatched once admitted, so are only checked on their initial dispatch.
+        if (DispatcherType.REQUEST.equals(request.getDispatcherType())
+                && !admit(request, response)) {
+            return;
+        }
+
+        final DelayedResponseWrapper responseWrapper = new DelayedResponseWrapper(response, request);
+
+        boolean delayed = false;
+
+        try {
+
+            super.handle(target, baseRequest, request, responseWrapper);
+
+            final Long delay = (Long) request.getAttribute(DELAY_ATTRIBUTE);
+
+            if (delay == null
+                    || request.isAsyncStarted()
+                    || response.isCommitted()) {
+                return;
+            }
+
+            final DelayedWrite delayedWrite = (DelayedWrite) request.getAttribute(DELAYED_WRITE_ATTRIBUTE);
+            final AsyncContext asyncContext = request.startAsync(request, response);
+
+            // The timer always fires, so the container's own async timeout is not needed.
+            asyncContext.setTimeout(0);
+            delayed = true;
+
+            try {
+                timer.newTimeout(t -> asyncContext.start(() -> writeResponse(asyncContext, request, responseWrapper, delayedWrite)), delay, TimeUnit.MILLISECONDS);
+            } catch (IllegalStateException ex) {
+                // Timer has been stopped, i.e the server is shutting down
+                writeResponse(asyncContext, request, responseWrapper, delayedWrite);
+            }
+
+        } finally {
+
+            if (!delayed) {
+                runCompletion(request);
+            }
+
+        }
+
+    }
+
+    /**
+     *
+     * Passes the request through the bulkhead of the mock it is for (if any).
+     *
+     * Where the mock is at capacity, the request is put into async mode and queued, releasing the request thread.
+     * It is then re-dispatched once handed a slot, or shed should it wait longer than the bulkhead's queue timeout.
+     *
+     * @returns boolean (true where the request may be served straight away)
+     *
+     */
+    boolean admit(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+
+        final MockBulkhead bulkhead = (bulkheads != null) ? bulkheads.apply(request) : null;
+
+        if (bulkhead == null) {
+            return true;
+        }
+
+        if (bulkhead.tryEnter()) {
+            request.setAttribute(COMPLETION_ATTRIBUTE, (Runnable) bulkhead::exit);
+            return true;
+        }
+
+        // No point going async, where the request is only going to be shed.
+        if (bulkhead.isQueueFull()) {
+            writeRejection(response, bulkhead);
+            return false;
+        }
+
+        // Put into async mode before joining the queue, as a slot could be handed over at any point thereafter.
+        final AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(0);
+
+        final Runnable onEntered = () -> {
+
+            request.setAttribute(COMPLETION_ATTRIBUTE, (Runnable) bulkhead::exit);
+
+            try {
+                asyncContext.dispatch();
+            } catch (IllegalStateException ex) {
+                logger.debug("Error dispatching queued request, client has most likely disconnected", ex);
+                runCompletion(request);
+            }
+        };
+
+        switch (bulkhead.enter(onEntered)) {
+            case ENTERED:
+                onEntered.run();
+                break;
+            case QUEUED:
+                try {
+                    timer.newTimeout(t -> {
+                        if (bulkhead.cancel(onEntered)) {
+                            asyncContext.start(() -> writeRejection(asyncContext, response, bulkhead));
+                        }
+                    }, bulkhead.getQueueTimeoutMillis(), TimeUnit.MILLISECONDS);
+                } catch (IllegalStateException ex) {
+                    // Timer has been stopped, i.e the server is shutting down
+                    if (bulkhead.cancel(onEntered)) {
+                        writeRejection(asyncContext, response, bulkhead);
+                    }
+                }
+                break;
+            case REJECTED:
+            default:
+                writeRejection(asyncContext, response, bulkhead);
+                break;
+        }
+
+        return false;
+    }
+
+    void writeRejection(final AsyncContext asyncContext, final HttpServletResponse response, final MockBulkhead bulkhead) {
+
+        try {
+            writeRejection(response, bulkhead);
+        } catch (IOException ex) {
+            logger.debug("Error writing rejected response, client has most likely disconnected", ex);
+        } finally {
+            asyncContext.complete();
+        }
+
+    }
+
+    // Turns the request away with the mock's overload status (429 or 503), and a Retry-After header where set.
+    void writeRejection(final HttpServletResponse response, final MockBulkhead bulkhead) throws IOException {
+
+        response.setStatus(bulkhead.getRejectionStatusCode());
+
+        if (bulkhead.getRetryAfterSeconds() > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(bulkhead.getRetryAfterSeconds()));
+        }
+
+        response.getOutputStream().write(HttpStatus.valueOf(bulkhead.getRejectionStatusCode()).getReasonPhrase().getBytes(StandardCharsets.UTF_8));
+    }
+
+    void writeResponse(final AsyncContext asyncContext, final ServletRequest request, final DelayedResponseWrapper responseWrapper, final DelayedWrite delayedWrite) {
+
+        responseWrapper.release();
+
+        try {
+
+            if (delayedWrite != null) {
+                delayedWrite.write();
+            }
+
+        } catch (IOException ex) {
+            logger.debug("Error writing delayed response, client has most likely disconnected", ex);
+        } catch (RuntimeException ex) {
+            logger.error("Error writing delayed response", ex);
+        } finally {
+            asyncContext.complete();
+            runCompletion(request);
+        }
+
+    }
+
+    void runCompletion(final ServletRequest request) {
+
+        final Runnable completion = (Runnable) request.getAttribute(COMPLETION_ATTRIBUTE);
+
+        if (completion == null) {
+            return;
+        }
+
+        // Removed first, so it can only ever be called the once.
+        request.removeAttribute(COMPLETION_ATTRIBUTE);
+
+        try {
+            completion.run();
+        } catch (RuntimeException ex) {
+            logger.error("Error running response completion callback", ex);
+        }
+
+    }
+
+    /**
+     * Writes the body of a delayed response, to the (by then released) response the mock was originally handed.
+     */
+    @FunctionalInterface
+    public interface DelayedWrite {
+
+        void write() throws IOException;
+
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.smockin.mockserver.engine.jetty;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * Created by mgallina.
+ *
+ * Passes everything through to the underlying response, unless a response delay has been requested,
+ * in which case the body is held back (and the response left uncommitted) until released.
+ *
+ * Nothing is buffered while held back. The mock's resolved response is instead written (by the DelayedWrite
+ * set on the request) once the delay has passed and the response has been released, so anything else
+ * written in the meantime (i.e Spark's own empty body) is discarded.
+ *
+ * Status and headers are always applied to the underlying response directly.
+ */
+class DelayedResponseWrapper extends HttpServletResponseWrapper {
+
+    private final HttpServletRequest request;
+
+    private volatile boolean released;
+    private DiscardingServletOutputStream discardStream;
+    private PrintWriter discardWriter;
+
+    DelayedResponseWrapper(final HttpServletResponse response, final HttpServletRequest request) {
+        super(response);
+        this.request = request;
+    }
+
+    boolean isHeldBack() {
+        return !released
+                && request.getAttribute(DelayedResponseHandler.DELAY_ATTRIBUTE) != null;
+    }
+
+    // From here on the body is written straight to the underlying response.
+    void release() {
+        released = true;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+
+        if (!isHeldBack()) {
+            return super.getOutputStream();
+        }
+
+        if (discardStream == null) {
+            discardStream = new DiscardingServletOutputStream();
+        }
+
+        return discardStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+
+        if (!isHeldBack()) {
+            return super.getWriter();
+        }
+
+        if (discardWriter == null) {
+            discardWriter = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+        }
+
+        return discardWriter;
+    }
+
+    // Reporting a held back response as committed stops Spark from serializing a body of it's own.
+    @Override
+    public boolean isCommitted() {
+
+        if (isHeldBack()) {
+            return true;
+        }
+
+        return super.isCommitted();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+
+        // Flushing would commit the underlying response.
+        if (!isHeldBack()) {
+            super.flushBuffer();
+        }
+
+    }
+
+    private static final class DiscardingServletOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(final int b) {
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+            throw new UnsupportedOperationException("Non blocking writes are not supported on a delayed response");
+        }
+
+    }
+
+}
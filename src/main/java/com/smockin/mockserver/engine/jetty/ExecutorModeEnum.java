@@ -0,0 +1,21 @@
+package com.smockin.mockserver.engine.jetty;
+
+import java.util.stream.Stream;
+
+/**
+ * Created by mgallina.
+ *
+ * How requests to the mocked REST endpoints are dispatched to threads.
+ */
+public enum ExecutorModeEnum {
+    QUEUED,     // Jetty's own queued thread pool, capped at maxThreads (the default)
+    BOUNDED,    // A fixed pool of maxThreads, with a bounded queue which rejects requests once full
+    VIRTUAL;    // A new virtual thread per request (JDK 21+)
+
+    public static ExecutorModeEnum findByName(final String name) {
+        return Stream.of(ExecutorModeEnum.values())
+                .filter(em -> (em.name().equalsIgnoreCase(name)))
+                .findFirst().orElse(null);
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.smockin.mockserver.engine.jetty;
+
+/**
+ * Created by mgallina.
+ *
+ * Settings for the connector the mock server listens on.
+ * Where not stated, the defaults match the connector Spark would otherwise create.
+ */
+public final class JettyConnectorConfig {
+
+    public static final String DEFAULT_HOST = "0.0.0.0";
+    public static final int DEFAULT_ACCEPTORS = -1;                 // Jetty chooses, based on the number of CPUs
+    public static final int DEFAULT_SELECTORS = -1;                 // Jetty chooses, based on the number of CPUs
+    public static final int DEFAULT_ACCEPT_QUEUE_SIZE = 0;          // The OS default backlog
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 3600000;
+    public static final int DEFAULT_MAX_KEEP_ALIVE_REQUESTS = 0;    // Unlimited
+
+    private final String host;
+    private final int port;
+    private final int acceptors;
+    private final int selectors;
+    private final int acceptQueueSize;
+    private final long idleTimeoutMillis;
+    private final int maxKeepAliveRequests;
+    private final boolean h2cEnabled;
+
+    public JettyConnectorConfig(final int port) {
+        this(DEFAULT_HOST, port, DEFAULT_ACCEPTORS, DEFAULT_SELECTORS, DEFAULT_ACCEPT_QUEUE_SIZE, DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_MAX_KEEP_ALIVE_REQUESTS, false);
+    }
+
+    public JettyConnectorConfig(final String host, final int port, final int acceptors, final int selectors, final int acceptQueueSize,
+                                final long idleTimeoutMillis, final int maxKeepAliveRequests, final boolean h2cEnabled) {
+        this.host = host;
+        this.port = port;
+        this.acceptors = acceptors;
+        this.selectors = selectors;
+        this.acceptQueueSize = acceptQueueSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxKeepAliveRequests = maxKeepAliveRequests;
+        this.h2cEnabled = h2cEnabled;
+    }
+
+    public String getHost() {
+        return host;
+    }
+    public int getPort() {
+        return port;
+    }
+    public int getAcceptors() {
+        return acceptors;
+    }
+    public int getSelectors() {
+        return selectors;
+    }
+    public int getAcceptQueueSize() {
+        return acceptQueueSize;
+    }
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    // The number of requests allowed over a single HTTP/1.x connection, before it is closed (0 is unlimited).
+    public int getMaxKeepAliveRequests() {
+        return maxKeepAliveRequests;
+    }
+
+    // Whether cleartext HTTP/2 is accepted alongside HTTP/1.1 (via either prior knowledge or an h2c upgrade).
+    public boolean isH2cEnabled() {
+        return h2cEnabled;
+    }
+
+    @Override
+    public String toString() {
+        return "JettyConnectorConfig {"
+                + " host: " + host
+                + ", port: " + port
+                + ", acceptors: " + acceptors
+                + ", selectors: " + selectors
+                + ", acceptQueueSize: " + acceptQueueSize
+                + ", idleTimeoutMillis: " + idleTimeoutMillis
+                + ", maxKeepAliveRequests: " + maxKeepAliveRequests
+                + ", h2cEnabled: " + h2cEnabled
+                + " }";
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.smockin.mockserver.engine.jetty;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpHeaderValue;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Created by mgallina.
+ *
+ * Closes a persistent HTTP/1.x connection once it has served the given number of requests,
+ * so long running load tests spread their traffic across fresh connections.
+ *
+ * HTTP/2 streams are multiplexed over a single connection, so are left untouched.
+ */
+public class KeepAliveLimitHandler extends HandlerWrapper {
+
+    private final int maxRequests;
+
+    public KeepAliveLimitHandler(final Handler handler, final int maxRequests) {
+        this.maxRequests = maxRequests;
+        setHandler(handler);
+    }
+
+    @Override
+    public void handle(final String target, final Request baseRequest, final HttpServletRequest request, final HttpServletResponse response) throws IOException, ServletException {
+
+        if (baseRequest.getHttpVersion() != null
+                && baseRequest.getHttpVersion().getVersion() < HttpVersion.HTTP_2.getVersion()
+                && baseRequest.getHttpChannel().getRequests() >= maxRequests) {
+            response.setHeader(HttpHeader.CONNECTION.asString(), HttpHeaderValue.CLOSE.asString());
+        }
+
+        super.handle(target, baseRequest, request, response);
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.smockin.mockserver.engine.jetty;
+
+import com.smockin.mockserver.service.bean.MockBulkhead;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.ForwardedRequestCustomizer;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spark.embeddedserver.jetty.JettyServerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.function.Function;
+
+/**
+ * Created by mgallina.
+ *
+ * Builds the Jetty server Spark runs the mocked REST endpoints on.
+ *
+ * Matches Spark's own default server, other than:
+ * - whichever handler Spark installs is wrapped in a DelayedResponseHandler (which also admits requests through any mock bulkheads).
+ * - the thread pool used is determined by the ExecutorModeEnum.
+ * - where a JettyConnectorConfig is given, the server's connector is built here (which Spark then uses in place of it's own).
+ */
+public class MockedJettyServerFactory implements JettyServerFactory {
+
+    private final Logger logger = LoggerFactory.getLogger(MockedJettyServerFactory.class);
+
+    public static final int DEFAULT_QUEUE_SIZE = 512;
+
+    private static final int DEFAULT_MAX_THREADS = 200;
+    private static final int DEFAULT_MIN_THREADS = 8;
+    private static final int DEFAULT_IDLE_TIMEOUT_MILLIS = 60000;
+
+    private final ExecutorModeEnum executorMode;
+    private final int queueSize;
+    private final JettyConnectorConfig connectorConfig;
+    private final Function<HttpServletRequest, MockBulkhead> bulkheads;
+
+    public MockedJettyServerFactory() {
+        this(ExecutorModeEnum.QUEUED, DEFAULT_QUEUE_SIZE);
+    }
+
+    public MockedJettyServerFactory(final ExecutorModeEnum executorMode, final int queueSize) {
+        this(executorMode, queueSize, null);
+    }
+
+    public MockedJettyServerFactory(final ExecutorModeEnum executorMode, final int queueSize, final JettyConnectorConfig connectorConfig) {
+        this(executorMode, queueSize, connectorConfig, null);
+    }
+
+    public MockedJettyServerFactory(final ExecutorModeEnum executorMode, final int queueSize, final JettyConnectorConfig connectorConfig,
+                                    final Function<HttpServletRequest, MockBulkhead> bulkheads) {
+        this.executorMode = executorMode;
+        this.queueSize = (queueSize > 0) ? queueSize : DEFAULT_QUEUE_SIZE;
+        this.connectorConfig = connectorConfig;
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public Server create(final int maxThreads, final int minThreads, final int threadTimeoutMillis) {
+        return create(buildThreadPool(maxThreads, minThreads, threadTimeoutMillis));
+    }
+
+    @Override
+    public Server create(final ThreadPool threadPool) {
+
+        final MockedJettyServer server = new MockedJettyServer(threadPool, (connectorConfig != null) ? connectorConfig.getMaxKeepAliveRequests() : 0, bulkheads);
+
+        if (connectorConfig != null) {
+            server.addConnector(buildConnector(server, connectorConfig));
+        }
+
+        return server;
+    }
+
+    ServerConnector buildConnector(final Server server, final JettyConnectorConfig config) {
+
+        if (logger.isDebugEnabled())
+            logger.debug(config.toString());
+
+        // As per Spark's own connector
+        final HttpConfiguration httpConfig = new HttpConfiguration();
+        httpConfig.setSecureScheme("https");
+        httpConfig.addCustomizer(new ForwardedRequestCustomizer());
+
+        final ConnectionFactory[] connectionFactories = (config.isH2cEnabled())
+                ? new ConnectionFactory[] { new HttpConnectionFactory(httpConfig), new HTTP2CServerConnectionFactory(httpConfig) }
+                : new ConnectionFactory[] { new HttpConnectionFactory(httpConfig) };
+
+        final ServerConnector connector = new ServerConnector(server, config.getAcceptors(), config.getSelectors(), connectionFactories);
+        connector.setHost(config.getHost());
+        connector.setPort(config.getPort());
+        connector.setAcceptQueueSize(config.getAcceptQueueSize());
+        connector.setIdleTimeout(config.getIdleTimeoutMillis());
+
+        return connector;
+    }
+
+    ThreadPool buildThreadPool(final int maxThreads, final int minThreads, final int threadTimeoutMillis) {
+
+        final int max = (maxThreads > 0) ? maxThreads : DEFAULT_MAX_THREADS;
+        final int min = (minThreads > 0) ? minThreads : DEFAULT_MIN_THREADS;
+        final int idleTimeout = (threadTimeoutMillis > 0) ? threadTimeoutMillis : DEFAULT_IDLE_TIMEOUT_MILLIS;
+
+        switch (executorMode) {
+            case VIRTUAL:
+
+                if (VirtualThreadPool.isSupported()) {
+                    return new VirtualThreadPool();
+                }
+
+                logger.warn("Virtual threads are not supported by this JVM (JDK 21+ is required), falling back to the " + ExecutorModeEnum.QUEUED + " executor mode");
+                break;
+
+            case BOUNDED:
+                // Once all threads are busy and the queue is full, Jetty closes any further connections rather than queuing them.
+                return new QueuedThreadPool(max, max, idleTimeout, new BlockingArrayQueue<>(queueSize));
+
+            case QUEUED:
+            default:
+                break;
+        }
+
+        return new QueuedThreadPool(max, Math.min(min, max), idleTimeout);
+    }
+
+    static final class MockedJettyServer extends Server {
+
+        private final int maxKeepAliveRequests;
+        private final Function<HttpServletRequest, MockBulkhead> bulkheads;
+
+        MockedJettyServer(final ThreadPool threadPool, final int maxKeepAliveRequests, final Function<HttpServletRequest, MockBulkhead> bulkheads) {
+            super(threadPool);
+            this.maxKeepAliveRequests = maxKeepAliveRequests;
+            this.bulkheads = bulkheads;
+        }
+
+        // Spark sets it's handler (or handler list when web sockets are in use) once the server has been created.
+        @Override
+        public void setHandler(final Handler handler) {
+
+            if (handler == null
+                    || handler instanceof DelayedResponseHandler
+                    || handler instanceof KeepAliveLimitHandler) {
+                super.setHandler(handler);
+                return;
+            }
+
+            final Handler delayedResponseHandler = new DelayedResponseHandler(handler, bulkheads);
+
+            super.setHandler((maxKeepAliveRequests > 0)
+                    ? new KeepAliveLimitHandler(delayedResponseHandler, maxKeepAliveRequests)
+                    : delayedResponseHandler);
+        }
+
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.smockin.mockserver.engine.jetty;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by mgallina.
+ *
+ * A Jetty thread pool which runs every task on a new virtual thread, so blocking mocks
+ * (i.e proxied HTTP waits, SSE streams) no longer cap the number of concurrent requests.
+ *
+ * The virtual thread executor is looked up reflectively, as the app is built for Java 8.
+ * Use isSupported() to check the running JVM provides it (JDK 21+).
+ */
+public class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+
+    private static final Method EXECUTOR_FACTORY = findExecutorFactory();
+    private static final long STOP_TIMEOUT_MILLIS = 5000;
+
+    private final AtomicInteger activeTasks = new AtomicInteger();
+    private volatile ExecutorService executor;
+
+    public static boolean isSupported() {
+        return EXECUTOR_FACTORY != null;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads are not supported by this JVM");
+        }
+
+        executor = (ExecutorService) EXECUTOR_FACTORY.invoke(null);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+
+        executor.shutdown();
+
+        if (!executor.awaitTermination(STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+
+    }
+
+    @Override
+    public void execute(final Runnable job) {
+
+        if (!isRunning()) {
+            throw new RejectedExecutionException(job.toString());
+        }
+
+        executor.execute(() -> {
+            activeTasks.incrementAndGet();
+            try {
+                job.run();
+            } finally {
+                activeTasks.decrementAndGet();
+            }
+        });
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+
+        if (executor != null) {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+
+    }
+
+    // Each task runs on it's own thread, so this is the number of tasks in flight.
+    @Override
+    public int getThreads() {
+        return activeTasks.get();
+    }
+
+    @Override
+    public int getIdleThreads() {
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+
+    private static Method findExecutorFactory() {
+
+        try {
+
+            final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            // Present but unusable on JDK 19 & 20, unless preview features are enabled.
+            ((ExecutorService) factory.invoke(null)).shutdown();
+
+            return factory;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+
+    }
+
+}
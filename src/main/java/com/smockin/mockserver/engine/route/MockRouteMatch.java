@@ -0,0 +1,66 @@
+package com.smockin.mockserver.engine.route;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Created by mgallina.
+ *
+ * The outcome of a successful MockRouteTrie look up.
+ *
+ * Path variables and splat values are held in the same form Java Spark exposes them
+ * (i.e keys are lower case and prefixed with ':', values are url decoded).
+ */
+public final class MockRouteMatch<T> {
+
+    // Request attribute under which the match is held for the duration of a request.
+    public static final String REQUEST_ATTRIBUTE = "MOCK_ROUTE_MATCH";
+
+    private final T target;
+    private final Map<String, String> params;
+    private final String[] splat;
+
+    MockRouteMatch(final T target, final Map<String, String> params, final String[] splat) {
+        this.target = target;
+        this.params = Collections.unmodifiableMap(params);
+        this.splat = splat;
+    }
+
+    public T getTarget() {
+        return target;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public String getParam(final String name) {
+
+        if (name == null) {
+            return null;
+        }
+
+        return params.get((name.startsWith(MockRouteTrie.PARAM_PREFIX) ? name : MockRouteTrie.PARAM_PREFIX + name).toLowerCase());
+    }
+
+    public String[] getSplat() {
+        return splat.clone();
+    }
+
+    static String decode(final String value) {
+
+        if (value.indexOf('%') == -1) {
+            return value;
+        }
+
+        try {
+            // Path segments are not form encoded, so preserve any '+' characters.
+            return URLDecoder.decode(value.replace("+", "%2B"), "UTF-8");
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            return value;
+        }
+    }
+
+}
@@ -0,0 +1,264 @@
+package com.smockin.mockserver.engine.route;
+
+import com.smockin.admin.persistence.enums.RestMethodEnum;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by mgallina.
+ *
+ * Radix trie of mocked REST routes, keyed on the HTTP method and then on whole path segments.
+ *
+ * Matching follows the same rules Java Spark applies to it's own routes:
+ *
+ * - Literal segments must match exactly (case sensitive).
+ * - ':name' segments match any single segment, which is captured as a path variable.
+ * - '*' matches any single segment or, when it is the last segment of the route, all remaining segments.
+ * - A route ending in '/' only matches requests ending in '/' (and vice versa), unless the route ends in '*'.
+ *
+ * Where more than one route matches a request, the route added first wins, just as Spark picks the first registered route.
+ * Routes are therefore expected to be added in initializationOrder.
+ *
+ * Lookup cost is bound by the number of segments in the request path rather than the number of routes.
+ * Routes must all be added before the trie is shared with request threads.
+ */
+public final class MockRouteTrie<T> {
+
+    static final String PARAM_PREFIX = ":";
+    static final String WILDCARD = "*";
+    static final String PATH_SEPARATOR = "/";
+
+    private final Map<RestMethodEnum, Node<T>> roots = new EnumMap<>(RestMethodEnum.class);
+    private int size;
+
+    public void add(final RestMethodEnum method, final String path, final T target) {
+
+        if (method == null || path == null || target == null) {
+            throw new IllegalArgumentException("method, path and target are all required");
+        }
+
+        final String[] segments = toSegments(path);
+        final int priority = size++;
+        final Route<T> route = new Route<>(segments, target, priority);
+
+        Node<T> node = roots.computeIfAbsent(method, m -> new Node<>());
+        node.offer(priority);
+
+        final boolean endsWithWildcard = segments.length > 0 && WILDCARD.equals(segments[segments.length - 1]);
+        final int depth = (endsWithWildcard) ? segments.length - 1 : segments.length;
+
+        for (int i = 0; i < depth; i++) {
+            node = node.child(segments[i]);
+            node.offer(priority);
+        }
+
+        if (endsWithWildcard) {
+            if (node.trailingWildcard == null) {
+                node.trailingWildcard = route;
+            }
+            return;
+        }
+
+        final int slot = (path.length() > 1 && path.endsWith(PATH_SEPARATOR)) ? 1 : 0;
+
+        // As with Spark, the first route registered for a given path takes precedence.
+        if (node.terminals[slot] == null) {
+            node.terminals[slot] = route;
+        }
+
+    }
+
+    public MockRouteMatch<T> match(final RestMethodEnum method, final String path) {
+
+        if (method == null || path == null) {
+            return null;
+        }
+
+        final Node<T> root = roots.get(method);
+
+        if (root == null) {
+            return null;
+        }
+
+        final String[] segments = toSegments(path);
+        final boolean trailingSlash = path.endsWith(PATH_SEPARATOR);
+
+        final Candidate<T> best = new Candidate<>();
+        search(root, segments, 0, trailingSlash, best);
+
+        if (best.route == null) {
+            return null;
+        }
+
+        return best.route.toMatch(segments, best.trailingWildcard);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void search(final Node<T> node, final String[] segments, final int index, final boolean trailingSlash, final Candidate<T> best) {
+
+        // Nothing in this branch can beat what has already been found.
+        if (node.minPriority >= best.priority) {
+            return;
+        }
+
+        if (index == segments.length) {
+
+            best.offer(node.terminals[(trailingSlash && segments.length > 0) ? 1 : 0], false);
+
+            // Spark allows '/foo/*' to match '/foo/', with an empty splat.
+            if (trailingSlash) {
+                best.offer(node.trailingWildcard, true);
+            }
+
+            return;
+        }
+
+        best.offer(node.trailingWildcard, true);
+
+        final Node<T> literal = node.literals.get(segments[index]);
+
+        if (literal != null) {
+            search(literal, segments, index + 1, trailingSlash, best);
+        }
+        if (node.param != null) {
+            search(node.param, segments, index + 1, trailingSlash, best);
+        }
+        if (node.wildcard != null) {
+            search(node.wildcard, segments, index + 1, trailingSlash, best);
+        }
+
+    }
+
+    static String[] toSegments(final String path) {
+
+        final List<String> segments = new ArrayList<>();
+
+        int start = 0;
+
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == '/') {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+
+        return segments.toArray(new String[segments.size()]);
+    }
+
+    private static final class Node<T> {
+
+        private final Map<String, Node<T>> literals = new HashMap<>();
+        private Node<T> param;
+        private Node<T> wildcard;
+        private Route<T> trailingWildcard;
+
+        // index 0 holds the route without a trailing slash, index 1 the route with one.
+        @SuppressWarnings("unchecked")
+        private final Route<T>[] terminals = new Route[2];
+
+        // Lowest (i.e best) priority of any route held within this node or beneath it.
+        private int minPriority = Integer.MAX_VALUE;
+
+        private Node<T> child(final String segment) {
+
+            if (segment.startsWith(PARAM_PREFIX)) {
+                if (param == null) {
+                    param = new Node<>();
+                }
+                return param;
+            }
+
+            if (WILDCARD.equals(segment)) {
+                if (wildcard == null) {
+                    wildcard = new Node<>();
+                }
+                return wildcard;
+            }
+
+            return literals.computeIfAbsent(segment, s -> new Node<>());
+        }
+
+        private void offer(final int priority) {
+            if (priority < minPriority) {
+                minPriority = priority;
+            }
+        }
+
+    }
+
+    private static final class Route<T> {
+
+        private final String[] pattern;
+        private final T target;
+        private final int priority;
+
+        private Route(final String[] pattern, final T target, final int priority) {
+            this.pattern = pattern;
+            this.target = target;
+            this.priority = priority;
+        }
+
+        private MockRouteMatch<T> toMatch(final String[] segments, final boolean trailingWildcard) {
+
+            final Map<String, String> params = new HashMap<>();
+            final List<String> splat = new ArrayList<>();
+
+            for (int i = 0; i < pattern.length; i++) {
+
+                final String part = pattern[i];
+
+                if (part.startsWith(PARAM_PREFIX)) {
+                    params.put(part.toLowerCase(), MockRouteMatch.decode(segments[i]));
+                } else if (WILDCARD.equals(part)) {
+
+                    if (trailingWildcard && i == pattern.length - 1) {
+
+                        final StringBuilder remaining = new StringBuilder();
+
+                        for (int j = i; j < segments.length; j++) {
+                            if (j > i) {
+                                remaining.append(PATH_SEPARATOR);
+                            }
+                            remaining.append(segments[j]);
+                        }
+
+                        splat.add(MockRouteMatch.decode(remaining.toString()));
+                    } else {
+                        splat.add(MockRouteMatch.decode(segments[i]));
+                    }
+
+                }
+
+            }
+
+            return new MockRouteMatch<>(target, params, splat.toArray(new String[splat.size()]));
+        }
+
+    }
+
+    private static final class Candidate<T> {
+
+        private Route<T> route;
+        private boolean trailingWildcard;
+        private int priority = Integer.MAX_VALUE;
+
+        private void offer(final Route<T> candidate, final boolean isTrailingWildcard) {
+            if (candidate != null && candidate.priority < priority) {
+                route = candidate;
+                trailingWildcard = isTrailingWildcard;
+                priority = candidate.priority;
+            }
+        }
+
+    }
+
+}
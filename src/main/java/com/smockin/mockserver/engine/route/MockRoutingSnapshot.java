@@ -0,0 +1,49 @@
+package com.smockin.mockserver.engine.route;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Created by mgallina.
+ *
+ * Everything request threads need to route to a deployed mock, built in full before being published.
+ *
+ * A snapshot is never modified once built. A redeploy builds a new one alongside the current snapshot
+ * and then swaps it in with a single reference assignment, so in-flight requests are never disrupted.
+ */
+public final class MockRoutingSnapshot<T> {
+
+    private static final MockRoutingSnapshot<?> EMPTY = new MockRoutingSnapshot<>(new MockRouteTrie<>(), new HashMap<>(), new HashMap<>());
+
+    private final MockRouteTrie<T> routes;
+    private final Map<Long, T> mocks;
+    private final Map<Long, Date> deployedMocks;
+
+    public MockRoutingSnapshot(final MockRouteTrie<T> routes, final Map<Long, T> mocks, final Map<Long, Date> deployedMocks) {
+        this.routes = routes;
+        this.mocks = Collections.unmodifiableMap(new HashMap<>(mocks));
+        this.deployedMocks = Collections.unmodifiableMap(new HashMap<>(deployedMocks));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> MockRoutingSnapshot<T> empty() {
+        return (MockRoutingSnapshot<T>) EMPTY;
+    }
+
+    public MockRouteTrie<T> getRoutes() {
+        return routes;
+    }
+
+    // Deployed mocks keyed by id.
+    public Map<Long, T> getMocks() {
+        return mocks;
+    }
+
+    // The lastUpdated date of each deployed mock, keyed by id.
+    public Map<Long, Date> getDeployedMocks() {
+        return deployedMocks;
+    }
+
+}
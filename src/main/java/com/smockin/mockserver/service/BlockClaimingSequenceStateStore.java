@@ -0,0 +1,118 @@
+package com.smockin.mockserver.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by mgallina.
+ *
+ * SequenceStateStore for several smockin nodes sharing the same sequences.
+ *
+ * Positions are claimed from the shared SequenceBlockSource a block at a time, and then handed out locally
+ * (lock free) until the block runs out, so only one request in every block waits on the shared source.
+ *
+ * Each node works through it's own blocks, so nodes serve interleaved runs of the sequence rather than
+ * strictly taking turns, but no position is served twice. A block size of 1 gives a strict order across nodes,
+ * at the cost of claiming on every request.
+ *
+ * Clearing only drops this node's unused blocks, leaving the shared sequence for the other nodes (and this one,
+ * once restarted) to carry on with. The shared sequence instead starts over once claimed from for a newer version
+ * of the mock.
+ */
+public class BlockClaimingSequenceStateStore implements SequenceStateStore {
+
+    private final SequenceBlockSource blockSource;
+    private final int blockSize;
+    private final ConcurrentMap<String, BlockHolder> holders = new ConcurrentHashMap<>();
+
+    public BlockClaimingSequenceStateStore(final SequenceBlockSource blockSource, final int blockSize) {
+
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Sequence block size must be at least 1");
+        }
+
+        this.blockSource = blockSource;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public long nextPosition(final String mockExtId, final long mockVersion) {
+
+        final BlockHolder holder = getHolder(mockExtId);
+
+        while (true) {
+
+            final Block block = holder.current;
+
+            // A block claimed for a different version of the mock belongs to a different sequence.
+            if (block != null
+                    && block.mockVersion == mockVersion) {
+
+                final long position = block.next.getAndIncrement();
+
+                if (position < block.end) {
+                    return position;
+                }
+            }
+
+            // Only the one thread claims the next block, any others racing for it then take from the new block.
+            synchronized (holder) {
+                if (holder.current == block) {
+                    final long start = blockSource.claimBlock(mockExtId, mockVersion, blockSize);
+                    holder.current = new Block(mockVersion, start, start + blockSize);
+                }
+            }
+        }
+    }
+
+    // Positions left in this node's blocks are never served, but are not handed out again either.
+    @Override
+    public void clear(final String mockExtId) {
+        holders.remove(mockExtId);
+    }
+
+    @Override
+    public void clearAll() {
+        holders.clear();
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    private BlockHolder getHolder(final String mockExtId) {
+
+        final BlockHolder holder = holders.get(mockExtId);
+
+        if (holder != null) {
+            return holder;
+        }
+
+        final BlockHolder created = new BlockHolder();
+        final BlockHolder existing = holders.putIfAbsent(mockExtId, created);
+
+        return (existing != null) ? existing : created;
+    }
+
+    private static final class BlockHolder {
+
+        private volatile Block current;
+
+    }
+
+    private static final class Block {
+
+        private final long mockVersion;
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(final long mockVersion, final long start, final long end) {
+            this.mockVersion = mockVersion;
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.smockin.mockserver.service;
+
+import com.smockin.admin.persistence.dao.SequenceStateDAO;
+import com.smockin.admin.persistence.entity.SequenceState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Created by mgallina.
+ *
+ * SequenceBlockSource backed by the SEQ_STATE table, so shared by every smockin node pointed at the same database
+ * (i.e an H2 server, or any other supported DB).
+ *
+ * Each claim is it's own (short) transaction, in which the row's next position is moved on by the block size.
+ *
+ * Rows are never removed by a node starting, stopping or redeploying, as other nodes may still be part way through
+ * the sequence. Instead a row starts over once claimed from for a newer version of the mock, and is removed along
+ * with the mock itself.
+ */
+@Service
+public class DatabaseSequenceBlockSource implements SequenceBlockSource {
+
+    @Autowired
+    private SequenceStateDAO sequenceStateDAO;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public long claimBlock(final String mockExtId, final long mockVersion, final int blockSize) {
+
+        try {
+            return transactionTemplate.execute(status -> claimBlockInTransaction(mockExtId, mockVersion, blockSize));
+        } catch (DataIntegrityViolationException ex) {
+            // Another node created the mock's row first, so there is now one to claim from.
+            return transactionTemplate.execute(status -> claimBlockInTransaction(mockExtId, mockVersion, blockSize));
+        }
+    }
+
+    long claimBlockInTransaction(final String mockExtId, final long mockVersion, final int blockSize) {
+
+        if (sequenceStateDAO.claimBlock(mockExtId, mockVersion, blockSize) > 0) {
+            return sequenceStateDAO.findByExtId(mockExtId).getNextPosition() - blockSize;
+        }
+
+        // The mock has changed since it's sequence was started
+        if (sequenceStateDAO.restartSequence(mockExtId, mockVersion, blockSize) > 0) {
+            return 0;
+        }
+
+        // The first claim for this mock
+        sequenceStateDAO.saveAndFlush(new SequenceState(mockExtId, mockVersion, blockSize));
+
+        return 0;
+    }
+
+}
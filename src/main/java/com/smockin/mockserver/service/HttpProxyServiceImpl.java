@@ -7,6 +7,7 @@ import com.smockin.admin.persistence.entity.RestfulMock;
 import com.smockin.admin.persistence.enums.RestMethodEnum;
 import com.smockin.admin.service.utils.UserTokenServiceUtils;
 import com.smockin.mockserver.engine.MockedRestServerEngine;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
 import com.smockin.mockserver.service.bean.ProxiedKey;
 import com.smockin.mockserver.service.dto.HttpProxiedDTO;
 import com.smockin.mockserver.service.dto.RestfulResponseDTO;
@@ -47,7 +48,7 @@ public class HttpProxyServiceImpl implements HttpProxyService {
     private MockedRestServerEngine mockedRestServerEngine;
 
     @Override
-    public RestfulResponseDTO waitForResponse(final String requestPath, final RestfulMock mock) {
+    public RestfulResponseDTO waitForResponse(final String requestPath, final CompiledRestfulMock mock) {
 
         try {
 
@@ -0,0 +1,48 @@
+package com.smockin.mockserver.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by mgallina.
+ *
+ * The default SequenceStateStore, holding each mock's position as a lone (lock free) counter local to this node.
+ *
+ * All state is local, so the mock's version is not needed, the counter being cleared whenever the mock is redeployed.
+ */
+public class InMemorySequenceStateStore implements SequenceStateStore {
+
+    private final ConcurrentMap<String, AtomicLong> sequenceCursors = new ConcurrentHashMap<>();
+
+    @Override
+    public long nextPosition(final String mockExtId, final long mockVersion) {
+        return getSequenceCursor(mockExtId).getAndIncrement();
+    }
+
+    @Override
+    public void clear(final String mockExtId) {
+        sequenceCursors.remove(mockExtId);
+    }
+
+    @Override
+    public void clearAll() {
+        sequenceCursors.clear();
+    }
+
+    // Only the first call for a mock (since it's state was last cleared) creates it's counter.
+    AtomicLong getSequenceCursor(final String mockExtId) {
+
+        final AtomicLong cursor = sequenceCursors.get(mockExtId);
+
+        if (cursor != null) {
+            return cursor;
+        }
+
+        final AtomicLong created = new AtomicLong();
+        final AtomicLong existing = sequenceCursors.putIfAbsent(mockExtId, created);
+
+        return (existing != null) ? existing : created;
+    }
+
+}
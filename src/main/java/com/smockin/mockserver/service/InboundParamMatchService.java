@@ -1,7 +1,11 @@
 package com.smockin.mockserver.service;
 
+import com.smockin.mockserver.service.bean.ResponseTemplate;
 import spark.Request;
 
+import java.io.IOException;
+import java.io.Writer;
+
 /**
  * Created by mgallina.
  */
@@ -12,5 +16,7 @@ public interface InboundParamMatchService {
     String UNTIL_ARG = "UNTIL";
 
     String enrichWithInboundParamMatches(final Request req, final String responseBody);
+    String enrichWithInboundParamMatches(final Request req, final ResponseTemplate responseTemplate);
+    void streamInboundParamMatches(final Request req, final ResponseTemplate responseTemplate, final Writer out) throws IOException;
 
 }
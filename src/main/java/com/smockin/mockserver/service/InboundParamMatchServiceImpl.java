@@ -1,17 +1,11 @@
 package com.smockin.mockserver.service;
 
-import com.smockin.utils.GeneralUtils;
-import com.smockin.mockserver.service.enums.ParamMatchTypeEnum;
-import org.apache.commons.lang3.RandomUtils;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.math.NumberUtils;
+import com.smockin.mockserver.service.bean.ResponseTemplate;
 import org.springframework.stereotype.Service;
 import spark.Request;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Random;
-import java.util.UUID;
+import java.io.IOException;
+import java.io.Writer;
 
 /**
  * Created by mgallina on 09/08/17.
@@ -19,139 +13,104 @@ import java.util.UUID;
 @Service
 public class InboundParamMatchServiceImpl implements InboundParamMatchService {
 
-    @Override
-    public String enrichWithInboundParamMatches(final Request req, final String responseBody) {
-
-        if (responseBody == null) {
-            return null;
-        }
+    private static final int INITIAL_BUFFER_CAPACITY = 1024;
 
-        String enrichedResponseBody = responseBody;
+    // Allowance for each token's value, when sizing the buffer to render into.
+    private static final int ESTIMATED_TOKEN_LENGTH = 16;
 
-        final int MAX = 10000;
-        int index = 0;
+    // Buffers grown beyond this are not kept for reuse, so a thread which renders one very large body does not hold on to it.
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 256 * 1024;
 
-        while (true) {
-
-            if (index > MAX) {
-                throw new StackOverflowError("Error MAX iterations reached in 'while loop', whilst trying to swap out inbound param tokens.");
-            }
-
-            final String r = processParamMatch(req, enrichedResponseBody);
-
-            if (r == null) {
-                break;
-            }
+    private final ThreadLocal<StringBuilder> renderBuffer = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_CAPACITY));
 
-            enrichedResponseBody = r;
+    @Override
+    public String enrichWithInboundParamMatches(final Request req, final String responseBody) {
 
-            index++;
+        if (responseBody == null) {
+            return null;
         }
 
-        return enrichedResponseBody;
+        return enrichWithInboundParamMatches(req, ResponseTemplate.compile(responseBody));
     }
 
-    String processParamMatch(final Request req, final String responseBody) {
-
-        // Look up for any 'inbound param token' matches
-        final String matchResult = GeneralUtils.findFirstInboundParamMatch(responseBody);
+    /**
+     *
+     * Renders the (deploy time compiled) body in a single pass, into a buffer reused by the request thread.
+     *
+     * Header, request param and path variable look ups are served from the request context, so are only gathered the once per request.
+     *
+     */
+    @Override
+    public String enrichWithInboundParamMatches(final Request req, final ResponseTemplate responseTemplate) {
 
-        if (matchResult == null) {
-            // No tokens found so do nothing.
+        if (responseTemplate == null) {
             return null;
         }
 
-        // Determine the matching token type, is it a REQ_HEAD, REQ_PARAM or PATH_VAR...
-        if (matchResult.startsWith(ParamMatchTypeEnum.REQ_HEAD.name())) {
+        final RequestContext ctx = RequestContext.from(req);
+        final int estimatedLength = responseTemplate.getLiteralLength() + (responseTemplate.getTokenCount() * ESTIMATED_TOKEN_LENGTH);
 
-            final String headerName = StringUtils.trim(StringUtils.remove(matchResult, ParamMatchTypeEnum.REQ_HEAD.name() + "="));
-            final String headerValue = GeneralUtils.findHeaderIgnoreCase(req, headerName);
-            return StringUtils.replace(responseBody, "${" + matchResult + "}", (headerValue != null)?headerValue:"", 1);
-        }
+        final StringBuilder buffer = (estimatedLength <= MAX_RETAINED_BUFFER_CAPACITY)
+                ? renderBuffer.get()
+                : new StringBuilder(estimatedLength);
 
-        if (matchResult.startsWith(ParamMatchTypeEnum.REQ_PARAM.name())) {
+        buffer.setLength(0);
 
-            final String requestParamName = StringUtils.trim(StringUtils.remove(matchResult, ParamMatchTypeEnum.REQ_PARAM.name() + "="));
-            final String requestParamValue = GeneralUtils.findRequestParamIgnoreCase(req, requestParamName);
-            return StringUtils.replace(responseBody, "${" + matchResult + "}", (requestParamValue != null)?requestParamValue:"", 1);
-        }
+        try {
 
-        if (matchResult.startsWith(ParamMatchTypeEnum.PATH_VAR.name())) {
+            responseTemplate.render(buffer, token -> resolveToken(ctx, token));
 
-            final String pathVariableName = StringUtils.trim(StringUtils.remove(matchResult, ParamMatchTypeEnum.PATH_VAR.name() + "="));
-            final String pathVariableValue = GeneralUtils.findPathVarIgnoreCase(req, pathVariableName);
-            return StringUtils.replace(responseBody, "${" + matchResult + "}", (pathVariableValue != null)?pathVariableValue:"", 1);
-        }
+            return buffer.toString();
 
-        if (matchResult.equals(ParamMatchTypeEnum.ISO_DATETIME.name())) {
-            return StringUtils.replace(responseBody, "${" + matchResult + "}", new SimpleDateFormat(GeneralUtils.ISO_DATETIME_FORMAT).format(GeneralUtils.getCurrentDate()), 1);
-        }
+        } finally {
 
-        if (matchResult.equals(ParamMatchTypeEnum.ISO_DATE.name())) {
-            return StringUtils.replace(responseBody, "${" + matchResult + "}", new SimpleDateFormat(GeneralUtils.ISO_DATE_FORMAT).format(GeneralUtils.getCurrentDate()), 1);
-        }
-
-        if (matchResult.equals(ParamMatchTypeEnum.UUID.name())) {
-            return StringUtils.replace(responseBody, "${" + matchResult + "}", GeneralUtils.generateUUID(), 1);
-        }
-
-        if (matchResult.equals(ParamMatchTypeEnum.RANDOM_NUMBER.name())) {
-            return StringUtils.replace(responseBody, "${" + matchResult + "}", String.valueOf(RandomUtils.nextInt()), 1);
-        }
-
-        if (matchResult.startsWith(ParamMatchTypeEnum.RANDOM_NUMBER.name())) {
-
-            final String range = StringUtils.trim(StringUtils.remove(matchResult, ParamMatchTypeEnum.RANDOM_NUMBER.name() + "="));
-
-            return StringUtils.replace(responseBody, "${" + matchResult + "}", String.valueOf(generateRandomforRange(range)), 1);
+            if (buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+                renderBuffer.remove();
+            }
         }
 
-        throw new IllegalArgumentException("Unsupported token : " + matchResult);
     }
 
-    private int generateRandomforRange(final String range) {
-
-        String arg = null;
+    /**
+     *
+     * Renders the (deploy time compiled) body straight to the given writer, for bodies too large to build up in memory.
+     *
+     */
+    @Override
+    public void streamInboundParamMatches(final Request req, final ResponseTemplate responseTemplate, final Writer out) throws IOException {
 
-        if (range.toUpperCase().contains(TO_ARG)) {
-            arg = TO_ARG;
-        } else if (range.toUpperCase().contains(UNTIL_ARG)) {
-            arg = UNTIL_ARG;
-        }
+        final RequestContext ctx = RequestContext.from(req);
 
-        if (arg == null) {
-            throw new IllegalArgumentException("Expected '" + TO_ARG + "' or '" + UNTIL_ARG + "' arg in '" + ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=' token");
-        }
-
-        final String[] rangeToArray = range.toUpperCase().split(arg);
+        responseTemplate.render(out, token -> resolveToken(ctx, token));
+    }
 
-        if (rangeToArray.length != 2) {
-            throw new IllegalArgumentException("Missing number range for '" + arg + "' args. (i.e expect 1 " + arg + " 5)");
-        }
+    // Determine the value for the matching token type, is it a REQ_HEAD, REQ_PARAM, PATH_VAR, from the request body, or is it generated...
+    String resolveToken(final RequestContext ctx, final ResponseTemplate.Token token) {
 
-        if (!NumberUtils.isCreatable(StringUtils.trim(rangeToArray[0]))
-                || !NumberUtils.isCreatable(StringUtils.trim(rangeToArray[1]))) {
-            throw new IllegalArgumentException("Range does not contain valid numbers. (i.e expect 1 " + arg + " 5)");
+        if (token.getType() == null) {
+            throw new IllegalArgumentException("Unsupported token : " + token.getText());
         }
 
-        final int start = NumberUtils.toInt(StringUtils.trim(rangeToArray[0]));
-        final int end = NumberUtils.toInt(StringUtils.trim(rangeToArray[1]));
-
-        if (start >= 0 && end > 0) {
-
-            return RandomUtils.nextInt(start, (arg.equals(TO_ARG))?(end+1):end);
-        } else if (start <= 0 && end >= 0) {
-
-            int s = -Math.abs(RandomUtils.nextInt(0, (arg.equals(TO_ARG))?(Math.abs(start)+1):Math.abs(start)));
-            int e = RandomUtils.nextInt(0, (arg.equals(TO_ARG))?(end+1):end);
-
-            return (e + s);
-        } else if (start < 0 && end < 0) {
+        switch (token.getType()) {
+            case REQ_HEAD:
+                return ctx.getHeaderIgnoreCase(token.getArgument());
+            case REQ_PARAM:
+                return ctx.getRequestParamIgnoreCase(token.getArgument());
+            case PATH_VAR:
+                return ctx.getPathVarIgnoreCase(token.getArgument());
+            case REQ_BODY_JSON:
+                return ctx.getJsonPathValue(token.getJsonPathExtractor(), token.getJsonPathSlot());
+            case REQ_BODY_FORM:
+                return ctx.getFormParam(token.getArgument());
+            default:
+                if (token.getGenerator() == null) {
+                    throw new IllegalArgumentException("Unsupported token : " + token.getText());
+                }
 
-           return -Math.abs(RandomUtils.nextInt(Math.abs(end), (arg.equals(TO_ARG))?(Math.abs(start)+1):Math.abs(start)));
+                // Precompiled when the token was parsed (i.e any RANDOM_NUMBER range is already validated and split).
+                return token.getGenerator().get();
         }
 
-        return 0;
     }
 
 }
@@ -1,6 +1,6 @@
 package com.smockin.mockserver.service;
 
-import com.smockin.admin.persistence.entity.RestfulMock;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
 import com.smockin.mockserver.service.dto.RestfulResponseDTO;
 
 /**
@@ -8,7 +8,8 @@ import com.smockin.mockserver.service.dto.RestfulResponseDTO;
  */
 public interface MockOrderingCounterService {
 
-    RestfulResponseDTO process(final RestfulMock restfulMockDefinition);
+    RestfulResponseDTO process(final CompiledRestfulMock restfulMockDefinition);
     void clearState();
+    void clearState(final String mockExtId);
 
 }
@@ -1,134 +1,98 @@
 package com.smockin.mockserver.service;
 
-import com.smockin.admin.persistence.entity.RestfulMock;
-import com.smockin.admin.persistence.entity.RestfulMockDefinitionOrder;
-import com.smockin.utils.GeneralUtils;
+import com.smockin.mockserver.service.bean.CompiledDefinition;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
+import com.smockin.mockserver.service.bean.DefinitionSequence;
 import com.smockin.mockserver.service.dto.RestfulResponseDTO;
-import org.apache.commons.lang3.RandomUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import javax.annotation.PostConstruct;
 
 /**
  * Created by gallina.
  */
 @Service
-@Transactional
 public class MockOrderingCounterServiceImpl implements MockOrderingCounterService {
 
-    private final Object monitor = new Object();
-    private final Map<String, List<DefinitionCounter>> synchronizedCounter = new HashMap<String, List<DefinitionCounter>>();
+    private final Logger logger = LoggerFactory.getLogger(MockOrderingCounterServiceImpl.class);
 
-    public RestfulResponseDTO process(final RestfulMock restfulMock) {
+    @Autowired(required = false)
+    private DatabaseSequenceBlockSource databaseSequenceBlockSource;
 
-        final RestfulMockDefinitionOrder mockDef;
+    // Set to 'database' where several smockin nodes (sharing the one database) serve the same SEQ mocks.
+    @Value("${smockin.sequence.store:" + SequenceStateStore.MEMORY + "}")
+    private String sequenceStore = SequenceStateStore.MEMORY;
 
-        if (restfulMock.isRandomiseDefinitions()) {
-            mockDef = getRandomResponse(restfulMock);
-        } else {
-            mockDef = getNextInSequence(restfulMock);
-        }
-
-        GeneralUtils.checkForAndHandleSleep(mockDef.getSleepInMillis());
+    @Value("${smockin.sequence.block.size:100}")
+    private int sequenceBlockSize = 100;
 
-        return new RestfulResponseDTO(mockDef.getHttpStatusCode(), mockDef.getResponseContentType(), mockDef.getResponseBody(), mockDef.getResponseHeaders().entrySet());
-    }
+    private SequenceStateStore sequenceStateStore = new InMemorySequenceStateStore();
 
-    RestfulMockDefinitionOrder getNextInSequence(final RestfulMock restfulMock) {
+    @PostConstruct
+    public void init() {
 
-        final String mockExtId = restfulMock.getExtId();
+        if (SequenceStateStore.DATABASE.equalsIgnoreCase(sequenceStore)
+                && databaseSequenceBlockSource != null) {
+            sequenceStateStore = new BlockClaimingSequenceStateStore(databaseSequenceBlockSource, sequenceBlockSize);
+        }
 
-        String mockDefinitionId = null;
+        logger.info("Using " + sequenceStateStore.getClass().getSimpleName() + " for SEQ mock state");
+    }
 
-        synchronized (monitor) {
+    public RestfulResponseDTO process(final CompiledRestfulMock restfulMock) {
 
-            // Load definition counters for mock endpoint
-            final List<DefinitionCounter> definitionCounterList = synchronizedCounter.getOrDefault(mockExtId, new ArrayList<DefinitionCounter>() {
-                {
-                    // Create definition counters for mock endpoint if not present
-                    restfulMock.getDefinitions().forEach(d ->
-                        add(new DefinitionCounter(d.getExtId(), (d.getFrequencyCount() > 0)?d.getFrequencyCount():1))
-                    );
-                }
-            });
+        final CompiledDefinition mockDef;
 
-            // Look up the next definition
-            for (DefinitionCounter d : definitionCounterList) {
-                if (d.getFrequencyCount() > d.getCurrentTally()) {
-                    mockDefinitionId = d.getDefinitionExtId();
-                    d.setCurrentTally(d.getCurrentTally()+1);
-                    break;
-                }
-            }
+        if (restfulMock.isRandomiseDefinitions()) {
+            mockDef = getRandomResponse(restfulMock);
+        } else {
+            mockDef = getNextInSequence(restfulMock);
+        }
 
-            // If tally counters are all maxed out then reset and restart at the 1st definition
-            if (mockDefinitionId == null) {
+        return mockDef.getResponse();
+    }
 
-                for (DefinitionCounter d : definitionCounterList) {
-                    if (mockDefinitionId == null) {
-                        mockDefinitionId = d.getDefinitionExtId();
-                        d.setCurrentTally(1);
-                    } else {
-                        d.setCurrentTally(0);
-                    }
-                }
+    /**
+     *
+     * Each mock's position in it's sequence comes from the SequenceStateStore (a lone lock free counter by default),
+     * with the definition at that position then looked up from the mock's (deploy time) DefinitionSequence.
+     *
+     */
+    CompiledDefinition getNextInSequence(final CompiledRestfulMock restfulMock) {
 
-            }
+        final DefinitionSequence sequence = restfulMock.getDefinitionSequence();
 
-            synchronizedCounter.put(mockExtId, definitionCounterList);
+        if (sequence.getCycleLength() == 0) {
+            throw new NullPointerException("mockDefinitionId not found!");
         }
 
-        // Finally load the definition for the given mockDefinitionId
-        for (RestfulMockDefinitionOrder d : restfulMock.getDefinitions()) {
-            if (d.getExtId().equals(mockDefinitionId)) {
-                return d;
-            }
-        }
+        final long position = sequenceStateStore.nextPosition(restfulMock.getExtId(), restfulMock.getVersion());
 
-        throw new NullPointerException("mockDefinitionId not found!");
+        return restfulMock.getDefinitions().get(sequence.indexAt(position));
     }
 
-    RestfulMockDefinitionOrder getRandomResponse(final RestfulMock restfulMock) {
+    // Weighted by each definition's frequencyPercentage, using the mock's (deploy time) alias table.
+    CompiledDefinition getRandomResponse(final CompiledRestfulMock restfulMock) {
 
-        final int randomIndex = RandomUtils.nextInt(0, restfulMock.getDefinitions().size());
+        final int randomIndex = restfulMock.getWeightedDefinitionTable().nextIndex();
 
         return restfulMock.getDefinitions().get(randomIndex);
     }
 
     public void clearState() {
-
-        synchronized (monitor) {
-            synchronizedCounter.clear();
-        }
+        sequenceStateStore.clearAll();
     }
 
-    private class DefinitionCounter {
-
-        private final String definitionExtId;
-        private final int frequencyCount;
-        private int currentTally;
-
-        DefinitionCounter(String definitionExtId, int frequencyCount) {
-            this.definitionExtId = definitionExtId;
-            this.frequencyCount = frequencyCount;
-        }
+    public void clearState(final String mockExtId) {
+        sequenceStateStore.clear(mockExtId);
+    }
 
-        public String getDefinitionExtId() {
-            return definitionExtId;
-        }
-        public int getFrequencyCount() {
-            return frequencyCount;
-        }
-        public int getCurrentTally() {
-            return currentTally;
-        }
-        public void setCurrentTally(int currentTally) {
-            this.currentTally = currentTally;
-        }
+    SequenceStateStore getSequenceStateStore() {
+        return sequenceStateStore;
     }
 
 }
@@ -0,0 +1,289 @@
+package com.smockin.mockserver.service;
+
+import com.smockin.mockserver.service.bean.ContainsAutomaton;
+import com.smockin.mockserver.service.bean.JsonPathExtractor;
+import com.smockin.mockserver.service.bean.XPathExtractor;
+import com.smockin.utils.GeneralUtils;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URLEncodedUtils;
+import spark.Request;
+
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Created by mgallina.
+ *
+ * Request scoped cache of the inbound values looked up whilst serving a mock.
+ *
+ * Each value (i.e the body, it's JSON or form params, or a case insensitive view of the headers) is only read
+ * and parsed the first time it is asked for, after which the same result is handed back to every rule condition
+ * and response token which needs it.
+ *
+ * Held as a request attribute, so is shared by the rule engine and response enrichment alike.
+ * Only ever used by the request's own thread, so does not need to be thread safe.
+ */
+public final class RequestContext {
+
+    static final String REQUEST_ATTRIBUTE = "MOCK_REQUEST_CONTEXT";
+
+    private final Request request;
+
+    private boolean bodyRead;
+    private String body;
+    private boolean jsonRead;
+    private Map<String, ?> json;
+    private Map<String, String> formParams;
+    private Map<String, String> headersIgnoreCase;
+    private Map<String, String> requestParamsIgnoreCase;
+    private Map<String, String> pathVarsIgnoreCase;
+    private String[] splat;
+    private JsonPathExtractor jsonPathExtractor;
+    private String[] jsonPathValues;
+    private XPathExtractor xPathExtractor;
+    private String[] xPathValues;
+    private Map<ContainsAutomaton, ContainsScan> containsScans;
+
+    RequestContext(final Request request) {
+        this.request = request;
+    }
+
+    /**
+     *
+     * Returns the context for the given request, creating it on first use.
+     *
+     * @param request
+     * @returns RequestContext
+     *
+     */
+    public static RequestContext from(final Request request) {
+
+        final RequestContext existing = request.attribute(REQUEST_ATTRIBUTE);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        final RequestContext context = new RequestContext(request);
+        request.attribute(REQUEST_ATTRIBUTE, context);
+
+        return context;
+    }
+
+    public Request getRequest() {
+        return request;
+    }
+
+    public String getBody() {
+
+        if (!bodyRead) {
+            body = request.body();
+            bodyRead = true;
+        }
+
+        return body;
+    }
+
+    // Null where the body is not a JSON object.
+    public Map<String, ?> getJson() {
+
+        if (!jsonRead) {
+            json = GeneralUtils.deserialiseJSONToMap(getBody());
+            jsonRead = true;
+        }
+
+        return json;
+    }
+
+    /**
+     *
+     * Returns the value of a JSON path, as extracted by the given (mock wide) extractor.
+     * All of the extractor's paths are pulled out of the body in a single streamed pass, the first time any are asked for.
+     *
+     */
+    public String getJsonPathValue(final JsonPathExtractor extractor, final int slot) {
+
+        if (extractor == null
+                || slot == -1) {
+            return null;
+        }
+
+        if (extractor != jsonPathExtractor) {
+            jsonPathValues = extractor.extract(getBody());
+            jsonPathExtractor = extractor;
+        }
+
+        return jsonPathValues[slot];
+    }
+
+    /**
+     *
+     * Returns the value of an XPath expression, as extracted by the given (mock wide) extractor.
+     * All of the extractor's expressions are pulled out of the body in a single streamed pass, the first time any are asked for.
+     *
+     */
+    public String getXPathValue(final XPathExtractor extractor, final int slot) {
+
+        if (extractor == null
+                || slot == -1) {
+            return null;
+        }
+
+        if (extractor != xPathExtractor) {
+            xPathValues = extractor.extract(getBody());
+            xPathExtractor = extractor;
+        }
+
+        return xPathValues[slot];
+    }
+
+    /**
+     *
+     * Returns whether the given pattern is contained in the inbound value, as decided by the given automaton.
+     * The value is scanned the once for all of the automaton's patterns, the first time any are asked for.
+     *
+     */
+    public boolean isContainsMatch(final ContainsAutomaton automaton, final int patternId, final String inboundValue) {
+
+        if (inboundValue == null) {
+            return false;
+        }
+
+        if (containsScans == null) {
+            containsScans = new IdentityHashMap<>();
+        }
+
+        ContainsScan scan = containsScans.get(automaton);
+
+        // The same automaton is only ever used on the same field, so this only differs where the value was changed.
+        if (scan == null
+                || (scan.inboundValue != inboundValue && !scan.inboundValue.equals(inboundValue))) {
+            scan = new ContainsScan(inboundValue, automaton.scan(inboundValue));
+            containsScans.put(automaton, scan);
+        }
+
+        return scan.found[patternId];
+    }
+
+    public String getHeader(final String name) {
+        return request.headers(name);
+    }
+
+    public String getHeaderIgnoreCase(final String name) {
+
+        if (headersIgnoreCase == null) {
+            headersIgnoreCase = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+            for (String h : request.headers()) {
+                headersIgnoreCase.putIfAbsent(h, request.headers(h));
+            }
+        }
+
+        return headersIgnoreCase.get(name);
+    }
+
+    /**
+     *
+     * Returns the request parameter value for the given name.
+     *
+     * Java Spark does not provide a convenient way of extracting form based request parameters,
+     * so these are parsed manually (the once) from the body.
+     *
+     */
+    public String getRequestParam(final String name) {
+
+        if (isFormRequest()) {
+            return getFormParam(name);
+        }
+
+        return request.queryParams(name);
+    }
+
+    // A param of the (form encoded) request body, regardless of the request's content type.
+    public String getFormParam(final String name) {
+
+        if (formParams == null) {
+            formParams = parseFormParams(getBody());
+        }
+
+        return formParams.get(name);
+    }
+
+    public String getRequestParamIgnoreCase(final String name) {
+
+        if (requestParamsIgnoreCase == null) {
+            requestParamsIgnoreCase = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+            for (String q : request.queryParams()) {
+                requestParamsIgnoreCase.putIfAbsent(q, request.queryParams(q));
+            }
+        }
+
+        return requestParamsIgnoreCase.get(name);
+    }
+
+    public String getPathVar(final String name) {
+        return GeneralUtils.findPathVar(request, name);
+    }
+
+    public String getPathVarIgnoreCase(final String name) {
+
+        if (pathVarsIgnoreCase == null) {
+            pathVarsIgnoreCase = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            pathVarsIgnoreCase.putAll(GeneralUtils.findPathVars(request));
+        }
+
+        return pathVarsIgnoreCase.get((name.startsWith(":")) ? name : (":" + name));
+    }
+
+    public String[] getSplat() {
+
+        if (splat == null) {
+            splat = GeneralUtils.findSplat(request);
+        }
+
+        return splat;
+    }
+
+    boolean isFormRequest() {
+
+        final String contentType = request.contentType();
+
+        return contentType != null
+                && (contentType.contains("application/x-www-form-urlencoded")
+                    || contentType.contains("multipart/form-data"));
+    }
+
+    // Where a param is repeated, the first value is kept.
+    Map<String, String> parseFormParams(final String formBody) {
+
+        if (formBody == null) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, String> params = new HashMap<>();
+
+        for (NameValuePair pair : URLEncodedUtils.parse(formBody, Charset.defaultCharset())) {
+            params.putIfAbsent(pair.getName(), pair.getValue());
+        }
+
+        return params;
+    }
+
+    private static final class ContainsScan {
+
+        private final String inboundValue;
+        private final boolean[] found;
+
+        private ContainsScan(final String inboundValue, final boolean[] found) {
+            this.inboundValue = inboundValue;
+            this.found = found;
+        }
+
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.smockin.mockserver.service;
+
+import com.smockin.admin.persistence.entity.RestfulMock;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
+
+/**
+ * Created by mgallina.
+ */
+public interface RestfulMockCompiler {
+
+    CompiledRestfulMock compile(final RestfulMock mock, final String userPath);
+
+}
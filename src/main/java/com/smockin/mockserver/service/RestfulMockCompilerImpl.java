@@ -0,0 +1,391 @@
+package com.smockin.mockserver.service;
+
+import com.smockin.admin.persistence.entity.RestfulMock;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionOrder;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRule;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroup;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroupCondition;
+import com.smockin.admin.persistence.enums.RuleComparatorEnum;
+import com.smockin.admin.persistence.enums.RuleDataTypeEnum;
+import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+import com.smockin.mockserver.service.bean.CompiledDefinition;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
+import com.smockin.mockserver.service.bean.CompiledRule;
+import com.smockin.mockserver.service.bean.CompiledRuleCondition;
+import com.smockin.mockserver.service.bean.CompiledRuleGroup;
+import com.smockin.mockserver.service.bean.CompiledRuleIndex;
+import com.smockin.mockserver.service.bean.ContainsAutomaton;
+import com.smockin.mockserver.service.bean.JsonPathExtractor;
+import com.smockin.mockserver.service.bean.MockBulkhead;
+import com.smockin.mockserver.service.bean.SharedRuleMatchers;
+import com.smockin.mockserver.service.bean.XPathExtractor;
+import com.smockin.mockserver.service.dto.RestfulResponseDTO;
+import com.smockin.utils.GeneralUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Created by mgallina.
+ *
+ * Converts a RestfulMock entity (and all of it's definitions, rules and conditions) into it's immutable runtime form.
+ *
+ * Expects all lazily loaded data to be accessible, i.e to be called within an active transaction
+ * or against a mock which has already been initialised and detached.
+ */
+@Service
+public class RestfulMockCompilerImpl implements RestfulMockCompiler {
+
+    private final Logger logger = LoggerFactory.getLogger(RestfulMockCompilerImpl.class);
+
+    // The fewest rule groups worth indexing, below which a scan is as quick.
+    static final int MIN_INDEXED_GROUPS = 8;
+
+    // The fewest distinct 'CONTAINS' match values on a field worth deciding in a single pass, below which searching for each is as quick.
+    static final int MIN_CONTAINS_AUTOMATON_PATTERNS = 4;
+
+    // Excludes matching types where extracting the value could fail (i.e wildcard paths or malformed JSON),
+    // as the index looks up the value before any rule is checked.
+    private static final Set<RuleMatchingTypeEnum> INDEXABLE_MATCHING_TYPES = EnumSet.of(
+            RuleMatchingTypeEnum.PATH_VARIABLE,
+            RuleMatchingTypeEnum.REQUEST_HEADER,
+            RuleMatchingTypeEnum.REQUEST_PARAM,
+            RuleMatchingTypeEnum.REQUEST_BODY);
+
+    @Override
+    public CompiledRestfulMock compile(final RestfulMock mock, final String userPath) {
+
+        final List<CompiledDefinition> definitions = mock.getDefinitions()
+                .stream()
+                .filter(d -> !d.isSuspend())
+                .map(this::compileDefinition)
+                .collect(Collectors.toList());
+
+        final List<RestfulMockDefinitionRule> activeRules = mock.getRules()
+                .stream()
+                .filter(r -> !r.isSuspend())
+                .collect(Collectors.toList());
+
+        // Built across the whole mock, so work common to many conditions (i.e streaming the body for it's JSON paths) is only done the once per request.
+        final SharedRuleMatchers sharedMatchers = compileSharedRuleMatchers(activeRules
+                .stream()
+                .flatMap(r -> r.getConditionGroups().stream())
+                .flatMap(g -> g.getConditions().stream())
+                .collect(Collectors.toList()));
+
+        final List<CompiledRule> rules = activeRules
+                .stream()
+                .map(r -> compileRule(r, sharedMatchers))
+                .collect(Collectors.toList());
+
+        final CompiledRuleIndex ruleIndex = compileRuleIndex(rules);
+
+        return new CompiledRestfulMock(
+                mock.getId(),
+                mock.getExtId(),
+                compileVersion(mock),
+                mock.getMethod(),
+                mock.getMockType(),
+                mock.getPath(),
+                (mock.getCreatedBy() != null) ? mock.getCreatedBy().getCtxPath() : null,
+                userPath,
+                mock.getProxyTimeOutInMillis(),
+                mock.getSseHeartBeatInMillis(),
+                mock.isProxyPushIdOnConnect(),
+                mock.isRandomiseDefinitions(),
+                mock.isProxyForwardWhenNoRuleMatch(),
+                mock.isProxyPriority(),
+                definitions,
+                rules,
+                ruleIndex,
+                compileBulkhead(mock));
+    }
+
+    // The mock's lastUpdated date, or it's dateCreated where it has never been updated.
+    long compileVersion(final RestfulMock mock) {
+
+        final Date version = (mock.getLastUpdated() != null) ? mock.getLastUpdated() : mock.getDateCreated();
+
+        return (version != null) ? version.getTime() : 0;
+    }
+
+    MockBulkhead compileBulkhead(final RestfulMock mock) {
+
+        if (mock.getMaxConcurrentRequests() < 1) {
+            return null;
+        }
+
+        return new MockBulkhead(mock.getMaxConcurrentRequests(), mock.getMaxQueuedRequests(),
+                mock.getOverloadStatusCode(), mock.getOverloadRetryAfterSeconds());
+    }
+
+    CompiledDefinition compileDefinition(final RestfulMockDefinitionOrder definition) {
+
+        return new CompiledDefinition(definition.getExtId(), definition.getFrequencyCount(), definition.getFrequencyPercentage(),
+                RestfulResponseDTO.compiled(definition.getHttpStatusCode(), definition.getResponseContentType(), definition.getResponseBody(), definition.getResponseHeaders().entrySet(), definition.getSleepInMillis()));
+    }
+
+    CompiledRule compileRule(final RestfulMockDefinitionRule rule) {
+        return compileRule(rule, compileSharedRuleMatchers(rule.getConditionGroups()
+                .stream()
+                .flatMap(g -> g.getConditions().stream())
+                .collect(Collectors.toList())));
+    }
+
+    CompiledRule compileRule(final RestfulMockDefinitionRule rule, final SharedRuleMatchers sharedMatchers) {
+
+        final List<CompiledRuleGroup> groups = rule.getConditionGroups()
+                .stream()
+                .map(g -> compileRuleGroup(g, sharedMatchers))
+                .collect(Collectors.toList());
+
+        return new CompiledRule(rule.getExtId(), rule.getOrderNo(), groups,
+                RestfulResponseDTO.compiled(rule.getHttpStatusCode(), rule.getResponseContentType(), rule.getResponseBody(), rule.getResponseHeaders().entrySet(), rule.getSleepInMillis()));
+    }
+
+    CompiledRuleGroup compileRuleGroup(final RestfulMockDefinitionRuleGroup group) {
+        return compileRuleGroup(group, compileSharedRuleMatchers(group.getConditions()));
+    }
+
+    CompiledRuleGroup compileRuleGroup(final RestfulMockDefinitionRuleGroup group, final SharedRuleMatchers sharedMatchers) {
+
+        // Conditions are 'AND'ed, so the cheapest to check go first, in case they rule the group out.
+        return new CompiledRuleGroup(group.getConditions()
+                .stream()
+                .map(c -> compileRuleCondition(c, sharedMatchers))
+                .sorted(Comparator.comparingInt(c -> extractionCost(c.getRuleMatchingType())))
+                .collect(Collectors.toList()));
+    }
+
+    int extractionCost(final RuleMatchingTypeEnum ruleMatchingType) {
+
+        if (ruleMatchingType == null) {
+            return Integer.MAX_VALUE;
+        }
+
+        switch (ruleMatchingType) {
+            case PATH_VARIABLE:
+            case PATH_VARIABLE_WILD:
+                return 0;
+            case REQUEST_HEADER:
+                return 1;
+            case REQUEST_PARAM:
+                return 2;
+            case REQUEST_BODY:
+                return 3;
+            case REQUEST_BODY_JSON_PATH:
+            case REQUEST_BODY_XPATH:
+                return 4;
+            case REQUEST_BODY_JSON_ANY:
+            default:
+                return 5;
+        }
+
+    }
+
+    /**
+     *
+     * Indexes the rules by the field which most of their groups match on with a TEXT 'EQUALS' condition,
+     * so the rule engine can go straight to the groups which could be met, rather than scanning every one.
+     *
+     * Not worth doing for only a handful of rules, in which case null is returned.
+     *
+     */
+    CompiledRuleIndex compileRuleIndex(final List<CompiledRule> rules) {
+
+        // Each group's position, in rule and then group order.
+        final List<CompiledRule> positionRules = new ArrayList<>();
+        final List<CompiledRuleGroup> positionGroups = new ArrayList<>();
+
+        for (CompiledRule rule : rules) {
+            for (CompiledRuleGroup group : rule.getConditionGroups()) {
+                positionRules.add(rule);
+                positionGroups.add(group);
+            }
+        }
+
+        final Optional<Map.Entry<Pair<RuleMatchingTypeEnum, String>, Long>> indexKey = positionGroups
+                .stream()
+                .flatMap(g -> g.getConditions()
+                        .stream()
+                        .filter(this::isIndexable)
+                        .map(c -> Pair.of(c.getRuleMatchingType(), c.getField()))
+                        .distinct())
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
+                .entrySet()
+                .stream()
+                .max(Map.Entry.comparingByValue());
+
+        if (!indexKey.isPresent()
+                || indexKey.get().getValue() < MIN_INDEXED_GROUPS) {
+            return null;
+        }
+
+        final RuleMatchingTypeEnum ruleMatchingType = indexKey.get().getKey().getLeft();
+        final String field = indexKey.get().getKey().getRight();
+
+        final Map<String, List<Integer>> caseSensitivePositions = new HashMap<>();
+        final Map<String, List<Integer>> caseInsensitivePositions = new HashMap<>();
+        final List<Integer> fallbackPositions = new ArrayList<>();
+
+        for (int position = 0; position < positionGroups.size(); position++) {
+
+            final Optional<CompiledRuleCondition> condition = positionGroups.get(position).getConditions()
+                    .stream()
+                    .filter(c -> isIndexable(c)
+                            && ruleMatchingType.equals(c.getRuleMatchingType())
+                            && field.equals(c.getField()))
+                    .findFirst();
+
+            if (!condition.isPresent()) {
+                fallbackPositions.add(position);
+            } else if (condition.get().isCaseSensitive()) {
+                caseSensitivePositions.computeIfAbsent(condition.get().getMatchValue(), k -> new ArrayList<>()).add(position);
+            } else {
+                caseInsensitivePositions.computeIfAbsent(CompiledRuleIndex.foldCase(condition.get().getMatchValue()), k -> new ArrayList<>()).add(position);
+            }
+
+        }
+
+        // An exact match may also meet case insensitive conditions, so these are merged in up front.
+        final Map<String, int[]> caseSensitiveIndex = new HashMap<>();
+
+        caseSensitivePositions.forEach((k, v) -> {
+
+            final List<Integer> positions = new ArrayList<>(v);
+            positions.addAll(caseInsensitivePositions.getOrDefault(CompiledRuleIndex.foldCase(k), Collections.emptyList()));
+            Collections.sort(positions);
+
+            caseSensitiveIndex.put(k, toIntArray(positions));
+        });
+
+        final Map<String, int[]> caseInsensitiveIndex = new HashMap<>();
+
+        caseInsensitivePositions.forEach((k, v) ->
+                caseInsensitiveIndex.put(k, toIntArray(v)));
+
+        return new CompiledRuleIndex(ruleMatchingType, field, positionRules, positionGroups,
+                caseSensitiveIndex, caseInsensitiveIndex, toIntArray(fallbackPositions));
+    }
+
+    boolean isIndexable(final CompiledRuleCondition condition) {
+        return RuleComparatorEnum.EQUALS.equals(condition.getComparator())
+                && RuleDataTypeEnum.TEXT.equals(condition.getDataType())
+                && INDEXABLE_MATCHING_TYPES.contains(condition.getRuleMatchingType())
+                && condition.getField() != null
+                && condition.getMatchValue() != null;
+    }
+
+    private int[] toIntArray(final List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    CompiledRuleCondition compileRuleCondition(final RestfulMockDefinitionRuleGroupCondition condition) {
+        return compileRuleCondition(condition, compileSharedRuleMatchers(Collections.singletonList(condition)));
+    }
+
+    CompiledRuleCondition compileRuleCondition(final RestfulMockDefinitionRuleGroupCondition condition, final SharedRuleMatchers sharedMatchers) {
+
+        // Such a condition is never met, so would otherwise silently rule out it's whole group.
+        if (RuleComparatorEnum.REGEX.equals(condition.getComparator())
+                && !GeneralUtils.isValidRegex(condition.getMatchValue())) {
+            logger.warn("Invalid regex '" + condition.getMatchValue() + "' on field '" + condition.getField() + "' of " + describeRule(condition) + ", condition will never be met");
+        }
+
+        return new CompiledRuleCondition(condition.getField(), condition.getDataType(), condition.getComparator(),
+                condition.getMatchValue(), condition.getRuleMatchingType(), condition.isCaseSensitive(), sharedMatchers);
+    }
+
+    // Conditions compiled on their own (i.e in tests) may not be attached to a rule or mock.
+    private String describeRule(final RestfulMockDefinitionRuleGroupCondition condition) {
+
+        final RestfulMockDefinitionRule rule = (condition.getGroup() != null) ? condition.getGroup().getRule() : null;
+
+        if (rule == null) {
+            return "unattached rule";
+        }
+
+        final RestfulMock mock = rule.getRestfulMock();
+
+        return "rule " + rule.getOrderNo() + " of mock " + ((mock != null) ? mock.getMethod() + " " + mock.getPath() + " (" + mock.getExtId() + ")" : "(unattached)");
+    }
+
+    SharedRuleMatchers compileSharedRuleMatchers(final List<RestfulMockDefinitionRuleGroupCondition> conditions) {
+        return new SharedRuleMatchers(compileJsonPathExtractor(conditions), compileXPathExtractor(conditions), compileContainsAutomata(conditions));
+    }
+
+    // Null where none of the given conditions match on a JSON path.
+    JsonPathExtractor compileJsonPathExtractor(final List<RestfulMockDefinitionRuleGroupCondition> conditions) {
+
+        final List<String> paths = conditions
+                .stream()
+                .filter(c -> RuleMatchingTypeEnum.REQUEST_BODY_JSON_PATH.equals(c.getRuleMatchingType()))
+                .map(RestfulMockDefinitionRuleGroupCondition::getField)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+
+        return (paths.isEmpty()) ? null : JsonPathExtractor.compile(paths);
+    }
+
+    // Null where none of the given conditions match on an XPath.
+    XPathExtractor compileXPathExtractor(final List<RestfulMockDefinitionRuleGroupCondition> conditions) {
+
+        final List<String> xpaths = conditions
+                .stream()
+                .filter(c -> RuleMatchingTypeEnum.REQUEST_BODY_XPATH.equals(c.getRuleMatchingType()))
+                .map(RestfulMockDefinitionRuleGroupCondition::getField)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+
+        return (xpaths.isEmpty()) ? null : XPathExtractor.compile(xpaths);
+    }
+
+    /**
+     *
+     * Builds an automaton for each field which has enough 'CONTAINS' conditions on it (of the same case sensitivity),
+     * so a single pass over the inbound value decides all of them.
+     *
+     */
+    Map<Triple<RuleMatchingTypeEnum, String, Boolean>, ContainsAutomaton> compileContainsAutomata(final List<RestfulMockDefinitionRuleGroupCondition> conditions) {
+
+        final Map<Triple<RuleMatchingTypeEnum, String, Boolean>, Set<String>> patterns = conditions
+                .stream()
+                .filter(c -> RuleComparatorEnum.CONTAINS.equals(c.getComparator())
+                        && c.getRuleMatchingType() != null
+                        && c.getMatchValue() != null
+                        && !c.getMatchValue().isEmpty())
+                .collect(Collectors.groupingBy(
+                        c -> Triple.of(c.getRuleMatchingType(), c.getField(), Boolean.TRUE.equals(c.isCaseSensitive())),
+                        Collectors.mapping(RestfulMockDefinitionRuleGroupCondition::getMatchValue, Collectors.toCollection(LinkedHashSet::new))));
+
+        final Map<Triple<RuleMatchingTypeEnum, String, Boolean>, ContainsAutomaton> automata = new HashMap<>();
+
+        patterns.forEach((k, v) -> {
+            if (v.size() >= MIN_CONTAINS_AUTOMATON_PATTERNS) {
+                automata.put(k, ContainsAutomaton.compile(v, k.getRight()));
+            }
+        });
+
+        return automata;
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.smockin.mockserver.service;
 
-import com.smockin.admin.persistence.entity.RestfulMockDefinitionRule;
+import com.smockin.mockserver.service.bean.CompiledRule;
+import com.smockin.mockserver.service.bean.CompiledRuleIndex;
 import com.smockin.mockserver.service.dto.RestfulResponseDTO;
 import spark.Request;
 
@@ -11,6 +12,8 @@ import java.util.List;
  */
 public interface RuleEngine {
 
-    RestfulResponseDTO process(final Request req, final List<RestfulMockDefinitionRule> rules);
+    RestfulResponseDTO process(final Request req, final List<CompiledRule> rules);
+
+    RestfulResponseDTO process(final Request req, final List<CompiledRule> rules, final CompiledRuleIndex ruleIndex);
 
 }
@@ -1,19 +1,20 @@
 package com.smockin.mockserver.service;
 
-import com.smockin.admin.persistence.entity.RestfulMockDefinitionRule;
-import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroup;
-import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroupCondition;
 import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
-import com.smockin.utils.GeneralUtils;
+import com.smockin.mockserver.service.bean.CompiledRule;
+import com.smockin.mockserver.service.bean.CompiledRuleCondition;
+import com.smockin.mockserver.service.bean.CompiledRuleGroup;
+import com.smockin.mockserver.service.bean.CompiledRuleIndex;
+import com.smockin.mockserver.service.bean.JsonPathExtractor;
+import com.smockin.mockserver.service.bean.XPathExtractor;
 import com.smockin.mockserver.service.dto.RestfulResponseDTO;
 import org.apache.commons.lang3.math.NumberUtils;
-import org.apache.http.client.utils.URLEncodedUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import spark.Request;
-import java.nio.charset.Charset;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -28,87 +29,195 @@ public class RuleEngineImpl implements RuleEngine {
     @Autowired
     private RuleResolver ruleResolver;
 
-    public RestfulResponseDTO process(final Request req, final List<RestfulMockDefinitionRule> rules) {
+    public RestfulResponseDTO process(final Request req, final List<CompiledRule> rules) {
 
-        for (RestfulMockDefinitionRule rule : rules) {
+        final RequestContext ctx = RequestContext.from(req);
 
-            for (RestfulMockDefinitionRuleGroup group : rule.getConditionGroups()) {
+        for (CompiledRule rule : rules) {
 
-                int groupMatchCount = 0;
+            final long start = System.nanoTime();
+            boolean matched = false;
 
-                for (RestfulMockDefinitionRuleGroupCondition condition : group.getConditions()) {
+            for (CompiledRuleGroup group : rule.getConditionGroups()) {
+                if (isGroupMatch(group, ctx)) {
+                    matched = true;
+                    break;
+                }
+            }
 
-                    final String inboundValue = extractInboundValue(condition.getRuleMatchingType(), condition.getField(), req);
+            rule.getStats().record(matched, System.nanoTime() - start);
 
-                    if (ruleResolver.processRuleComparison(condition, inboundValue)) {
-                        groupMatchCount++;
-                    }
+            // If a group of conditions is met then return straight out of this iteration.
+            // (Any response delay is applied by the caller, so the request thread is not blocked here).
+            if (matched) {
+                return rule.getResponse();
+            }
 
-                }
+        }
+
+        return null;
+    }
+
+    /**
+     *
+     * Where the rules have been indexed, only the groups which could be met by the request's value
+     * for the indexed field are checked, along with any groups the index does not cover.
+     * These are merged back into rule order as they are checked, so the first rule to match is the same as for a full scan.
+     *
+     */
+    public RestfulResponseDTO process(final Request req, final List<CompiledRule> rules, final CompiledRuleIndex ruleIndex) {
+
+        if (ruleIndex == null) {
+            return process(req, rules);
+        }
+
+        final RequestContext ctx = RequestContext.from(req);
+
+        final int[] indexed = ruleIndex.findPositions(extractInboundValue(ruleIndex.getRuleMatchingType(), ruleIndex.getField(), ctx));
+        final int[] fallback = ruleIndex.getFallbackPositions();
+
+        int i = 0;
+        int f = 0;
 
-                // If a group of conditions is met then return straight out of this iteration.
-                if (groupMatchCount == group.getConditions().size()) {
+        // Positions are in rule order, so the groups checked for each rule are visited one after the other.
+        CompiledRule rule = null;
+        long ruleStart = 0;
 
-                    GeneralUtils.checkForAndHandleSleep(rule.getSleepInMillis());
+        while (i < indexed.length || f < fallback.length) {
 
-                    return new RestfulResponseDTO(rule.getHttpStatusCode(), rule.getResponseContentType(), rule.getResponseBody(), rule.getResponseHeaders().entrySet());
+            final int position = (f == fallback.length || (i < indexed.length && indexed[i] < fallback[f]))
+                    ? indexed[i++]
+                    : fallback[f++];
+
+            if (ruleIndex.getRule(position) != rule) {
+
+                final long now = System.nanoTime();
+
+                if (rule != null) {
+                    rule.getStats().record(false, now - ruleStart);
                 }
 
+                rule = ruleIndex.getRule(position);
+                ruleStart = now;
             }
 
+            if (isGroupMatch(ruleIndex.getGroup(position), ctx)) {
+                rule.getStats().record(true, System.nanoTime() - ruleStart);
+                return rule.getResponse();
+            }
+
+        }
+
+        if (rule != null) {
+            rule.getStats().record(false, System.nanoTime() - ruleStart);
         }
 
         return null;
     }
 
+    /**
+     *
+     * Conditions within a group are associated by 'AND', so stops at the first which is not met.
+     * (The compiler orders conditions cheapest first, so that the request body is only read where needed).
+     *
+     * Each condition checked has it's outcome and evaluation time added to it's stats.
+     *
+     */
+    boolean isGroupMatch(final CompiledRuleGroup group, final RequestContext ctx) {
+
+        // Each condition's time runs on from the last, so only one clock read is needed per condition.
+        long start = System.nanoTime();
+
+        for (CompiledRuleCondition condition : group.getConditions()) {
+
+            final String inboundValue = extractInboundValue(condition, ctx);
+
+            // 'CONTAINS' conditions sharing an automaton are decided together, the first time any of them is checked.
+            final boolean matched = (condition.getContainsAutomaton() != null)
+                    ? ctx.isContainsMatch(condition.getContainsAutomaton(), condition.getContainsPatternId(), inboundValue)
+                    : ruleResolver.processRuleComparison(condition, inboundValue);
+
+            final long end = System.nanoTime();
+            condition.getStats().record(matched, end - start);
+            start = end;
+
+            if (!matched) {
+                return false;
+            }
+
+        }
+
+        return true;
+    }
+
+    // JSON path and XPath conditions use their mock's shared extractor, so the body is only streamed through the once.
+    String extractInboundValue(final CompiledRuleCondition condition, final RequestContext ctx) {
+
+        if (RuleMatchingTypeEnum.REQUEST_BODY_JSON_PATH.equals(condition.getRuleMatchingType())) {
+            return ctx.getJsonPathValue(condition.getJsonPathExtractor(), condition.getJsonPathSlot());
+        }
+
+        if (RuleMatchingTypeEnum.REQUEST_BODY_XPATH.equals(condition.getRuleMatchingType())) {
+            return ctx.getXPathValue(condition.getXPathExtractor(), condition.getXPathSlot());
+        }
+
+        return extractInboundValue(condition.getRuleMatchingType(), condition.getField(), ctx);
+    }
+
     String extractInboundValue(final RuleMatchingTypeEnum matchingType, final String fieldName, final Request req) {
+        return extractInboundValue(matchingType, fieldName, RequestContext.from(req));
+    }
+
+    /**
+     *
+     * Values are looked up via the request context, so the body, it's JSON and any form params
+     * are only parsed the once, however many conditions make use of them.
+     *
+     */
+    String extractInboundValue(final RuleMatchingTypeEnum matchingType, final String fieldName, final RequestContext ctx) {
 
         switch (matchingType) {
             case REQUEST_HEADER:
-                return req.headers(fieldName);
+                return ctx.getHeader(fieldName);
             case REQUEST_PARAM:
-                return extractRequestParam(req, fieldName);
+                return ctx.getRequestParam(fieldName);
             case REQUEST_BODY:
-                return req.body();
+                return ctx.getBody();
             case PATH_VARIABLE:
-                return req.params(fieldName);
+                return ctx.getPathVar(fieldName);
             case PATH_VARIABLE_WILD:
 
                 final int argPosition = NumberUtils.toInt(fieldName, -1);
+                final String[] splat = ctx.getSplat();
 
                 if (argPosition == -1
-                        || req.splat().length < argPosition) {
-                    throw new IllegalArgumentException("Unable to perform wildcard matching on the mocked endpoint '" + req.pathInfo() + "'. Path variable arg count does not align.");
+                        || splat.length < argPosition) {
+                    throw new IllegalArgumentException("Unable to perform wildcard matching on the mocked endpoint '" + ctx.getRequest().pathInfo() + "'. Path variable arg count does not align.");
                 }
 
-                return req.splat()[(argPosition - 1)];
+                return splat[(argPosition - 1)];
             case REQUEST_BODY_JSON_ANY:
 
-                final Map<String, ?> json = GeneralUtils.deserialiseJSONToMap(req.body());
+                final Map<String, ?> json = ctx.getJson();
 
                 return (json != null)?(String)json.get(fieldName):null;
-            default:
-                throw new IllegalArgumentException("Unsupported Rule Matching Type : " + matchingType);
-        }
+            case REQUEST_BODY_JSON_PATH:
 
-    }
+                // Compiled conditions use their mock's shared (and request cached) extraction instead, see extractInboundValue(CompiledRuleCondition, ...).
+                final JsonPathExtractor jsonPathExtractor = JsonPathExtractor.compile(Collections.singletonList(fieldName));
+                final int slot = jsonPathExtractor.slotOf(fieldName);
+
+                return (slot != -1) ? jsonPathExtractor.extract(ctx.getBody())[slot] : null;
+            case REQUEST_BODY_XPATH:
 
-    String extractRequestParam(final Request req, final String fieldName) {
-
-        // Java Spark does not provide a convenient way of extracting form based request parameters,
-        // so have to parse these manually.
-        if (req.contentType() != null
-                && (req.contentType().contains("application/x-www-form-urlencoded")
-                    ||  req.contentType().contains("multipart/form-data"))) {
-            return URLEncodedUtils.parse(req.body(), Charset.defaultCharset())
-                    .stream()
-                    .filter(k -> k.getName().equals(fieldName))
-                    .map(k -> k.getValue())
-                    .findFirst()
-                    .orElse(null);
+                final XPathExtractor xPathExtractor = XPathExtractor.compile(Collections.singletonList(fieldName));
+                final int xPathSlot = xPathExtractor.slotOf(fieldName);
+
+                return (xPathSlot != -1) ? xPathExtractor.extract(ctx.getBody())[xPathSlot] : null;
+            default:
+                throw new IllegalArgumentException("Unsupported Rule Matching Type : " + matchingType);
         }
 
-        return req.queryParams(fieldName);
     }
 
 }
@@ -1,12 +1,12 @@
 package com.smockin.mockserver.service;
 
-import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroupCondition;
+import com.smockin.mockserver.service.bean.CompiledRuleCondition;
 
 /**
  * Created by mgallina.
  */
 public interface RuleResolver {
 
-    boolean processRuleComparison(final RestfulMockDefinitionRuleGroupCondition condition, final String inboundValue);
+    boolean processRuleComparison(final CompiledRuleCondition condition, final String inboundValue);
 
 }
@@ -0,0 +1,23 @@
+package com.smockin.mockserver.service;
+
+/**
+ * Created by mgallina.
+ *
+ * Shared (cross node) source of sequence positions, handed out in blocks, for the BlockClaimingSequenceStateStore.
+ */
+public interface SequenceBlockSource {
+
+    /**
+     *
+     * Claims the next block of positions for the given mock, which no other caller (on any node) will be given.
+     * The sequence starts over from 0 where the given version of the mock is newer than the one it was started for.
+     *
+     * @param mockExtId
+     * @param mockVersion
+     * @param blockSize
+     * @returns long (the first position of the block)
+     *
+     */
+    long claimBlock(final String mockExtId, final long mockVersion, final int blockSize);
+
+}
@@ -0,0 +1,33 @@
+package com.smockin.mockserver.service;
+
+/**
+ * Created by mgallina.
+ *
+ * Where the position each SEQ mock has reached in it's sequence is kept.
+ *
+ * Implementations must be safe for concurrent use, and should keep any cross node coordination
+ * off the per request path (i.e by claiming positions in blocks).
+ */
+public interface SequenceStateStore {
+
+    String MEMORY = "memory";
+    String DATABASE = "database";
+
+    /**
+     *
+     * Returns the (zero based) position the given mock is to serve next, and moves it on by one.
+     * No position is ever handed out twice (until cleared, or the mock's version changes), but where state is
+     * shared between nodes, positions are not necessarily handed out in order.
+     *
+     * @param mockExtId
+     * @param mockVersion
+     * @returns long
+     *
+     */
+    long nextPosition(final String mockExtId, final long mockVersion);
+
+    // Only ever drops state held by this node, as shared state may still be in use by other nodes.
+    void clear(final String mockExtId);
+    void clearAll();
+
+}
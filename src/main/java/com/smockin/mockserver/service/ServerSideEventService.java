@@ -7,6 +7,7 @@ import com.smockin.mockserver.service.dto.PushClientDTO;
 import spark.Request;
 import spark.Response;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -19,7 +20,6 @@ public interface ServerSideEventService {
     void register(final String path, final long heartBeatMillis, final boolean proxyPushIdOnConnect, final Request request, final Response response, final boolean logMockCalls) throws IOException;
     List<PushClientDTO> getClientConnections(final String mockExtId, final String token) throws RecordNotFoundException, ValidationException;
     void addMessage(final String id, final SseMessageDTO dto);
-    void interruptAndClearAllHeartBeatThreads();
-    void clearState();
+    void clearState(final Collection<String> paths);
 
 }
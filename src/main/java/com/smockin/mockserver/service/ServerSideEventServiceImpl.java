@@ -23,6 +23,7 @@ import spark.Response;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
@@ -116,26 +117,24 @@ public class ServerSideEventServiceImpl implements ServerSideEventService {
 
     }
 
+    // Interrupts the heartbeat thread of, and drops, every client connected to one of the given paths.
     @Override
-    public void interruptAndClearAllHeartBeatThreads() {
+    public void clearState(final Collection<String> paths) {
 
-        clients.forEach( (key, msgs) -> {
-            msgs.getThread().interrupt();
-        });
-/*
-        heartbeatThreadVector.forEach(t -> {
-            ((Thread)t).interrupt();
-        });
+        if (paths.isEmpty()) {
+            return;
+        }
 
-        heartbeatThreadVector.clear();
-*/
-        clients.clear();
-    }
+        clients.entrySet().removeIf(e -> {
 
-    @Override
-    public void clearState() {
+            if (!paths.contains(e.getValue().getPath())) {
+                return false;
+            }
 
-        clients.clear();
+            e.getValue().getThread().interrupt();
+
+            return true;
+        });
     }
 
     void applyHeaders(final Response res) {
@@ -6,6 +6,7 @@ import com.smockin.mockserver.exception.MockServerException;
 import com.smockin.mockserver.service.dto.PushClientDTO;
 import com.smockin.mockserver.service.dto.WebSocketDTO;
 import org.eclipse.jetty.websocket.api.Session;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -20,6 +21,6 @@ public interface WebSocketService {
     void sendMessage(final String id, final WebSocketDTO dto) throws MockServerException;
     List<PushClientDTO> getClientConnections(final String mockExtId, final String token) throws RecordNotFoundException, ValidationException;
     String getExternalId(final String path, final Session session);
-    void clearSession();
+    void clearSessions(final Collection<String> paths);
 
 }
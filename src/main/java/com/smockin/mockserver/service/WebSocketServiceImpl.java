@@ -219,8 +219,9 @@ public class WebSocketServiceImpl implements WebSocketService {
         }
     }
 
-    public void clearSession() {
-        sessionMap.clear();
+    // Drops the client sessions of the given web socket paths only.
+    public void clearSessions(final Collection<String> paths) {
+        paths.forEach(sessionMap::remove);
     }
 
 }
@@ -0,0 +1,37 @@
+package com.smockin.mockserver.service.bean;
+
+import com.smockin.mockserver.service.dto.RestfulResponseDTO;
+
+/**
+ * Created by mgallina.
+ *
+ * Runtime (immutable) form of a RestfulMockDefinitionOrder.
+ */
+public final class CompiledDefinition {
+
+    private final String extId;
+    private final int frequencyCount;
+    private final int frequencyPercentage;
+    private final RestfulResponseDTO response;
+
+    public CompiledDefinition(final String extId, final int frequencyCount, final int frequencyPercentage, final RestfulResponseDTO response) {
+        this.extId = extId;
+        this.frequencyCount = frequencyCount;
+        this.frequencyPercentage = frequencyPercentage;
+        this.response = response;
+    }
+
+    public String getExtId() {
+        return extId;
+    }
+    public int getFrequencyCount() {
+        return frequencyCount;
+    }
+    public int getFrequencyPercentage() {
+        return frequencyPercentage;
+    }
+    public RestfulResponseDTO getResponse() {
+        return response;
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.smockin.mockserver.service.bean;
+
+import com.smockin.admin.persistence.enums.RestMethodEnum;
+import com.smockin.admin.persistence.enums.RestMockTypeEnum;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Created by mgallina.
+ *
+ * Runtime (immutable) form of a RestfulMock, as served by the mock server.
+ *
+ * Built once per deployment by the RestfulMockCompiler, so request threads never touch JPA entities
+ * (or their lazy collections), and can share the same instance without any locking.
+ * Suspended definitions and rules are excluded.
+ * The one exception is the (optional) bulkhead, which tracks in-flight requests and so is carried over
+ * for as long as the mock itself is unchanged.
+ */
+public final class CompiledRestfulMock {
+
+    private final long id;
+    private final String extId;
+    private final long version;
+    private final RestMethodEnum method;
+    private final RestMockTypeEnum mockType;
+    private final String path;
+    private final String ctxPath;
+    private final String userPath;
+    private final long proxyTimeOutInMillis;
+    private final long sseHeartBeatInMillis;
+    private final boolean proxyPushIdOnConnect;
+    private final boolean randomiseDefinitions;
+    private final boolean proxyForwardWhenNoRuleMatch;
+    private final boolean proxyPriority;
+    private final List<CompiledDefinition> definitions;
+    private final DefinitionSequence definitionSequence;
+    private final WeightedDefinitionTable weightedDefinitionTable;
+    private final List<CompiledRule> rules;
+    private final CompiledRuleIndex ruleIndex;
+    private final MockBulkhead bulkhead;
+
+    public CompiledRestfulMock(final long id, final String extId, final long version, final RestMethodEnum method, final RestMockTypeEnum mockType,
+                               final String path, final String ctxPath, final String userPath,
+                               final long proxyTimeOutInMillis, final long sseHeartBeatInMillis, final boolean proxyPushIdOnConnect,
+                               final boolean randomiseDefinitions, final boolean proxyForwardWhenNoRuleMatch, final boolean proxyPriority,
+                               final List<CompiledDefinition> definitions, final List<CompiledRule> rules, final CompiledRuleIndex ruleIndex, final MockBulkhead bulkhead) {
+        this.id = id;
+        this.extId = extId;
+        this.version = version;
+        this.method = method;
+        this.mockType = mockType;
+        this.path = path;
+        this.ctxPath = ctxPath;
+        this.userPath = userPath;
+        this.proxyTimeOutInMillis = proxyTimeOutInMillis;
+        this.sseHeartBeatInMillis = sseHeartBeatInMillis;
+        this.proxyPushIdOnConnect = proxyPushIdOnConnect;
+        this.randomiseDefinitions = randomiseDefinitions;
+        this.proxyForwardWhenNoRuleMatch = proxyForwardWhenNoRuleMatch;
+        this.proxyPriority = proxyPriority;
+        this.definitions = Collections.unmodifiableList(new ArrayList<>(definitions));
+        this.definitionSequence = DefinitionSequence.compile(this.definitions);
+        this.weightedDefinitionTable = WeightedDefinitionTable.compile(this.definitions);
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        this.ruleIndex = ruleIndex;
+        this.bulkhead = bulkhead;
+    }
+
+    public long getId() {
+        return id;
+    }
+    public String getExtId() {
+        return extId;
+    }
+
+    // The time the mock was last changed, so differs between any two versions of the same mock.
+    public long getVersion() {
+        return version;
+    }
+    public RestMethodEnum getMethod() {
+        return method;
+    }
+    public RestMockTypeEnum getMockType() {
+        return mockType;
+    }
+    public String getPath() {
+        return path;
+    }
+    public String getCtxPath() {
+        return ctxPath;
+    }
+
+    // The path the mock is served on, i.e prefixed with the owner's ctx path where applicable.
+    public String getUserPath() {
+        return userPath;
+    }
+    public long getProxyTimeOutInMillis() {
+        return proxyTimeOutInMillis;
+    }
+    public long getSseHeartBeatInMillis() {
+        return sseHeartBeatInMillis;
+    }
+    public boolean isProxyPushIdOnConnect() {
+        return proxyPushIdOnConnect;
+    }
+    public boolean isRandomiseDefinitions() {
+        return randomiseDefinitions;
+    }
+    public boolean isProxyForwardWhenNoRuleMatch() {
+        return proxyForwardWhenNoRuleMatch;
+    }
+    public boolean isProxyPriority() {
+        return proxyPriority;
+    }
+    public List<CompiledDefinition> getDefinitions() {
+        return definitions;
+    }
+    public DefinitionSequence getDefinitionSequence() {
+        return definitionSequence;
+    }
+    public WeightedDefinitionTable getWeightedDefinitionTable() {
+        return weightedDefinitionTable;
+    }
+    public List<CompiledRule> getRules() {
+        return rules;
+    }
+
+    // Null where the rules are not worth indexing.
+    public CompiledRuleIndex getRuleIndex() {
+        return ruleIndex;
+    }
+
+    // Null where the mock has no concurrency limit.
+    public MockBulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+}
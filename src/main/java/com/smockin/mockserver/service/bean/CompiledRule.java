@@ -0,0 +1,51 @@
+package com.smockin.mockserver.service.bean;
+
+import com.smockin.mockserver.service.dto.RestfulResponseDTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Created by mgallina.
+ *
+ * Runtime (immutable) form of a RestfulMockDefinitionRule.
+ * The response is built once up front and returned as is whenever one of the condition groups is met.
+ *
+ * Hit counts are kept against the rule (and each of it's conditions) for as long as it stays deployed,
+ * so rules which never fire, or which are costly to check, can be found.
+ */
+public final class CompiledRule {
+
+    private final String extId;
+    private final int orderNo;
+
+    // Each 'rule group' is associated by 'OR'
+    private final List<CompiledRuleGroup> conditionGroups;
+    private final RestfulResponseDTO response;
+    private final RuleEvaluationStats stats = new RuleEvaluationStats();
+
+    public CompiledRule(final String extId, final int orderNo, final List<CompiledRuleGroup> conditionGroups, final RestfulResponseDTO response) {
+        this.extId = extId;
+        this.orderNo = orderNo;
+        this.conditionGroups = Collections.unmodifiableList(new ArrayList<>(conditionGroups));
+        this.response = response;
+    }
+
+    public String getExtId() {
+        return extId;
+    }
+    public int getOrderNo() {
+        return orderNo;
+    }
+    public List<CompiledRuleGroup> getConditionGroups() {
+        return conditionGroups;
+    }
+    public RestfulResponseDTO getResponse() {
+        return response;
+    }
+    public RuleEvaluationStats getStats() {
+        return stats;
+    }
+
+}
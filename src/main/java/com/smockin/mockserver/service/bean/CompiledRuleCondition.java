@@ -0,0 +1,112 @@
+package com.smockin.mockserver.service.bean;
+
+import com.smockin.admin.persistence.enums.RuleComparatorEnum;
+import com.smockin.admin.persistence.enums.RuleDataTypeEnum;
+import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+
+import java.util.function.Predicate;
+
+/**
+ * Created by mgallina.
+ *
+ * Runtime (immutable) form of a RestfulMockDefinitionRuleGroupCondition.
+ *
+ * The comparison to make is resolved into a predicate up front, so matching an inbound value
+ * is a single call with no per request branching on the comparator, data type or case sensitivity.
+ *
+ * JSON path conditions hold the extractor shared by all of the mock's JSON path conditions,
+ * along with the slot their own path's value is extracted into (as do XPath conditions, with the mock's XPath extractor).
+ * Likewise, 'CONTAINS' conditions may hold an automaton shared with the other 'CONTAINS' conditions on the same field,
+ * along with the id of their own match value.
+ */
+public final class CompiledRuleCondition {
+
+    private final String field;
+    private final RuleDataTypeEnum dataType;
+    private final RuleComparatorEnum comparator;
+    private final String matchValue;
+    private final RuleMatchingTypeEnum ruleMatchingType;
+    private final boolean caseSensitive;
+    private final Predicate<String> matcher;
+    private final JsonPathExtractor jsonPathExtractor;
+    private final int jsonPathSlot;
+    private final XPathExtractor xPathExtractor;
+    private final int xPathSlot;
+    private final ContainsAutomaton containsAutomaton;
+    private final int containsPatternId;
+    private final RuleEvaluationStats stats = new RuleEvaluationStats();
+
+    public CompiledRuleCondition(final String field, final RuleDataTypeEnum dataType, final RuleComparatorEnum comparator, final String matchValue, final RuleMatchingTypeEnum ruleMatchingType, final Boolean caseSensitive) {
+        this(field, dataType, comparator, matchValue, ruleMatchingType, caseSensitive, SharedRuleMatchers.NONE);
+    }
+
+    public CompiledRuleCondition(final String field, final RuleDataTypeEnum dataType, final RuleComparatorEnum comparator, final String matchValue, final RuleMatchingTypeEnum ruleMatchingType, final Boolean caseSensitive,
+                                 final SharedRuleMatchers sharedMatchers) {
+        this.field = field;
+        this.dataType = dataType;
+        this.comparator = comparator;
+        this.matchValue = matchValue;
+        this.ruleMatchingType = ruleMatchingType;
+        this.caseSensitive = Boolean.TRUE.equals(caseSensitive);
+        this.matcher = RuleConditionMatchers.build(comparator, dataType, matchValue, this.caseSensitive);
+
+        this.jsonPathExtractor = (RuleMatchingTypeEnum.REQUEST_BODY_JSON_PATH.equals(ruleMatchingType)) ? sharedMatchers.getJsonPathExtractor() : null;
+        this.jsonPathSlot = (this.jsonPathExtractor != null) ? this.jsonPathExtractor.slotOf(field) : -1;
+
+        this.xPathExtractor = (RuleMatchingTypeEnum.REQUEST_BODY_XPATH.equals(ruleMatchingType)) ? sharedMatchers.getXPathExtractor() : null;
+        this.xPathSlot = (this.xPathExtractor != null) ? this.xPathExtractor.slotOf(field) : -1;
+
+        final ContainsAutomaton automaton = (RuleComparatorEnum.CONTAINS.equals(comparator))
+                ? sharedMatchers.findContainsAutomaton(ruleMatchingType, field, this.caseSensitive)
+                : null;
+        final int patternId = (automaton != null) ? automaton.patternIdOf(matchValue) : -1;
+
+        this.containsAutomaton = (patternId != -1) ? automaton : null;
+        this.containsPatternId = patternId;
+    }
+
+    public String getField() {
+        return field;
+    }
+    public RuleDataTypeEnum getDataType() {
+        return dataType;
+    }
+    public RuleComparatorEnum getComparator() {
+        return comparator;
+    }
+    public String getMatchValue() {
+        return matchValue;
+    }
+    public RuleMatchingTypeEnum getRuleMatchingType() {
+        return ruleMatchingType;
+    }
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+    public JsonPathExtractor getJsonPathExtractor() {
+        return jsonPathExtractor;
+    }
+    public int getJsonPathSlot() {
+        return jsonPathSlot;
+    }
+    public XPathExtractor getXPathExtractor() {
+        return xPathExtractor;
+    }
+    public int getXPathSlot() {
+        return xPathSlot;
+    }
+    public ContainsAutomaton getContainsAutomaton() {
+        return containsAutomaton;
+    }
+    public int getContainsPatternId() {
+        return containsPatternId;
+    }
+    public RuleEvaluationStats getStats() {
+        return stats;
+    }
+
+    public boolean matches(final String inboundValue) {
+        return matcher.test(inboundValue);
+    }
+
+}
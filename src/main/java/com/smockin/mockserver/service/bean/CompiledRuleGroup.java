@@ -0,0 +1,24 @@
+package com.smockin.mockserver.service.bean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Created by mgallina.
+ *
+ * Runtime (immutable) form of a RestfulMockDefinitionRuleGroup, the conditions of which are associated to one another by 'AND'.
+ */
+public final class CompiledRuleGroup {
+
+    private final List<CompiledRuleCondition> conditions;
+
+    public CompiledRuleGroup(final List<CompiledRuleCondition> conditions) {
+        this.conditions = Collections.unmodifiableList(new ArrayList<>(conditions));
+    }
+
+    public List<CompiledRuleCondition> getConditions() {
+        return conditions;
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.smockin.mockserver.service.bean;
+
+import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by mgallina.
+ *
+ * Runtime (immutable) hash index over a mock's rules, for mocks where many rules are told apart
+ * by a TEXT 'EQUALS' condition on the same field (i.e a customer id header or path variable).
+ *
+ * Every rule group is given a position, in rule (orderNo) and then group order.
+ * Indexed groups are looked up by their match value, whilst the remaining (fallback) groups are always candidates.
+ * Candidates are checked in position order, so the first rule to match is the same as for a full scan.
+ */
+public final class CompiledRuleIndex {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final RuleMatchingTypeEnum ruleMatchingType;
+    private final String field;
+    private final CompiledRule[] rules;
+    private final CompiledRuleGroup[] groups;
+    private final Map<String, int[]> caseSensitivePositions;
+    private final Map<String, int[]> caseInsensitivePositions;
+    private final int[] fallbackPositions;
+
+    public CompiledRuleIndex(final RuleMatchingTypeEnum ruleMatchingType, final String field,
+                             final List<CompiledRule> rules, final List<CompiledRuleGroup> groups,
+                             final Map<String, int[]> caseSensitivePositions, final Map<String, int[]> caseInsensitivePositions,
+                             final int[] fallbackPositions) {
+        this.ruleMatchingType = ruleMatchingType;
+        this.field = field;
+        this.rules = rules.toArray(new CompiledRule[rules.size()]);
+        this.groups = groups.toArray(new CompiledRuleGroup[groups.size()]);
+        this.caseSensitivePositions = Collections.unmodifiableMap(new HashMap<>(caseSensitivePositions));
+        this.caseInsensitivePositions = Collections.unmodifiableMap(new HashMap<>(caseInsensitivePositions));
+        this.fallbackPositions = fallbackPositions;
+    }
+
+    public RuleMatchingTypeEnum getRuleMatchingType() {
+        return ruleMatchingType;
+    }
+    public String getField() {
+        return field;
+    }
+    public CompiledRule getRule(final int position) {
+        return rules[position];
+    }
+    public CompiledRuleGroup getGroup(final int position) {
+        return groups[position];
+    }
+
+    // The positions of groups without an indexed condition, in ascending order.
+    public int[] getFallbackPositions() {
+        return fallbackPositions;
+    }
+
+    /**
+     *
+     * Finds the positions of the indexed groups which could be met by the given inbound value.
+     *
+     * @param inboundValue
+     * @returns int[] (in ascending order, empty where there are none)
+     *
+     */
+    public int[] findPositions(final String inboundValue) {
+
+        if (inboundValue == null) {
+            return NO_POSITIONS;
+        }
+
+        final int[] positions = caseSensitivePositions.get(inboundValue);
+
+        if (positions != null) {
+            return positions;
+        }
+
+        return caseInsensitivePositions.getOrDefault(foldCase(inboundValue), NO_POSITIONS);
+    }
+
+    /**
+     *
+     * Folds the given value so that any two values which are String.equalsIgnoreCase() give the same result,
+     * comparing each char in upper and then lower case, in the same way.
+     *
+     */
+    public static String foldCase(final String value) {
+
+        final char[] folded = new char[value.length()];
+
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+        }
+
+        return new String(folded);
+    }
+
+}
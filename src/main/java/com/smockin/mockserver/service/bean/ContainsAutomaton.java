@@ -0,0 +1,236 @@
+package com.smockin.mockserver.service.bean;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Created by mgallina.
+ *
+ * Runtime (immutable) Aho-Corasick automaton over the match values of many 'CONTAINS' conditions on the same field,
+ * so a single pass over the inbound value decides all of them, rather than searching it once per condition.
+ *
+ * Case insensitive automata fold each char as it is read (in the same way as String.equalsIgnoreCase()),
+ * so the inbound value is never copied into lower case.
+ */
+public final class ContainsAutomaton {
+
+    private static final int[] NO_PATTERNS = new int[0];
+
+    private final boolean caseSensitive;
+    private final Map<String, Integer> patternIds;
+    private final int patternCount;
+
+    // Per state: the chars it moves on (sorted), the states they move to, where to fall back to and the patterns it completes.
+    private final char[][] transitionChars;
+    private final int[][] transitionStates;
+    private final int[] failStates;
+    private final int[][] outputs;
+
+    private ContainsAutomaton(final boolean caseSensitive, final Map<String, Integer> patternIds, final int patternCount,
+                              final char[][] transitionChars, final int[][] transitionStates, final int[] failStates, final int[][] outputs) {
+        this.caseSensitive = caseSensitive;
+        this.patternIds = Collections.unmodifiableMap(patternIds);
+        this.patternCount = patternCount;
+        this.transitionChars = transitionChars;
+        this.transitionStates = transitionStates;
+        this.failStates = failStates;
+        this.outputs = outputs;
+    }
+
+    /**
+     *
+     * Builds an automaton over the given (non empty) patterns.
+     * Patterns which are the same (ignoring case, where case insensitive) share the same id.
+     *
+     * @param patterns
+     * @param caseSensitive
+     * @returns ContainsAutomaton
+     *
+     */
+    public static ContainsAutomaton compile(final Collection<String> patterns, final boolean caseSensitive) {
+
+        final Map<String, Integer> patternIds = new HashMap<>();
+        final Map<String, Integer> keyIds = new HashMap<>();
+
+        // Goto function, as a tree of sorted transitions.
+        final List<TreeMap<Character, Integer>> gotos = new ArrayList<>();
+        final List<List<Integer>> stateOutputs = new ArrayList<>();
+        gotos.add(new TreeMap<>());
+        stateOutputs.add(new ArrayList<>());
+
+        for (String pattern : patterns) {
+
+            if (pattern == null
+                    || pattern.isEmpty()
+                    || patternIds.containsKey(pattern)) {
+                continue;
+            }
+
+            final String key = (caseSensitive) ? pattern : CompiledRuleIndex.foldCase(pattern);
+            final Integer existingId = keyIds.get(key);
+
+            if (existingId != null) {
+                patternIds.put(pattern, existingId);
+                continue;
+            }
+
+            final int id = keyIds.size();
+            keyIds.put(key, id);
+            patternIds.put(pattern, id);
+
+            int state = 0;
+
+            for (int i = 0; i < key.length(); i++) {
+
+                final Integer next = gotos.get(state).get(key.charAt(i));
+
+                if (next != null) {
+                    state = next;
+                    continue;
+                }
+
+                gotos.add(new TreeMap<>());
+                stateOutputs.add(new ArrayList<>());
+                gotos.get(state).put(key.charAt(i), gotos.size() - 1);
+                state = gotos.size() - 1;
+            }
+
+            stateOutputs.get(state).add(id);
+        }
+
+        final int stateCount = gotos.size();
+        final char[][] transitionChars = new char[stateCount][];
+        final int[][] transitionStates = new int[stateCount][];
+
+        for (int s = 0; s < stateCount; s++) {
+
+            final TreeMap<Character, Integer> transitions = gotos.get(s);
+            transitionChars[s] = new char[transitions.size()];
+            transitionStates[s] = new int[transitions.size()];
+
+            int t = 0;
+
+            for (Map.Entry<Character, Integer> e : transitions.entrySet()) {
+                transitionChars[s][t] = e.getKey();
+                transitionStates[s][t] = e.getValue();
+                t++;
+            }
+
+        }
+
+        // Failure function (breadth first), merging in the patterns completed by each state's fail state.
+        final int[] failStates = new int[stateCount];
+        final Queue<Integer> queue = new ArrayDeque<>(gotos.get(0).values());
+
+        while (!queue.isEmpty()) {
+
+            final int state = queue.poll();
+
+            for (Map.Entry<Character, Integer> e : gotos.get(state).entrySet()) {
+
+                final int child = e.getValue();
+                int fail = failStates[state];
+
+                while (fail != 0 && find(transitionChars, transitionStates, fail, e.getKey()) == -1) {
+                    fail = failStates[fail];
+                }
+
+                final int next = find(transitionChars, transitionStates, fail, e.getKey());
+                failStates[child] = (next == -1) ? 0 : next;
+                stateOutputs.get(child).addAll(stateOutputs.get(failStates[child]));
+
+                queue.add(child);
+            }
+
+        }
+
+        final int[][] outputs = new int[stateCount][];
+
+        for (int s = 0; s < stateCount; s++) {
+            outputs[s] = (stateOutputs.get(s).isEmpty())
+                    ? NO_PATTERNS
+                    : stateOutputs.get(s).stream().distinct().mapToInt(Integer::intValue).toArray();
+        }
+
+        return new ContainsAutomaton(caseSensitive, patternIds, keyIds.size(), transitionChars, transitionStates, failStates, outputs);
+    }
+
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    // The id of the given pattern, or -1 where it is not part of this automaton.
+    public int patternIdOf(final String pattern) {
+        return patternIds.getOrDefault(pattern, -1);
+    }
+
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    /**
+     *
+     * Scans the given value the once, stopping early should every pattern be found.
+     *
+     * @param inboundValue
+     * @returns boolean[] (indexed by pattern id, true where the pattern is contained in the value)
+     *
+     */
+    public boolean[] scan(final String inboundValue) {
+
+        final boolean[] found = new boolean[patternCount];
+
+        if (inboundValue == null) {
+            return found;
+        }
+
+        int foundCount = 0;
+        int state = 0;
+
+        for (int i = 0; i < inboundValue.length(); i++) {
+
+            final char c = (caseSensitive)
+                    ? inboundValue.charAt(i)
+                    : Character.toLowerCase(Character.toUpperCase(inboundValue.charAt(i)));
+
+            int next;
+
+            while ((next = find(transitionChars, transitionStates, state, c)) == -1 && state != 0) {
+                state = failStates[state];
+            }
+
+            state = (next == -1) ? 0 : next;
+
+            for (int id : outputs[state]) {
+
+                if (!found[id]) {
+                    found[id] = true;
+
+                    if (++foundCount == patternCount) {
+                        return found;
+                    }
+                }
+
+            }
+
+        }
+
+        return found;
+    }
+
+    private static int find(final char[][] transitionChars, final int[][] transitionStates, final int state, final char c) {
+
+        final int t = Arrays.binarySearch(transitionChars[state], c);
+
+        return (t < 0) ? -1 : transitionStates[state][t];
+    }
+
+}
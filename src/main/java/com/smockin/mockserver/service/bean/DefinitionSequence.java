@@ -0,0 +1,77 @@
+package com.smockin.mockserver.service.bean;
+
+import java.util.List;
+
+/**
+ * Created by mgallina.
+ *
+ * Runtime (immutable) order in which a SEQ mock cycles through it's definitions, each being served
+ * frequencyCount times (or once, where not set) before moving on to the next.
+ *
+ * Held as the running total of frequencies, so the definition at any position of the cycle is found
+ * with a binary search, leaving only the position itself (a counter) as per mock state.
+ */
+public final class DefinitionSequence {
+
+    private final int[] cumulativeFrequencies;
+    private final int cycleLength;
+
+    private DefinitionSequence(final int[] cumulativeFrequencies) {
+        this.cumulativeFrequencies = cumulativeFrequencies;
+        this.cycleLength = (cumulativeFrequencies.length > 0) ? cumulativeFrequencies[cumulativeFrequencies.length - 1] : 0;
+    }
+
+    public static DefinitionSequence compile(final List<CompiledDefinition> definitions) {
+
+        final int[] cumulativeFrequencies = new int[definitions.size()];
+        int total = 0;
+
+        for (int i = 0; i < definitions.size(); i++) {
+            total += Math.max(1, definitions.get(i).getFrequencyCount());
+            cumulativeFrequencies[i] = total;
+        }
+
+        return new DefinitionSequence(cumulativeFrequencies);
+    }
+
+    // The number of responses served before the sequence starts over, or 0 where there are no definitions.
+    public int getCycleLength() {
+        return cycleLength;
+    }
+
+    /**
+     *
+     * Returns the index of the definition to serve at the given (zero based) position, which may run
+     * on beyond a single cycle.
+     *
+     * @param position
+     * @returns int
+     *
+     */
+    public int indexAt(final long position) {
+
+        if (cycleLength == 0) {
+            throw new IllegalStateException("No definitions to sequence");
+        }
+
+        final int offset = (int) Math.floorMod(position, (long) cycleLength);
+
+        // The first definition whose running total is beyond the offset.
+        int low = 0;
+        int high = cumulativeFrequencies.length - 1;
+
+        while (low < high) {
+
+            final int mid = (low + high) >>> 1;
+
+            if (cumulativeFrequencies[mid] > offset) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        return low;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.smockin.mockserver.service.bean;
+
+/**
+ * Created by mgallina.
+ *
+ * A response body encoded at deploy time, ready to be written out as is.
+ */
+public final class EncodedBody {
+
+    private final String contentEncoding;
+    private final byte[] bytes;
+    private final String eTag;
+
+    public EncodedBody(final String contentEncoding, final byte[] bytes, final String eTag) {
+        this.contentEncoding = contentEncoding;
+        this.bytes = bytes;
+        this.eTag = eTag;
+    }
+
+    // The Content-Encoding of the bytes, or null where uncompressed.
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+    public byte[] getBytes() {
+        return bytes;
+    }
+    public String getETag() {
+        return eTag;
+    }
+
+}
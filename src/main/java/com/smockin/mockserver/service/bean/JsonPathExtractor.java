@@ -0,0 +1,340 @@
+package com.smockin.mockserver.service.bean;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by mgallina.
+ *
+ * Runtime (immutable) extractor for every JSON path referenced by a mock's rules.
+ *
+ * Paths are compiled the once into a tree of field names and array indexes, which the request body is then
+ * streamed through (using Jackson's JsonParser), skipping over any part of the document which no path leads into.
+ * Parsing stops as soon as every path has been found, so a large body is neither fully read nor held in memory as a Map.
+ *
+ * Supports dot and bracket notation, i.e '$.order.items[0].sku', '$['first name']' or 'order.customer.id'.
+ * Wildcards, filters and recursive descent are not supported, such paths are never found.
+ */
+public final class JsonPathExtractor {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Node root;
+    private final Map<String, Integer> slots;
+    private final int slotCount;
+
+    private JsonPathExtractor(final Node root, final Map<String, Integer> slots, final int slotCount) {
+        this.root = root;
+        this.slots = Collections.unmodifiableMap(slots);
+        this.slotCount = slotCount;
+    }
+
+    /**
+     *
+     * Compiles the given paths into a single extractor.
+     * Paths which lead to the same value (i.e '$.a' and 'a') share the same slot.
+     *
+     * @param paths
+     * @returns JsonPathExtractor
+     *
+     */
+    public static JsonPathExtractor compile(final Collection<String> paths) {
+
+        final Node root = new Node();
+        final Map<String, Integer> slots = new HashMap<>();
+        int slotCount = 0;
+
+        for (String path : paths) {
+
+            final List<Object> segments = parsePath(path);
+
+            if (segments == null
+                    || slots.containsKey(path)) {
+                continue;
+            }
+
+            Node node = root;
+
+            for (Object segment : segments) {
+                node = (segment instanceof Integer)
+                        ? node.elements.computeIfAbsent((Integer) segment, k -> new Node())
+                        : node.fields.computeIfAbsent((String) segment, k -> new Node());
+            }
+
+            if (node.slot == -1) {
+                node.slot = slotCount++;
+            }
+
+            slots.put(path, node.slot);
+        }
+
+        return new JsonPathExtractor(root, slots, slotCount);
+    }
+
+    // The slot holding the given path's value, or -1 where the path is not supported.
+    public int slotOf(final String path) {
+        return slots.getOrDefault(path, -1);
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     *
+     * Streams through the given JSON, picking out the value of each path.
+     *
+     * Text, numbers and booleans are given as their text. Objects and arrays are given as their raw JSON.
+     * Paths not found (or explicitly null) are left as null, as is anything after the point where the JSON is malformed.
+     *
+     * @param json
+     * @returns String[] (indexed by slot)
+     *
+     */
+    public String[] extract(final String json) {
+
+        final String[] values = new String[slotCount];
+
+        if (json == null
+                || slotCount == 0) {
+            return values;
+        }
+
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+
+            if (parser.nextToken() != null) {
+                new Extraction(parser, json, values).readValue(root);
+            }
+
+        } catch (IOException e) {
+            // Malformed JSON, so keep whatever was found before the error.
+        }
+
+        return values;
+    }
+
+    /**
+     *
+     * Parses a path into it's field names (String) and array indexes (Integer).
+     *
+     * @param path
+     * @returns List (or null where the path is blank or unsupported)
+     *
+     */
+    static List<Object> parsePath(final String path) {
+
+        if (path == null) {
+            return null;
+        }
+
+        final String p = path.trim();
+
+        if (p.isEmpty()) {
+            return null;
+        }
+
+        final List<Object> segments = new ArrayList<>();
+        int i = 0;
+
+        if (p.charAt(0) == '$') {
+            i = 1;
+        } else if (p.charAt(0) != '[') {
+            // A bare field name to start, i.e 'order.id'
+            i = readName(p, 0, segments);
+        }
+
+        while (i != -1 && i < p.length()) {
+
+            final char c = p.charAt(i);
+
+            if (c == '.') {
+                i = readName(p, i + 1, segments);
+            } else if (c == '[') {
+                i = readBracket(p, i + 1, segments);
+            } else {
+                i = -1;
+            }
+
+        }
+
+        return (i == -1) ? null : segments;
+    }
+
+    private static int readName(final String path, final int from, final List<Object> segments) {
+
+        int end = from;
+
+        while (end < path.length()
+                && path.charAt(end) != '.'
+                && path.charAt(end) != '[') {
+            end++;
+        }
+
+        final String name = path.substring(from, end);
+
+        if (name.isEmpty()
+                || "*".equals(name)) {
+            return -1;
+        }
+
+        segments.add(name);
+
+        return end;
+    }
+
+    private static int readBracket(final String path, final int from, final List<Object> segments) {
+
+        final int end = path.indexOf(']', from);
+
+        if (end == -1) {
+            return -1;
+        }
+
+        final String content = path.substring(from, end).trim();
+
+        if (content.length() >= 2
+                && (content.charAt(0) == '\'' || content.charAt(0) == '"')
+                && content.charAt(content.length() - 1) == content.charAt(0)) {
+            segments.add(content.substring(1, content.length() - 1));
+            return end + 1;
+        }
+
+        if (content.isEmpty()
+                || !content.chars().allMatch(Character::isDigit)) {
+            return -1;
+        }
+
+        try {
+            segments.add(Integer.valueOf(content));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+
+        return end + 1;
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> fields = new HashMap<>();
+        private final Map<Integer, Node> elements = new HashMap<>();
+        private int slot = -1;
+
+        private boolean isLeaf() {
+            return fields.isEmpty() && elements.isEmpty();
+        }
+
+    }
+
+    // The state of a single pass over a JSON document.
+    private static final class Extraction {
+
+        private final JsonParser parser;
+        private final String json;
+        private final String[] values;
+        private final boolean[] found;
+        private int remaining;
+
+        private Extraction(final JsonParser parser, final String json, final String[] values) {
+            this.parser = parser;
+            this.json = json;
+            this.values = values;
+            this.found = new boolean[values.length];
+            this.remaining = values.length;
+        }
+
+        /**
+         *
+         * Reads the value the parser is currently on, descending only into the parts the given node leads to.
+         *
+         * @returns true once every path has been found, so the caller can stop there.
+         *
+         */
+        private boolean readValue(final Node node) throws IOException {
+
+            final JsonToken token = parser.getCurrentToken();
+
+            if (token == null) {
+                return true;
+            }
+
+            if (!token.isStructStart()) {
+
+                if (node.slot != -1) {
+                    record(node.slot, (token == JsonToken.VALUE_NULL) ? null : parser.getText());
+                }
+
+                return remaining == 0;
+            }
+
+            final long start = parser.getTokenLocation().getCharOffset();
+
+            if (node.isLeaf()) {
+                parser.skipChildren();
+            } else if (token == JsonToken.START_OBJECT) {
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+
+                    final Node child = node.fields.get(parser.getCurrentName());
+                    parser.nextToken();
+
+                    if (child == null) {
+                        parser.skipChildren();
+                    } else if (readValue(child)) {
+                        return true;
+                    }
+
+                }
+
+            } else {
+
+                int index = 0;
+                JsonToken next;
+
+                while ((next = parser.nextToken()) != JsonToken.END_ARRAY
+                        && next != null) {
+
+                    final Node child = node.elements.get(index++);
+
+                    if (child == null) {
+                        parser.skipChildren();
+                    } else if (readValue(child)) {
+                        return true;
+                    }
+
+                }
+
+            }
+
+            // An object or array which is itself a path's value is given as it's raw JSON.
+            // (The path's own slot is still outstanding whilst within it, so the loops above never stop early here).
+            if (node.slot != -1) {
+                record(node.slot, json.substring((int) start, (int) parser.getCurrentLocation().getCharOffset()));
+            }
+
+            return remaining == 0;
+        }
+
+        // Where a field is repeated, the first value is kept.
+        private void record(final int slot, final String value) {
+
+            if (found[slot]) {
+                return;
+            }
+
+            found[slot] = true;
+            values[slot] = value;
+            remaining--;
+        }
+
+    }
+
+}
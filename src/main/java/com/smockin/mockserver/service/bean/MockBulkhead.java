@@ -0,0 +1,166 @@
+package com.smockin.mockserver.service.bean;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Created by mgallina.
+ *
+ * Caps the number of requests a single mock serves at once.
+ *
+ * Requests beyond maxConcurrent join a bounded queue (of maxQueued) and are handed a slot, in the order they arrived,
+ * as one frees up. The queue holds callbacks rather than threads, so a queued request never ties up a request thread
+ * (see DelayedResponseHandler). Anything over and above this is shed straight away, so an overloaded mock answers
+ * with a 429 or 503 rather than starving every other mock of the server's thread pool.
+ *
+ * Unlike the rest of the compiled mock, this holds live (mutable) state and is shared by all request threads.
+ * Every request which enters (or is handed a slot from the queue) must be paired with exactly one exit().
+ */
+public final class MockBulkhead {
+
+    // How long a request may wait in the queue for a slot, before being shed.
+    static final long DEFAULT_QUEUE_TIMEOUT_MILLIS = 10000;
+
+    public enum Admission {
+        ENTERED,
+        QUEUED,
+        REJECTED
+    }
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final int rejectionStatusCode;
+    private final int retryAfterSeconds;
+    private final long queueTimeoutMillis;
+
+    // Both guarded by this.
+    private final Deque<Runnable> waiting = new ArrayDeque<>();
+    private int inFlight;
+
+    public MockBulkhead(final int maxConcurrent, final int maxQueued, final int rejectionStatusCode, final int retryAfterSeconds) {
+        this(maxConcurrent, maxQueued, rejectionStatusCode, retryAfterSeconds, DEFAULT_QUEUE_TIMEOUT_MILLIS);
+    }
+
+    public MockBulkhead(final int maxConcurrent, final int maxQueued, final int rejectionStatusCode, final int retryAfterSeconds, final long queueTimeoutMillis) {
+
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1");
+        }
+
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = Math.max(0, maxQueued);
+        this.rejectionStatusCode = (rejectionStatusCode == HttpStatus.TOO_MANY_REQUESTS.value())
+                ? rejectionStatusCode
+                : HttpStatus.SERVICE_UNAVAILABLE.value();
+        this.retryAfterSeconds = Math.max(0, retryAfterSeconds);
+        this.queueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    /**
+     *
+     * Claims a slot for the calling request, without queuing.
+     *
+     * A slot is never taken ahead of requests already waiting in the queue.
+     *
+     * @returns boolean (false where the request should be queued or shed)
+     *
+     */
+    public synchronized boolean tryEnter() {
+
+        if (inFlight < maxConcurrent && waiting.isEmpty()) {
+            inFlight++;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     *
+     * Claims a slot for the calling request or, failing that, a place in the queue.
+     *
+     * Once a queued request reaches the front of the queue and a slot frees up, the slot is handed straight over to it
+     * by calling onEntered (from the thread calling exit()).
+     *
+     * @param onEntered
+     * @returns Admission
+     *
+     */
+    public Admission enter(final Runnable onEntered) {
+
+        synchronized (this) {
+
+            if (inFlight < maxConcurrent && waiting.isEmpty()) {
+                inFlight++;
+                return Admission.ENTERED;
+            }
+
+            if (waiting.size() >= maxQueued) {
+                return Admission.REJECTED;
+            }
+
+            waiting.addLast(onEntered);
+        }
+
+        return Admission.QUEUED;
+    }
+
+    /**
+     *
+     * Withdraws a queued request (i.e one which has waited longer than the queue timeout).
+     *
+     * @param onEntered
+     * @returns boolean (false where the request has already been handed a slot, so must still exit())
+     *
+     */
+    public synchronized boolean cancel(final Runnable onEntered) {
+        return waiting.remove(onEntered);
+    }
+
+    public void exit() {
+
+        final Runnable next;
+
+        synchronized (this) {
+
+            next = waiting.pollFirst();
+
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+
+        // The slot passes straight to the longest waiting request, so inFlight is unchanged.
+        next.run();
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiting.size();
+    }
+
+    // Only ever a hint, as the queue may fill up or drain at any point.
+    public synchronized boolean isQueueFull() {
+        return waiting.size() >= maxQueued;
+    }
+
+    public int getRejectionStatusCode() {
+        return rejectionStatusCode;
+    }
+
+    // 0 where no Retry-After header should be sent.
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public long getQueueTimeoutMillis() {
+        return queueTimeoutMillis;
+    }
+
+}
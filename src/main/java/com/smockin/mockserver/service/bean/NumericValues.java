@@ -0,0 +1,154 @@
+package com.smockin.mockserver.service.bean;
+
+/**
+ * Created by mgallina.
+ *
+ * Parses numeric values straight into primitives, without boxing or throwing on invalid input,
+ * so checking an inbound value against a numeric rule condition costs a single pass over it.
+ *
+ * Only plain decimal numbers are supported (i.e '42', '-0.5' or '1.2e3'), anything else is not a number.
+ */
+final class NumericValues {
+
+    // Never a valid result, as parseLong() only accepts up to 18 digits.
+    static final long NOT_A_LONG = Long.MIN_VALUE;
+
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final double MAX_WHOLE_DOUBLE = 9.0e18;
+
+    private NumericValues() {
+    }
+
+    /**
+     *
+     * Parses a whole number of up to 18 digits, with an optional sign.
+     *
+     * @param value
+     * @returns long (or NOT_A_LONG where the value is not a whole number)
+     *
+     */
+    static long parseLong(final String value) {
+
+        if (value == null
+                || value.isEmpty()) {
+            return NOT_A_LONG;
+        }
+
+        final int length = value.length();
+        final boolean negative = value.charAt(0) == '-';
+        int i = (negative || value.charAt(0) == '+') ? 1 : 0;
+
+        if (i == length
+                || (length - i) > MAX_LONG_DIGITS) {
+            return NOT_A_LONG;
+        }
+
+        long result = 0;
+
+        for (; i < length; i++) {
+
+            final char c = value.charAt(i);
+
+            if (c < '0' || c > '9') {
+                return NOT_A_LONG;
+            }
+
+            result = (result * 10) + (c - '0');
+        }
+
+        return (negative) ? -result : result;
+    }
+
+    /**
+     *
+     * Parses a decimal number, with an optional sign, fraction and exponent.
+     *
+     * @param value
+     * @returns double (or NaN where the value is not a number)
+     *
+     */
+    static double parseDouble(final String value) {
+
+        final long whole = parseLong(value);
+
+        if (whole != NOT_A_LONG) {
+            return whole;
+        }
+
+        if (!isDecimal(value)) {
+            return Double.NaN;
+        }
+
+        return Double.parseDouble(value);
+    }
+
+    // Whether the value is a whole number which can be held as a long without loss.
+    static boolean isWhole(final double value) {
+        return value == Math.rint(value)
+                && Math.abs(value) < MAX_WHOLE_DOUBLE;
+    }
+
+    // Validated up front, as Double.parseDouble() would otherwise accept i.e 'NaN', 'Infinity', '1f' or surrounding white space.
+    private static boolean isDecimal(final String value) {
+
+        if (value == null) {
+            return false;
+        }
+
+        final int length = value.length();
+        int i = 0;
+
+        if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+
+        final int wholeStart = i;
+
+        while (i < length && isDigit(value.charAt(i))) {
+            i++;
+        }
+
+        int digits = i - wholeStart;
+
+        if (i < length && value.charAt(i) == '.') {
+
+            final int fractionStart = ++i;
+
+            while (i < length && isDigit(value.charAt(i))) {
+                i++;
+            }
+
+            digits += i - fractionStart;
+        }
+
+        if (digits == 0) {
+            return false;
+        }
+
+        if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+
+            i++;
+
+            if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                i++;
+            }
+
+            final int exponentStart = i;
+
+            while (i < length && isDigit(value.charAt(i))) {
+                i++;
+            }
+
+            if (i == exponentStart) {
+                return false;
+            }
+        }
+
+        return i == length;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+}
@@ -0,0 +1,299 @@
+package com.smockin.mockserver.service.bean;
+
+import com.smockin.mockserver.service.enums.ParamMatchTypeEnum;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Created by mgallina.
+ *
+ * Runtime (immutable) form of a response body containing inbound param tokens (i.e ${REQ_HEAD=name}).
+ *
+ * The body is split up front into it's literal text and the tokens between them, with each token's type and argument
+ * already picked out, so rendering is a single pass appending each segment in turn, rather than repeatedly
+ * searching the body for the next token and rebuilding it around the value.
+ *
+ * Tokens are the text between '${' and the next '}' (on the same line), with any whitespace around the text preserved.
+ * Token values are inserted as is, so a value which itself looks like a token is never swapped out.
+ *
+ * The JSON paths of all REQ_BODY_JSON tokens are compiled into a single extractor, so the request body is streamed through the once
+ * for all of them.
+ */
+public final class ResponseTemplate {
+
+    private static final String TOKEN_START = "${";
+    private static final char TOKEN_END = '}';
+
+    private final char[] chars;
+    private final int[] literalStarts;
+    private final int[] literalEnds;
+    private final Token[] tokens;
+    private final int literalLength;
+
+    private ResponseTemplate(final char[] chars, final int[] literalStarts, final int[] literalEnds, final Token[] tokens) {
+        this.chars = chars;
+        this.literalStarts = literalStarts;
+        this.literalEnds = literalEnds;
+        this.tokens = tokens;
+
+        int length = 0;
+
+        for (int i = 0; i < literalStarts.length; i++) {
+            length += literalEnds[i] - literalStarts[i];
+        }
+
+        this.literalLength = length;
+    }
+
+    /**
+     *
+     * Splits the given body into literals and tokens.
+     * There is always one more literal than there are tokens (any of which may be empty).
+     *
+     * @param body
+     * @returns ResponseTemplate
+     *
+     */
+    public static ResponseTemplate compile(final String body) {
+
+        final List<Integer> starts = new ArrayList<>();
+        final List<Integer> ends = new ArrayList<>();
+        final List<Token> tokens = new ArrayList<>();
+
+        int literalStart = 0;
+        int from = 0;
+
+        while (true) {
+
+            final int tokenStart = body.indexOf(TOKEN_START, from);
+
+            if (tokenStart == -1) {
+                break;
+            }
+
+            final int tokenEnd = findTokenEnd(body, tokenStart + TOKEN_START.length());
+
+            if (tokenEnd == -1) {
+                // Not closed on this line, so is literal text, but a later '${' on the line could still start a token.
+                from = tokenStart + 1;
+                continue;
+            }
+
+            starts.add(literalStart);
+            ends.add(tokenStart);
+            tokens.add(Token.parse(body.substring(tokenStart + TOKEN_START.length(), tokenEnd)));
+
+            literalStart = tokenEnd + 1;
+            from = literalStart;
+        }
+
+        starts.add(literalStart);
+        ends.add(body.length());
+
+        shareJsonPathExtractor(tokens);
+
+        return new ResponseTemplate(body.toCharArray(),
+                starts.stream().mapToInt(Integer::intValue).toArray(),
+                ends.stream().mapToInt(Integer::intValue).toArray(),
+                tokens.toArray(new Token[tokens.size()]));
+    }
+
+    // Where there are several REQ_BODY_JSON tokens, swaps each token's own extractor for one covering all of their paths.
+    private static void shareJsonPathExtractor(final List<Token> tokens) {
+
+        final List<String> paths = new ArrayList<>();
+
+        for (Token token : tokens) {
+            if (ParamMatchTypeEnum.REQ_BODY_JSON.equals(token.getType())) {
+                paths.add(token.getArgument());
+            }
+        }
+
+        if (paths.size() < 2) {
+            return;
+        }
+
+        final JsonPathExtractor extractor = JsonPathExtractor.compile(paths);
+
+        for (int i = 0; i < tokens.size(); i++) {
+
+            final Token token = tokens.get(i);
+
+            if (ParamMatchTypeEnum.REQ_BODY_JSON.equals(token.getType())) {
+                tokens.set(i, new Token(token.text, token.type, token.argument, extractor));
+            }
+        }
+    }
+
+    // The position of the closing brace, or -1 where a line ends (or the body ends) first.
+    private static int findTokenEnd(final String body, final int from) {
+
+        for (int i = from; i < body.length(); i++) {
+
+            final char c = body.charAt(i);
+
+            if (c == TOKEN_END) {
+                return i;
+            }
+
+            // The line terminators a regex '.' does not match.
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return -1;
+            }
+        }
+
+        return -1;
+    }
+
+    public int getTokenCount() {
+        return tokens.length;
+    }
+
+    public List<Token> getTokens() {
+        return Collections.unmodifiableList(Arrays.asList(tokens));
+    }
+
+    // The rendered length, before any token values are added.
+    public int getLiteralLength() {
+        return literalLength;
+    }
+
+    /**
+     *
+     * Appends the body to the given buffer, with each token swapped for the value given by the resolver (null values are left out).
+     *
+     * @param out
+     * @param resolver
+     *
+     */
+    public void render(final StringBuilder out, final Function<Token, String> resolver) {
+
+        for (int i = 0; i < tokens.length; i++) {
+
+            out.append(chars, literalStarts[i], literalEnds[i] - literalStarts[i]);
+
+            final String value = resolver.apply(tokens[i]);
+
+            if (value != null) {
+                out.append(value);
+            }
+        }
+
+        final int last = tokens.length;
+
+        out.append(chars, literalStarts[last], literalEnds[last] - literalStarts[last]);
+    }
+
+    /**
+     *
+     * As per render(StringBuilder, Function), but writes each segment straight to the given writer,
+     * so the rendered body is never held in full.
+     *
+     * @param out
+     * @param resolver
+     *
+     */
+    public void render(final Writer out, final Function<Token, String> resolver) throws IOException {
+
+        for (int i = 0; i < tokens.length; i++) {
+
+            out.write(chars, literalStarts[i], literalEnds[i] - literalStarts[i]);
+
+            final String value = resolver.apply(tokens[i]);
+
+            if (value != null) {
+                out.write(value);
+            }
+        }
+
+        final int last = tokens.length;
+
+        out.write(chars, literalStarts[last], literalEnds[last] - literalStarts[last]);
+    }
+
+    /**
+     * A single token, with it's type and argument (i.e the header name of a REQ_HEAD token) resolved up front.
+     * Generated types (i.e ISO_DATE) also carry their generator, as looked up from TokenGenerators.
+     * Tokens of an unrecognised type have a null type.
+     */
+    public static final class Token {
+
+        private final String text;
+        private final ParamMatchTypeEnum type;
+        private final String argument;
+        private final Supplier<String> generator;
+        private final JsonPathExtractor jsonPathExtractor;
+        private final int jsonPathSlot;
+
+        private Token(final String text, final ParamMatchTypeEnum type, final String argument) {
+            this(text, type, argument, (ParamMatchTypeEnum.REQ_BODY_JSON.equals(type))
+                    ? JsonPathExtractor.compile(Collections.singletonList(argument))
+                    : null);
+        }
+
+        private Token(final String text, final ParamMatchTypeEnum type, final String argument, final JsonPathExtractor jsonPathExtractor) {
+            this.text = text;
+            this.type = type;
+            this.argument = argument;
+            this.generator = TokenGenerators.forType(type, argument);
+            this.jsonPathExtractor = jsonPathExtractor;
+            this.jsonPathSlot = (jsonPathExtractor != null) ? jsonPathExtractor.slotOf(argument) : -1;
+        }
+
+        // Checked in the same order as InboundParamMatchServiceImpl always has, as some type names start with others.
+        public static Token parse(final String text) {
+
+            for (ParamMatchTypeEnum type : new ParamMatchTypeEnum[] { ParamMatchTypeEnum.REQ_HEAD, ParamMatchTypeEnum.REQ_PARAM, ParamMatchTypeEnum.PATH_VAR, ParamMatchTypeEnum.REQ_BODY_JSON, ParamMatchTypeEnum.REQ_BODY_FORM }) {
+                if (text.startsWith(type.name())) {
+                    return new Token(text, type, StringUtils.trim(StringUtils.remove(text, type.name() + "=")));
+                }
+            }
+
+            for (ParamMatchTypeEnum type : new ParamMatchTypeEnum[] { ParamMatchTypeEnum.ISO_DATETIME, ParamMatchTypeEnum.ISO_DATE, ParamMatchTypeEnum.UUID, ParamMatchTypeEnum.RANDOM_NUMBER }) {
+                if (text.equals(type.name())) {
+                    return new Token(text, type, null);
+                }
+            }
+
+            if (text.startsWith(ParamMatchTypeEnum.RANDOM_NUMBER.name())) {
+                return new Token(text, ParamMatchTypeEnum.RANDOM_NUMBER, StringUtils.trim(StringUtils.remove(text, ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=")));
+            }
+
+            return new Token(text, null, null);
+        }
+
+        // The text between the braces, as written.
+        public String getText() {
+            return text;
+        }
+        public ParamMatchTypeEnum getType() {
+            return type;
+        }
+        public String getArgument() {
+            return argument;
+        }
+
+        // Null for the request bound types (i.e REQ_HEAD) and unsupported tokens.
+        public Supplier<String> getGenerator() {
+            return generator;
+        }
+
+        // The extractor (and it's slot) for a REQ_BODY_JSON token's path, null (and -1) otherwise.
+        public JsonPathExtractor getJsonPathExtractor() {
+            return jsonPathExtractor;
+        }
+        public int getJsonPathSlot() {
+            return jsonPathSlot;
+        }
+
+    }
+
+}
@@ -0,0 +1,299 @@
+package com.smockin.mockserver.service.bean;
+
+import com.smockin.admin.persistence.enums.RuleComparatorEnum;
+import com.smockin.admin.persistence.enums.RuleDataTypeEnum;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Created by mgallina.
+ *
+ * Resolves a rule condition's comparator, data type and case sensitivity into a single predicate,
+ * so none of these need to be looked at again when matching against an inbound value.
+ * Any parsing of the match value (i.e numbers) is also done here, once.
+ */
+final class RuleConditionMatchers {
+
+    private RuleConditionMatchers() {
+    }
+
+    static Predicate<String> build(final RuleComparatorEnum comparator, final RuleDataTypeEnum dataType, final String matchValue, final boolean caseSensitive) {
+
+        if (comparator == null) {
+            return inboundValue -> {
+                throw new IllegalArgumentException("Invalid rule comparator. Cannot be null");
+            };
+        }
+
+        switch (comparator) {
+            case EQUALS:
+                return buildEquals(dataType, matchValue, caseSensitive);
+            case CONTAINS:
+                return buildContains(matchValue, caseSensitive);
+            case IS_MISSING:
+                return buildIsMissing(matchValue, caseSensitive);
+            case REGEX:
+                return buildRegex(matchValue, caseSensitive);
+            case GREATER_THAN:
+                return buildGreaterThan(matchValue);
+            case LESS_THAN:
+                return buildLessThan(matchValue);
+            case BETWEEN:
+                return buildBetween(matchValue);
+            case IN_SET:
+                return buildInSet(dataType, matchValue, caseSensitive);
+            default:
+                return inboundValue -> {
+                    throw new IllegalArgumentException("Unsupported rule comparator: " + comparator);
+                };
+        }
+
+    }
+
+    // Supports TEXT and NUMERIC data types
+    static Predicate<String> buildEquals(final RuleDataTypeEnum dataType, final String matchValue, final boolean caseSensitive) {
+
+        if (RuleDataTypeEnum.TEXT.equals(dataType)) {
+
+            if (caseSensitive) {
+                return inboundValue -> inboundValue != null && matchValue.equals(inboundValue);
+            }
+
+            return inboundValue -> inboundValue != null && matchValue.equalsIgnoreCase(inboundValue);
+        }
+
+        if (RuleDataTypeEnum.NUMERIC.equals(dataType)) {
+
+            final NumericBound number = new NumericBound(matchValue);
+
+            return (number.valid)
+                    ? numeric((whole, value) -> number.compare(whole, value) == 0)
+                    : inboundValue -> false;
+        }
+
+        return inboundValue -> false;
+    }
+
+    // Always handled as TEXT!
+    static Predicate<String> buildContains(final String matchValue, final boolean caseSensitive) {
+
+        if (caseSensitive) {
+            return inboundValue -> inboundValue != null && inboundValue.contains(matchValue);
+        }
+
+        // Compares region by region, rather than lower casing (and so copying) the inbound value on every request.
+        return inboundValue -> inboundValue != null && StringUtils.containsIgnoreCase(inboundValue, matchValue);
+    }
+
+    /**
+     *
+     * Always handled as TEXT!
+     *
+     * The pattern is compiled the once, and is met where it is found anywhere within the inbound value
+     * (use ^ and $ to match the whole value). Case insensitive patterns are matched without copying the inbound value.
+     * An invalid pattern is never met.
+     *
+     */
+    static Predicate<String> buildRegex(final String matchValue, final boolean caseSensitive) {
+
+        final Pattern pattern;
+
+        try {
+            pattern = Pattern.compile(matchValue, (caseSensitive) ? 0 : (Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+        } catch (PatternSyntaxException | NullPointerException e) {
+            return inboundValue -> false;
+        }
+
+        return inboundValue -> inboundValue != null && pattern.matcher(inboundValue).find();
+    }
+
+    // Always handled as NUMERIC!
+    static Predicate<String> buildGreaterThan(final String matchValue) {
+
+        final NumericBound bound = new NumericBound(matchValue);
+
+        return (bound.valid)
+                ? numeric((whole, value) -> bound.compare(whole, value) > 0)
+                : inboundValue -> false;
+    }
+
+    // Always handled as NUMERIC!
+    static Predicate<String> buildLessThan(final String matchValue) {
+
+        final NumericBound bound = new NumericBound(matchValue);
+
+        return (bound.valid)
+                ? numeric((whole, value) -> bound.compare(whole, value) < 0)
+                : inboundValue -> false;
+    }
+
+    /**
+     *
+     * Always handled as NUMERIC!
+     *
+     * Expects an inclusive range of 2 comma separated values, i.e '10,20' (in either order).
+     *
+     */
+    static Predicate<String> buildBetween(final String matchValue) {
+
+        final String[] range = StringUtils.split(matchValue, ',');
+
+        if (range == null
+                || range.length != 2) {
+            return inboundValue -> false;
+        }
+
+        final NumericBound first = new NumericBound(range[0]);
+        final NumericBound second = new NumericBound(range[1]);
+
+        if (!first.valid
+                || !second.valid) {
+            return inboundValue -> false;
+        }
+
+        final NumericBound min = (first.doubleValue <= second.doubleValue) ? first : second;
+        final NumericBound max = (min == first) ? second : first;
+
+        return numeric((whole, value) -> min.compare(whole, value) >= 0 && max.compare(whole, value) <= 0);
+    }
+
+    /**
+     *
+     * Expects a comma separated list of values, i.e '1,2,3'.
+     *
+     * NUMERIC values are held in sorted arrays (whole numbers as longs) and binary searched.
+     * TEXT values are held in a set, which when case insensitive, compares without copying the inbound value.
+     *
+     */
+    static Predicate<String> buildInSet(final RuleDataTypeEnum dataType, final String matchValue, final boolean caseSensitive) {
+
+        final String[] entries = StringUtils.split(StringUtils.defaultString(matchValue), ',');
+
+        if (RuleDataTypeEnum.NUMERIC.equals(dataType)) {
+
+            final long[] wholes = new long[entries.length];
+            final double[] decimals = new double[entries.length];
+            int wholeCount = 0;
+            int decimalCount = 0;
+
+            for (String entry : entries) {
+
+                final NumericBound number = new NumericBound(entry);
+
+                if (!number.valid) {
+                    continue;
+                }
+
+                if (number.whole) {
+                    wholes[wholeCount++] = number.longValue;
+                } else {
+                    decimals[decimalCount++] = number.doubleValue;
+                }
+            }
+
+            final long[] sortedWholes = Arrays.copyOf(wholes, wholeCount);
+            final double[] sortedDecimals = Arrays.copyOf(decimals, decimalCount);
+            Arrays.sort(sortedWholes);
+            Arrays.sort(sortedDecimals);
+
+            return numeric((whole, value) -> {
+
+                if (whole != NumericValues.NOT_A_LONG) {
+                    return Arrays.binarySearch(sortedWholes, whole) >= 0;
+                }
+
+                return (NumericValues.isWhole(value))
+                        ? Arrays.binarySearch(sortedWholes, (long) value) >= 0
+                        : Arrays.binarySearch(sortedDecimals, value) >= 0;
+            });
+        }
+
+        final Set<String> values = (caseSensitive) ? new HashSet<>() : new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+        for (String entry : entries) {
+            values.add(entry.trim());
+        }
+
+        return inboundValue -> inboundValue != null && values.contains(inboundValue);
+    }
+
+    // Always handled as TEXT!
+    static Predicate<String> buildIsMissing(final String matchValue, final boolean caseSensitive) {
+
+        // Without a match value, only a blank inbound value counts as missing.
+        if (StringUtils.isBlank(matchValue)) {
+            return StringUtils::isBlank;
+        }
+
+        if (caseSensitive) {
+            return inboundValue -> StringUtils.isBlank(inboundValue) || !matchValue.equals(inboundValue);
+        }
+
+        return inboundValue -> StringUtils.isBlank(inboundValue) || !matchValue.equalsIgnoreCase(inboundValue);
+    }
+
+    // Parses the inbound value the once, as both a whole number (where it is one) and a double.
+    private static Predicate<String> numeric(final NumericPredicate predicate) {
+
+        return inboundValue -> {
+
+            if (inboundValue == null) {
+                return false;
+            }
+
+            final long whole = NumericValues.parseLong(inboundValue);
+            final double value = (whole != NumericValues.NOT_A_LONG) ? whole : NumericValues.parseDouble(inboundValue);
+
+            return !Double.isNaN(value) && predicate.test(whole, value);
+        };
+    }
+
+    @FunctionalInterface
+    private interface NumericPredicate {
+
+        // whole is NumericValues.NOT_A_LONG where the inbound value is not a whole number.
+        boolean test(long whole, double value);
+
+    }
+
+    // A rule side number, parsed the once.
+    private static final class NumericBound {
+
+        private final boolean valid;
+        private final boolean whole;
+        private final long longValue;
+        private final double doubleValue;
+
+        private NumericBound(final String value) {
+
+            final String trimmed = StringUtils.trim(value);
+            final long l = NumericValues.parseLong(trimmed);
+            final double d = (l != NumericValues.NOT_A_LONG) ? l : NumericValues.parseDouble(trimmed);
+
+            this.valid = !Double.isNaN(d);
+            this.whole = l != NumericValues.NOT_A_LONG || (this.valid && NumericValues.isWhole(d));
+            this.longValue = (l != NumericValues.NOT_A_LONG) ? l : (long) d;
+            this.doubleValue = d;
+        }
+
+        // Compares the inbound value against this number, exactly where both are whole numbers.
+        private int compare(final long inboundWhole, final double inboundValue) {
+
+            if (whole
+                    && inboundWhole != NumericValues.NOT_A_LONG) {
+                return Long.compare(inboundWhole, longValue);
+            }
+
+            return (inboundValue < doubleValue) ? -1 : ((inboundValue > doubleValue) ? 1 : 0);
+        }
+
+    }
+
+}
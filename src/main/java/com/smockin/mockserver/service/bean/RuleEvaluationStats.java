@@ -0,0 +1,48 @@
+package com.smockin.mockserver.service.bean;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Created by mgallina.
+ *
+ * Running totals of how often a compiled rule (or rule condition) has been evaluated, whether it was met,
+ * and the time spent doing so.
+ *
+ * Updated by every request thread checking the rule, so each total is a LongAdder, which spreads contended
+ * updates across cells rather than having all threads compete (or lock) on a single value.
+ * Totals are read without stopping updates, so may be a moment out of step with one another.
+ */
+public final class RuleEvaluationStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evaluationNanos = new LongAdder();
+
+    public void record(final boolean matched, final long nanos) {
+
+        if (matched) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+
+        evaluationNanos.add(nanos);
+    }
+
+    public void reset() {
+        hits.reset();
+        misses.reset();
+        evaluationNanos.reset();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+    public long getMisses() {
+        return misses.sum();
+    }
+    public long getEvaluationNanos() {
+        return evaluationNanos.sum();
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.smockin.mockserver.service.bean;
+
+import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+import org.apache.commons.lang3.tuple.Triple;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Created by mgallina.
+ *
+ * Runtime (immutable) matchers which are shared by many of a mock's rule conditions,
+ * so work common to all of them only needs doing the once per request.
+ *
+ * i.e the extractor for every JSON path (or XPath) used by the mock, or an automaton deciding every 'CONTAINS' condition on the same field.
+ */
+public final class SharedRuleMatchers {
+
+    public static final SharedRuleMatchers NONE = new SharedRuleMatchers(null, null, Collections.emptyMap());
+
+    private final JsonPathExtractor jsonPathExtractor;
+    private final XPathExtractor xPathExtractor;
+    private final Map<Triple<RuleMatchingTypeEnum, String, Boolean>, ContainsAutomaton> containsAutomata;
+
+    public SharedRuleMatchers(final JsonPathExtractor jsonPathExtractor,
+                              final XPathExtractor xPathExtractor,
+                              final Map<Triple<RuleMatchingTypeEnum, String, Boolean>, ContainsAutomaton> containsAutomata) {
+        this.jsonPathExtractor = jsonPathExtractor;
+        this.xPathExtractor = xPathExtractor;
+        this.containsAutomata = Collections.unmodifiableMap(new HashMap<>(containsAutomata));
+    }
+
+    // Null where the mock has no JSON path conditions.
+    public JsonPathExtractor getJsonPathExtractor() {
+        return jsonPathExtractor;
+    }
+
+    // Null where the mock has no XPath conditions.
+    public XPathExtractor getXPathExtractor() {
+        return xPathExtractor;
+    }
+
+    // Null where there are too few 'CONTAINS' conditions on the field to be worth one.
+    public ContainsAutomaton findContainsAutomaton(final RuleMatchingTypeEnum ruleMatchingType, final String field, final boolean caseSensitive) {
+        return containsAutomata.get(Triple.of(ruleMatchingType, field, caseSensitive));
+    }
+
+}
@@ -0,0 +1,197 @@
+package com.smockin.mockserver.service.bean;
+
+import com.smockin.mockserver.service.InboundParamMatchService;
+import com.smockin.mockserver.service.enums.ParamMatchTypeEnum;
+import com.smockin.utils.GeneralUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Created by mgallina.
+ *
+ * Registry of the generated (non request bound) token types, being ISO_DATETIME, ISO_DATE, UUID and RANDOM_NUMBER.
+ *
+ * Each token is resolved to it's generator the once, when the response body is compiled (at deploy time),
+ * so any argument (i.e the range of a RANDOM_NUMBER token) is parsed up front rather than on every request.
+ *
+ * Dates are formatted at most once a second, UUIDs and random numbers come from ThreadLocalRandom so
+ * request threads do not contend on a shared (Secure)Random.
+ */
+public final class TokenGenerators {
+
+    private static final Map<ParamMatchTypeEnum, Function<String, Supplier<String>>> REGISTRY = new EnumMap<>(ParamMatchTypeEnum.class);
+
+    static {
+        final CachedDateFormat isoDateTime = new CachedDateFormat(GeneralUtils.ISO_DATETIME_FORMAT);
+        final CachedDateFormat isoDate = new CachedDateFormat(GeneralUtils.ISO_DATE_FORMAT);
+
+        REGISTRY.put(ParamMatchTypeEnum.ISO_DATETIME, argument -> isoDateTime);
+        REGISTRY.put(ParamMatchTypeEnum.ISO_DATE, argument -> isoDate);
+        REGISTRY.put(ParamMatchTypeEnum.UUID, argument -> TokenGenerators::randomUUID);
+        REGISTRY.put(ParamMatchTypeEnum.RANDOM_NUMBER, argument -> (argument == null)
+                ? () -> String.valueOf(ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE))
+                : compileRandomRange(argument));
+    }
+
+    private TokenGenerators() {
+    }
+
+    /**
+     *
+     * Looks up the generator for the given token type and argument.
+     *
+     * @param type
+     * @param argument
+     * @returns Supplier<String> or null, where the type is not a generated one (i.e REQ_HEAD) or is unsupported.
+     *
+     */
+    public static Supplier<String> forType(final ParamMatchTypeEnum type, final String argument) {
+
+        if (type == null) {
+            return null;
+        }
+
+        final Function<String, Supplier<String>> factory = REGISTRY.get(type);
+
+        return (factory != null) ? factory.apply(argument) : null;
+    }
+
+    // A version 4 (random) UUID, as per UUID.randomUUID().
+    static String randomUUID() {
+
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        final long mostSigBits = (random.nextLong() & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000004000L;
+        final long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+
+    // Invalid ranges do not fail the deployment, but (as before) fail each request which renders them.
+    static Supplier<String> compileRandomRange(final String range) {
+
+        final String upperRange = range.toUpperCase();
+        final String arg;
+
+        if (upperRange.contains(InboundParamMatchService.TO_ARG)) {
+            arg = InboundParamMatchService.TO_ARG;
+        } else if (upperRange.contains(InboundParamMatchService.UNTIL_ARG)) {
+            arg = InboundParamMatchService.UNTIL_ARG;
+        } else {
+            return failure("Expected '" + InboundParamMatchService.TO_ARG + "' or '" + InboundParamMatchService.UNTIL_ARG + "' arg in '" + ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=' token");
+        }
+
+        final String[] rangeToArray = upperRange.split(arg);
+
+        if (rangeToArray.length != 2) {
+            return failure("Missing number range for '" + arg + "' args. (i.e expect 1 " + arg + " 5)");
+        }
+
+        if (!NumberUtils.isCreatable(StringUtils.trim(rangeToArray[0]))
+                || !NumberUtils.isCreatable(StringUtils.trim(rangeToArray[1]))) {
+            return failure("Range does not contain valid numbers. (i.e expect 1 " + arg + " 5)");
+        }
+
+        final int start = NumberUtils.toInt(StringUtils.trim(rangeToArray[0]));
+        final int end = NumberUtils.toInt(StringUtils.trim(rangeToArray[1]));
+        final boolean inclusive = arg.equals(InboundParamMatchService.TO_ARG);
+
+        if (start >= 0 && end > 0) {
+
+            final int upper = (inclusive)?(end+1):end;
+
+            return () -> String.valueOf(nextInt(start, upper));
+        } else if (start <= 0 && end >= 0) {
+
+            final int negativeUpper = (inclusive)?(Math.abs(start)+1):Math.abs(start);
+            final int positiveUpper = (inclusive)?(end+1):end;
+
+            return () -> String.valueOf(nextInt(0, positiveUpper) - Math.abs(nextInt(0, negativeUpper)));
+        } else if (start < 0 && end < 0) {
+
+            final int lower = Math.abs(end);
+            final int upper = (inclusive)?(Math.abs(start)+1):Math.abs(start);
+
+            return () -> String.valueOf(-Math.abs(nextInt(lower, upper)));
+        }
+
+        return () -> "0";
+    }
+
+    // Same contract as RandomUtils.nextInt(start, end), backed by ThreadLocalRandom.
+    static int nextInt(final int start, final int end) {
+
+        if (end < start) {
+            throw new IllegalArgumentException("Start value must be smaller or equal to end value.");
+        }
+        if (start < 0) {
+            throw new IllegalArgumentException("Both range values must be non-negative.");
+        }
+
+        return (start == end) ? start : ThreadLocalRandom.current().nextInt(start, end);
+    }
+
+    private static Supplier<String> failure(final String message) {
+        return () -> {
+            throw new IllegalArgumentException(message);
+        };
+    }
+
+    /**
+     * Formats the current time in the system time zone, re-using the last result for the remainder of the same second.
+     */
+    static final class CachedDateFormat implements Supplier<String> {
+
+        private final DateTimeFormatter formatter;
+        private volatile CachedValue cached = new CachedValue(Long.MIN_VALUE, null);
+
+        CachedDateFormat(final String pattern) {
+            this.formatter = DateTimeFormatter.ofPattern(pattern);
+        }
+
+        @Override
+        public String get() {
+            return format(System.currentTimeMillis() / 1000);
+        }
+
+        String format(final long epochSecond) {
+
+            final CachedValue current = cached;
+
+            if (current.epochSecond == epochSecond) {
+                return current.text;
+            }
+
+            final String text = formatter.format(Instant.ofEpochSecond(epochSecond).atZone(ZoneId.systemDefault()));
+
+            // Racing threads may each format the same second, which is harmless.
+            cached = new CachedValue(epochSecond, text);
+
+            return text;
+        }
+
+    }
+
+    private static final class CachedValue {
+
+        private final long epochSecond;
+        private final String text;
+
+        private CachedValue(final long epochSecond, final String text) {
+            this.epochSecond = epochSecond;
+            this.text = text;
+        }
+
+    }
+
+}
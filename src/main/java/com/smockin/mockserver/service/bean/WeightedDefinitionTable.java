@@ -0,0 +1,169 @@
+package com.smockin.mockserver.service.bean;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Created by mgallina.
+ *
+ * Runtime (immutable) alias table (Walker / Vose) for picking a random definition, weighted by it's frequencyPercentage.
+ *
+ * Built the once at deploy time, after which each pick costs two random numbers from ThreadLocalRandom,
+ * regardless of the number of definitions, and shares no state between request threads.
+ *
+ * Definitions without a percentage share whatever is left of the 100% (if anything) equally between them,
+ * so where none are set every definition is equally likely. Percentages adding up to other than 100 are
+ * taken relative to one another.
+ */
+public final class WeightedDefinitionTable {
+
+    private static final double FULL_PERCENTAGE = 100.0;
+
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    private WeightedDefinitionTable(final double[] probabilities, final int[] aliases) {
+        this.probabilities = probabilities;
+        this.aliases = aliases;
+    }
+
+    public static WeightedDefinitionTable compile(final List<CompiledDefinition> definitions) {
+        return compile(weigh(definitions));
+    }
+
+    /**
+     *
+     * Builds the alias table for the given (non negative) weights.
+     * Where the weights are all zero, every index is equally likely.
+     *
+     * @param weights
+     * @returns WeightedDefinitionTable
+     *
+     */
+    static WeightedDefinitionTable compile(final double[] weights) {
+
+        final int n = weights.length;
+        final double[] probabilities = new double[n];
+        final int[] aliases = new int[n];
+
+        double total = 0;
+
+        for (double weight : weights) {
+            total += weight;
+        }
+
+        // Each index's weight scaled so the average is 1, then split into those under and over.
+        final double[] scaled = new double[n];
+        final int[] small = new int[n];
+        final int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+
+        for (int i = 0; i < n; i++) {
+
+            scaled[i] = (total > 0) ? (weights[i] * n / total) : 1.0;
+            aliases[i] = i;
+
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        // Each under weight index is topped up from an over weight one, which becomes it's alias.
+        while (smallCount > 0 && largeCount > 0) {
+
+            final int under = small[--smallCount];
+            final int over = large[--largeCount];
+
+            probabilities[under] = scaled[under];
+            aliases[under] = over;
+
+            scaled[over] = (scaled[over] + scaled[under]) - 1.0;
+
+            if (scaled[over] < 1.0) {
+                small[smallCount++] = over;
+            } else {
+                large[largeCount++] = over;
+            }
+        }
+
+        // Whatever remains is (but for rounding) exactly 1.
+        while (largeCount > 0) {
+            probabilities[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probabilities[small[--smallCount]] = 1.0;
+        }
+
+        return new WeightedDefinitionTable(probabilities, aliases);
+    }
+
+    static double[] weigh(final List<CompiledDefinition> definitions) {
+
+        final double[] weights = new double[definitions.size()];
+        int assigned = 0;
+        int unassignedCount = 0;
+
+        for (int i = 0; i < definitions.size(); i++) {
+
+            final int percentage = definitions.get(i).getFrequencyPercentage();
+
+            if (percentage > 0) {
+                weights[i] = percentage;
+                assigned += percentage;
+            } else {
+                unassignedCount++;
+            }
+        }
+
+        if (unassignedCount > 0 && assigned < FULL_PERCENTAGE) {
+
+            final double share = (FULL_PERCENTAGE - assigned) / unassignedCount;
+
+            for (int i = 0; i < definitions.size(); i++) {
+                if (definitions.get(i).getFrequencyPercentage() <= 0) {
+                    weights[i] = share;
+                }
+            }
+        }
+
+        return weights;
+    }
+
+    public int size() {
+        return probabilities.length;
+    }
+
+    // The index of a randomly picked definition, or 0 where there are none.
+    public int nextIndex() {
+
+        if (probabilities.length == 0) {
+            return 0;
+        }
+
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int i = random.nextInt(probabilities.length);
+
+        return (random.nextDouble() < probabilities[i]) ? i : aliases[i];
+    }
+
+    // The chance of the given index being picked, as held in the table.
+    double probabilityOf(final int index) {
+
+        double probability = 0;
+
+        for (int i = 0; i < probabilities.length; i++) {
+            if (i == index) {
+                probability += probabilities[i];
+            }
+            if (aliases[i] == index) {
+                probability += 1.0 - probabilities[i];
+            }
+        }
+
+        return probability / probabilities.length;
+    }
+
+}
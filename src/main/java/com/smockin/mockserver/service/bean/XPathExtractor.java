@@ -0,0 +1,501 @@
+package com.smockin.mockserver.service.bean;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by mgallina.
+ *
+ * Runtime (immutable) extractor for every XPath expression referenced by a mock's rules.
+ *
+ * Expressions are compiled the once into their steps, and the request body is then streamed through
+ * (using a StAX XMLStreamReader), comparing each element's place in the document against them.
+ * No DOM is built, and reading stops as soon as every expression has been found.
+ *
+ * Supports a simple subset of XPath, being absolute paths of element names, i.e '/Envelope/Body/GetOrder/orderId', where:
+ *
+ * - '//' matches any number of elements in between, i.e '//orderId'
+ * - '*' matches any element, i.e '/Envelope/*' + '/orderId'
+ * - '[n]' matches the nth element of that name amongst it's siblings, i.e '//item[2]/sku'
+ * - '@name' as the last step gives the attribute's value, i.e '//order/@id'
+ * - 'text()' as the last step is optional, an element's (trimmed) text is always given.
+ *
+ * Namespace prefixes are ignored, with elements and attributes matched on their local name.
+ * Other expressions (i.e those with functions or conditions) are not supported, so are never found.
+ */
+public final class XPathExtractor {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = buildXMLInputFactory();
+
+    private final Expression[] expressions;
+    private final Map<String, Integer> slots;
+    private final boolean positional;
+
+    private XPathExtractor(final List<Expression> expressions, final Map<String, Integer> slots) {
+        this.expressions = expressions.toArray(new Expression[expressions.size()]);
+        this.slots = Collections.unmodifiableMap(slots);
+        this.positional = expressions
+                .stream()
+                .flatMap(e -> Arrays.stream(e.steps))
+                .anyMatch(s -> s.position > 0);
+    }
+
+    /**
+     *
+     * Compiles the given expressions into a single extractor.
+     *
+     * @param xpaths
+     * @returns XPathExtractor
+     *
+     */
+    public static XPathExtractor compile(final Collection<String> xpaths) {
+
+        final List<Expression> expressions = new ArrayList<>();
+        final Map<String, Integer> slots = new HashMap<>();
+
+        for (String xpath : xpaths) {
+
+            if (xpath == null
+                    || slots.containsKey(xpath)) {
+                continue;
+            }
+
+            final Expression expression = parseExpression(xpath);
+
+            if (expression == null) {
+                continue;
+            }
+
+            slots.put(xpath, expressions.size());
+            expressions.add(expression);
+        }
+
+        return new XPathExtractor(expressions, slots);
+    }
+
+    // The slot holding the given expression's value, or -1 where the expression is not supported.
+    public int slotOf(final String xpath) {
+        return slots.getOrDefault(xpath, -1);
+    }
+
+    public int getSlotCount() {
+        return expressions.length;
+    }
+
+    /**
+     *
+     * Streams through the given XML, picking out the first match (in document order) for each expression.
+     *
+     * Expressions not found are left as null, as is anything after the point where the XML is malformed.
+     *
+     * @param xml
+     * @returns String[] (indexed by slot)
+     *
+     */
+    public String[] extract(final String xml) {
+
+        final String[] values = new String[expressions.length];
+
+        if (xml == null
+                || expressions.length == 0) {
+            return values;
+        }
+
+        XMLStreamReader reader = null;
+
+        try {
+
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+            new Extraction(reader, values).run();
+
+        } catch (XMLStreamException e) {
+            // Malformed XML, so keep whatever was found before the error.
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // Nothing to release, as reading from a String.
+                }
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     *
+     * Parses an expression into it's element steps, and the attribute (if any) to give the value of.
+     *
+     * @param xpath
+     * @returns Expression (or null where the expression is unsupported)
+     *
+     */
+    static Expression parseExpression(final String xpath) {
+
+        String x = xpath.trim();
+
+        if (!x.startsWith("/")) {
+            return null;
+        }
+
+        if (x.endsWith("/text()")) {
+            x = x.substring(0, x.length() - "/text()".length());
+        }
+
+        String attribute = null;
+        final int attributeStart = x.lastIndexOf("/@");
+
+        if (attributeStart != -1) {
+
+            attribute = localName(x.substring(attributeStart + 2));
+            x = x.substring(0, attributeStart);
+
+            if (!isName(attribute)) {
+                return null;
+            }
+        }
+
+        final List<Step> steps = new ArrayList<>();
+        int i = 0;
+
+        while (i < x.length()) {
+
+            // Always on a '/' here.
+            final boolean descendant = x.startsWith("//", i);
+            i += (descendant) ? 2 : 1;
+
+            int end = x.indexOf('/', i);
+            end = (end == -1) ? x.length() : end;
+
+            final Step step = parseStep(x.substring(i, end), descendant);
+
+            if (step == null) {
+                return null;
+            }
+
+            steps.add(step);
+            i = end;
+        }
+
+        if (steps.isEmpty()) {
+            return null;
+        }
+
+        return new Expression(steps.toArray(new Step[steps.size()]), attribute);
+    }
+
+    private static Step parseStep(final String step, final boolean descendant) {
+
+        String name = step;
+        int position = 0;
+
+        final int predicateStart = step.indexOf('[');
+
+        if (predicateStart != -1) {
+
+            if (!step.endsWith("]")) {
+                return null;
+            }
+
+            final String predicate = step.substring(predicateStart + 1, step.length() - 1).trim();
+
+            if (predicate.isEmpty()
+                    || predicate.length() > 9
+                    || !predicate.chars().allMatch(Character::isDigit)) {
+                return null;
+            }
+
+            position = Integer.parseInt(predicate);
+            name = step.substring(0, predicateStart);
+
+            if (position < 1) {
+                return null;
+            }
+        }
+
+        name = localName(name);
+
+        if (!"*".equals(name)
+                && !isName(name)) {
+            return null;
+        }
+
+        return new Step(name, descendant, position);
+    }
+
+    // Drops any namespace prefix, i.e 'soap:Body' to 'Body'.
+    private static String localName(final String name) {
+
+        final int prefixEnd = name.indexOf(':');
+
+        return (prefixEnd == -1) ? name : name.substring(prefixEnd + 1);
+    }
+
+    private static boolean isName(final String name) {
+
+        if (name.isEmpty()
+                || !(Character.isLetter(name.charAt(0)) || name.charAt(0) == '_')) {
+            return false;
+        }
+
+        for (int i = 1; i < name.length(); i++) {
+
+            final char c = name.charAt(i);
+
+            if (!(Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.')) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // DTDs (and so external entities) are never processed, as the body comes straight from the client.
+    private static XMLInputFactory buildXMLInputFactory() {
+
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+
+        return factory;
+    }
+
+    static final class Expression {
+
+        private final Step[] steps;
+        private final String attribute;
+
+        private Expression(final Step[] steps, final String attribute) {
+            this.steps = steps;
+            this.attribute = attribute;
+        }
+
+        // Whether the element at the top of the given stack is matched by this expression.
+        private boolean matches(final String[] names, final int[] positions, final int depth) {
+            return steps[steps.length - 1].accepts(names[depth - 1], positions[depth - 1])
+                    && matches(names, positions, depth, 0, 0);
+        }
+
+        private boolean matches(final String[] names, final int[] positions, final int depth, final int stepIndex, final int elementIndex) {
+
+            if (stepIndex == steps.length) {
+                return elementIndex == depth;
+            }
+
+            final Step step = steps[stepIndex];
+
+            if (!step.descendant) {
+                return elementIndex < depth
+                        && step.accepts(names[elementIndex], positions[elementIndex])
+                        && matches(names, positions, depth, stepIndex + 1, elementIndex + 1);
+            }
+
+            for (int e = elementIndex; e < depth; e++) {
+                if (step.accepts(names[e], positions[e])
+                        && matches(names, positions, depth, stepIndex + 1, e + 1)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+    }
+
+    private static final class Step {
+
+        private final String name;
+        private final boolean descendant;
+        private final int position;
+
+        private Step(final String name, final boolean descendant, final int position) {
+            this.name = name;
+            this.descendant = descendant;
+            this.position = position;
+        }
+
+        private boolean accepts(final String elementName, final int elementPosition) {
+            return ("*".equals(name) || name.equals(elementName))
+                    && (position == 0 || position == elementPosition);
+        }
+
+    }
+
+    // The state of a single pass over an XML document.
+    private final class Extraction {
+
+        private final XMLStreamReader reader;
+        private final String[] values;
+        private final boolean[] found;
+        private int remaining;
+
+        // The local name and (where needed) sibling position of each open element.
+        private String[] names = new String[16];
+        private int[] positions = new int[16];
+        private final List<Map<String, Integer>> siblingCounts = new ArrayList<>();
+        private int depth;
+
+        // Elements whose text is being gathered, until they are closed.
+        private final List<Capture> captures = new ArrayList<>();
+
+        private Extraction(final XMLStreamReader reader, final String[] values) {
+            this.reader = reader;
+            this.values = values;
+            this.found = new boolean[values.length];
+            this.remaining = values.length;
+        }
+
+        private void run() throws XMLStreamException {
+
+            while (remaining > 0
+                    && reader.hasNext()) {
+
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        startElement();
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        endElement();
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (!captures.isEmpty()) {
+                            for (Capture capture : captures) {
+                                capture.text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                            }
+                        }
+                        break;
+                    default:
+                        break;
+                }
+
+            }
+
+        }
+
+        private void startElement() {
+
+            if (depth == names.length) {
+                names = Arrays.copyOf(names, depth * 2);
+                positions = Arrays.copyOf(positions, depth * 2);
+            }
+
+            final String name = reader.getLocalName();
+            names[depth] = name;
+            positions[depth] = (positional) ? nextPosition(name) : 0;
+            depth++;
+
+            for (int slot = 0; slot < expressions.length; slot++) {
+
+                if (found[slot]
+                        || isCapturing(slot)
+                        || !expressions[slot].matches(names, positions, depth)) {
+                    continue;
+                }
+
+                if (expressions[slot].attribute != null) {
+                    record(slot, attributeValue(expressions[slot].attribute));
+                } else {
+                    captures.add(new Capture(slot, depth));
+                }
+
+            }
+
+        }
+
+        private void endElement() {
+
+            for (int c = captures.size() - 1; c >= 0; c--) {
+
+                final Capture capture = captures.get(c);
+
+                if (capture.depth == depth) {
+                    record(capture.slot, capture.text.toString().trim());
+                    captures.remove(c);
+                }
+
+            }
+
+            if (positional
+                    && siblingCounts.size() > depth) {
+                siblingCounts.get(depth).clear();
+            }
+
+            depth--;
+        }
+
+        // The position of the element amongst it's siblings of the same name, counting from 1.
+        private int nextPosition(final String name) {
+
+            while (siblingCounts.size() <= depth) {
+                siblingCounts.add(new HashMap<>());
+            }
+
+            return siblingCounts.get(depth).merge(name, 1, Integer::sum);
+        }
+
+        private String attributeValue(final String attribute) {
+
+            for (int a = 0; a < reader.getAttributeCount(); a++) {
+                if (attribute.equals(reader.getAttributeLocalName(a))) {
+                    return reader.getAttributeValue(a);
+                }
+            }
+
+            return null;
+        }
+
+        private boolean isCapturing(final int slot) {
+
+            for (Capture capture : captures) {
+                if (capture.slot == slot) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        // Where an expression is matched more than once, the first in document order is kept.
+        // (An attribute which is not present on the matched element does not count as being found).
+        private void record(final int slot, final String value) {
+
+            if (found[slot]
+                    || value == null) {
+                return;
+            }
+
+            found[slot] = true;
+            values[slot] = value;
+            remaining--;
+        }
+
+    }
+
+    private static final class Capture {
+
+        private final int slot;
+        private final int depth;
+        private final StringBuilder text = new StringBuilder();
+
+        private Capture(final int slot, final int depth) {
+            this.slot = slot;
+            this.depth = depth;
+        }
+
+    }
+
+}
@@ -1,32 +1,100 @@
 package com.smockin.mockserver.service.dto;
 
-import java.util.HashMap;
+import com.smockin.mockserver.service.bean.EncodedBody;
+import com.smockin.mockserver.service.bean.ResponseTemplate;
+import com.smockin.utils.CompressionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.zip.Deflater;
 
 /**
  * Created by mgallina.
+ *
+ * Immutable, so a single instance can be built when a mock is deployed and then shared across all request threads.
+ *
+ * Where built at deploy time (via compiled()), a body containing no tokens is also encoded up front,
+ * along with a strong ETag, so it can be written out as is on every request.
+ * Responses built per request (i.e proxied responses) are never encoded up front, as they would only be written the once.
+ * Larger bodies are compressed up front too, with a gzip and deflate variant (each with it's own ETag).
+ * A body which does contain tokens is instead compiled into a ResponseTemplate, ready to be rendered per request.
  */
 public class RestfulResponseDTO {
 
+    private static final String TOKEN_START = "${";
+    private static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+
     private final int httpStatusCode;
     private final String responseContentType;
     private final String responseBody;
-    private final Map<String, String> headers = new HashMap<String, String>();
+    private final long sleepInMillis;
+    private final ResponseTemplate responseTemplate;
+    private final boolean contentEncoded;
+    private final EncodedBody identityBody;
+    private final EncodedBody gzipBody;
+    private final EncodedBody deflateBody;
+
+    // Header names and values are held as parallel arrays, so they can be applied to a response without any iterator or entry allocation.
+    private final String[] headerNames;
+    private final String[] headerValues;
 
     public RestfulResponseDTO(final int httpStatusCode) {
-        this.httpStatusCode = httpStatusCode;
-        this.responseContentType = null;
-        this.responseBody = null;
+        this(httpStatusCode, null, null, Collections.emptySet());
     }
 
+    // Built per request, so the body is left as is.
     public RestfulResponseDTO(final int httpStatusCode, final String responseContentType, final String responseBody, final Set<Map.Entry<String, String>> headers) {
+        this(httpStatusCode, responseContentType, responseBody, headers, 0, false);
+    }
+
+    // Built the once when a mock is deployed, so the body is encoded (and compressed) up front.
+    public static RestfulResponseDTO compiled(final int httpStatusCode, final String responseContentType, final String responseBody, final Set<Map.Entry<String, String>> headers, final long sleepInMillis) {
+        return new RestfulResponseDTO(httpStatusCode, responseContentType, responseBody, headers, sleepInMillis, true);
+    }
+
+    private RestfulResponseDTO(final int httpStatusCode, final String responseContentType, final String responseBody, final Set<Map.Entry<String, String>> headers, final long sleepInMillis, final boolean preEncode) {
         this.httpStatusCode = httpStatusCode;
         this.responseContentType = responseContentType;
         this.responseBody = responseBody;
+        this.sleepInMillis = sleepInMillis;
+        this.responseTemplate = compileTemplate(responseBody);
+        this.headerNames = new String[headers.size()];
+        this.headerValues = new String[headers.size()];
+
+        boolean contentEncoded = false;
+        int i = 0;
+
+        for (Map.Entry<String, String> h : headers) {
+            this.headerNames[i] = h.getKey();
+            this.headerValues[i] = h.getValue();
+            contentEncoded |= CONTENT_ENCODING_HEADER.equalsIgnoreCase(h.getKey());
+            i++;
+        }
+
+        this.contentEncoded = contentEncoded;
+
+        // Bodies which Spark would otherwise compress (i.e a Content-Encoding header has been defined) are left to Spark.
+        if (preEncode && responseTemplate == null && !contentEncoded) {
+
+            final byte[] bytes = (StringUtils.isBlank(responseBody))
+                    ? new byte[0]
+                    : responseBody.getBytes(StandardCharsets.UTF_8);
+            final String digest = DigestUtils.md5DigestAsHex(bytes);
+
+            this.identityBody = new EncodedBody(null, bytes, "\"" + digest + "\"");
+            this.gzipBody = compressBody(CompressionUtils.GZIP, bytes, digest);
+            this.deflateBody = compressBody(CompressionUtils.DEFLATE, bytes, digest);
+        } else {
+            this.identityBody = null;
+            this.gzipBody = null;
+            this.deflateBody = null;
+        }
 
-        headers.stream().forEach(h ->
-            this.headers.put(h.getKey(), h.getValue()));
     }
 
     public int getHttpStatusCode() {
@@ -38,9 +106,99 @@ public class RestfulResponseDTO {
     public String getResponseBody() {
         return responseBody;
     }
+    public long getSleepInMillis() {
+        return sleepInMillis;
+    }
+
+    // Whether the body contains any inbound param tokens (i.e ${...}) which need to be swapped out per request.
+    public boolean isTemplated() {
+        return responseTemplate != null;
+    }
+
+    // The body, compiled ready to be rendered, where it contains any tokens, otherwise null.
+    public ResponseTemplate getResponseTemplate() {
+        return responseTemplate;
+    }
+
+    // Whether the mock defines it's own Content-Encoding header.
+    public boolean isContentEncoded() {
+        return contentEncoded;
+    }
+
+    // The UTF-8 encoded body, where this has been encoded up front, otherwise null.
+    public byte[] getResponseBodyBytes() {
+        return (identityBody != null) ? identityBody.getBytes() : null;
+    }
+    public String getETag() {
+        return (identityBody != null) ? identityBody.getETag() : null;
+    }
+
+    // Whether compressed variants of the body are available, i.e the response varies by Accept-Encoding.
+    public boolean isCompressed() {
+        return gzipBody != null || deflateBody != null;
+    }
+
+    // The up front encoded body for the given content encoding, falling back to the uncompressed body where there is no such variant.
+    public EncodedBody getEncodedBody(final String contentEncoding) {
+
+        if (CompressionUtils.GZIP.equals(contentEncoding) && gzipBody != null) {
+            return gzipBody;
+        }
+        if (CompressionUtils.DEFLATE.equals(contentEncoding) && deflateBody != null) {
+            return deflateBody;
+        }
+
+        return identityBody;
+    }
+
+    public int getHeaderCount() {
+        return headerNames.length;
+    }
+    public String getHeaderName(final int index) {
+        return headerNames[index];
+    }
+    public String getHeaderValue(final int index) {
+        return headerValues[index];
+    }
 
     public Map<String, String> getHeaders() {
-        return headers;
+
+        final Map<String, String> headers = new LinkedHashMap<>();
+
+        for (int i = 0; i < headerNames.length; i++) {
+            headers.put(headerNames[i], headerValues[i]);
+        }
+
+        return Collections.unmodifiableMap(headers);
+    }
+
+    // Null where the body has no tokens (a '${' without a closing '}' on the same line is not a token).
+    private static ResponseTemplate compileTemplate(final String responseBody) {
+
+        if (responseBody == null
+                || !responseBody.contains(TOKEN_START)) {
+            return null;
+        }
+
+        final ResponseTemplate template = ResponseTemplate.compile(responseBody);
+
+        return (template.getTokenCount() > 0) ? template : null;
+    }
+
+    // Only kept where compression actually makes a saving.
+    private static EncodedBody compressBody(final String contentEncoding, final byte[] bytes, final String digest) {
+
+        if (bytes.length < CompressionUtils.MIN_COMPRESSIBLE_LENGTH) {
+            return null;
+        }
+
+        final byte[] compressed = CompressionUtils.compress(contentEncoding, bytes, Deflater.BEST_COMPRESSION);
+
+        if (compressed.length >= bytes.length) {
+            return null;
+        }
+
+        return new EncodedBody(contentEncoding, compressed, "\"" + digest + "-" + contentEncoding + "\"");
     }
 
 }
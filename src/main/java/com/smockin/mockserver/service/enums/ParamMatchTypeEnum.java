@@ -7,6 +7,8 @@ public enum ParamMatchTypeEnum {
     REQ_HEAD,
     REQ_PARAM,
     PATH_VAR,
+    REQ_BODY_JSON,
+    REQ_BODY_FORM,
     ISO_DATE,
     ISO_DATETIME,
     UUID,
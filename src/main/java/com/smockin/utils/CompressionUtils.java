@@ -0,0 +1,338 @@
+package com.smockin.utils;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+import java.util.zip.Deflater;
+
+/**
+ * Created by mgallina.
+ *
+ * gzip and deflate (zlib) compression of response bodies, using a shared pool of Deflaters.
+ *
+ * A Deflater holds onto a sizeable chunk of native memory, so creating one per request (as GZIPOutputStream does)
+ * is expensive. Pooled Deflaters run in raw (nowrap) mode, with the gzip or zlib framing written here, so the same
+ * instances serve both formats.
+ */
+public final class CompressionUtils {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    // Below this, the compression framing outweighs any saving.
+    public static final int MIN_COMPRESSIBLE_LENGTH = 1024;
+
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+    private static final BlockingQueue<Deflater> DEFLATER_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final int MAX_CHUNK_SIZE = 8192;
+
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+    private static final byte[] ZLIB_HEADER = { 0x78, (byte) 0x9c };
+
+    public static byte[] gzip(final byte[] input, final int level) {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+        out.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+
+        deflateTo(out, input, level);
+
+        final CRC32 crc = new CRC32();
+        crc.update(input, 0, input.length);
+
+        writeIntLE(out, (int) crc.getValue());
+        writeIntLE(out, input.length);
+
+        return out.toByteArray();
+    }
+
+    public static byte[] deflate(final byte[] input, final int level) {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+        out.write(ZLIB_HEADER, 0, ZLIB_HEADER.length);
+
+        deflateTo(out, input, level);
+
+        final Adler32 adler = new Adler32();
+        adler.update(input, 0, input.length);
+
+        writeIntBE(out, (int) adler.getValue());
+
+        return out.toByteArray();
+    }
+
+    public static byte[] compress(final String contentEncoding, final byte[] input, final int level) {
+
+        if (GZIP.equals(contentEncoding)) {
+            return gzip(input, level);
+        }
+        if (DEFLATE.equals(contentEncoding)) {
+            return deflate(input, level);
+        }
+
+        throw new IllegalArgumentException("Unsupported content encoding: " + contentEncoding);
+    }
+
+    /**
+     *
+     * Wraps the given stream so everything written to it is compressed on the fly, for bodies which are never held in full.
+     * The pooled Deflater is returned (and the trailer written) when the returned stream is closed,
+     * or returned without writing anything further should the stream be aborted.
+     *
+     * @param contentEncoding
+     * @param out
+     * @param level
+     * @returns PooledDeflaterOutputStream
+     *
+     */
+    public static PooledDeflaterOutputStream compressingStream(final String contentEncoding, final OutputStream out, final int level) throws IOException {
+
+        if (GZIP.equals(contentEncoding)) {
+            return new PooledDeflaterOutputStream(out, level, GZIP_HEADER, new CRC32(), false);
+        }
+        if (DEFLATE.equals(contentEncoding)) {
+            return new PooledDeflaterOutputStream(out, level, ZLIB_HEADER, new Adler32(), true);
+        }
+
+        throw new IllegalArgumentException("Unsupported content encoding: " + contentEncoding);
+    }
+
+    /**
+     *
+     * Picks the content encoding to respond with, based on the given Accept-Encoding request header.
+     * gzip is preferred over deflate where both are equally acceptable.
+     *
+     * @param acceptEncoding
+     * @returns String (GZIP, DEFLATE or null if neither is acceptable)
+     *
+     */
+    public static String negotiateContentEncoding(final String acceptEncoding) {
+
+        if (StringUtils.isBlank(acceptEncoding)) {
+            return null;
+        }
+
+        double gzipQ = -1;
+        double deflateQ = -1;
+        double wildcardQ = -1;
+
+        for (String coding : StringUtils.split(acceptEncoding, ',')) {
+
+            final String[] params = StringUtils.split(coding, ';');
+
+            if (params.length == 0) {
+                continue;
+            }
+
+            double q = 1;
+
+            for (int i = 1; i < params.length; i++) {
+
+                final String param = params[i].trim();
+
+                if (param.startsWith("q=")) {
+                    q = NumberUtils.toDouble(param.substring(2).trim(), 0);
+                }
+            }
+
+            switch (params[0].trim().toLowerCase()) {
+                case GZIP:
+                case "x-gzip":
+                    gzipQ = q;
+                    break;
+                case DEFLATE:
+                    deflateQ = q;
+                    break;
+                case "*":
+                    wildcardQ = q;
+                    break;
+                default:
+                    break;
+            }
+
+        }
+
+        if (gzipQ < 0) {
+            gzipQ = wildcardQ;
+        }
+        if (deflateQ < 0) {
+            deflateQ = wildcardQ;
+        }
+
+        if (gzipQ > 0 && gzipQ >= deflateQ) {
+            return GZIP;
+        }
+        if (deflateQ > 0) {
+            return DEFLATE;
+        }
+
+        return null;
+    }
+
+    private static void deflateTo(final ByteArrayOutputStream out, final byte[] input, final int level) {
+
+        final Deflater deflater = borrowDeflater(level);
+
+        try {
+
+            deflater.setInput(input);
+            deflater.finish();
+
+            final byte[] chunk = new byte[Math.min(MAX_CHUNK_SIZE, Math.max(512, input.length))];
+
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+
+        } finally {
+            releaseDeflater(deflater);
+        }
+
+    }
+
+    // The number of idle Deflaters held in the pool.
+    static int getPooledDeflaterCount() {
+        return DEFLATER_POOL.size();
+    }
+
+    private static Deflater borrowDeflater(final int level) {
+
+        final Deflater deflater = DEFLATER_POOL.poll();
+
+        if (deflater == null) {
+            return new Deflater(level, true);
+        }
+
+        deflater.setLevel(level);
+
+        return deflater;
+    }
+
+    private static void releaseDeflater(final Deflater deflater) {
+
+        deflater.reset();
+
+        if (!DEFLATER_POOL.offer(deflater)) {
+            deflater.end();
+        }
+
+    }
+
+    public static final class PooledDeflaterOutputStream extends FilterOutputStream {
+
+        private final Deflater deflater;
+        private final Checksum checksum;
+        private final boolean zlib;
+        private final byte[] chunk = new byte[MAX_CHUNK_SIZE];
+        private final byte[] single = new byte[1];
+        private long length;
+        private boolean closed;
+
+        private PooledDeflaterOutputStream(final OutputStream out, final int level, final byte[] header, final Checksum checksum, final boolean zlib) throws IOException {
+            super(out);
+            this.deflater = borrowDeflater(level);
+            this.checksum = checksum;
+            this.zlib = zlib;
+
+            out.write(header);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            single[0] = (byte) b;
+            write(single, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+
+            // Once closed (or aborted), the Deflater may already be in use elsewhere.
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+
+            if (len == 0) {
+                return;
+            }
+
+            checksum.update(b, off, len);
+            length += len;
+
+            deflater.setInput(b, off, len);
+
+            while (!deflater.needsInput()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+
+            try {
+
+                deflater.finish();
+
+                while (!deflater.finished()) {
+                    out.write(chunk, 0, deflater.deflate(chunk));
+                }
+
+                final ByteArrayOutputStream trailer = new ByteArrayOutputStream(8);
+
+                if (zlib) {
+                    writeIntBE(trailer, (int) checksum.getValue());
+                } else {
+                    writeIntLE(trailer, (int) checksum.getValue());
+                    writeIntLE(trailer, (int) length);
+                }
+
+                trailer.writeTo(out);
+
+            } finally {
+                releaseDeflater(deflater);
+            }
+
+            out.close();
+        }
+
+        // Returns the Deflater to the pool without writing the trailer (i.e where the body has failed part way through).
+        public void abort() {
+
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            releaseDeflater(deflater);
+        }
+
+    }
+
+    private static void writeIntLE(final ByteArrayOutputStream out, final int value) {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+
+    private static void writeIntBE(final ByteArrayOutputStream out, final int value) {
+        out.write((value >> 24) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write(value & 0xff);
+    }
+
+}
@@ -3,6 +3,7 @@ package com.smockin.utils;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smockin.mockserver.engine.route.MockRouteMatch;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.slf4j.Logger;
@@ -16,8 +17,8 @@ import java.time.ZoneOffset;
 import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -40,15 +41,20 @@ public final class GeneralUtils {
     public static final String PROXY_SERVER_PORT_PARAM = "PROXY_SERVER_PORT";
     public static final String PROXY_SERVER_ENABLED_PARAM = "PROXY_SERVER_ENABLED";
     public static final String LOG_MOCK_CALLS_PARAM = "LOG_MOCK_CALLS";
+    public static final String EXECUTOR_MODE_PARAM = "EXECUTOR_MODE";
+    public static final String EXECUTOR_QUEUE_SIZE_PARAM = "EXECUTOR_QUEUE_SIZE";
+    public static final String CONNECTOR_ACCEPTORS_PARAM = "CONNECTOR_ACCEPTORS";
+    public static final String CONNECTOR_SELECTORS_PARAM = "CONNECTOR_SELECTORS";
+    public static final String CONNECTOR_ACCEPT_QUEUE_SIZE_PARAM = "CONNECTOR_ACCEPT_QUEUE_SIZE";
+    public static final String CONNECTOR_IDLE_TIMEOUT_MILLIS_PARAM = "CONNECTOR_IDLE_TIMEOUT_MILLIS";
+    public static final String MAX_KEEP_ALIVE_REQUESTS_PARAM = "MAX_KEEP_ALIVE_REQUESTS";
+    public static final String H2C_ENABLED_PARAM = "H2C_ENABLED";
 
     public static final String LOG_REQ_ID = "LOG_REQ_ID";
     public static final String PROXY_PATH_CONFLICT = "PROXY_PATH_CONFLICT";
     public static final String PROXY_MOCK_INTERCEPT_HEADER = "X-Proxy-Mock-Intercept";
 
 
-    // Looks for values within the brace format ${}. So ${bob} would return the value 'bob'.
-    static final String INBOUND_TOKEN_PATTERN = "\\$\\{(.*?)\\}";
-
     // Thread safe class, provided all config is defined before it's use.
     static final ObjectMapper JSON_MAPPER = new ObjectMapper();
 
@@ -69,23 +75,6 @@ public final class GeneralUtils {
         return LocalDateTime.now();
     }
 
-    // NOTE It is important that this preserves any whitespaces around the token
-    public static String findFirstInboundParamMatch(final String input) {
-
-        if (input == null) {
-            return null;
-        }
-
-        final Pattern pattern = Pattern.compile(INBOUND_TOKEN_PATTERN);
-        final Matcher matcher = pattern.matcher(input);
-
-        while (matcher.find()) {
-            return matcher.group(1);
-        }
-
-        return null;
-    }
-
     /**
      *
      * Returns the header value for the given name.
@@ -140,7 +129,7 @@ public final class GeneralUtils {
      */
     public static String findPathVarIgnoreCase(final Request request, final String pathVarName) {
 
-        for (Map.Entry<String, String> pv : request.params().entrySet()) {
+        for (Map.Entry<String, String> pv : findPathVars(request).entrySet()) {
             if (pv.getKey().equalsIgnoreCase((pathVarName.startsWith(":"))?pathVarName:(":"+pathVarName))) {
                 return pv.getValue();
             }
@@ -149,6 +138,55 @@ public final class GeneralUtils {
         return null;
     }
 
+    /**
+     *
+     * Returns all path variables for the given request.
+     * Mocked endpoints are dispatched through a single catch all Spark route, so where present, the variables
+     * captured by the mock route match are used in place of Spark's own.
+     *
+     * @param request
+     * @returns Map<String, String>
+     *
+     */
+    public static Map<String, String> findPathVars(final Request request) {
+
+        final MockRouteMatch<?> match = request.attribute(MockRouteMatch.REQUEST_ATTRIBUTE);
+
+        return (match != null) ? match.getParams() : request.params();
+    }
+
+    /**
+     *
+     * Returns the path variable value for the given name.
+     * Look up follows the same rules as Java Spark's 'request.params(name)'.
+     *
+     * @param request
+     * @param pathVarName
+     * @returns String
+     *
+     */
+    public static String findPathVar(final Request request, final String pathVarName) {
+
+        final MockRouteMatch<?> match = request.attribute(MockRouteMatch.REQUEST_ATTRIBUTE);
+
+        return (match != null) ? match.getParam(pathVarName) : request.params(pathVarName);
+    }
+
+    /**
+     *
+     * Returns the wildcard (splat) values for the given request.
+     *
+     * @param request
+     * @returns String[]
+     *
+     */
+    public static String[] findSplat(final Request request) {
+
+        final MockRouteMatch<?> match = request.attribute(MockRouteMatch.REQUEST_ATTRIBUTE);
+
+        return (match != null) ? match.getSplat() : request.splat();
+    }
+
     public static void checkForAndHandleSleep(final long sleepInMillis) {
 
         if (sleepInMillis > 0) {
@@ -175,6 +213,22 @@ public final class GeneralUtils {
         return path;
     }
 
+    // Flags (i.e case insensitivity) never affect whether a pattern compiles, so are not needed here.
+    public static boolean isValidRegex(final String regex) {
+
+        if (regex == null) {
+            return false;
+        }
+
+        try {
+            Pattern.compile(regex);
+        } catch (PatternSyntaxException ex) {
+            return false;
+        }
+
+        return true;
+    }
+
     public static int exactVersionNo(String versionNo) {
 
         if (versionNo == null)
@@ -15,6 +15,11 @@ app.controller('endpointInfoRuleConditionController', function($scope, $location
     var EqualsText = globalVars.EqualsText;
     var ContainsText = globalVars.ContainsText;
     var IsMissingText = globalVars.IsMissingText;
+    var RegexText = globalVars.RegexText;
+    var GreaterThanText = globalVars.GreaterThanText;
+    var LessThanText = globalVars.LessThanText;
+    var BetweenText = globalVars.BetweenText;
+    var InSetText = globalVars.InSetText;
 
 
     //
@@ -160,12 +165,33 @@ app.controller('endpointInfoRuleConditionController', function($scope, $location
             return;
         }
 
+        if ($scope.condition.comparator.value == BetweenText
+                && !isNumericList($scope.condition.matchValue, 2)) {
+            showAlert("Invalid 'Match Value'. A numeric range is required (e.g 10,20)");
+            return;
+        }
+
+        if ($scope.condition.comparator.value == InSetText
+                && $scope.condition.comparator.dataType == NumericDataType
+                && !isNumericList($scope.condition.matchValue)) {
+            showAlert("Invalid 'Match Value'. A comma separated list of numbers is required (e.g 200,404,500)");
+            return;
+        }
+
         if ($scope.condition.comparator.dataType == NumericDataType
+                && $scope.condition.comparator.value != BetweenText
+                && $scope.condition.comparator.value != InSetText
                 && !utils.isNumeric($scope.condition.matchValue)) {
             showAlert("Invalid 'Match Value'. A numeric value is required");
             return;
         }
 
+        if ($scope.condition.comparator.value == RegexText
+                && !isValidRegex($scope.condition.matchValue)) {
+            showAlert("Invalid 'Match Value'. A valid regular expression is required");
+            return;
+        }
+
         $scope.conditionArgs.push($scope.condition);
 
         resetCondition();
@@ -195,7 +221,13 @@ app.controller('endpointInfoRuleConditionController', function($scope, $location
 
             $scope.comparators = [
                 { dropDownName : 'Equals ( TEXT )', tableName : 'equals', value : EqualsText, dataType: TextDataType },
-                { dropDownName : 'Contains ( TEXT )', tableName : 'contains', value : ContainsText, dataType: TextDataType }
+                { dropDownName : 'Contains ( TEXT )', tableName : 'contains', value : ContainsText, dataType: TextDataType },
+                { dropDownName : 'Matches Regex ( TEXT )', tableName : 'matches', value : RegexText, dataType: TextDataType },
+                { dropDownName : 'In Set ( TEXT )', tableName : 'in', value : InSetText, dataType: TextDataType },
+                { dropDownName : 'Greater Than ( NUMBER )', tableName : '>', value : GreaterThanText, dataType: NumericDataType },
+                { dropDownName : 'Less Than ( NUMBER )', tableName : '<', value : LessThanText, dataType: NumericDataType },
+                { dropDownName : 'Between ( NUMBER )', tableName : 'between', value : BetweenText, dataType: NumericDataType },
+                { dropDownName : 'In Set ( NUMBER )', tableName : 'in', value : InSetText, dataType: NumericDataType }
             ];
 
             $scope.condition.comparator = null;
@@ -204,9 +236,15 @@ app.controller('endpointInfoRuleConditionController', function($scope, $location
         } else if (matchValue == PathVariableText) {
 
             $scope.comparators = [
-               { dropDownName : 'Equals ( TEXT )', tableName : 'equals', value : EqualsText, dataType: TextDataType },
-               { dropDownName : 'Equals ( NUMBER )', tableName : '==', value : EqualsText, dataType: NumericDataType },
-               { dropDownName : 'Contains ( TEXT )', tableName : 'contains', value : ContainsText, dataType: TextDataType }
+                { dropDownName : 'Equals ( TEXT )', tableName : 'equals', value : EqualsText, dataType: TextDataType },
+                { dropDownName : 'Equals ( NUMBER )', tableName : '==', value : EqualsText, dataType: NumericDataType },
+                { dropDownName : 'Contains ( TEXT )', tableName : 'contains', value : ContainsText, dataType: TextDataType },
+                { dropDownName : 'Matches Regex ( TEXT )', tableName : 'matches', value : RegexText, dataType: TextDataType },
+                { dropDownName : 'In Set ( TEXT )', tableName : 'in', value : InSetText, dataType: TextDataType },
+                { dropDownName : 'Greater Than ( NUMBER )', tableName : '>', value : GreaterThanText, dataType: NumericDataType },
+                { dropDownName : 'Less Than ( NUMBER )', tableName : '<', value : LessThanText, dataType: NumericDataType },
+                { dropDownName : 'Between ( NUMBER )', tableName : 'between', value : BetweenText, dataType: NumericDataType },
+                { dropDownName : 'In Set ( NUMBER )', tableName : 'in', value : InSetText, dataType: NumericDataType }
             ];
 
             $scope.condition.comparator = null;
@@ -216,6 +254,33 @@ app.controller('endpointInfoRuleConditionController', function($scope, $location
 
     }
 
+    function isNumericList(value, expectedLength) {
+
+        var values = value.split(',');
+
+        if (expectedLength != null
+                && values.length != expectedLength) {
+            return false;
+        }
+
+        for (var v=0; v < values.length; v++) {
+            if (utils.isBlank(values[v]) || !utils.isNumeric(values[v])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    function isValidRegex(value) {
+        try {
+            new RegExp(value);
+            return true;
+        } catch (e) {
+            return false;
+        }
+    }
+
     function resetCondition() {
         $scope.condition = {
             "matchType" : null,
@@ -24,16 +24,29 @@ app.controller('serverConfigController', function($scope, $location, $uibModal,
     $scope.enableCorsLabel = 'Enable Cross-Origin Resource Sharing (across all endpoints)';
     $scope.enableProxyServerLabel = 'Enable Proxy Server (mock interceptor) on port 8010';
     $scope.logMockCallsLabel = 'Record mock calls to log file';
+    $scope.executorModeLabel = 'Request Executor';
+    $scope.executorQueueSizeLabel = 'Executor Queue Size';
     $scope.manageProxyPriorityPathsLabel = '(' + (($scope.readOnly) ? 'view' : 'manage') +  ' priority paths)';
 
     $scope.portPlaceholderTxt = "The Port this mock server will run off";
     $scope.maxThreadsPlaceholderTxt = 'The Maximum Threads (Concurrent Requests) allowed';
     $scope.minThreadsPlaceholderTxt = 'The Minimum Threads (Concurrent Requests) allowed';
     $scope.timeOutMillisPlaceholderTxt = 'Connection Idle Time Out (in Milliseconds)';
+    $scope.executorQueueSizePlaceholderTxt = 'The Maximum Requests queued before new connections are rejected';
 
     $scope.restartServerMessage = "(Note, saving will cause the server to restart if currently running)"
 
 
+    //
+    // Executor Modes
+    $scope.BoundedExecutorMode = 'BOUNDED';
+    $scope.executorModes = [
+        { "value" : 'QUEUED', "label" : 'Queued Thread Pool (capped at Max Threads)' },
+        { "value" : 'BOUNDED', "label" : 'Fixed Thread Pool with Bounded Queue' },
+        { "value" : 'VIRTUAL', "label" : 'Virtual Thread per Request (JDK 21+)' }
+    ];
+
+
     //
     // Buttons
     $scope.cancelButtonLabel = 'Cancel';
@@ -75,12 +88,21 @@ app.controller('serverConfigController', function($scope, $location, $uibModal,
         "autoRefresh" : false,
         "enableCors" : false,
         "enableProxyServer" : false,
-        "logMockCalls" : false
+        "logMockCalls" : false,
+        "executorMode" : $scope.executorModes[0],
+        "executorQueueSize" : null
     };
 
+    // Native properties not managed by this form are carried over as is when saving.
+    var loadedNativeProperties = {};
+
 
     //
     // Scoped Functions
+    $scope.doSelectExecutorMode = function(em) {
+        $scope.serverConfig.executorMode = em;
+    };
+
     $scope.doSaveConfig = function() {
 
         if ($scope.readOnly) {
@@ -112,6 +134,13 @@ app.controller('serverConfigController', function($scope, $location, $uibModal,
             return;
         }
 
+        if ($scope.serverConfig.executorMode.value == $scope.BoundedExecutorMode
+                && !utils.isBlank($scope.serverConfig.executorQueueSize)
+                && !utils.isNumeric($scope.serverConfig.executorQueueSize)) {
+            showAlert("'Executor Queue Size' must be numeric");
+            return;
+        }
+
         var req = {
             "serverType" : $scope.serverConfig.serverType,
             "port" : $scope.serverConfig.port,
@@ -125,11 +154,18 @@ app.controller('serverConfigController', function($scope, $location, $uibModal,
 
         // Handle Native Server Properties
         if (ServerType == globalVars.RestfulServerType) {
-            req.nativeProperties = {
-                "ENABLE_CORS" : ($scope.serverConfig.enableCors)?"TRUE":"FALSE",
-                "PROXY_SERVER_ENABLED" : ($scope.serverConfig.enableProxyServer)?"TRUE":"FALSE",
-                "LOG_MOCK_CALLS" : ($scope.serverConfig.logMockCalls)?"TRUE":"FALSE"
-            };
+            req.nativeProperties = angular.copy(loadedNativeProperties);
+            req.nativeProperties.ENABLE_CORS = ($scope.serverConfig.enableCors)?"TRUE":"FALSE";
+            req.nativeProperties.PROXY_SERVER_ENABLED = ($scope.serverConfig.enableProxyServer)?"TRUE":"FALSE";
+            req.nativeProperties.LOG_MOCK_CALLS = ($scope.serverConfig.logMockCalls)?"TRUE":"FALSE";
+            req.nativeProperties.EXECUTOR_MODE = $scope.serverConfig.executorMode.value;
+
+            if ($scope.serverConfig.executorMode.value == $scope.BoundedExecutorMode
+                    && !utils.isBlank($scope.serverConfig.executorQueueSize)) {
+                req.nativeProperties.EXECUTOR_QUEUE_SIZE = $scope.serverConfig.executorQueueSize;
+            } else {
+                delete req.nativeProperties.EXECUTOR_QUEUE_SIZE;
+            }
         } else if (ServerType == globalVars.JmsServerType) {
             req.nativeProperties = {
                 "BROKER_URL" : "tcp://localhost:"
@@ -193,9 +229,13 @@ app.controller('serverConfigController', function($scope, $location, $uibModal,
                     "autoRefresh" : data.autoRefresh,
                     "enableCors" : (data.nativeProperties.ENABLE_CORS != null && data.nativeProperties.ENABLE_CORS.toUpperCase() == "TRUE"),
                     "enableProxyServer" : (data.nativeProperties.PROXY_SERVER_ENABLED != null && data.nativeProperties.PROXY_SERVER_ENABLED.toUpperCase() == "TRUE"),
-                    "logMockCalls" : (data.nativeProperties.LOG_MOCK_CALLS != null && data.nativeProperties.LOG_MOCK_CALLS.toUpperCase() == "TRUE")
+                    "logMockCalls" : (data.nativeProperties.LOG_MOCK_CALLS != null && data.nativeProperties.LOG_MOCK_CALLS.toUpperCase() == "TRUE"),
+                    "executorMode" : findExecutorMode(data.nativeProperties.EXECUTOR_MODE),
+                    "executorQueueSize" : data.nativeProperties.EXECUTOR_QUEUE_SIZE
                 };
 
+                loadedNativeProperties = data.nativeProperties;
+
                 return;
             }
 
@@ -205,6 +245,18 @@ app.controller('serverConfigController', function($scope, $location, $uibModal,
     }
 
 
+    function findExecutorMode(value) {
+
+        for (var em=0; em < $scope.executorModes.length; em++) {
+            if (value != null && $scope.executorModes[em].value == value.toUpperCase()) {
+                return $scope.executorModes[em];
+            }
+        }
+
+        return $scope.executorModes[0];
+    }
+
+
     //
     // Init page
     loadServerConfig();
@@ -350,7 +350,7 @@ app.controller('tcpDashboardController', function($scope, $window, $rootScope, $
 
         utils.showLoadingOverlay('Updating HTTP Server');
 
-        restClient.doPost($http, '/mockedserver/rest/restart', {}, function(status, data) {
+        restClient.doPost($http, '/mockedserver/rest/redeploy', {}, function(status, data) {
 
             if (status == 200) {
                 callback(data.port);
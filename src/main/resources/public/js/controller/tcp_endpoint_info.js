@@ -65,6 +65,14 @@ app.controller('tcpEndpointInfoController', function($scope, $rootScope, $locati
     $scope.proxyTimeoutPlaceholderTxt = 'Duration the server will hold the request open with no activity (zero for no timeout)';
     $scope.webSocketTimeoutPlaceholderTxt = 'Duration the server will keep the socket open whilst idle (zero for no timeout)';
     $scope.shuffleSequenceLabel = 'Shuffle Responses';
+    $scope.maxConcurrentRequestsLabel = 'Max Concurrent Requests';
+    $scope.maxConcurrentRequestsPlaceholderTxt = 'Requests served at once, beyond which callers are queued or turned away (zero for no limit)';
+    $scope.maxQueuedRequestsLabel = 'Max Queued Requests';
+    $scope.maxQueuedRequestsPlaceholderTxt = 'Requests held waiting for a free slot (zero to turn away straight away)';
+    $scope.overloadStatusCodeLabel = 'Overload Status';
+    $scope.overloadRetryAfterLabel = 'Retry-After (in seconds)';
+    $scope.overloadRetryAfterPlaceholderTxt = 'Sent to callers turned away (zero for no header)';
+    $scope.overloadStatusCodes = [ 503, 429 ];
     $scope.activeClientConnectionsLabel = 'Active Client Connections';
     $scope.noActiveWsClientsFound = 'No Websocket Clients Found';
     $scope.noActiveSseClientsFound = 'No SSE Clients Found';
@@ -177,6 +185,10 @@ app.controller('tcpEndpointInfoController', function($scope, $rootScope, $locati
         "mockType" : lookupMockType(MockTypeDefinitions.MockTypeSeq),
         "randomiseDefinitions" : false,
         "proxyForwardWhenNoRuleMatch" : false,
+        "maxConcurrentRequests" : 0,
+        "maxQueuedRequests" : 0,
+        "overloadStatusCode" : 503,
+        "overloadRetryAfterSeconds" : 0,
         "definitions" : [],
         "rules" : []
     };
@@ -219,6 +231,10 @@ app.controller('tcpEndpointInfoController', function($scope, $rootScope, $locati
             "mockType" : lookupMockType(endpoint.mockType),
             "randomiseDefinitions" : endpoint.randomiseDefinitions,
             "proxyForwardWhenNoRuleMatch" : endpoint.proxyForwardWhenNoRuleMatch,
+            "maxConcurrentRequests" : endpoint.maxConcurrentRequests,
+            "maxQueuedRequests" : endpoint.maxQueuedRequests,
+            "overloadStatusCode" : endpoint.overloadStatusCode,
+            "overloadRetryAfterSeconds" : endpoint.overloadRetryAfterSeconds,
             "definitions" : endpoint.definitions,
             "rules" : endpoint.rules,
             "createdBy" : endpoint.createdBy
@@ -724,6 +740,10 @@ app.controller('tcpEndpointInfoController', function($scope, $rootScope, $locati
             return;
         }
 
+        if ($scope.endpoint.mockType.value != MockTypeDefinitions.MockTypeWebSocket && !validateLoadShedding()) {
+            return;
+        }
+
         // Send to Server
         utils.showBlockingOverlay();
 
@@ -738,6 +758,10 @@ app.controller('tcpEndpointInfoController', function($scope, $rootScope, $locati
             "proxyPushIdOnConnect" : false,
             "randomiseDefinitions" : $scope.endpoint.randomiseDefinitions,
             "proxyForwardWhenNoRuleMatch" : $scope.endpoint.proxyForwardWhenNoRuleMatch,
+            "maxConcurrentRequests" : $scope.endpoint.maxConcurrentRequests,
+            "maxQueuedRequests" : $scope.endpoint.maxQueuedRequests,
+            "overloadStatusCode" : $scope.endpoint.overloadStatusCode,
+            "overloadRetryAfterSeconds" : $scope.endpoint.overloadRetryAfterSeconds,
             "definitions" : [],
             "rules" : []
         };
@@ -914,6 +938,32 @@ app.controller('tcpEndpointInfoController', function($scope, $rootScope, $locati
         return true;
     }
 
+    function validateLoadShedding() {
+
+        if (!isWholeNumber($scope.endpoint.maxConcurrentRequests)) {
+            showAlert("'" + $scope.maxConcurrentRequestsLabel + "' must be a whole number");
+            return false;
+        }
+
+        if (!isWholeNumber($scope.endpoint.maxQueuedRequests)) {
+            showAlert("'" + $scope.maxQueuedRequestsLabel + "' must be a whole number");
+            return false;
+        }
+
+        if (!isWholeNumber($scope.endpoint.overloadRetryAfterSeconds)) {
+            showAlert("'" + $scope.overloadRetryAfterLabel + "' must be a whole number");
+            return false;
+        }
+
+        return true;
+    }
+
+    function isWholeNumber(value) {
+        return !utils.isBlank(value)
+            && utils.isNumeric(value)
+            && parseInt(value) >= 0;
+    }
+
     function validateProxy() {
 
        if (utils.isBlank($scope.endpoint.method)) {
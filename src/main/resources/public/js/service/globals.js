@@ -26,9 +26,16 @@ app.service('globalVars', function() {
     this.RequestParamText = 'REQUEST_PARAM';
     this.RequestBodyText = 'REQUEST_BODY';
     this.RequestBodyJsonAnyFieldText = 'REQUEST_BODY_JSON_ANY';
+    this.RequestBodyJsonPathText = 'REQUEST_BODY_JSON_PATH';
+    this.RequestBodyXPathText = 'REQUEST_BODY_XPATH';
     this.EqualsText = 'EQUALS';
     this.ContainsText = 'CONTAINS';
     this.IsMissingText = 'IS_MISSING';
+    this.RegexText = 'REGEX';
+    this.GreaterThanText = 'GREATER_THAN';
+    this.LessThanText = 'LESS_THAN';
+    this.BetweenText = 'BETWEEN';
+    this.InSetText = 'IN_SET';
 
     this.ActiveStatus = "ACTIVE";
     this.InActiveStatus = "INACTIVE";
@@ -51,6 +58,12 @@ app.service('globalVars', function() {
        { dropDownName : 'Equals ( TEXT )', tableName : 'equals', value : this.EqualsText, dataType: this.TextDataType },
        { dropDownName : 'Equals ( NUMBER )', tableName : '==', value : this.EqualsText, dataType: this.NumericDataType },
        { dropDownName : 'Contains ( TEXT )', tableName : 'contains', value : this.ContainsText, dataType: this.TextDataType },
+       { dropDownName : 'Matches Regex ( TEXT )', tableName : 'matches', value : this.RegexText, dataType: this.TextDataType },
+       { dropDownName : 'In Set ( TEXT )', tableName : 'in', value : this.InSetText, dataType: this.TextDataType },
+       { dropDownName : 'Greater Than ( NUMBER )', tableName : '>', value : this.GreaterThanText, dataType: this.NumericDataType },
+       { dropDownName : 'Less Than ( NUMBER )', tableName : '<', value : this.LessThanText, dataType: this.NumericDataType },
+       { dropDownName : 'Between ( NUMBER )', tableName : 'between', value : this.BetweenText, dataType: this.NumericDataType },
+       { dropDownName : 'In Set ( NUMBER )', tableName : 'in', value : this.InSetText, dataType: this.NumericDataType },
        { dropDownName : 'Is Missing', tableName : 'is missing', value : this.IsMissingText, dataType: this.TextDataType }
     ];
 
@@ -60,7 +73,9 @@ app.service('globalVars', function() {
         { name : 'Request Header', value : this.RequestHeaderText, fieldPlaceholderText : 'Enter \'Request Header\' Key Name' },
         { name : 'Request Parameter', value : this.RequestParamText, fieldPlaceholderText : 'Enter \'Request Parameter\' Key Name' },
         { name : 'Request Body', value : this.RequestBodyText, fieldPlaceholderText : '' },
-        { name : 'Request Body JSON Field', value : this.RequestBodyJsonAnyFieldText, fieldPlaceholderText : 'Enter \'JSON Parameter\' Key Name'  }
+        { name : 'Request Body JSON Field', value : this.RequestBodyJsonAnyFieldText, fieldPlaceholderText : 'Enter \'JSON Parameter\' Key Name'  },
+        { name : 'Request Body JSON Path', value : this.RequestBodyJsonPathText, fieldPlaceholderText : 'Enter \'JSON Path\' (e.g $.order.items[0].sku)'  },
+        { name : 'Request Body XPath', value : this.RequestBodyXPathText, fieldPlaceholderText : 'Enter \'XPath\' (e.g /order/items/item[1]/@sku)'  }
     ];
 
 });
@@ -1,15 +1,21 @@
 package com.smockin.admin.service;
 
+import com.smockin.admin.dto.RestfulServerInstanceDTO;
 import com.smockin.admin.enums.UserModeEnum;
 import com.smockin.admin.exception.AuthException;
 import com.smockin.admin.exception.RecordNotFoundException;
 import com.smockin.admin.exception.ValidationException;
 import com.smockin.admin.persistence.dao.RestfulMockDAO;
+import com.smockin.admin.persistence.dao.RestfulServerInstanceDAO;
 import com.smockin.admin.persistence.dao.ServerConfigDAO;
+import com.smockin.admin.persistence.entity.RestfulCategory;
 import com.smockin.admin.persistence.entity.RestfulMock;
+import com.smockin.admin.persistence.entity.RestfulServerInstance;
 import com.smockin.admin.persistence.entity.ServerConfig;
 import com.smockin.admin.persistence.entity.SmockinUser;
+import com.smockin.admin.persistence.enums.RecordStatusEnum;
 import com.smockin.admin.persistence.enums.RestMethodEnum;
+import com.smockin.admin.persistence.enums.RestfulServerBindingEnum;
 import com.smockin.admin.persistence.enums.ServerTypeEnum;
 import com.smockin.admin.persistence.enums.SmockinUserRoleEnum;
 import com.smockin.admin.service.utils.UserTokenServiceUtils;
@@ -46,6 +52,9 @@ public class MockedServerEngineServiceTest {
     @Mock
     private ServerConfigDAO serverConfigDAO;
 
+    @Mock
+    private RestfulServerInstanceDAO restfulServerInstanceDAO;
+
     @Mock
     private SmockinUserService smockinUserService;
 
@@ -288,6 +297,84 @@ public class MockedServerEngineServiceTest {
 
     }
 
+    @Test
+    public void validateServerConfig_InvalidExecutorMode_Test() throws ValidationException {
+
+        // Assertions
+        thrown.expect(ValidationException.class);
+        thrown.expectMessage("'EXECUTOR_MODE' must be one of [QUEUED, BOUNDED, VIRTUAL]");
+
+        // Setup
+        final MockedServerConfigDTO dto = new MockedServerConfigDTO();
+        dto.setPort(8001);
+        dto.setMaxThreads(10);
+        dto.setMinThreads(1);
+        dto.setTimeOutMillis(30000);
+        dto.getNativeProperties().put(GeneralUtils.EXECUTOR_MODE_PARAM, "POOLED");
+
+        // Test
+        mockedServerEngineServiceImpl.validateServerConfig(dto);
+
+    }
+
+    @Test
+    public void validateServerConfig_InvalidExecutorQueueSize_Test() throws ValidationException {
+
+        // Assertions
+        thrown.expect(ValidationException.class);
+        thrown.expectMessage("'EXECUTOR_QUEUE_SIZE' must be a positive number");
+
+        // Setup
+        final MockedServerConfigDTO dto = new MockedServerConfigDTO();
+        dto.setPort(8001);
+        dto.setMaxThreads(10);
+        dto.setMinThreads(1);
+        dto.setTimeOutMillis(30000);
+        dto.getNativeProperties().put(GeneralUtils.EXECUTOR_MODE_PARAM, "bounded");
+        dto.getNativeProperties().put(GeneralUtils.EXECUTOR_QUEUE_SIZE_PARAM, "abc");
+
+        // Test
+        mockedServerEngineServiceImpl.validateServerConfig(dto);
+
+    }
+
+    @Test
+    public void validateServerConfig_ExecutorMode_Test() throws ValidationException {
+
+        // Setup
+        final MockedServerConfigDTO dto = new MockedServerConfigDTO();
+        dto.setPort(8001);
+        dto.setMaxThreads(10);
+        dto.setMinThreads(1);
+        dto.setTimeOutMillis(30000);
+        dto.getNativeProperties().put(GeneralUtils.EXECUTOR_MODE_PARAM, "virtual");
+
+        // Test
+        mockedServerEngineServiceImpl.validateServerConfig(dto);
+
+    }
+
+    @Test
+    public void validateServerConfig_InvalidConnectorSetting_Test() throws ValidationException {
+
+        // Assertions
+        thrown.expect(ValidationException.class);
+        thrown.expectMessage("'CONNECTOR_ACCEPT_QUEUE_SIZE' must be a whole number");
+
+        // Setup
+        final MockedServerConfigDTO dto = new MockedServerConfigDTO();
+        dto.setPort(8001);
+        dto.setMaxThreads(10);
+        dto.setMinThreads(1);
+        dto.setTimeOutMillis(30000);
+        dto.getNativeProperties().put(GeneralUtils.CONNECTOR_SELECTORS_PARAM, "4");
+        dto.getNativeProperties().put(GeneralUtils.CONNECTOR_ACCEPT_QUEUE_SIZE_PARAM, "1.5");
+
+        // Test
+        mockedServerEngineServiceImpl.validateServerConfig(dto);
+
+    }
+
     @Test
     public void startRestTest() throws MockServerException, AuthException, RecordNotFoundException {
 
@@ -544,4 +631,215 @@ public class MockedServerEngineServiceTest {
 
     }
 
+    @Test
+    public void findBoundInstanceName_Unbound_Test() {
+
+        // Setup
+        final RestfulMock mock = buildRestfulMock("bob", null);
+
+        // Test
+        final String result = mockedServerEngineServiceImpl.findBoundInstanceName(mock, Arrays.asList(buildRestInstance("team-a", 8010, RestfulServerBindingEnum.USER, "alice")));
+
+        // Assertions
+        Assert.assertEquals(MockedRestServerEngine.DEFAULT_INSTANCE, result);
+    }
+
+    @Test
+    public void findBoundInstanceName_User_Test() {
+
+        // Setup
+        final RestfulMock mock = buildRestfulMock("bob", null);
+
+        // Test
+        final String result = mockedServerEngineServiceImpl.findBoundInstanceName(mock, Arrays.asList(
+                buildRestInstance("team-a", 8010, RestfulServerBindingEnum.USER, "alice"),
+                buildRestInstance("team-b", 8011, RestfulServerBindingEnum.USER, "bob")));
+
+        // Assertions
+        Assert.assertEquals("team-b", result);
+    }
+
+    @Test
+    public void findBoundInstanceName_CategoryTakesPrecedence_Test() {
+
+        // Setup
+        final RestfulMock mock = buildRestfulMock("bob", "payments");
+
+        // Test
+        final String result = mockedServerEngineServiceImpl.findBoundInstanceName(mock, Arrays.asList(
+                buildRestInstance("team-b", 8011, RestfulServerBindingEnum.USER, "bob"),
+                buildRestInstance("payments", 8012, RestfulServerBindingEnum.CATEGORY, "payments")));
+
+        // Assertions
+        Assert.assertEquals("payments", result);
+    }
+
+    @Test
+    public void loadActiveRestfulMocks_Instance_Test() {
+
+        // Setup
+        final RestfulMock m1 = buildRestfulMock("alice", null);
+        final RestfulMock m2 = buildRestfulMock("bob", null);
+
+        Mockito.when(restfulMockDefinitionDAO.findAllByStatus(RecordStatusEnum.ACTIVE)).thenReturn(Arrays.asList(m1, m2));
+        Mockito.when(restfulServerInstanceDAO.findAll()).thenReturn(Arrays.asList(buildRestInstance("team-b", 8011, RestfulServerBindingEnum.USER, "bob")));
+
+        // Test
+        final List<RestfulMock> defaultMocks = mockedServerEngineServiceImpl.loadActiveRestfulMocks(MockedRestServerEngine.DEFAULT_INSTANCE);
+        final List<RestfulMock> instanceMocks = mockedServerEngineServiceImpl.loadActiveRestfulMocks("team-b");
+
+        // Assertions
+        Assert.assertEquals(Arrays.asList(m1), defaultMocks);
+        Assert.assertEquals(Arrays.asList(m2), instanceMocks);
+    }
+
+    @Test
+    public void buildInstanceConfig_Test() {
+
+        // Setup
+        final Map<String, String> nativeProperties = new HashMap<>();
+        nativeProperties.put(GeneralUtils.PROXY_SERVER_ENABLED_PARAM, "true");
+        nativeProperties.put(GeneralUtils.ENABLE_CORS_PARAM, "true");
+
+        final RestfulServerInstance instance = buildRestInstance("team-a", 8010, RestfulServerBindingEnum.USER, "alice");
+
+        // Test
+        final MockedServerConfigDTO result = mockedServerEngineServiceImpl.buildInstanceConfig(instance,
+                new MockedServerConfigDTO(ServerTypeEnum.RESTFUL, 8001, 100, 10, 30000, true, true, nativeProperties));
+
+        // Assertions
+        Assert.assertEquals(Integer.valueOf(8010), result.getPort());
+        Assert.assertEquals(Integer.valueOf(20), result.getMaxThreads());
+        Assert.assertEquals(Integer.valueOf(2), result.getMinThreads());
+        Assert.assertEquals("true", result.getNativeProperties().get(GeneralUtils.ENABLE_CORS_PARAM));
+        Assert.assertFalse(result.getNativeProperties().containsKey(GeneralUtils.PROXY_SERVER_ENABLED_PARAM));
+        Assert.assertTrue(nativeProperties.containsKey(GeneralUtils.PROXY_SERVER_ENABLED_PARAM));
+    }
+
+    @Test
+    public void validateRestInstance_ReservedName_Test() throws ValidationException {
+
+        // Assertions
+        thrown.expect(ValidationException.class);
+        thrown.expectMessage("'default' is a reserved instance name");
+
+        // Test
+        mockedServerEngineServiceImpl.validateRestInstance(new RestfulServerInstanceDTO("default", 8010, 20, 2, 30000, RestfulServerBindingEnum.USER, "alice", false));
+    }
+
+    @Test
+    public void validateRestInstance_MissingBindingValue_Test() throws ValidationException {
+
+        // Assertions
+        thrown.expect(ValidationException.class);
+        thrown.expectMessage("'bindingValue' is required");
+
+        // Test
+        mockedServerEngineServiceImpl.validateRestInstance(new RestfulServerInstanceDTO("team-a", 8010, 20, 2, 30000, RestfulServerBindingEnum.USER, " ", false));
+    }
+
+    @Test
+    public void validateRestInstance_MainServerPortInUse_Test() throws ValidationException {
+
+        // Assertions
+        thrown.expect(ValidationException.class);
+        thrown.expectMessage("port 8001 is already in use by the main REST server");
+
+        // Setup
+        final ServerConfig serverConfig = new ServerConfig(ServerTypeEnum.RESTFUL);
+        serverConfig.setPort(8001);
+        Mockito.when(serverConfigDAO.findByServerType(ServerTypeEnum.RESTFUL)).thenReturn(serverConfig);
+
+        // Test
+        mockedServerEngineServiceImpl.validateRestInstance(new RestfulServerInstanceDTO("team-a", 8001, 20, 2, 30000, RestfulServerBindingEnum.USER, "alice", false));
+    }
+
+    @Test
+    public void validateRestInstance_BindingInUse_Test() throws ValidationException {
+
+        // Assertions
+        thrown.expect(ValidationException.class);
+        thrown.expectMessage("USER 'alice' is already bound to instance 'team-a'");
+
+        // Setup
+        Mockito.when(restfulServerInstanceDAO.findAll()).thenReturn(Arrays.asList(buildRestInstance("team-a", 8010, RestfulServerBindingEnum.USER, "alice")));
+
+        // Test
+        mockedServerEngineServiceImpl.validateRestInstance(new RestfulServerInstanceDTO("team-b", 8011, 20, 2, 30000, RestfulServerBindingEnum.USER, "alice", false));
+    }
+
+    @Test
+    public void validateRestInstance_UpdateExisting_Test() throws ValidationException {
+
+        // Setup
+        Mockito.when(restfulServerInstanceDAO.findAll()).thenReturn(Arrays.asList(buildRestInstance("team-a", 8010, RestfulServerBindingEnum.USER, "alice")));
+
+        // Test
+        mockedServerEngineServiceImpl.validateRestInstance(new RestfulServerInstanceDTO("team-a", 8010, 50, 5, 30000, RestfulServerBindingEnum.USER, "alice", true));
+    }
+
+    @Test
+    public void startRestInstance_NotFound_Test() throws MockServerException, AuthException, RecordNotFoundException {
+
+        // Assertions
+        thrown.expect(RecordNotFoundException.class);
+
+        // Test
+        mockedServerEngineService.startRestInstance("team-a", token);
+    }
+
+    @Test
+    public void startRestInstanceTest() throws MockServerException, AuthException, RecordNotFoundException {
+
+        // Setup
+        final ServerConfig serverConfig = new ServerConfig(ServerTypeEnum.RESTFUL);
+        serverConfig.setPort(8001);
+        serverConfig.setMaxThreads(100);
+        serverConfig.setMinThreads(10);
+        serverConfig.setTimeOutMillis(30000);
+
+        Mockito.when(serverConfigDAO.findByServerType(ServerTypeEnum.RESTFUL)).thenReturn(serverConfig);
+        Mockito.when(restfulServerInstanceDAO.findByName("team-a")).thenReturn(buildRestInstance("team-a", 8010, RestfulServerBindingEnum.USER, "alice"));
+
+        // Test
+        final MockedServerConfigDTO result = mockedServerEngineService.startRestInstance("team-a", token);
+
+        // Assertions
+        Assert.assertEquals(Integer.valueOf(8010), result.getPort());
+        Mockito.verify(mockedRestServerEngine).startInstance(Matchers.eq("team-a"), Matchers.any(MockedServerConfigDTO.class), Matchers.anyListOf(RestfulMock.class));
+        Mockito.verify(mockedRestServerEngine, Mockito.never()).start(Matchers.any(MockedServerConfigDTO.class), Matchers.anyListOf(RestfulMock.class));
+    }
+
+    private RestfulMock buildRestfulMock(final String ctxPath, final String categoryName) {
+
+        final SmockinUser user = new SmockinUser();
+        user.setRole(SmockinUserRoleEnum.REGULAR);
+        user.setCtxPath(ctxPath);
+
+        final RestfulMock mock = new RestfulMock();
+        mock.setPath("/pets");
+        mock.setCreatedBy(user);
+
+        if (categoryName != null) {
+            final RestfulCategory category = new RestfulCategory();
+            category.setName(categoryName);
+            mock.setCategory(category);
+        }
+
+        return mock;
+    }
+
+    private RestfulServerInstance buildRestInstance(final String name, final int port, final RestfulServerBindingEnum bindingType, final String bindingValue) {
+
+        final RestfulServerInstance instance = new RestfulServerInstance(name);
+        instance.setPort(port);
+        instance.setMaxThreads(20);
+        instance.setMinThreads(2);
+        instance.setTimeOutMillis(30000);
+        instance.setBindingType(bindingType);
+        instance.setBindingValue(bindingValue);
+
+        return instance;
+    }
+
 }
@@ -55,7 +55,7 @@ public class RamlApiImportServiceTest {
     private ApiImportService apiImportService = new RamlApiImportServiceImpl();
 
     @Before
-    public void setUp() throws RecordNotFoundException {
+    public void setUp() throws RecordNotFoundException, ValidationException {
 
         Mockito.when(restfulMockService.createEndpoint(Matchers.any(RestfulMockDTO.class), Matchers.anyString())).thenReturn("1");
 
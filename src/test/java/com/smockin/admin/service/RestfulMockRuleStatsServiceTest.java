@@ -0,0 +1,191 @@
+package com.smockin.admin.service;
+
+import com.smockin.admin.dto.response.RuleConditionStatsResponseDTO;
+import com.smockin.admin.dto.response.RuleStatsResponseDTO;
+import com.smockin.admin.exception.RecordNotFoundException;
+import com.smockin.admin.exception.ValidationException;
+import com.smockin.admin.persistence.dao.RestfulMockDAO;
+import com.smockin.admin.persistence.entity.RestfulMock;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRule;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroup;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroupCondition;
+import com.smockin.admin.persistence.entity.SmockinUser;
+import com.smockin.admin.persistence.enums.RecordStatusEnum;
+import com.smockin.admin.persistence.enums.RestMethodEnum;
+import com.smockin.admin.persistence.enums.RestMockTypeEnum;
+import com.smockin.admin.persistence.enums.RuleComparatorEnum;
+import com.smockin.admin.persistence.enums.RuleDataTypeEnum;
+import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+import com.smockin.admin.persistence.enums.SmockinUserRoleEnum;
+import com.smockin.admin.service.utils.UserTokenServiceUtils;
+import com.smockin.mockserver.engine.MockedRestServerEngine;
+import com.smockin.mockserver.service.RestfulMockCompilerImpl;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
+import com.smockin.mockserver.service.bean.CompiledRule;
+import com.smockin.mockserver.service.bean.CompiledRuleCondition;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Created by mgallina.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class RestfulMockRuleStatsServiceTest {
+
+    @Mock
+    private RestfulMockDAO restfulMockDAO;
+
+    @Mock
+    private UserTokenServiceUtils userTokenServiceUtils;
+
+    @Mock
+    private MockedRestServerEngine mockedRestServerEngine;
+
+    @InjectMocks
+    private RestfulMockRuleStatsServiceImpl restfulMockRuleStatsServiceImpl = new RestfulMockRuleStatsServiceImpl();
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RestfulMock mock;
+    private CompiledRestfulMock compiledMock;
+
+    @Before
+    public void setUp() {
+
+        final SmockinUser user = new SmockinUser();
+        user.setRole(SmockinUserRoleEnum.REGULAR);
+        user.setCtxPath("bob");
+
+        mock = new RestfulMock("/pets", RestMethodEnum.GET, RecordStatusEnum.ACTIVE, RestMockTypeEnum.RULE, 0, 0, 0, false, false, false, user);
+        mock.setId(1);
+        mock.setExtId("mock1");
+
+        final RestfulMockDefinitionRule rule = new RestfulMockDefinitionRule(mock, 1, 200, MediaType.TEXT_PLAIN_VALUE, "Dog", 0, false);
+        rule.setExtId("rule1");
+        final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule, 1);
+        group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "X-Pet", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "dog", RuleMatchingTypeEnum.REQUEST_HEADER, false));
+        rule.getConditionGroups().add(group);
+        mock.getRules().add(rule);
+
+        compiledMock = new RestfulMockCompilerImpl().compile(mock, "/bob/pets");
+
+        // Records a matched request against the rule and it's condition
+        final CompiledRule compiledRule = compiledMock.getRules().get(0);
+        compiledRule.getStats().record(true, 200);
+        compiledRule.getConditionGroups().get(0).getConditions().get(0).getStats().record(true, 100);
+
+        Mockito.when(restfulMockDAO.findByExtId("mock1")).thenReturn(mock);
+        Mockito.when(mockedRestServerEngine.findDeployedMock(1)).thenReturn(compiledMock);
+    }
+
+    @Test
+    public void loadRuleStats_Test() throws RecordNotFoundException, ValidationException {
+
+        // Test
+        final List<RuleStatsResponseDTO> result = restfulMockRuleStatsServiceImpl.loadRuleStats("mock1", "token");
+
+        // Assertions
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals("rule1", result.get(0).getExtId());
+        Assert.assertEquals(1, result.get(0).getHits());
+        Assert.assertEquals(0, result.get(0).getMisses());
+        Assert.assertEquals(200, result.get(0).getEvaluationNanos());
+
+        Assert.assertEquals(1, result.get(0).getConditions().size());
+
+        final RuleConditionStatsResponseDTO condition = result.get(0).getConditions().get(0);
+        Assert.assertEquals(1, condition.getGroupNo());
+        Assert.assertEquals("X-Pet", condition.getField());
+        Assert.assertEquals(1, condition.getHits());
+        Assert.assertEquals(100, condition.getEvaluationNanos());
+    }
+
+    @Test
+    public void loadRuleStats_NotFound_Test() throws RecordNotFoundException, ValidationException {
+
+        // Assertions
+        thrown.expect(RecordNotFoundException.class);
+
+        // Test
+        restfulMockRuleStatsServiceImpl.loadRuleStats("mock2", "token");
+    }
+
+    @Test
+    public void loadRuleStats_NotOwner_Test() throws RecordNotFoundException, ValidationException {
+
+        // Assertions
+        thrown.expect(ValidationException.class);
+        thrown.expectMessage("Insufficient record access");
+
+        // Setup
+        Mockito.doThrow(new ValidationException("Insufficient record access"))
+                .when(userTokenServiceUtils).validateRecordOwner(Matchers.any(SmockinUser.class), Matchers.anyString());
+
+        // Test
+        restfulMockRuleStatsServiceImpl.loadRuleStats("mock1", "token");
+    }
+
+    @Test
+    public void loadRuleStats_NotDeployed_Test() throws RecordNotFoundException, ValidationException {
+
+        // Setup
+        Mockito.when(mockedRestServerEngine.findDeployedMock(1)).thenReturn(null);
+
+        // Test
+        final List<RuleStatsResponseDTO> result = restfulMockRuleStatsServiceImpl.loadRuleStats("mock1", "token");
+
+        // Assertions
+        Assert.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void resetRuleStats_Test() throws RecordNotFoundException, ValidationException {
+
+        // Test
+        restfulMockRuleStatsServiceImpl.resetRuleStats("mock1", "token");
+
+        // Assertions
+        final CompiledRule rule = compiledMock.getRules().get(0);
+        Assert.assertEquals(0, rule.getStats().getHits());
+        Assert.assertEquals(0, rule.getStats().getMisses());
+        Assert.assertEquals(0, rule.getStats().getEvaluationNanos());
+
+        final CompiledRuleCondition condition = rule.getConditionGroups().get(0).getConditions().get(0);
+        Assert.assertEquals(0, condition.getStats().getHits());
+        Assert.assertEquals(0, condition.getStats().getMisses());
+        Assert.assertEquals(0, condition.getStats().getEvaluationNanos());
+    }
+
+    @Test
+    public void resetRuleStats_NotOwner_Test() throws RecordNotFoundException, ValidationException {
+
+        // Setup
+        Mockito.doThrow(new ValidationException("Insufficient record access"))
+                .when(userTokenServiceUtils).validateRecordOwner(Matchers.any(SmockinUser.class), Matchers.anyString());
+
+        // Test
+        try {
+            restfulMockRuleStatsServiceImpl.resetRuleStats("mock1", "token");
+            Assert.fail();
+        } catch (ValidationException ex) {
+            // expected
+        }
+
+        // Assertions
+        Assert.assertEquals(1, compiledMock.getRules().get(0).getStats().getHits());
+    }
+
+}
@@ -0,0 +1,220 @@
+package com.smockin.admin.service;
+
+import com.smockin.admin.dto.RestfulMockDTO;
+import com.smockin.admin.dto.RuleConditionDTO;
+import com.smockin.admin.dto.RuleDTO;
+import com.smockin.admin.dto.RuleGroupDTO;
+import com.smockin.admin.exception.RecordNotFoundException;
+import com.smockin.admin.exception.ValidationException;
+import com.smockin.admin.persistence.dao.RestfulMockDAO;
+import com.smockin.admin.persistence.dao.SequenceStateDAO;
+import com.smockin.admin.persistence.entity.RestfulMock;
+import com.smockin.admin.persistence.enums.RuleComparatorEnum;
+import com.smockin.admin.persistence.enums.RuleDataTypeEnum;
+import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+import com.smockin.admin.service.utils.RestfulMockServiceUtils;
+import com.smockin.admin.service.utils.UserTokenServiceUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/**
+ * Created by mgallina.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class RestfulMockServiceTest {
+
+    @Mock
+    private RestfulMockDAO restfulMockDAO;
+
+    @Mock
+    private RestfulMockServiceUtils restfulMockServiceUtils;
+
+    @Mock
+    private UserTokenServiceUtils userTokenServiceUtils;
+
+    @Mock
+    private SequenceStateDAO sequenceStateDAO;
+
+    @Spy
+    @InjectMocks
+    private RestfulMockServiceImpl restfulMockServiceImpl = new RestfulMockServiceImpl();
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RestfulMockDTO dto;
+
+    @Before
+    public void setUp() {
+
+        dto = new RestfulMockDTO();
+        dto.setMaxConcurrentRequests(2);
+        dto.setMaxQueuedRequests(10);
+        dto.setOverloadStatusCode(429);
+        dto.setOverloadRetryAfterSeconds(5);
+    }
+
+    @Test
+    public void validateOverloadSettings_Test() throws ValidationException {
+
+        // Test
+        restfulMockServiceImpl.validateOverloadSettings(dto);
+
+        dto.setOverloadStatusCode(503);
+        restfulMockServiceImpl.validateOverloadSettings(dto);
+    }
+
+    @Test
+    public void validateOverloadSettings_NegativeMaxConcurrent_Test() throws ValidationException {
+
+        // Assertions
+        thrown.expect(ValidationException.class);
+        thrown.expectMessage("'maxConcurrentRequests' cannot be negative");
+
+        // Setup
+        dto.setMaxConcurrentRequests(-1);
+
+        // Test
+        restfulMockServiceImpl.validateOverloadSettings(dto);
+    }
+
+    @Test
+    public void validateOverloadSettings_NegativeMaxQueued_Test() throws ValidationException {
+
+        // Assertions
+        thrown.expect(ValidationException.class);
+        thrown.expectMessage("'maxQueuedRequests' cannot be negative");
+
+        // Setup
+        dto.setMaxQueuedRequests(-1);
+
+        // Test
+        restfulMockServiceImpl.validateOverloadSettings(dto);
+    }
+
+    @Test
+    public void validateOverloadSettings_InvalidStatusCode_Test() throws ValidationException {
+
+        // Assertions
+        thrown.expect(ValidationException.class);
+        thrown.expectMessage("'overloadStatusCode' must be either 429 or 503");
+
+        // Setup
+        dto.setOverloadStatusCode(500);
+
+        // Test
+        restfulMockServiceImpl.validateOverloadSettings(dto);
+    }
+
+    @Test
+    public void validateOverloadSettings_NegativeRetryAfter_Test() throws ValidationException {
+
+        // Assertions
+        thrown.expect(ValidationException.class);
+        thrown.expectMessage("'overloadRetryAfterSeconds' cannot be negative");
+
+        // Setup
+        dto.setOverloadRetryAfterSeconds(-1);
+
+        // Test
+        restfulMockServiceImpl.validateOverloadSettings(dto);
+    }
+
+    @Test
+    public void validateRuleConditions_Test() throws ValidationException {
+
+        // Setup
+        dto.getRules().add(buildRegexRule("^cust-[0-9]+$"));
+
+        // Test
+        restfulMockServiceImpl.validateRuleConditions(dto);
+    }
+
+    @Test
+    public void validateRuleConditions_InvalidRegex_Test() throws ValidationException {
+
+        // Assertions
+        thrown.expect(ValidationException.class);
+        thrown.expectMessage("Rule 1 has an invalid regex on field 'X-Customer-Id': cust-[0-9");
+
+        // Setup
+        dto.getRules().add(buildRegexRule("cust-[0-9"));
+
+        // Test
+        restfulMockServiceImpl.validateRuleConditions(dto);
+    }
+
+    @Test
+    public void createEndpoint_InvalidRegex_Test() throws RecordNotFoundException {
+
+        // Setup
+        dto.getRules().add(buildRegexRule("cust-[0-9"));
+
+        // Test
+        try {
+            restfulMockServiceImpl.createEndpoint(dto, "token");
+            Assert.fail();
+        } catch (ValidationException ex) {
+            // expected
+        }
+
+        // Assertions
+        Mockito.verify(restfulMockDAO, Mockito.never()).save(Matchers.any(RestfulMock.class));
+    }
+
+    @Test
+    public void createEndpoint_InvalidOverloadSettings_Test() throws RecordNotFoundException {
+
+        // Setup
+        dto.setOverloadStatusCode(200);
+
+        // Test
+        try {
+            restfulMockServiceImpl.createEndpoint(dto, "token");
+            Assert.fail();
+        } catch (ValidationException ex) {
+
+            // Assertions
+            Assert.assertEquals("'overloadStatusCode' must be either 429 or 503", ex.getMessage());
+        }
+
+        Mockito.verify(restfulMockDAO, Mockito.never()).save(Matchers.any(RestfulMock.class));
+    }
+
+    @Test
+    public void deleteEndpoint_Test() throws RecordNotFoundException, ValidationException {
+
+        // Setup
+        final RestfulMock mock = new RestfulMock();
+        Mockito.when(restfulMockDAO.findByExtId("mock1")).thenReturn(mock);
+
+        // Test
+        restfulMockServiceImpl.deleteEndpoint("mock1", "token");
+
+        // Assertions
+        Mockito.verify(restfulMockDAO).delete(mock);
+        Mockito.verify(sequenceStateDAO).deleteByExtId("mock1");
+    }
+
+    private RuleDTO buildRegexRule(final String regex) {
+
+        final RuleGroupDTO group = new RuleGroupDTO();
+        group.getConditions().add(new RuleConditionDTO("X-Customer-Id", RuleDataTypeEnum.TEXT, RuleComparatorEnum.REGEX, regex, RuleMatchingTypeEnum.REQUEST_HEADER, false));
+
+        final RuleDTO rule = new RuleDTO(null, 1, 200, "text/plain", "Found", 0, false);
+        rule.getGroups().add(group);
+
+        return rule;
+    }
+
+}
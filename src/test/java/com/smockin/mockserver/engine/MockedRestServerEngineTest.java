@@ -5,29 +5,62 @@ import com.smockin.admin.persistence.dao.RestfulMockDAO;
 import com.smockin.admin.persistence.entity.RestfulMock;
 import com.smockin.admin.persistence.entity.RestfulMockDefinitionOrder;
 import com.smockin.admin.persistence.entity.SmockinUser;
+import com.smockin.admin.persistence.enums.RestMethodEnum;
 import com.smockin.admin.persistence.enums.RestMockTypeEnum;
 import com.smockin.admin.persistence.enums.SmockinUserRoleEnum;
 import com.smockin.admin.service.SmockinUserService;
+import com.smockin.mockserver.dto.MockServerState;
 import com.smockin.mockserver.dto.MockedServerConfigDTO;
+import com.smockin.mockserver.engine.jetty.DelayedResponseHandler;
+import com.smockin.mockserver.engine.jetty.JettyConnectorConfig;
+import com.smockin.mockserver.engine.route.MockRouteMatch;
+import com.smockin.mockserver.engine.route.MockRoutingSnapshot;
+import com.smockin.mockserver.proxy.ProxyServer;
 import com.smockin.mockserver.service.MockOrderingCounterService;
 import com.smockin.mockserver.service.HttpProxyService;
+import com.smockin.mockserver.service.InboundParamMatchService;
+import com.smockin.mockserver.service.InboundParamMatchServiceImpl;
+import com.smockin.mockserver.service.RestfulMockCompiler;
+import com.smockin.mockserver.service.RestfulMockCompilerImpl;
 import com.smockin.mockserver.service.RuleEngine;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
+import com.smockin.mockserver.service.bean.EncodedBody;
+import com.smockin.mockserver.service.bean.MockBulkhead;
+import com.smockin.mockserver.service.bean.ResponseTemplate;
 import com.smockin.mockserver.service.dto.RestfulResponseDTO;
+import com.smockin.utils.CompressionUtils;
 import com.smockin.utils.GeneralUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import spark.Request;
+import spark.Response;
 
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Created by mgallina.
@@ -50,6 +83,33 @@ public class MockedRestServerEngineTest {
     @Mock
     private SmockinUserService smockinUserService;
 
+    @Mock
+    private ProxyServer proxyServer;
+
+    @Mock
+    private ServerSideEventService serverSideEventService;
+
+    @Mock
+    private WebSocketService webSocketService;
+
+    @Spy
+    private RestfulMockCompiler restfulMockCompiler = new RestfulMockCompilerImpl();
+
+    @Spy
+    private InboundParamMatchService inboundParamMatchService = new InboundParamMatchServiceImpl();
+
+    @Mock
+    private Request req;
+
+    @Mock
+    private Response res;
+
+    @Mock
+    private HttpServletResponse rawResponse;
+
+    @Mock
+    private ServletOutputStream outputStream;
+
     @Spy
     @InjectMocks
     private MockedRestServerEngine engine = new MockedRestServerEngine();
@@ -89,7 +149,7 @@ public class MockedRestServerEngineTest {
         restfulMock.getDefinitions().clear();
 
         // Test
-        engine.getDefault(restfulMock);
+        engine.getDefault(compile(restfulMock));
     }
 
     @Test
@@ -97,7 +157,7 @@ public class MockedRestServerEngineTest {
 
         // Test (run 1)
         // Should always be response with 'order No 1'
-        final RestfulResponseDTO result1 = engine.getDefault(restfulMock);
+        final RestfulResponseDTO result1 = engine.getDefault(compile(restfulMock));
 
         // Assertions
         Assert.assertNotNull(result1);
@@ -107,7 +167,7 @@ public class MockedRestServerEngineTest {
 
         // Test (run 2)
         // ... and just to double check...
-        final RestfulResponseDTO result2 = engine.getDefault(restfulMock);
+        final RestfulResponseDTO result2 = engine.getDefault(compile(restfulMock));
 
         // Assertions
         Assert.assertNotNull(result2);
@@ -124,7 +184,7 @@ public class MockedRestServerEngineTest {
         restfulMock.setMockType(RestMockTypeEnum.PROXY_HTTP);
 
         // Test
-        final RestfulResponseDTO result = engine.getDefault(restfulMock);
+        final RestfulResponseDTO result = engine.getDefault(compile(restfulMock));
 
         // Assertions
         Assert.assertNotNull(result);
@@ -134,4 +194,684 @@ public class MockedRestServerEngineTest {
         Assert.assertTrue(result.getHeaders().isEmpty());
     }
 
+    @Test
+    public void writePreEncodedResponse_Test() throws IOException {
+
+        // Setup
+        final RestfulResponseDTO outcome = compile(restfulMock).getDefinitions().get(0).getResponse();
+        Mockito.when(req.requestMethod()).thenReturn("GET");
+        Mockito.when(res.raw()).thenReturn(rawResponse);
+        Mockito.when(rawResponse.getOutputStream()).thenReturn(outputStream);
+
+        // Test
+        engine.writePreEncodedResponse(outcome, req, res);
+
+        // Assertions
+        Mockito.verify(rawResponse).setHeader(HttpHeaders.ETAG, outcome.getETag());
+        Mockito.verify(rawResponse).setContentLength(order1.getResponseBody().getBytes(StandardCharsets.UTF_8).length);
+        Mockito.verify(outputStream).write(outcome.getResponseBodyBytes());
+        Mockito.verify(outputStream).close();
+        Mockito.verify(rawResponse, Mockito.never()).setStatus(HttpStatus.NOT_MODIFIED.value());
+        Mockito.verify(rawResponse, Mockito.never()).setHeader(Mockito.eq(HttpHeaders.CONTENT_ENCODING), Mockito.anyString());
+    }
+
+    @Test
+    public void writePreEncodedResponse_Gzip_Test() throws IOException {
+
+        // Setup
+        order1.setResponseBody(StringUtils.repeat("HelloWorld 1 ", 200));
+        final RestfulResponseDTO outcome = compile(restfulMock).getDefinitions().get(0).getResponse();
+        final EncodedBody gzipBody = outcome.getEncodedBody(CompressionUtils.GZIP);
+        Mockito.when(req.requestMethod()).thenReturn("GET");
+        Mockito.when(req.headers(HttpHeaders.ACCEPT_ENCODING)).thenReturn("gzip, deflate");
+        Mockito.when(res.raw()).thenReturn(rawResponse);
+        Mockito.when(rawResponse.getOutputStream()).thenReturn(outputStream);
+
+        // Test
+        engine.writePreEncodedResponse(outcome, req, res);
+
+        // Assertions
+        Assert.assertTrue(outcome.isCompressed());
+        Assert.assertNotEquals(outcome.getETag(), gzipBody.getETag());
+        Mockito.verify(rawResponse).addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        Mockito.verify(rawResponse).setHeader(HttpHeaders.CONTENT_ENCODING, CompressionUtils.GZIP);
+        Mockito.verify(rawResponse).setHeader(HttpHeaders.ETAG, gzipBody.getETag());
+        Mockito.verify(rawResponse).setContentLength(gzipBody.getBytes().length);
+        Mockito.verify(outputStream).write(gzipBody.getBytes());
+    }
+
+    @Test
+    public void writePreEncodedResponse_NoAcceptEncoding_Test() throws IOException {
+
+        // Setup
+        order1.setResponseBody(StringUtils.repeat("HelloWorld 1 ", 200));
+        final RestfulResponseDTO outcome = compile(restfulMock).getDefinitions().get(0).getResponse();
+        Mockito.when(req.requestMethod()).thenReturn("GET");
+        Mockito.when(res.raw()).thenReturn(rawResponse);
+        Mockito.when(rawResponse.getOutputStream()).thenReturn(outputStream);
+
+        // Test
+        engine.writePreEncodedResponse(outcome, req, res);
+
+        // Assertions
+        Mockito.verify(rawResponse).addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        Mockito.verify(rawResponse).setHeader(HttpHeaders.ETAG, outcome.getETag());
+        Mockito.verify(rawResponse, Mockito.never()).setHeader(Mockito.eq(HttpHeaders.CONTENT_ENCODING), Mockito.anyString());
+        Mockito.verify(outputStream).write(outcome.getResponseBodyBytes());
+    }
+
+    @Test
+    public void writeCompressedResponse_Test() throws IOException {
+
+        // Setup
+        final String body = StringUtils.repeat("HelloWorld 1 ", 200);
+        Mockito.when(res.raw()).thenReturn(rawResponse);
+        Mockito.when(rawResponse.getOutputStream()).thenReturn(outputStream);
+
+        // Test
+        engine.writeCompressedResponse(CompressionUtils.DEFLATE, body, req, res);
+
+        // Assertions
+        Mockito.verify(req).attribute(MockedRestServerEngine.PRE_ENCODED_BODY_ATTRIBUTE, body);
+        Mockito.verify(rawResponse).setHeader(HttpHeaders.CONTENT_ENCODING, CompressionUtils.DEFLATE);
+        Mockito.verify(rawResponse).setContentLength(Mockito.intThat(new ArgumentMatcher<Integer>() {
+            @Override
+            public boolean matches(final Object length) {
+                return (Integer) length < body.length();
+            }
+        }));
+        Mockito.verify(outputStream).write(Mockito.any(byte[].class));
+        Mockito.verify(outputStream).close();
+    }
+
+    @Test
+    public void writePreEncodedResponse_NotModified_Test() throws IOException {
+
+        // Setup
+        final RestfulResponseDTO outcome = compile(restfulMock).getDefinitions().get(0).getResponse();
+        Mockito.when(req.requestMethod()).thenReturn("GET");
+        Mockito.when(req.headers(HttpHeaders.IF_NONE_MATCH)).thenReturn("W/" + outcome.getETag());
+        Mockito.when(res.raw()).thenReturn(rawResponse);
+
+        // Test
+        engine.writePreEncodedResponse(outcome, req, res);
+
+        // Assertions
+        Mockito.verify(rawResponse).setStatus(HttpStatus.NOT_MODIFIED.value());
+        Mockito.verify(rawResponse, Mockito.never()).getOutputStream();
+    }
+
+    @Test
+    public void delayResponse_Test() {
+
+        // Setup
+        Mockito.when(req.attribute(DelayedResponseHandler.SUPPORTED_ATTRIBUTE)).thenReturn(Boolean.TRUE);
+
+        // Test
+        final long start = System.currentTimeMillis();
+        final boolean result = engine.delayResponse(req, 2000);
+
+        // Assertions
+        Assert.assertTrue(result);
+        Assert.assertTrue((System.currentTimeMillis() - start) < 2000);
+        Mockito.verify(req).attribute(DelayedResponseHandler.DELAY_ATTRIBUTE, 2000L);
+    }
+
+    @Test
+    public void delayResponse_noDelay_Test() {
+
+        // Setup
+        Mockito.when(req.attribute(DelayedResponseHandler.SUPPORTED_ATTRIBUTE)).thenReturn(Boolean.TRUE);
+
+        // Test
+        final boolean result = engine.delayResponse(req, 0);
+
+        // Assertions
+        Assert.assertFalse(result);
+        Mockito.verify(req, Mockito.never()).attribute(Mockito.eq(DelayedResponseHandler.DELAY_ATTRIBUTE), Mockito.any());
+    }
+
+    @Test
+    public void delayResponse_unsupported_Test() {
+
+        // Test
+        final long start = System.currentTimeMillis();
+        final boolean result = engine.delayResponse(req, 100);
+
+        // Assertions
+        Assert.assertFalse(result);
+        Assert.assertTrue((System.currentTimeMillis() - start) >= 100);
+        Mockito.verify(req, Mockito.never()).attribute(Mockito.eq(DelayedResponseHandler.DELAY_ATTRIBUTE), Mockito.any());
+    }
+
+    @Test
+    public void deferResponse_Test() throws IOException {
+
+        // Setup
+        final RestfulResponseDTO outcome = compile(restfulMock).getDefinitions().get(0).getResponse();
+        Mockito.when(req.requestMethod()).thenReturn("GET");
+        Mockito.when(res.raw()).thenReturn(rawResponse);
+        Mockito.when(rawResponse.getOutputStream()).thenReturn(outputStream);
+
+        // Test
+        engine.deferResponse(outcome, req, res);
+
+        // Assertions
+        Mockito.verify(req).attribute(MockedRestServerEngine.PRE_ENCODED_BODY_ATTRIBUTE, order1.getResponseBody());
+        Mockito.verify(rawResponse, Mockito.never()).getOutputStream();
+
+        final ArgumentCaptor<DelayedResponseHandler.DelayedWrite> delayedWriteCaptor = ArgumentCaptor.forClass(DelayedResponseHandler.DelayedWrite.class);
+        Mockito.verify(req).attribute(Mockito.eq(DelayedResponseHandler.DELAYED_WRITE_ATTRIBUTE), delayedWriteCaptor.capture());
+
+        delayedWriteCaptor.getValue().write();
+
+        Mockito.verify(rawResponse).setHeader(HttpHeaders.ETAG, outcome.getETag());
+        Mockito.verify(outputStream).write(outcome.getResponseBodyBytes());
+        Mockito.verify(outputStream).close();
+    }
+
+    @Test
+    public void isETagMatch_Test() {
+
+        // Test & Assertions
+        Assert.assertFalse(engine.isETagMatch(null, "\"abc\""));
+        Assert.assertFalse(engine.isETagMatch("\"xyz\"", "\"abc\""));
+        Assert.assertTrue(engine.isETagMatch("\"abc\"", "\"abc\""));
+        Assert.assertTrue(engine.isETagMatch("\"xyz\", W/\"abc\"", "\"abc\""));
+        Assert.assertTrue(engine.isETagMatch("*", "\"abc\""));
+    }
+
+    @Test
+    public void buildConnectorConfig_defaults_Test() {
+
+        // Setup
+        final MockedServerConfigDTO config = new MockedServerConfigDTO();
+        config.setPort(8001);
+
+        // Test
+        final JettyConnectorConfig result = engine.buildConnectorConfig(config);
+
+        // Assertions
+        Assert.assertEquals(8001, result.getPort());
+        Assert.assertEquals(JettyConnectorConfig.DEFAULT_ACCEPTORS, result.getAcceptors());
+        Assert.assertEquals(JettyConnectorConfig.DEFAULT_SELECTORS, result.getSelectors());
+        Assert.assertEquals(JettyConnectorConfig.DEFAULT_ACCEPT_QUEUE_SIZE, result.getAcceptQueueSize());
+        Assert.assertEquals(JettyConnectorConfig.DEFAULT_IDLE_TIMEOUT_MILLIS, result.getIdleTimeoutMillis());
+        Assert.assertEquals(JettyConnectorConfig.DEFAULT_MAX_KEEP_ALIVE_REQUESTS, result.getMaxKeepAliveRequests());
+        Assert.assertFalse(result.isH2cEnabled());
+    }
+
+    @Test
+    public void buildConnectorConfig_Test() {
+
+        // Setup
+        final MockedServerConfigDTO config = new MockedServerConfigDTO();
+        config.setPort(8001);
+        config.getNativeProperties().put(GeneralUtils.CONNECTOR_ACCEPTORS_PARAM, "2");
+        config.getNativeProperties().put(GeneralUtils.CONNECTOR_SELECTORS_PARAM, "8");
+        config.getNativeProperties().put(GeneralUtils.CONNECTOR_ACCEPT_QUEUE_SIZE_PARAM, "4096");
+        config.getNativeProperties().put(GeneralUtils.CONNECTOR_IDLE_TIMEOUT_MILLIS_PARAM, "15000");
+        config.getNativeProperties().put(GeneralUtils.MAX_KEEP_ALIVE_REQUESTS_PARAM, "1000");
+        config.getNativeProperties().put(GeneralUtils.H2C_ENABLED_PARAM, "TRUE");
+
+        // Test
+        final JettyConnectorConfig result = engine.buildConnectorConfig(config);
+
+        // Assertions
+        Assert.assertEquals(2, result.getAcceptors());
+        Assert.assertEquals(8, result.getSelectors());
+        Assert.assertEquals(4096, result.getAcceptQueueSize());
+        Assert.assertEquals(15000, result.getIdleTimeoutMillis());
+        Assert.assertEquals(1000, result.getMaxKeepAliveRequests());
+        Assert.assertTrue(result.isH2cEnabled());
+    }
+
+    @Test
+    public void buildRoutingSnapshot_Test() {
+
+        // Setup
+        final SmockinUser user = new SmockinUser();
+        user.setRole(SmockinUserRoleEnum.REGULAR);
+        user.setCtxPath("bob");
+
+        restfulMock.setId(1);
+        restfulMock.setPath("/pets/:id");
+        restfulMock.setMethod(RestMethodEnum.GET);
+        restfulMock.setMockType(RestMockTypeEnum.SEQ);
+        restfulMock.setCreatedBy(user);
+
+        final RestfulMock wsMock = new RestfulMock();
+        wsMock.setId(2);
+        wsMock.setPath("/chat");
+        wsMock.setMethod(RestMethodEnum.GET);
+        wsMock.setMockType(RestMockTypeEnum.PROXY_WS);
+        wsMock.setCreatedBy(user);
+
+        // Test
+        final List<RestfulMock> mocks = Arrays.asList(restfulMock, wsMock);
+        final MockRoutingSnapshot<CompiledRestfulMock> snapshot = engine.buildRoutingSnapshot(engine.compileMocks(mocks), engine.buildDeployedMocks(mocks));
+
+        // Assertions
+        Assert.assertEquals(2, snapshot.getDeployedMocks().size());
+        Assert.assertEquals(1, snapshot.getRoutes().size());
+        Assert.assertEquals(1, snapshot.getRoutes().match(RestMethodEnum.GET, "/bob/pets/123").getTarget().getId());
+        Assert.assertEquals("/bob/pets/:id", snapshot.getRoutes().match(RestMethodEnum.GET, "/bob/pets/123").getTarget().getUserPath());
+        Assert.assertNull(snapshot.getRoutes().match(RestMethodEnum.GET, "/bob/chat"));
+    }
+
+    @Test
+    public void isRestartRequired_NotStarted_Test() {
+
+        // Test
+        final boolean result = engine.isRestartRequired(MockedRestServerEngine.DEFAULT_INSTANCE, new MockedServerConfigDTO(), new ArrayList<>());
+
+        // Assertions
+        Assert.assertTrue(result);
+    }
+
+    @Test
+    public void getInstanceState_NotStarted_Test() {
+
+        // Test
+        final MockServerState result = engine.getInstanceState("team-a");
+
+        // Assertions
+        Assert.assertFalse(result.isRunning());
+        Assert.assertEquals(0, result.getPort());
+    }
+
+    @Test
+    public void loadDeployedMocks_NotStarted_Test() {
+
+        // Test
+        final Map<Long, Date> result = engine.loadDeployedMocks();
+
+        // Assertions
+        Assert.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void shutdownInstance_NotStarted_Test() {
+
+        // Test
+        engine.shutdownInstance("team-a");
+
+        // Assertions
+        Mockito.verify(mockOrderingCounterService, Mockito.never()).clearState(Mockito.anyString());
+    }
+
+    @Test
+    public void redeployProxyServer_unchanged_Test() {
+
+        // Setup
+        final MockedServerConfigDTO config = buildProxyConfig();
+        restfulMock.setPath("/pets");
+        restfulMock.setMethod(RestMethodEnum.GET);
+        restfulMock.setMockType(RestMockTypeEnum.SEQ);
+        final List<CompiledRestfulMock> activeMocks = Arrays.asList(compile(restfulMock));
+        engine.initProxyServer(activeMocks, config);
+
+        // Test
+        engine.redeployProxyServer(Arrays.asList(compile(restfulMock)), config);
+
+        // Assertions
+        // The proxy's listening socket is left open
+        Mockito.verify(proxyServer, Mockito.times(1)).start(Mockito.eq(config), Mockito.anyList());
+        Mockito.verify(proxyServer, Mockito.never()).shutdown();
+    }
+
+    @Test
+    public void redeployProxyServer_changed_Test() {
+
+        // Setup
+        final MockedServerConfigDTO config = buildProxyConfig();
+        restfulMock.setPath("/pets");
+        restfulMock.setMethod(RestMethodEnum.GET);
+        restfulMock.setMockType(RestMockTypeEnum.SEQ);
+        engine.initProxyServer(Arrays.asList(compile(restfulMock)), config);
+
+        restfulMock.setPath("/owners");
+
+        // Test
+        engine.redeployProxyServer(Arrays.asList(compile(restfulMock)), config);
+
+        // Assertions
+        Mockito.verify(proxyServer, Mockito.times(2)).start(Mockito.eq(config), Mockito.anyList());
+        Mockito.verify(proxyServer).shutdown();
+    }
+
+    @Test
+    public void redeployProxyServer_disabled_Test() {
+
+        // Setup
+        restfulMock.setPath("/pets");
+        restfulMock.setMethod(RestMethodEnum.GET);
+        restfulMock.setMockType(RestMockTypeEnum.SEQ);
+
+        // Test
+        engine.redeployProxyServer(Arrays.asList(compile(restfulMock)), new MockedServerConfigDTO());
+
+        // Assertions
+        Mockito.verifyZeroInteractions(proxyServer);
+    }
+
+    @Test
+    public void clearState_Test() {
+
+        // Setup
+        final List<CompiledRestfulMock> mocks = buildPushMocks();
+
+        // Test
+        engine.clearState("team-a", mocks);
+
+        // Assertions
+        // Only the given instance's push connections are dropped, and only the default instance clears proxy server state.
+        Mockito.verify(mockOrderingCounterService).clearState(mocks.get(0).getExtId());
+        Mockito.verify(mockOrderingCounterService, Mockito.never()).clearState();
+        Mockito.verify(serverSideEventService).clearState(new HashSet<>(Arrays.asList("/bob/events")));
+        Mockito.verify(webSocketService).clearSessions(new HashSet<>(Arrays.asList("/bob/chat")));
+        Mockito.verify(proxyService, Mockito.never()).clearAllSessions();
+    }
+
+    @Test
+    public void clearState_defaultInstance_Test() {
+
+        // Setup
+        final List<CompiledRestfulMock> mocks = buildPushMocks();
+
+        // Test
+        engine.clearState(MockedRestServerEngine.DEFAULT_INSTANCE, mocks);
+
+        // Assertions
+        Mockito.verify(serverSideEventService).clearState(new HashSet<>(Arrays.asList("/bob/events")));
+        Mockito.verify(webSocketService).clearSessions(new HashSet<>(Arrays.asList("/bob/chat")));
+        Mockito.verify(proxyService).clearAllSessions();
+    }
+
+    @Test
+    public void dispatch_bulkheadFull_Test() throws IOException {
+
+        // Setup
+        final MockedRestServerInstance instance = buildBulkheadInstance();
+        final CompiledRestfulMock mock = instance.getRoutingSnapshot().getRoutes().match(RestMethodEnum.GET, "/bob/pets").getTarget();
+        Mockito.when(req.uri()).thenReturn("/bob/pets");
+
+        Assert.assertTrue(mock.getBulkhead().tryEnter());
+
+        // Test
+        final String result = engine.dispatch(instance, RestMethodEnum.GET, req, res, false);
+
+        // Assertions
+        Assert.assertEquals(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase(), result);
+        Mockito.verify(res).status(HttpStatus.TOO_MANY_REQUESTS.value());
+        Mockito.verify(res).header(HttpHeaders.RETRY_AFTER, "3");
+        Mockito.verify(engine, Mockito.never()).processRequest(Mockito.any(CompiledRestfulMock.class), Mockito.any(Request.class), Mockito.any(Response.class));
+    }
+
+    @Test
+    public void dispatch_bulkheadAdmittedByHandler_Test() throws IOException {
+
+        // Setup
+        final MockedRestServerInstance instance = buildBulkheadInstance();
+        final CompiledRestfulMock mock = instance.getRoutingSnapshot().getRoutes().match(RestMethodEnum.GET, "/bob/pets").getTarget();
+        Mockito.when(req.uri()).thenReturn("/bob/pets");
+        Mockito.when(req.attribute(DelayedResponseHandler.SUPPORTED_ATTRIBUTE)).thenReturn(Boolean.TRUE);
+        Mockito.doReturn("").when(engine).processRequest(mock, req, res);
+
+        Assert.assertTrue(mock.getBulkhead().tryEnter());
+
+        // Test
+        engine.dispatch(instance, RestMethodEnum.GET, req, res, false);
+
+        // Assertions
+        // Admitted (and later released) by the DelayedResponseHandler, so the bulkhead is left alone here
+        Assert.assertEquals(1, mock.getBulkhead().getInFlight());
+        Mockito.verify(engine).processRequest(mock, req, res);
+        Mockito.verify(req, Mockito.never()).attribute(Mockito.eq(DelayedResponseHandler.COMPLETION_ATTRIBUTE), Mockito.any());
+    }
+
+    @Test
+    public void findBulkhead_Test() {
+
+        // Setup
+        final MockedRestServerInstance instance = buildBulkheadInstance();
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getMethod()).thenReturn("GET");
+        Mockito.when(request.getRequestURI()).thenReturn("/bob/pets");
+
+        // Test
+        final MockBulkhead result = engine.findBulkhead(instance, request);
+
+        // Assertions
+        Assert.assertNotNull(result);
+        Assert.assertSame(instance.getRoutingSnapshot().getMocks().get(1L).getBulkhead(), result);
+        Mockito.verify(request).setAttribute(Mockito.eq(MockRouteMatch.REQUEST_ATTRIBUTE), Mockito.any(MockRouteMatch.class));
+    }
+
+    @Test
+    public void findBulkhead_notFound_Test() {
+
+        // Setup
+        final MockedRestServerInstance instance = buildBulkheadInstance();
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getMethod()).thenReturn("HEAD");
+        Mockito.when(request.getRequestURI()).thenReturn("/bob/pets");
+
+        // Test
+        final MockBulkhead result = engine.findBulkhead(instance, request);
+
+        // Assertions
+        Assert.assertNull(result);
+        Mockito.verify(request, Mockito.never()).setAttribute(Mockito.anyString(), Mockito.any());
+    }
+
+    @Test
+    public void dispatch_bulkheadReleased_Test() throws IOException {
+
+        // Setup
+        final MockedRestServerInstance instance = buildBulkheadInstance();
+        final CompiledRestfulMock mock = instance.getRoutingSnapshot().getRoutes().match(RestMethodEnum.GET, "/bob/pets").getTarget();
+        Mockito.when(req.uri()).thenReturn("/bob/pets");
+        Mockito.doReturn("").when(engine).processRequest(mock, req, res);
+
+        // Test
+        engine.dispatch(instance, RestMethodEnum.GET, req, res, false);
+
+        // Assertions
+        Assert.assertEquals(0, mock.getBulkhead().getInFlight());
+        Mockito.verify(req, Mockito.never()).attribute(Mockito.eq(DelayedResponseHandler.COMPLETION_ATTRIBUTE), Mockito.any());
+    }
+
+    @Test
+    public void processRequest_streamedTemplate_Test() throws IOException {
+
+        // Setup
+        final String literal = StringUtils.repeat("Hello ", MockedRestServerEngine.STREAMED_TEMPLATE_MIN_LENGTH / 6 + 1);
+        order1.setResponseBody(literal + "${REQ_HEAD=name} \u00e9\ud83d\ude00");
+        restfulMock.setMockType(RestMockTypeEnum.SEQ);
+        final CompiledRestfulMock mock = compile(restfulMock);
+        final CapturingOutputStream out = new CapturingOutputStream();
+        Mockito.when(mockOrderingCounterService.process(mock)).thenReturn(mock.getDefinitions().get(0).getResponse());
+        Mockito.when(req.headers()).thenReturn(new HashSet<>(Arrays.asList("name")));
+        Mockito.when(req.headers("name")).thenReturn("Bob");
+        Mockito.when(res.raw()).thenReturn(rawResponse);
+        Mockito.when(rawResponse.getOutputStream()).thenReturn(out);
+
+        // Test
+        final String result = engine.processRequest(mock, req, res);
+
+        // Assertions
+        final String expected = literal + "Bob \u00e9\ud83d\ude00";
+        Assert.assertEquals("", result);
+        Assert.assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        Assert.assertTrue(out.closed);
+        Mockito.verify(rawResponse, Mockito.never()).setContentLength(Mockito.anyInt());
+        Mockito.verify(rawResponse).addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        Mockito.verify(rawResponse, Mockito.never()).setHeader(Mockito.eq(HttpHeaders.CONTENT_ENCODING), Mockito.anyString());
+        Mockito.verify(req).attribute(MockedRestServerEngine.PRE_ENCODED_BODY_ATTRIBUTE,
+                "(streamed templated body of " + expected.getBytes(StandardCharsets.UTF_8).length + " bytes)");
+    }
+
+    @Test
+    public void writeStreamedTemplateResponse_gzip_Test() throws IOException {
+
+        // Setup
+        final String literal = StringUtils.repeat("HelloWorld ", MockedRestServerEngine.STREAMED_TEMPLATE_MIN_LENGTH / 11 + 1);
+        order1.setResponseBody("${REQ_HEAD=name}" + literal);
+        final RestfulResponseDTO outcome = compile(restfulMock).getDefinitions().get(0).getResponse();
+        final CapturingOutputStream out = new CapturingOutputStream();
+        Mockito.when(req.headers()).thenReturn(new HashSet<>(Arrays.asList("name")));
+        Mockito.when(req.headers("name")).thenReturn("Bob");
+        Mockito.when(req.headers(HttpHeaders.ACCEPT_ENCODING)).thenReturn("gzip, deflate");
+        Mockito.when(res.raw()).thenReturn(rawResponse);
+        Mockito.when(rawResponse.getOutputStream()).thenReturn(out);
+
+        // Test
+        engine.writeStreamedTemplateResponse(outcome, req, res);
+
+        // Assertions
+        Mockito.verify(rawResponse).setHeader(HttpHeaders.CONTENT_ENCODING, CompressionUtils.GZIP);
+        Assert.assertTrue(out.size() < literal.length());
+        Assert.assertEquals("Bob" + literal, new String(readFully(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writeStreamedTemplateResponse_gzipFailure_Test() throws IOException {
+
+        // Setup
+        final String literal = StringUtils.repeat("HelloWorld ", MockedRestServerEngine.STREAMED_TEMPLATE_MIN_LENGTH / 11 + 1);
+        order1.setResponseBody("${REQ_HEAD=name}" + literal);
+        final RestfulResponseDTO outcome = compile(restfulMock).getDefinitions().get(0).getResponse();
+        final CapturingOutputStream out = new CapturingOutputStream();
+        Mockito.when(req.headers(HttpHeaders.ACCEPT_ENCODING)).thenReturn("gzip");
+        Mockito.when(res.raw()).thenReturn(rawResponse);
+        Mockito.when(rawResponse.getOutputStream()).thenReturn(out);
+        Mockito.doThrow(new IllegalStateException("Render failed"))
+                .when(inboundParamMatchService).streamInboundParamMatches(Mockito.any(Request.class), Mockito.any(ResponseTemplate.class), Mockito.any(Writer.class));
+
+        // Test
+        try {
+            engine.writeStreamedTemplateResponse(outcome, req, res);
+            Assert.fail();
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("Render failed", ex.getMessage());
+        }
+
+        // Assertions
+        // Only the gzip header was written, with no trailer, and the response is left for Spark to fail.
+        Assert.assertEquals(10, out.size());
+        Assert.assertFalse(out.closed);
+        Mockito.verify(req, Mockito.never()).attribute(Mockito.eq(MockedRestServerEngine.PRE_ENCODED_BODY_ATTRIBUTE), Mockito.any());
+    }
+
+    private byte[] readFully(final InputStream in) throws IOException {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int read;
+
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+
+        return out.toByteArray();
+    }
+
+    private static final class CapturingOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private boolean closed;
+
+        @Override
+        public void write(final int b) {
+            bytes.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            bytes.write(b, off, len);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+        }
+
+        private byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+
+        private int size() {
+            return bytes.size();
+        }
+
+    }
+
+    private MockedRestServerInstance buildBulkheadInstance() {
+
+        final SmockinUser user = new SmockinUser();
+        user.setRole(SmockinUserRoleEnum.REGULAR);
+        user.setCtxPath("bob");
+
+        restfulMock.setId(1);
+        restfulMock.setPath("/pets");
+        restfulMock.setMethod(RestMethodEnum.GET);
+        restfulMock.setMockType(RestMockTypeEnum.SEQ);
+        restfulMock.setCreatedBy(user);
+        restfulMock.setMaxConcurrentRequests(1);
+        restfulMock.setOverloadStatusCode(HttpStatus.TOO_MANY_REQUESTS.value());
+        restfulMock.setOverloadRetryAfterSeconds(3);
+
+        final List<RestfulMock> mocks = Arrays.asList(restfulMock);
+
+        final MockedRestServerInstance instance = new MockedRestServerInstance("team-a", null, null, Collections.emptySet());
+        instance.setRoutingSnapshot(engine.buildRoutingSnapshot(engine.compileMocks(mocks), engine.buildDeployedMocks(mocks)));
+
+        return instance;
+    }
+
+    private MockedServerConfigDTO buildProxyConfig() {
+
+        final MockedServerConfigDTO config = new MockedServerConfigDTO();
+        config.getNativeProperties().put(GeneralUtils.PROXY_SERVER_ENABLED_PARAM, Boolean.TRUE.toString());
+
+        return config;
+    }
+
+    // An SSE mock and a web socket mock, along side a SEQ mock.
+    private List<CompiledRestfulMock> buildPushMocks() {
+
+        final RestfulMock sseMock = new RestfulMock();
+        sseMock.setExtId("sse1");
+        sseMock.setPath("/bob/events");
+        sseMock.setMethod(RestMethodEnum.GET);
+        sseMock.setMockType(RestMockTypeEnum.PROXY_SSE);
+
+        final RestfulMock wsMock = new RestfulMock();
+        wsMock.setExtId("ws1");
+        wsMock.setPath("/bob/chat");
+        wsMock.setMethod(RestMethodEnum.GET);
+        wsMock.setMockType(RestMockTypeEnum.PROXY_WS);
+
+        restfulMock.setExtId("seq1");
+        restfulMock.setPath("/bob/pets");
+        restfulMock.setMethod(RestMethodEnum.GET);
+        restfulMock.setMockType(RestMockTypeEnum.SEQ);
+
+        return Arrays.asList(compile(restfulMock), compile(sseMock), compile(wsMock));
+    }
+
+    private CompiledRestfulMock compile(final RestfulMock mock) {
+        return restfulMockCompiler.compile(mock, mock.getPath());
+    }
+
 }
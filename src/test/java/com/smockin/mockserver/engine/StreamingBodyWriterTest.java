@@ -0,0 +1,123 @@
+package com.smockin.mockserver.engine;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Created by mgallina.
+ */
+public class StreamingBodyWriterTest {
+
+    @Test
+    public void write_Test() throws IOException {
+
+        // Setup
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final String body = StringUtils.repeat("Caf\u00e9 \ud83d\ude00 ", 3000);
+
+        // Test
+        final StreamingBodyWriter writer = StreamingBodyWriter.open(out);
+        writer.write(body.toCharArray(), 0, 1000);
+        writer.write(body, 1000, body.length() - 1001);
+        writer.write(body.charAt(body.length() - 1));
+        writer.close();
+
+        // Assertions
+        final byte[] expected = body.getBytes(StandardCharsets.UTF_8);
+        Assert.assertArrayEquals(expected, out.toByteArray());
+        Assert.assertEquals(expected.length, writer.getBytesWritten());
+    }
+
+    @Test
+    public void write_surrogatePairSplitAcrossBuffers_Test() throws IOException {
+
+        // Setup
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final String body = StringUtils.repeat("a", StreamingBodyWriter.CHAR_BUFFER_SIZE - 1) + "\ud83d\ude00";
+
+        // Test
+        final StreamingBodyWriter writer = StreamingBodyWriter.open(out);
+        writer.write(body);
+        writer.close();
+
+        // Assertions
+        Assert.assertEquals(body, new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void write_loneSurrogateReplaced_Test() throws IOException {
+
+        // Setup
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final String body = "a\ud83db";
+
+        // Test
+        final StreamingBodyWriter writer = StreamingBodyWriter.open(out);
+        writer.write(body);
+        writer.close();
+
+        // Assertions
+        Assert.assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    @Test
+    public void open_buffersReused_Test() throws IOException {
+
+        // Setup
+        final ByteArrayOutputStream first = new ByteArrayOutputStream();
+        final ByteArrayOutputStream second = new ByteArrayOutputStream();
+
+        // Test
+        final StreamingBodyWriter abandoned = StreamingBodyWriter.open(first);
+        abandoned.write("Partial \ud83d");
+        abandoned.abandon();
+
+        final StreamingBodyWriter writer = StreamingBodyWriter.open(second);
+        writer.write("Hello");
+        writer.close();
+
+        // Assertions
+        // Nothing held over from the abandoned writer
+        Assert.assertEquals(0, first.size());
+        Assert.assertEquals("Hello", new String(second.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void open_nested_Test() throws IOException {
+
+        // Setup
+        final ByteArrayOutputStream outer = new ByteArrayOutputStream();
+        final ByteArrayOutputStream inner = new ByteArrayOutputStream();
+
+        // Test
+        final StreamingBodyWriter outerWriter = StreamingBodyWriter.open(outer);
+        outerWriter.write("Outer");
+
+        final StreamingBodyWriter innerWriter = StreamingBodyWriter.open(inner);
+        innerWriter.write("Inner");
+        innerWriter.close();
+
+        outerWriter.close();
+
+        // Assertions
+        Assert.assertEquals("Outer", new String(outer.toByteArray(), StandardCharsets.UTF_8));
+        Assert.assertEquals("Inner", new String(inner.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IOException.class)
+    public void write_closed_Test() throws IOException {
+
+        // Setup
+        final StreamingBodyWriter writer = StreamingBodyWriter.open(new ByteArrayOutputStream());
+        writer.close();
+
+        // Test
+        writer.write("Hello");
+    }
+
+}
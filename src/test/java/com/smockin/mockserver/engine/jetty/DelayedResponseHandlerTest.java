@@ -0,0 +1,362 @@
+package com.smockin.mockserver.engine.jetty;
+
+import com.smockin.mockserver.service.bean.MockBulkhead;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by mgallina.
+ */
+public class DelayedResponseHandlerTest {
+
+    private DelayedResponseHandler handler;
+    private Handler sparkHandler;
+    private Request baseRequest;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private ServletOutputStream outputStream;
+    private AsyncContext asyncContext;
+    private HttpServletResponse sparkResponse;
+
+    private final byte[] body = "Hello World".getBytes(StandardCharsets.UTF_8);
+
+    @Before
+    public void setUp() throws Exception {
+
+        // Manually mocked, as the delayed responses are completed from other threads.
+        sparkHandler = Mockito.mock(Handler.class);
+        baseRequest = Mockito.mock(Request.class);
+        request = Mockito.mock(HttpServletRequest.class);
+        response = Mockito.mock(HttpServletResponse.class);
+        outputStream = Mockito.mock(ServletOutputStream.class);
+        asyncContext = Mockito.mock(AsyncContext.class);
+
+        Mockito.when(response.getOutputStream()).thenReturn(outputStream);
+        Mockito.when(request.startAsync(request, response)).thenReturn(asyncContext);
+
+        // Runs the delayed write straight away on the timer thread.
+        Mockito.doAnswer(invocation -> {
+            ((Runnable) invocation.getArguments()[0]).run();
+            return null;
+        }).when(asyncContext).start(Matchers.any(Runnable.class));
+
+        // Writes the body as Spark would, via the response handed to it.
+        Mockito.doAnswer(invocation -> {
+            sparkResponse = (HttpServletResponse) invocation.getArguments()[3];
+            sparkResponse.getOutputStream().write(body);
+            return null;
+        }).when(sparkHandler).handle(Matchers.anyString(), Matchers.any(Request.class), Matchers.any(HttpServletRequest.class), Matchers.any(HttpServletResponse.class));
+
+        // Writes the body as the mock server engine would, once the delay has passed.
+        Mockito.when(request.getAttribute(DelayedResponseHandler.DELAYED_WRITE_ATTRIBUTE))
+                .thenReturn((DelayedResponseHandler.DelayedWrite) () -> sparkResponse.getOutputStream().write(body));
+
+        handler = new DelayedResponseHandler(sparkHandler);
+        handler.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        handler.stop();
+    }
+
+    @Test
+    public void handle_noDelay_Test() throws Exception {
+
+        // Test
+        handler.handle("/pets", baseRequest, request, response);
+
+        // Assertions
+        Mockito.verify(request).setAttribute(DelayedResponseHandler.SUPPORTED_ATTRIBUTE, Boolean.TRUE);
+        Mockito.verify(outputStream).write(body);
+        Mockito.verify(request, Mockito.never()).startAsync(request, response);
+    }
+
+    @Test
+    public void handle_delay_Test() throws Exception {
+
+        // Setup
+        Mockito.when(request.getAttribute(DelayedResponseHandler.DELAY_ATTRIBUTE)).thenReturn(200L);
+
+        // Test
+        final long start = System.currentTimeMillis();
+        handler.handle("/pets", baseRequest, request, response);
+
+        // Assertions
+        Assert.assertTrue((System.currentTimeMillis() - start) < 200);
+        Mockito.verify(request).startAsync(request, response);
+        Mockito.verify(asyncContext).setTimeout(0);
+
+        Mockito.verify(asyncContext, Mockito.timeout(2000)).complete();
+        // Only the delayed write reaches the client, with that made by Spark being discarded
+        Mockito.verify(outputStream).write(body);
+        Assert.assertTrue((System.currentTimeMillis() - start) >= 200);
+    }
+
+    @Test
+    public void handle_delayedWriteError_Test() throws Exception {
+
+        // Setup
+        final Runnable completion = Mockito.mock(Runnable.class);
+        Mockito.when(request.getAttribute(DelayedResponseHandler.DELAY_ATTRIBUTE)).thenReturn(200L);
+        Mockito.when(request.getAttribute(DelayedResponseHandler.COMPLETION_ATTRIBUTE)).thenReturn(completion);
+        Mockito.when(request.getAttribute(DelayedResponseHandler.DELAYED_WRITE_ATTRIBUTE))
+                .thenReturn((DelayedResponseHandler.DelayedWrite) () -> { throw new IllegalStateException(); });
+
+        // Test
+        handler.handle("/pets", baseRequest, request, response);
+
+        // Assertions
+        Mockito.verify(completion, Mockito.timeout(2000)).run();
+        Mockito.verify(asyncContext).complete();
+        Mockito.verify(outputStream, Mockito.never()).write(body);
+    }
+
+    @Test
+    public void handle_delayAlreadyCommitted_Test() throws Exception {
+
+        // Setup
+        Mockito.when(request.getAttribute(DelayedResponseHandler.DELAY_ATTRIBUTE)).thenReturn(200L);
+        Mockito.when(response.isCommitted()).thenReturn(true);
+
+        // Test
+        handler.handle("/pets", baseRequest, request, response);
+
+        // Assertions
+        Mockito.verify(request, Mockito.never()).startAsync(request, response);
+    }
+
+    @Test
+    public void handle_completionNoDelay_Test() throws Exception {
+
+        // Setup
+        final Runnable completion = Mockito.mock(Runnable.class);
+        Mockito.when(request.getAttribute(DelayedResponseHandler.COMPLETION_ATTRIBUTE)).thenReturn(completion);
+
+        // Test
+        handler.handle("/pets", baseRequest, request, response);
+
+        // Assertions
+        Mockito.verify(request).removeAttribute(DelayedResponseHandler.COMPLETION_ATTRIBUTE);
+        Mockito.verify(completion).run();
+    }
+
+    @Test
+    public void handle_completionDelay_Test() throws Exception {
+
+        // Setup
+        final CountDownLatch completed = new CountDownLatch(1);
+        Mockito.when(request.getAttribute(DelayedResponseHandler.DELAY_ATTRIBUTE)).thenReturn(200L);
+        Mockito.when(request.getAttribute(DelayedResponseHandler.COMPLETION_ATTRIBUTE)).thenReturn((Runnable) completed::countDown);
+
+        // Test
+        handler.handle("/pets", baseRequest, request, response);
+
+        // Assertions
+        // Not called until the delayed response has been written
+        Assert.assertEquals(1, completed.getCount());
+        Assert.assertTrue(completed.await(2, TimeUnit.SECONDS));
+        Mockito.verify(outputStream).write(body);
+        Mockito.verify(asyncContext).complete();
+    }
+
+    @Test
+    public void handle_completionOnError_Test() throws Exception {
+
+        // Setup
+        final Runnable completion = Mockito.mock(Runnable.class);
+        Mockito.when(request.getAttribute(DelayedResponseHandler.COMPLETION_ATTRIBUTE)).thenReturn(completion);
+        Mockito.doThrow(new IllegalStateException()).when(sparkHandler).handle(Matchers.anyString(), Matchers.any(Request.class), Matchers.any(HttpServletRequest.class), Matchers.any(HttpServletResponse.class));
+
+        // Test
+        try {
+            handler.handle("/pets", baseRequest, request, response);
+            Assert.fail();
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+
+        // Assertions
+        Mockito.verify(completion).run();
+    }
+
+    @Test
+    public void handle_bulkheadEntered_Test() throws Exception {
+
+        // Setup
+        final MockBulkhead bulkhead = new MockBulkhead(1, 0, 429, 3);
+        final DelayedResponseHandler bulkheadHandler = startBulkheadHandler(bulkhead);
+        Mockito.when(request.getAttribute(DelayedResponseHandler.COMPLETION_ATTRIBUTE)).thenAnswer(invocation -> (Runnable) bulkhead::exit);
+
+        try {
+
+            // Test
+            bulkheadHandler.handle("/pets", baseRequest, request, response);
+
+            // Assertions
+            Mockito.verify(outputStream).write(body);
+            Mockito.verify(request).setAttribute(Matchers.eq(DelayedResponseHandler.COMPLETION_ATTRIBUTE), Matchers.any(Runnable.class));
+            Assert.assertEquals(0, bulkhead.getInFlight());
+
+        } finally {
+            bulkheadHandler.stop();
+        }
+
+    }
+
+    @Test
+    public void handle_bulkheadFull_Test() throws Exception {
+
+        // Setup
+        final MockBulkhead bulkhead = new MockBulkhead(1, 0, 429, 3);
+        final DelayedResponseHandler bulkheadHandler = startBulkheadHandler(bulkhead);
+
+        Assert.assertTrue(bulkhead.tryEnter());
+
+        try {
+
+            // Test
+            bulkheadHandler.handle("/pets", baseRequest, request, response);
+
+            // Assertions
+            // Shed straight away, without going async
+            Mockito.verify(response).setStatus(429);
+            Mockito.verify(response).setHeader("Retry-After", "3");
+            Mockito.verify(outputStream).write("Too Many Requests".getBytes(StandardCharsets.UTF_8));
+            Mockito.verify(request, Mockito.never()).startAsync(request, response);
+            Mockito.verify(sparkHandler, Mockito.never()).handle(Matchers.anyString(), Matchers.any(Request.class), Matchers.any(HttpServletRequest.class), Matchers.any(HttpServletResponse.class));
+
+        } finally {
+            bulkheadHandler.stop();
+        }
+
+    }
+
+    @Test
+    public void handle_bulkheadQueued_Test() throws Exception {
+
+        // Setup
+        final MockBulkhead bulkhead = new MockBulkhead(1, 1, 503, 0);
+        final DelayedResponseHandler bulkheadHandler = startBulkheadHandler(bulkhead);
+
+        Assert.assertTrue(bulkhead.tryEnter());
+
+        try {
+
+            // Test
+            bulkheadHandler.handle("/pets", baseRequest, request, response);
+
+            // Assertions
+            // Parked in async mode, rather than holding the request thread
+            Mockito.verify(request).startAsync(request, response);
+            Mockito.verify(asyncContext, Mockito.never()).dispatch();
+            Mockito.verify(sparkHandler, Mockito.never()).handle(Matchers.anyString(), Matchers.any(Request.class), Matchers.any(HttpServletRequest.class), Matchers.any(HttpServletResponse.class));
+            Assert.assertEquals(1, bulkhead.getQueued());
+
+            bulkhead.exit();
+
+            // Handed the slot and re-dispatched
+            Mockito.verify(request).setAttribute(Matchers.eq(DelayedResponseHandler.COMPLETION_ATTRIBUTE), Matchers.any(Runnable.class));
+            Mockito.verify(asyncContext).dispatch();
+            Assert.assertEquals(0, bulkhead.getQueued());
+            Assert.assertEquals(1, bulkhead.getInFlight());
+
+        } finally {
+            bulkheadHandler.stop();
+        }
+
+    }
+
+    @Test
+    public void handle_bulkheadQueueTimeout_Test() throws Exception {
+
+        // Setup
+        final MockBulkhead bulkhead = new MockBulkhead(1, 1, 503, 0, 100);
+        final DelayedResponseHandler bulkheadHandler = startBulkheadHandler(bulkhead);
+
+        Assert.assertTrue(bulkhead.tryEnter());
+
+        try {
+
+            // Test
+            bulkheadHandler.handle("/pets", baseRequest, request, response);
+
+            // Assertions
+            Mockito.verify(asyncContext, Mockito.timeout(2000)).complete();
+            Mockito.verify(response).setStatus(503);
+            Mockito.verify(response, Mockito.never()).setHeader(Matchers.eq("Retry-After"), Matchers.anyString());
+            Mockito.verify(asyncContext, Mockito.never()).dispatch();
+            Assert.assertEquals(0, bulkhead.getQueued());
+
+        } finally {
+            bulkheadHandler.stop();
+        }
+
+    }
+
+    @Test
+    public void handle_manyDelayedResponsesInFlight_Test() throws Exception {
+
+        // Setup
+        final int threadCount = 4;
+        final int requestCount = 5000;
+        final long delay = 500;
+        final CountDownLatch completed = new CountDownLatch(requestCount);
+        final ExecutorService requestThreads = Executors.newFixedThreadPool(threadCount);
+
+        Mockito.when(request.getAttribute(DelayedResponseHandler.DELAY_ATTRIBUTE)).thenReturn(delay);
+        Mockito.doAnswer(invocation -> {
+            completed.countDown();
+            return null;
+        }).when(asyncContext).complete();
+
+        // Test
+        // Were the request threads held for the delay, this would take (requestCount / threadCount) * delay.
+        final long start = System.currentTimeMillis();
+
+        for (int t = 0; t < threadCount; t++) {
+            requestThreads.submit(() -> {
+                for (int i = 0; i < requestCount / threadCount; i++) {
+                    handler.handle("/pets", baseRequest, request, response);
+                }
+                return null;
+            });
+        }
+
+        requestThreads.shutdown();
+
+        // Assertions
+        Assert.assertTrue(requestThreads.awaitTermination(delay * 4, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(completed.await(delay * 4, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(System.currentTimeMillis() - start >= delay);
+        Mockito.verify(asyncContext, Mockito.times(requestCount)).complete();
+    }
+
+    private DelayedResponseHandler startBulkheadHandler(final MockBulkhead bulkhead) throws Exception {
+
+        Mockito.when(request.getDispatcherType()).thenReturn(DispatcherType.REQUEST);
+
+        final DelayedResponseHandler bulkheadHandler = new DelayedResponseHandler(sparkHandler, r -> bulkhead);
+        bulkheadHandler.start();
+
+        return bulkheadHandler;
+    }
+
+}
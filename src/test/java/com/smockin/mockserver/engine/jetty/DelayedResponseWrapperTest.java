@@ -0,0 +1,126 @@
+package com.smockin.mockserver.engine.jetty;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Created by mgallina.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class DelayedResponseWrapperTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private ServletOutputStream outputStream;
+
+    private DelayedResponseWrapper wrapper;
+
+    @Before
+    public void setUp() throws IOException {
+
+        Mockito.when(response.getOutputStream()).thenReturn(outputStream);
+        Mockito.when(response.getCharacterEncoding()).thenReturn(StandardCharsets.UTF_8.name());
+
+        wrapper = new DelayedResponseWrapper(response, request);
+    }
+
+    @Test
+    public void getOutputStream_notDelayed_Test() throws IOException {
+
+        // Test
+        wrapper.getOutputStream().write(1);
+        wrapper.flushBuffer();
+
+        // Assertions
+        Assert.assertFalse(wrapper.isHeldBack());
+        Assert.assertSame(outputStream, wrapper.getOutputStream());
+        Mockito.verify(outputStream).write(1);
+        Mockito.verify(response).flushBuffer();
+    }
+
+    @Test
+    public void getOutputStream_delayed_Test() throws IOException {
+
+        // Setup
+        Mockito.when(request.getAttribute(DelayedResponseHandler.DELAY_ATTRIBUTE)).thenReturn(100L);
+
+        // Test
+        wrapper.getOutputStream().write("Hello".getBytes(StandardCharsets.UTF_8));
+        wrapper.flushBuffer();
+
+        // Assertions
+        Assert.assertTrue(wrapper.isHeldBack());
+        Assert.assertTrue(wrapper.isCommitted());
+        Mockito.verify(response, Mockito.never()).getOutputStream();
+        Mockito.verify(response, Mockito.never()).flushBuffer();
+        Mockito.verify(response, Mockito.never()).isCommitted();
+    }
+
+    @Test
+    public void getWriter_delayed_Test() throws IOException {
+
+        // Setup
+        Mockito.when(request.getAttribute(DelayedResponseHandler.DELAY_ATTRIBUTE)).thenReturn(100L);
+
+        // Test
+        final PrintWriter writer = wrapper.getWriter();
+        writer.write("Héllo");
+        writer.flush();
+
+        // Assertions
+        Mockito.verify(response, Mockito.never()).getWriter();
+        Mockito.verify(response, Mockito.never()).getOutputStream();
+    }
+
+    @Test
+    public void release_delayed_Test() throws IOException {
+
+        // Setup
+        Mockito.when(request.getAttribute(DelayedResponseHandler.DELAY_ATTRIBUTE)).thenReturn(100L);
+        wrapper.getOutputStream().write("Discarded".getBytes(StandardCharsets.UTF_8));
+
+        // Test
+        wrapper.release();
+        wrapper.getOutputStream().write(1);
+
+        // Assertions
+        Assert.assertFalse(wrapper.isHeldBack());
+        Assert.assertFalse(wrapper.isCommitted());
+        Assert.assertSame(outputStream, wrapper.getOutputStream());
+        Mockito.verify(outputStream).write(1);
+        Mockito.verify(outputStream, Mockito.never()).write(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    public void setStatus_delayed_Test() {
+
+        // Setup
+        Mockito.when(request.getAttribute(DelayedResponseHandler.DELAY_ATTRIBUTE)).thenReturn(100L);
+
+        // Test
+        wrapper.setStatus(201);
+        wrapper.setHeader("X-Pet", "dog");
+
+        // Assertions
+        Mockito.verify(response).setStatus(201);
+        Mockito.verify(response).setHeader("X-Pet", "dog");
+    }
+
+}
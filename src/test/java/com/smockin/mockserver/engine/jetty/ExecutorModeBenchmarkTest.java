@@ -0,0 +1,83 @@
+package com.smockin.mockserver.engine.jetty;
+
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by mgallina.
+ *
+ * Compares how each executor mode copes with a burst of blocking mock requests
+ * (i.e proxied HTTP waits or SSE streams), each of which holds onto it's thread for the duration.
+ *
+ * Timings are logged rather than asserted upon, as they depend on the build machine.
+ * The VIRTUAL mode falls back to QUEUED where the JVM does not support virtual threads.
+ */
+public class ExecutorModeBenchmarkTest {
+
+    private final Logger logger = LoggerFactory.getLogger(ExecutorModeBenchmarkTest.class);
+
+    private final int maxThreads = 100;
+    private final int queueSize = 512;
+    private final int requestCount = 2000;
+    private final long blockMillis = 50;
+
+    @Test
+    public void blockingRequests_Test() throws Exception {
+
+        for (ExecutorModeEnum mode : ExecutorModeEnum.values()) {
+
+            final ThreadPool threadPool = new MockedJettyServerFactory(mode, queueSize).buildThreadPool(maxThreads, 10, 30000);
+
+            ((LifeCycle) threadPool).start();
+
+            try {
+
+                final CountDownLatch completed = new CountDownLatch(requestCount);
+                int rejected = 0;
+
+                final long start = System.currentTimeMillis();
+
+                for (int i = 0; i < requestCount; i++) {
+                    try {
+                        threadPool.execute(() -> {
+                            block();
+                            completed.countDown();
+                        });
+                    } catch (RejectedExecutionException ex) {
+                        rejected++;
+                        completed.countDown();
+                    }
+                }
+
+                Assert.assertTrue(completed.await(60, TimeUnit.SECONDS));
+
+                final long elapsed = System.currentTimeMillis() - start;
+
+                logger.info(String.format("%-8s (%s): %d requests blocking for %dms, completed in %5dms, %4d rejected",
+                        mode, threadPool.getClass().getSimpleName(), requestCount, blockMillis, elapsed, rejected));
+
+            } finally {
+                ((LifeCycle) threadPool).stop();
+            }
+
+        }
+
+    }
+
+    private void block() {
+        try {
+            Thread.sleep(blockMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
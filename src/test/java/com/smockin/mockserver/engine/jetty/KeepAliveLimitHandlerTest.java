@@ -0,0 +1,91 @@
+package com.smockin.mockserver.engine.jetty;
+
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.HttpChannel;
+import org.eclipse.jetty.server.Request;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Created by mgallina.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class KeepAliveLimitHandlerTest {
+
+    @Mock
+    private Handler sparkHandler;
+
+    @Mock
+    private Request baseRequest;
+
+    @Mock
+    private HttpChannel httpChannel;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    private KeepAliveLimitHandler handler;
+
+    @Before
+    public void setUp() {
+
+        Mockito.when(baseRequest.getHttpChannel()).thenReturn(httpChannel);
+        Mockito.when(baseRequest.getHttpVersion()).thenReturn(HttpVersion.HTTP_1_1);
+
+        handler = new KeepAliveLimitHandler(sparkHandler, 3);
+    }
+
+    @Test
+    public void handle_belowLimit_Test() throws Exception {
+
+        // Setup
+        Mockito.when(httpChannel.getRequests()).thenReturn(2L);
+
+        // Test
+        handler.handle("/pets", baseRequest, request, response);
+
+        // Assertions
+        Mockito.verify(response, Mockito.never()).setHeader("Connection", "close");
+        Mockito.verify(sparkHandler).handle("/pets", baseRequest, request, response);
+    }
+
+    @Test
+    public void handle_limitReached_Test() throws Exception {
+
+        // Setup
+        Mockito.when(httpChannel.getRequests()).thenReturn(3L);
+
+        // Test
+        handler.handle("/pets", baseRequest, request, response);
+
+        // Assertions
+        Mockito.verify(response).setHeader("Connection", "close");
+        Mockito.verify(sparkHandler).handle("/pets", baseRequest, request, response);
+    }
+
+    @Test
+    public void handle_http2_Test() throws Exception {
+
+        // Setup
+        Mockito.when(baseRequest.getHttpVersion()).thenReturn(HttpVersion.HTTP_2);
+        Mockito.when(httpChannel.getRequests()).thenReturn(10L);
+
+        // Test
+        handler.handle("/pets", baseRequest, request, response);
+
+        // Assertions
+        Mockito.verify(response, Mockito.never()).setHeader("Connection", "close");
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.smockin.mockserver.engine.jetty;
+
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+
+/**
+ * Created by mgallina.
+ */
+public class MockedJettyServerFactoryTest {
+
+    @Test
+    public void create_wrapsHandler_Test() {
+
+        // Setup
+        final Handler sparkHandler = Mockito.mock(Handler.class);
+        final Server server = new MockedJettyServerFactory().create(50, 10, 30000);
+
+        // Test
+        server.setHandler(sparkHandler);
+
+        // Assertions
+        Assert.assertTrue(server.getHandler() instanceof DelayedResponseHandler);
+        Assert.assertSame(sparkHandler, ((DelayedResponseHandler) server.getHandler()).getHandler());
+    }
+
+    @Test
+    public void create_noConnectorConfig_Test() {
+
+        // Test
+        final Server server = new MockedJettyServerFactory().create(50, 10, 30000);
+
+        // Assertions
+        // Left to Spark to add it's own connector
+        Assert.assertEquals(0, server.getConnectors().length);
+    }
+
+    @Test
+    public void create_connectorConfig_Test() {
+
+        // Setup
+        final JettyConnectorConfig config = new JettyConnectorConfig("127.0.0.1", 8001, 2, 4, 1024, 30000, 0, false);
+
+        // Test
+        final Server server = new MockedJettyServerFactory(ExecutorModeEnum.QUEUED, 100, config).create(50, 10, 30000);
+
+        // Assertions
+        Assert.assertEquals(1, server.getConnectors().length);
+
+        final ServerConnector connector = (ServerConnector) server.getConnectors()[0];
+        Assert.assertEquals("127.0.0.1", connector.getHost());
+        Assert.assertEquals(8001, connector.getPort());
+        Assert.assertEquals(2, connector.getAcceptors());
+        Assert.assertEquals(4, connector.getSelectorManager().getSelectorCount());
+        Assert.assertEquals(1024, connector.getAcceptQueueSize());
+        Assert.assertEquals(30000, connector.getIdleTimeout());
+        Assert.assertEquals(Arrays.asList(HttpVersion.HTTP_1_1.asString()), connector.getProtocols());
+    }
+
+    @Test
+    public void create_connectorConfigH2c_Test() {
+
+        // Setup
+        final JettyConnectorConfig config = new JettyConnectorConfig("0.0.0.0", 8001, 1, 1, 0, 30000, 0, true);
+
+        // Test
+        final Server server = new MockedJettyServerFactory(ExecutorModeEnum.QUEUED, 100, config).create(50, 10, 30000);
+
+        // Assertions
+        final ServerConnector connector = (ServerConnector) server.getConnectors()[0];
+        Assert.assertEquals(Arrays.asList(HttpVersion.HTTP_1_1.asString(), "h2c"), connector.getProtocols());
+    }
+
+    @Test
+    public void create_maxKeepAliveRequests_Test() {
+
+        // Setup
+        final Handler sparkHandler = Mockito.mock(Handler.class);
+        final JettyConnectorConfig config = new JettyConnectorConfig("0.0.0.0", 8001, 1, 1, 0, 30000, 100, false);
+        final Server server = new MockedJettyServerFactory(ExecutorModeEnum.QUEUED, 100, config).create(50, 10, 30000);
+
+        // Test
+        server.setHandler(sparkHandler);
+
+        // Assertions
+        Assert.assertTrue(server.getHandler() instanceof KeepAliveLimitHandler);
+        Assert.assertTrue(((KeepAliveLimitHandler) server.getHandler()).getHandler() instanceof DelayedResponseHandler);
+    }
+
+    @Test
+    public void buildThreadPool_queued_Test() {
+
+        // Test
+        final ThreadPool result = new MockedJettyServerFactory(ExecutorModeEnum.QUEUED, 100).buildThreadPool(50, 10, 30000);
+
+        // Assertions
+        Assert.assertTrue(result instanceof QueuedThreadPool);
+        Assert.assertEquals(50, ((QueuedThreadPool) result).getMaxThreads());
+        Assert.assertEquals(10, ((QueuedThreadPool) result).getMinThreads());
+        Assert.assertEquals(30000, ((QueuedThreadPool) result).getIdleTimeout());
+    }
+
+    @Test
+    public void buildThreadPool_queuedDefaults_Test() {
+
+        // Test
+        final ThreadPool result = new MockedJettyServerFactory().buildThreadPool(0, 0, 0);
+
+        // Assertions
+        Assert.assertEquals(200, ((QueuedThreadPool) result).getMaxThreads());
+        Assert.assertEquals(8, ((QueuedThreadPool) result).getMinThreads());
+        Assert.assertEquals(60000, ((QueuedThreadPool) result).getIdleTimeout());
+    }
+
+    @Test
+    public void buildThreadPool_bounded_Test() {
+
+        // Test
+        final ThreadPool result = new MockedJettyServerFactory(ExecutorModeEnum.BOUNDED, 100).buildThreadPool(50, 10, 30000);
+
+        // Assertions
+        Assert.assertTrue(result instanceof QueuedThreadPool);
+        Assert.assertEquals(50, ((QueuedThreadPool) result).getMaxThreads());
+        Assert.assertEquals(50, ((QueuedThreadPool) result).getMinThreads());
+    }
+
+    @Test
+    public void buildThreadPool_virtual_Test() {
+
+        // Setup
+        Assume.assumeTrue(VirtualThreadPool.isSupported());
+
+        // Test
+        final ThreadPool result = new MockedJettyServerFactory(ExecutorModeEnum.VIRTUAL, 100).buildThreadPool(50, 10, 30000);
+
+        // Assertions
+        Assert.assertTrue(result instanceof VirtualThreadPool);
+    }
+
+    @Test
+    public void buildThreadPool_virtualUnsupported_Test() {
+
+        // Setup
+        Assume.assumeFalse(VirtualThreadPool.isSupported());
+
+        // Test
+        final ThreadPool result = new MockedJettyServerFactory(ExecutorModeEnum.VIRTUAL, 100).buildThreadPool(50, 10, 30000);
+
+        // Assertions
+        Assert.assertTrue(result instanceof QueuedThreadPool);
+        Assert.assertEquals(50, ((QueuedThreadPool) result).getMaxThreads());
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.smockin.mockserver.engine.route;
+
+import com.smockin.admin.persistence.enums.RestMethodEnum;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Created by mgallina.
+ *
+ * Shows the route trie look up cost staying flat as the number of deployed mocks grows
+ * (where as Spark's own route matching scans every registered route).
+ *
+ * Timings are logged rather than asserted upon, as they depend on the build machine.
+ * Excluded from the default build, so is run via the benchmarks profile (mvn test -Pbenchmarks).
+ */
+public class MockRouteTrieBenchmarkTest {
+
+    private final Logger logger = LoggerFactory.getLogger(MockRouteTrieBenchmarkTest.class);
+
+    private final int[] mockCounts = { 100, 1000, 10000, 50000 };
+    private final int lookups = 200000;
+
+    @Test
+    public void lookupCost_Test() {
+
+        for (int mockCount : mockCounts) {
+
+            final MockRouteTrie<Integer> trie = buildTrie(mockCount);
+            final String[] paths = buildRequestPaths(mockCount);
+
+            // Warm up
+            runLookups(trie, paths, lookups);
+
+            final long start = System.nanoTime();
+            final int found = runLookups(trie, paths, lookups);
+            final long elapsed = System.nanoTime() - start;
+
+            Assert.assertEquals(lookups, found);
+
+            logger.info(String.format("MockRouteTrie: %6d mocks, %5d ns per lookup", mockCount, (elapsed / lookups)));
+        }
+
+    }
+
+    private int runLookups(final MockRouteTrie<Integer> trie, final String[] paths, final int count) {
+
+        int found = 0;
+
+        for (int i = 0; i < count; i++) {
+            if (trie.match(RestMethodEnum.GET, paths[i % paths.length]) != null) {
+                found++;
+            }
+        }
+
+        return found;
+    }
+
+    // A realistic mix of literal, path variable and wildcard routes spread across user ctx paths.
+    private MockRouteTrie<Integer> buildTrie(final int mockCount) {
+
+        final MockRouteTrie<Integer> trie = new MockRouteTrie<>();
+
+        for (int i = 0; i < mockCount; i++) {
+
+            final String base = "/user" + (i % 50) + "/api/v1/resource" + i;
+
+            switch (i % 3) {
+                case 0:
+                    trie.add(RestMethodEnum.GET, base + "/items", i);
+                    break;
+                case 1:
+                    trie.add(RestMethodEnum.GET, base + "/items/:itemId", i);
+                    break;
+                default:
+                    trie.add(RestMethodEnum.GET, base + "/files/*", i);
+                    break;
+            }
+
+        }
+
+        return trie;
+    }
+
+    private String[] buildRequestPaths(final int mockCount) {
+
+        final String[] paths = new String[mockCount];
+
+        for (int i = 0; i < mockCount; i++) {
+
+            final String base = "/user" + (i % 50) + "/api/v1/resource" + i;
+
+            switch (i % 3) {
+                case 0:
+                    paths[i] = base + "/items";
+                    break;
+                case 1:
+                    paths[i] = base + "/items/" + i;
+                    break;
+                default:
+                    paths[i] = base + "/files/docs/" + i + ".txt";
+                    break;
+            }
+
+        }
+
+        return paths;
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.smockin.mockserver.engine.route;
+
+import com.smockin.admin.persistence.enums.RestMethodEnum;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Created by mgallina.
+ */
+public class MockRouteTrieTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private MockRouteTrie<String> trie;
+
+    @Before
+    public void setUp() {
+        trie = new MockRouteTrie<>();
+    }
+
+    @Test
+    public void add_nullPath_Test() {
+
+        // Assertions
+        thrown.expect(IllegalArgumentException.class);
+
+        // Test
+        trie.add(RestMethodEnum.GET, null, "A");
+    }
+
+    @Test
+    public void match_literal_Test() {
+
+        // Setup
+        trie.add(RestMethodEnum.GET, "/pets/dog", "A");
+        trie.add(RestMethodEnum.GET, "/pets/cat", "B");
+
+        // Test & Assertions
+        Assert.assertEquals("A", trie.match(RestMethodEnum.GET, "/pets/dog").getTarget());
+        Assert.assertEquals("B", trie.match(RestMethodEnum.GET, "/pets/cat").getTarget());
+        Assert.assertNull(trie.match(RestMethodEnum.GET, "/pets/Cat"));
+        Assert.assertNull(trie.match(RestMethodEnum.GET, "/pets"));
+        Assert.assertNull(trie.match(RestMethodEnum.GET, "/pets/cat/food"));
+    }
+
+    @Test
+    public void match_methodIsolation_Test() {
+
+        // Setup
+        trie.add(RestMethodEnum.GET, "/pets", "A");
+        trie.add(RestMethodEnum.POST, "/pets", "B");
+
+        // Test & Assertions
+        Assert.assertEquals("A", trie.match(RestMethodEnum.GET, "/pets").getTarget());
+        Assert.assertEquals("B", trie.match(RestMethodEnum.POST, "/pets").getTarget());
+        Assert.assertNull(trie.match(RestMethodEnum.DELETE, "/pets"));
+    }
+
+    @Test
+    public void match_pathVariable_Test() {
+
+        // Setup
+        trie.add(RestMethodEnum.GET, "/pets/:petId/owner/:Name", "A");
+
+        // Test
+        final MockRouteMatch<String> match = trie.match(RestMethodEnum.GET, "/pets/123/owner/joe%20bloggs");
+
+        // Assertions
+        Assert.assertNotNull(match);
+        Assert.assertEquals("A", match.getTarget());
+        Assert.assertEquals("123", match.getParam("petId"));
+        Assert.assertEquals("123", match.getParam(":petid"));
+        Assert.assertEquals("joe bloggs", match.getParam("name"));
+        Assert.assertEquals(2, match.getParams().size());
+        Assert.assertEquals(0, match.getSplat().length);
+    }
+
+    @Test
+    public void match_wildcard_Test() {
+
+        // Setup
+        trie.add(RestMethodEnum.GET, "/home/*/pet/*", "A");
+
+        // Test
+        final MockRouteMatch<String> match = trie.match(RestMethodEnum.GET, "/home/london/pet/dog/spot");
+
+        // Assertions
+        Assert.assertNotNull(match);
+        Assert.assertEquals(2, match.getSplat().length);
+        Assert.assertEquals("london", match.getSplat()[0]);
+        Assert.assertEquals("dog/spot", match.getSplat()[1]);
+
+        Assert.assertNull(trie.match(RestMethodEnum.GET, "/home/london/pet"));
+        Assert.assertNull(trie.match(RestMethodEnum.GET, "/home/london/uk/pet/dog"));
+    }
+
+    @Test
+    public void match_trailingSlash_Test() {
+
+        // Setup
+        trie.add(RestMethodEnum.GET, "/pets", "A");
+        trie.add(RestMethodEnum.GET, "/owners/", "B");
+        trie.add(RestMethodEnum.GET, "/vets/*", "C");
+
+        // Test & Assertions
+        Assert.assertNull(trie.match(RestMethodEnum.GET, "/pets/"));
+        Assert.assertNull(trie.match(RestMethodEnum.GET, "/owners"));
+        Assert.assertEquals("B", trie.match(RestMethodEnum.GET, "/owners/").getTarget());
+        Assert.assertEquals("", trie.match(RestMethodEnum.GET, "/vets/").getSplat()[0]);
+    }
+
+    @Test
+    public void match_root_Test() {
+
+        // Setup
+        trie.add(RestMethodEnum.GET, "/", "A");
+
+        // Test & Assertions
+        Assert.assertEquals("A", trie.match(RestMethodEnum.GET, "/").getTarget());
+        Assert.assertNull(trie.match(RestMethodEnum.GET, "/pets"));
+    }
+
+    @Test
+    public void match_initializationOrderPriority_Test() {
+
+        // Setup
+        // Added in initializationOrder, so the path variable route should beat the literal route added after it.
+        trie.add(RestMethodEnum.GET, "/pets/*", "A");
+        trie.add(RestMethodEnum.GET, "/pets/:id", "B");
+        trie.add(RestMethodEnum.GET, "/pets/dog", "C");
+        trie.add(RestMethodEnum.GET, "/pets/dog", "D");
+
+        // Test & Assertions
+        Assert.assertEquals("A", trie.match(RestMethodEnum.GET, "/pets/dog").getTarget());
+
+        // Setup
+        trie = new MockRouteTrie<>();
+        trie.add(RestMethodEnum.GET, "/pets/dog", "C");
+        trie.add(RestMethodEnum.GET, "/pets/:id", "B");
+        trie.add(RestMethodEnum.GET, "/pets/*", "A");
+
+        // Test & Assertions
+        Assert.assertEquals("C", trie.match(RestMethodEnum.GET, "/pets/dog").getTarget());
+        Assert.assertEquals("B", trie.match(RestMethodEnum.GET, "/pets/cat").getTarget());
+        Assert.assertEquals("A", trie.match(RestMethodEnum.GET, "/pets/cat/food").getTarget());
+    }
+
+    @Test
+    public void match_backtracksAcrossBranches_Test() {
+
+        // Setup
+        trie.add(RestMethodEnum.GET, "/pets/dog/food", "A");
+        trie.add(RestMethodEnum.GET, "/pets/:id/toys", "B");
+
+        // Test & Assertions
+        Assert.assertEquals("B", trie.match(RestMethodEnum.GET, "/pets/dog/toys").getTarget());
+        Assert.assertEquals("A", trie.match(RestMethodEnum.GET, "/pets/dog/food").getTarget());
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.smockin.mockserver.service;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by mgallina.
+ */
+public class BlockClaimingSequenceStateStoreTest {
+
+    private static final long VERSION = 1;
+
+    private SharedBlockSource blockSource;
+    private BlockClaimingSequenceStateStore node1, node2;
+
+    @Before
+    public void setUp() {
+
+        blockSource = new SharedBlockSource();
+
+        // Two nodes sharing the same source
+        node1 = new BlockClaimingSequenceStateStore(blockSource, 10);
+        node2 = new BlockClaimingSequenceStateStore(blockSource, 10);
+    }
+
+    @Test
+    public void nextPosition_Test() {
+
+        // Test
+        for (int i = 0; i < 25; i++) {
+            Assert.assertEquals(i, node1.nextPosition("mock1", VERSION));
+        }
+
+        // Assertions
+        Assert.assertEquals(3, blockSource.claims.get());
+    }
+
+    @Test
+    public void nextPosition_sharedBetweenNodes_Test() {
+
+        // Test
+        final long a = node1.nextPosition("mock1", VERSION);
+        final long b = node2.nextPosition("mock1", VERSION);
+        final long c = node1.nextPosition("mock1", VERSION);
+
+        // Assertions
+        // Each node works through it's own block
+        Assert.assertEquals(0, a);
+        Assert.assertEquals(10, b);
+        Assert.assertEquals(1, c);
+        Assert.assertEquals(0, node1.nextPosition("mock2", VERSION));
+    }
+
+    @Test
+    public void nextPosition_concurrent_Test() throws Exception {
+
+        // Setup
+        final Set<Long> positions = ConcurrentHashMap.newKeySet();
+        final AtomicInteger duplicates = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Test
+        for (int t = 0; t < 8; t++) {
+            final BlockClaimingSequenceStateStore node = (t % 2 == 0) ? node1 : node2;
+            executor.submit(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    if (!positions.add(node.nextPosition("mock1", VERSION))) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Assertions
+        Assert.assertEquals(0, duplicates.get());
+        Assert.assertEquals(40000, positions.size());
+        Assert.assertTrue(blockSource.claims.get() <= (40000 / 10) + 2);
+    }
+
+    @Test
+    public void clear_Test() {
+
+        // Setup
+        node1.nextPosition("mock1", VERSION);
+        node1.nextPosition("mock1", VERSION);
+
+        // Test
+        node1.clear("mock1");
+
+        // Assertions
+        // Only the rest of this node's block is dropped, the shared sequence carries on.
+        Assert.assertEquals(10, node1.nextPosition("mock1", VERSION));
+        Assert.assertEquals(20, node2.nextPosition("mock1", VERSION));
+    }
+
+    @Test
+    public void nextPosition_nodeRestart_Test() {
+
+        // Setup
+        final Set<Long> positions = new HashSet<>();
+
+        for (int i = 0; i < 15; i++) {
+            Assert.assertTrue(positions.add(node1.nextPosition("mock1", VERSION)));
+            Assert.assertTrue(positions.add(node2.nextPosition("mock1", VERSION)));
+        }
+
+        // Test
+        // node2 is restarted part way through the sequence (i.e stopped, then started again with it's state cleared).
+        node2.clearAll();
+        final BlockClaimingSequenceStateStore restartedNode2 = new BlockClaimingSequenceStateStore(blockSource, 10);
+        final long firstAfterRestart = restartedNode2.nextPosition("mock1", VERSION);
+
+        for (int i = 0; i < 15; i++) {
+            Assert.assertTrue(positions.add(node1.nextPosition("mock1", VERSION)));
+            Assert.assertTrue(positions.add(restartedNode2.nextPosition("mock1", VERSION)));
+        }
+
+        // Assertions
+        // The restarted node claims a fresh block, rather than starting the shared sequence over.
+        Assert.assertEquals(40, firstAfterRestart);
+        Assert.assertTrue(positions.add(firstAfterRestart));
+        Assert.assertEquals(61, positions.size());
+    }
+
+    @Test
+    public void nextPosition_mockChanged_Test() {
+
+        // Setup
+        node1.nextPosition("mock1", VERSION);
+        node2.nextPosition("mock1", VERSION);
+
+        // Test
+        final long changed = node1.nextPosition("mock1", VERSION + 1);
+        final long stale = node2.nextPosition("mock1", VERSION);
+        final long changedOnNode2 = node2.nextPosition("mock1", VERSION + 1);
+
+        // Assertions
+        // The sequence starts over for the changed mock, with a node yet to redeploy the change carrying on with it's own block.
+        Assert.assertEquals(0, changed);
+        Assert.assertEquals(11, stale);
+        Assert.assertEquals(10, changedOnNode2);
+        Assert.assertEquals(1, node1.nextPosition("mock1", VERSION + 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBlockSize_Test() {
+        new BlockClaimingSequenceStateStore(blockSource, 0);
+    }
+
+    @Test
+    public void inMemory_Test() {
+
+        // Setup
+        final InMemorySequenceStateStore store = new InMemorySequenceStateStore();
+        final Set<Long> positions = new HashSet<>();
+
+        // Test
+        for (int i = 0; i < 3; i++) {
+            positions.add(store.nextPosition("mock1", VERSION));
+        }
+        store.clearAll();
+
+        // Assertions
+        Assert.assertEquals(3, positions.size());
+        Assert.assertEquals(0, store.nextPosition("mock1", VERSION));
+    }
+
+    private static final class SharedBlockSource implements SequenceBlockSource {
+
+        // Each mock's version and next position, as held in the SEQ_STATE table.
+        private final Map<String, long[]> rows = new HashMap<>();
+        private final AtomicInteger claims = new AtomicInteger();
+
+        @Override
+        public synchronized long claimBlock(final String mockExtId, final long mockVersion, final int blockSize) {
+
+            claims.incrementAndGet();
+
+            final long[] row = rows.get(mockExtId);
+
+            if (row == null || row[0] < mockVersion) {
+                rows.put(mockExtId, new long[] { mockVersion, blockSize });
+                return 0;
+            }
+
+            row[1] += blockSize;
+
+            return row[1] - blockSize;
+        }
+
+    }
+
+}
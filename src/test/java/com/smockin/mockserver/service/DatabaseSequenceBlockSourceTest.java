@@ -0,0 +1,76 @@
+package com.smockin.mockserver.service;
+
+import com.smockin.admin.persistence.dao.SequenceStateDAO;
+import com.smockin.admin.persistence.entity.SequenceState;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/**
+ * Created by mgallina.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class DatabaseSequenceBlockSourceTest {
+
+    @Mock
+    private SequenceStateDAO sequenceStateDAO;
+
+    @InjectMocks
+    private DatabaseSequenceBlockSource databaseSequenceBlockSource = new DatabaseSequenceBlockSource();
+
+    @Test
+    public void claimBlockInTransaction_firstClaim_Test() {
+
+        // Setup
+        Mockito.when(sequenceStateDAO.claimBlock("mock1", 3, 50)).thenReturn(0);
+        Mockito.when(sequenceStateDAO.restartSequence("mock1", 3, 50)).thenReturn(0);
+
+        // Test
+        final long start = databaseSequenceBlockSource.claimBlockInTransaction("mock1", 3, 50);
+
+        // Assertions
+        final ArgumentCaptor<SequenceState> captor = ArgumentCaptor.forClass(SequenceState.class);
+        Mockito.verify(sequenceStateDAO).saveAndFlush(captor.capture());
+        Assert.assertEquals(0, start);
+        Assert.assertEquals("mock1", captor.getValue().getExtId());
+        Assert.assertEquals(3, captor.getValue().getMockVersion());
+        Assert.assertEquals(50, captor.getValue().getNextPosition());
+    }
+
+    @Test
+    public void claimBlockInTransaction_mockChanged_Test() {
+
+        // Setup
+        Mockito.when(sequenceStateDAO.claimBlock("mock1", 4, 50)).thenReturn(0);
+        Mockito.when(sequenceStateDAO.restartSequence("mock1", 4, 50)).thenReturn(1);
+
+        // Test
+        final long start = databaseSequenceBlockSource.claimBlockInTransaction("mock1", 4, 50);
+
+        // Assertions
+        Assert.assertEquals(0, start);
+        Mockito.verify(sequenceStateDAO, Mockito.never()).saveAndFlush(Mockito.any(SequenceState.class));
+    }
+
+    @Test
+    public void claimBlockInTransaction_Test() {
+
+        // Setup
+        Mockito.when(sequenceStateDAO.claimBlock("mock1", 3, 50)).thenReturn(1);
+        Mockito.when(sequenceStateDAO.findByExtId("mock1")).thenReturn(new SequenceState("mock1", 3, 150));
+
+        // Test
+        final long start = databaseSequenceBlockSource.claimBlockInTransaction("mock1", 3, 50);
+
+        // Assertions
+        Assert.assertEquals(100, start);
+        Mockito.verify(sequenceStateDAO, Mockito.never()).restartSequence(Mockito.anyString(), Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(sequenceStateDAO, Mockito.never()).saveAndFlush(Mockito.any(SequenceState.class));
+    }
+
+}
@@ -11,6 +11,7 @@ import com.smockin.admin.persistence.enums.RestMockTypeEnum;
 import com.smockin.admin.persistence.enums.SmockinUserRoleEnum;
 import com.smockin.admin.service.utils.UserTokenServiceUtils;
 import com.smockin.mockserver.engine.MockedRestServerEngine;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
 import com.smockin.mockserver.service.bean.ProxiedKey;
 import com.smockin.mockserver.service.dto.HttpProxiedDTO;
 import com.smockin.mockserver.service.dto.RestfulResponseDTO;
@@ -37,6 +38,7 @@ public class HttpProxyServiceQueueTest {
     private ProxiedKey helloKeyGet, helloKeyPost, helloKeyDelete, fooKeyGet;
     private HttpProxiedDTO helloGetDTO, helloPostDTO, helloDeleteDTO, fooGetDTO;
     private SmockinUser user;
+    private final RestfulMockCompiler restfulMockCompiler = new RestfulMockCompilerImpl();
 
     @Mock
     private RestfulMockDAO restfulMockDAO;
@@ -100,19 +102,19 @@ public class HttpProxyServiceQueueTest {
     @Test
     public void waitForResponse_ConsumeAll_Test() throws InterruptedException, ExecutionException, TimeoutException {
 
-        final RestfulResponseDTO dto1 = proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyGet.getPath(), mockReqHelloGet);
+        final RestfulResponseDTO dto1 = proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyGet.getPath(), compile(mockReqHelloGet));
         Assert.assertNotNull(dto1);
         Assert.assertEquals(helloGetDTO.getBody(), dto1.getResponseBody());
 
-        final RestfulResponseDTO dto2 = proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyPost.getPath(), mockReqHelloPost);
+        final RestfulResponseDTO dto2 = proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyPost.getPath(), compile(mockReqHelloPost));
         Assert.assertNotNull(dto2);
         Assert.assertEquals(helloPostDTO.getBody(), dto2.getResponseBody());
 
-        final RestfulResponseDTO dto3 = proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyDelete.getPath(), mockReqHelloDelete);
+        final RestfulResponseDTO dto3 = proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyDelete.getPath(), compile(mockReqHelloDelete));
         Assert.assertNotNull(dto3);
         Assert.assertEquals(helloDeleteDTO.getBody(), dto3.getResponseBody());
 
-        final RestfulResponseDTO dto4 = proxyService.waitForResponse(File.separator + user.getCtxPath() + fooKeyGet.getPath(), mockReqFooGet);
+        final RestfulResponseDTO dto4 = proxyService.waitForResponse(File.separator + user.getCtxPath() + fooKeyGet.getPath(), compile(mockReqFooGet));
         Assert.assertNotNull(dto4);
         Assert.assertEquals(fooGetDTO.getBody(), dto4.getResponseBody());
 
@@ -121,11 +123,11 @@ public class HttpProxyServiceQueueTest {
     @Test
     public void waitForResponse_ConsumeAndWaitTimeout_Test() throws InterruptedException, ExecutionException, TimeoutException {
 
-        final RestfulResponseDTO dto1 = proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyGet.getPath(), mockReqHelloGet);
+        final RestfulResponseDTO dto1 = proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyGet.getPath(), compile(mockReqHelloGet));
         Assert.assertNotNull(dto1);
         Assert.assertEquals(helloGetDTO.getBody(), dto1.getResponseBody());
 
-        Assert.assertNull(proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyGet.getPath(), mockReqHelloGet));
+        Assert.assertNull(proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyGet.getPath(), compile(mockReqHelloGet)));
     }
 
     @Test
@@ -135,7 +137,7 @@ public class HttpProxyServiceQueueTest {
         proxyService.clearAllSessions();
 
         // Assertions
-        Assert.assertNull(proxyService.waitForResponse(helloKeyGet.getPath(), mockReqHelloGet));
+        Assert.assertNull(proxyService.waitForResponse(helloKeyGet.getPath(), compile(mockReqHelloGet)));
     }
 
     @Test
@@ -145,11 +147,11 @@ public class HttpProxyServiceQueueTest {
         proxyService.clearSession(mockReqHelloPost.getExtId(), user.getSessionToken());
 
         // Assertions
-        Assert.assertNull(proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyGet.getPath(), mockReqHelloGet));
-        Assert.assertNull(proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyPost.getPath(), mockReqHelloPost));
-        Assert.assertNull(proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyDelete.getPath(), mockReqHelloDelete));
+        Assert.assertNull(proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyGet.getPath(), compile(mockReqHelloGet)));
+        Assert.assertNull(proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyPost.getPath(), compile(mockReqHelloPost)));
+        Assert.assertNull(proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyDelete.getPath(), compile(mockReqHelloDelete)));
 
-        final RestfulResponseDTO dto4 = proxyService.waitForResponse(File.separator + user.getCtxPath() + fooKeyGet.getPath(), mockReqFooGet);
+        final RestfulResponseDTO dto4 = proxyService.waitForResponse(File.separator + user.getCtxPath() + fooKeyGet.getPath(), compile(mockReqFooGet));
         Assert.assertNotNull(dto4);
         Assert.assertEquals(fooGetDTO.getBody(), dto4.getResponseBody());
     }
@@ -161,19 +163,23 @@ public class HttpProxyServiceQueueTest {
         proxyService.clearSession(mockReqFooGet.getExtId(), user.getSessionToken());
 
         // Assertions
-        Assert.assertNull(proxyService.waitForResponse(File.separator + user.getCtxPath() + fooKeyGet.getPath(), mockReqFooGet));
+        Assert.assertNull(proxyService.waitForResponse(File.separator + user.getCtxPath() + fooKeyGet.getPath(), compile(mockReqFooGet)));
 
-        final RestfulResponseDTO dto1 = proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyGet.getPath(), mockReqHelloGet);
+        final RestfulResponseDTO dto1 = proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyGet.getPath(), compile(mockReqHelloGet));
         Assert.assertNotNull(dto1);
         Assert.assertEquals(helloGetDTO.getBody(), dto1.getResponseBody());
 
-        final RestfulResponseDTO dto2 = proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyPost.getPath(), mockReqHelloPost);
+        final RestfulResponseDTO dto2 = proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyPost.getPath(), compile(mockReqHelloPost));
         Assert.assertNotNull(dto2);
         Assert.assertEquals(helloPostDTO.getBody(), dto2.getResponseBody());
 
-        final RestfulResponseDTO dto3 = proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyDelete.getPath(), mockReqHelloDelete);
+        final RestfulResponseDTO dto3 = proxyService.waitForResponse(File.separator + user.getCtxPath() + helloKeyDelete.getPath(), compile(mockReqHelloDelete));
         Assert.assertNotNull(dto3);
         Assert.assertEquals(helloDeleteDTO.getBody(), dto3.getResponseBody());
     }
 
+    private CompiledRestfulMock compile(final RestfulMock restfulMock) {
+        return restfulMockCompiler.compile(restfulMock, restfulMock.getPath());
+    }
+
 }
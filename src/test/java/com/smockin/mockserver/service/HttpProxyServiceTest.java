@@ -11,6 +11,7 @@ import com.smockin.admin.persistence.enums.RestMethodEnum;
 import com.smockin.admin.persistence.enums.SmockinUserRoleEnum;
 import com.smockin.admin.service.utils.UserTokenServiceUtils;
 import com.smockin.mockserver.engine.MockedRestServerEngine;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
 import com.smockin.mockserver.service.bean.ProxiedKey;
 import com.smockin.mockserver.service.dto.HttpProxiedDTO;
 import com.smockin.mockserver.service.dto.RestfulResponseDTO;
@@ -38,6 +39,7 @@ public class HttpProxyServiceTest {
     private Runnable producer1;
     private Callable consumer1;
     private SmockinUser user;
+    private final RestfulMockCompiler restfulMockCompiler = new RestfulMockCompilerImpl();
 
     private RestfulMockDAO restfulMockDAO;
     private UserTokenServiceUtils userTokenServiceUtils;
@@ -81,7 +83,7 @@ public class HttpProxyServiceTest {
             }
         };
 
-        consumer1 = () -> proxyService.waitForResponse(File.separator + user.getCtxPath() + mockReq.getPath(), mockReq);
+        consumer1 = () -> proxyService.waitForResponse(File.separator + user.getCtxPath() + mockReq.getPath(), compile(mockReq));
 
     }
 
@@ -143,7 +145,7 @@ public class HttpProxyServiceTest {
         // Setup
         mockReq.setProxyTimeOutInMillis(3000);
 
-        consumer1 = () -> proxyService.waitForResponse(mockReq.getPath(), mockReq);
+        consumer1 = () -> proxyService.waitForResponse(mockReq.getPath(), compile(mockReq));
 
         // Test
         final Future future = executor.submit(consumer1);
@@ -156,4 +158,8 @@ public class HttpProxyServiceTest {
 
     }
 
+    private CompiledRestfulMock compile(final RestfulMock restfulMock) {
+        return restfulMockCompiler.compile(restfulMock, restfulMock.getPath());
+    }
+
 }
@@ -11,6 +11,7 @@ import com.smockin.admin.persistence.enums.RestMethodEnum;
 import com.smockin.admin.persistence.enums.SmockinUserRoleEnum;
 import com.smockin.admin.service.utils.UserTokenServiceUtils;
 import com.smockin.mockserver.engine.MockedRestServerEngine;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
 import com.smockin.mockserver.service.bean.ProxiedKey;
 import com.smockin.mockserver.service.dto.HttpProxiedDTO;
 import com.smockin.mockserver.service.dto.RestfulResponseDTO;
@@ -40,6 +41,7 @@ public class HttpProxyServiceVolumeTest {
     private MockedRestServerEngine mockedRestServerEngine;
     private HttpProxyService proxyService;
     private SmockinUser user;
+    private final RestfulMockCompiler restfulMockCompiler = new RestfulMockCompilerImpl();
 
     private final int proxiedTestCount = 1000;
 
@@ -111,7 +113,7 @@ public class HttpProxyServiceVolumeTest {
 
                 @Override
                 public Object call() {
-                    return proxyService.waitForResponse(File.separator + user.getCtxPath() + pk.getPath(), rm);
+                    return proxyService.waitForResponse(File.separator + user.getCtxPath() + pk.getPath(), compile(rm));
                 }
             };
 
@@ -221,4 +223,8 @@ public class HttpProxyServiceVolumeTest {
 
     }
 
+    private CompiledRestfulMock compile(final RestfulMock restfulMock) {
+        return restfulMockCompiler.compile(restfulMock, restfulMock.getPath());
+    }
+
 }
@@ -1,5 +1,6 @@
 package com.smockin.mockserver.service;
 
+import com.smockin.mockserver.service.bean.ResponseTemplate;
 import com.smockin.mockserver.service.enums.ParamMatchTypeEnum;
 import com.smockin.utils.GeneralUtils;
 import org.apache.commons.lang3.math.NumberUtils;
@@ -33,12 +34,12 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_NoToken_Test() {
-        Assert.assertNull(inboundParamMatchServiceImpl.processParamMatch(request, "Hello World"));
+    public void enrichWithInboundParamMatches_NoToken_Test() {
+        Assert.assertEquals("Hello World", inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile("Hello World")));
     }
 
     @Test
-    public void processParamMatch_InvalidToken_Test() {
+    public void enrichWithInboundParamMatches_InvalidToken_Test() {
 
         // Assertions
         thrown.expect(IllegalArgumentException.class);
@@ -47,11 +48,11 @@ public class InboundParamMatchServiceTest {
         // Test
         final String responseBody = "Hello ${FOO=name}";
 
-        Assert.assertNull(inboundParamMatchServiceImpl.processParamMatch(request, responseBody));
+        inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
     }
 
     @Test
-    public void processParamMatch_InvalidTokenNoEqualsSymbol_Test() {
+    public void enrichWithInboundParamMatches_InvalidTokenNoEqualsSymbol_Test() {
 
         // Assertions
         thrown.expect(IllegalArgumentException.class);
@@ -60,11 +61,11 @@ public class InboundParamMatchServiceTest {
         // Test
         final String responseBody = "Hello ${FOO}";
 
-        Assert.assertNull(inboundParamMatchServiceImpl.processParamMatch(request, responseBody));
+        inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
     }
 
     @Test
-    public void processParamMatch_InvalidTokenNonsense_Test() {
+    public void enrichWithInboundParamMatches_InvalidTokenNonsense_Test() {
 
         // Assertions
         thrown.expect(IllegalArgumentException.class);
@@ -73,11 +74,11 @@ public class InboundParamMatchServiceTest {
         // Test
         final String responseBody = "Hello ${xxx YYY zzz}";
 
-        Assert.assertNull(inboundParamMatchServiceImpl.processParamMatch(request, responseBody));
+        inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
     }
 
     @Test
-    public void processParamMatch_Empty_Test() {
+    public void enrichWithInboundParamMatches_Empty_Test() {
 
         // Assertions
         thrown.expect(IllegalArgumentException.class);
@@ -86,11 +87,11 @@ public class InboundParamMatchServiceTest {
         // Test
         final String responseBody = "Hello ${  }";
 
-        Assert.assertNull(inboundParamMatchServiceImpl.processParamMatch(request, responseBody));
+        inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
     }
 
     @Test
-    public void processParamMatch_Blank_Test() {
+    public void enrichWithInboundParamMatches_Blank_Test() {
 
         // Assertions
         thrown.expect(IllegalArgumentException.class);
@@ -99,11 +100,11 @@ public class InboundParamMatchServiceTest {
         // Test
         final String responseBody = "Hello ${}";
 
-        Assert.assertNull(inboundParamMatchServiceImpl.processParamMatch(request, responseBody));
+        inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
     }
 
     @Test
-    public void processParamMatch_header_Test() {
+    public void enrichWithInboundParamMatches_header_Test() {
 
         // Setup
         final String responseBody = "Hello ${"+ ParamMatchTypeEnum.REQ_HEAD.name() +"=name}";
@@ -116,14 +117,14 @@ public class InboundParamMatchServiceTest {
         });
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         Assert.assertEquals("Hello Roger", result);
     }
 
     @Test
-    public void processParamMatch_headerCase_Test() {
+    public void enrichWithInboundParamMatches_headerCase_Test() {
 
         // Setup
         final String responseBody = "Hello ${"+ ParamMatchTypeEnum.REQ_HEAD.name() +"=NAME}";
@@ -136,25 +137,25 @@ public class InboundParamMatchServiceTest {
         });
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         Assert.assertEquals("Hello Roger", result);
     }
 
     @Test
-    public void processParamMatch_headerNoMatch_Test() {
+    public void enrichWithInboundParamMatches_headerNoMatch_Test() {
 
         // Test
         final String responseBody = "Hello ${"+ ParamMatchTypeEnum.REQ_HEAD.name() +"=name}";
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         Assert.assertEquals("Hello ", result);
     }
 
     @Test
-    public void processParamMatch_reqParam_Test() {
+    public void enrichWithInboundParamMatches_reqParam_Test() {
 
         // Setup
         final String responseBody = "Hello ${"+ ParamMatchTypeEnum.REQ_PARAM.name() +"=name}";
@@ -167,14 +168,14 @@ public class InboundParamMatchServiceTest {
         });
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         Assert.assertEquals("Hello Roger", result);
     }
 
     @Test
-    public void processParamMatch_reqParamCase_Test() {
+    public void enrichWithInboundParamMatches_reqParamCase_Test() {
 
         // Setup
         final String responseBody = "Hello ${"+ ParamMatchTypeEnum.REQ_PARAM.name() +"=NAME}";
@@ -187,25 +188,25 @@ public class InboundParamMatchServiceTest {
         });
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         Assert.assertEquals("Hello Roger", result);
     }
 
     @Test
-    public void processParamMatch_reqParamNoMatch_Test() {
+    public void enrichWithInboundParamMatches_reqParamNoMatch_Test() {
 
         // Test
         final String responseBody = "Hello ${"+ ParamMatchTypeEnum.REQ_PARAM.name() +"=name}";
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         Assert.assertEquals("Hello ", result);
     }
 
     @Test
-    public void processParamMatch_pathVar_Test() {
+    public void enrichWithInboundParamMatches_pathVar_Test() {
 
         // Setup
         final String responseBody = "Hello ${"+ ParamMatchTypeEnum.PATH_VAR.name() +"=name}";
@@ -217,14 +218,14 @@ public class InboundParamMatchServiceTest {
         });
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         Assert.assertEquals("Hello Roger", result);
     }
 
     @Test
-    public void processParamMatch_pathVarCase_Test() {
+    public void enrichWithInboundParamMatches_pathVarCase_Test() {
 
         // Setup
         final String responseBody = "Hello ${"+ ParamMatchTypeEnum.PATH_VAR.name() +"=NAME}";
@@ -236,18 +237,18 @@ public class InboundParamMatchServiceTest {
         });
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         Assert.assertEquals("Hello Roger", result);
     }
 
     @Test
-    public void processParamMatch_pathVarNoMatch_Test() {
+    public void enrichWithInboundParamMatches_pathVarNoMatch_Test() {
 
         // Test
         final String responseBody = "Hello ${"+ ParamMatchTypeEnum.PATH_VAR.name() +"=name}";
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         Assert.assertEquals("Hello ", result);
@@ -318,14 +319,101 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_isoDate_Test() {
+    public void enrichWithInboundParamMatches_compiledTemplate_Test() {
+
+        // Setup
+        final ResponseTemplate responseTemplate = ResponseTemplate.compile("{ \"name\" : \"${"+ ParamMatchTypeEnum.REQ_HEAD.name() +"=name}\", \"id\" : \"${"+ ParamMatchTypeEnum.UUID.name() +"}\" }");
+
+        Mockito.when(request.headers("name")).thenReturn("Roger");
+        Mockito.when(request.headers()).thenReturn(Collections.singleton("name"));
+
+        // Test
+        final String result1 = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, responseTemplate);
+        final String result2 = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, responseTemplate);
+
+        // Assertions
+        // The render buffer is reused, but each result is a separate copy.
+        Assert.assertTrue(result1.startsWith("{ \"name\" : \"Roger\", \"id\" : \""));
+        Assert.assertEquals(result1.length(), result2.length());
+        Assert.assertNotEquals(result1, result2);
+    }
+
+    @Test
+    public void enrichWithInboundParamMatches_tokenInValueNotSwapped_Test() {
+
+        // Setup
+        final String responseBody = "Hello ${"+ ParamMatchTypeEnum.REQ_HEAD.name() +"=name}";
+
+        Mockito.when(request.headers("name")).thenReturn("${" + ParamMatchTypeEnum.UUID.name() + "}");
+        Mockito.when(request.headers()).thenReturn(Collections.singleton("name"));
+
+        // Test
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, responseBody);
+
+        // Assertions
+        Assert.assertEquals("Hello ${" + ParamMatchTypeEnum.UUID.name() + "}", result);
+    }
+
+    @Test
+    public void enrichWithInboundParamMatches_reqBodyJson_Test() {
+
+        // Setup
+        final ResponseTemplate responseTemplate = ResponseTemplate.compile("{ \"orderId\" : \"${"+ ParamMatchTypeEnum.REQ_BODY_JSON.name() +"=$.order.id}\", "
+                + "\"sku\" : \"${"+ ParamMatchTypeEnum.REQ_BODY_JSON.name() +"=order.items[1].sku}\", "
+                + "\"missing\" : \"${"+ ParamMatchTypeEnum.REQ_BODY_JSON.name() +"=$.order.notes}\" }");
+
+        Mockito.when(request.body()).thenReturn("{ \"order\" : { \"id\" : 1234, \"items\" : [ { \"sku\" : \"A1\" }, { \"sku\" : \"B2\" } ] } }");
+
+        // Test
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, responseTemplate);
+
+        // Assertions
+        Assert.assertEquals("{ \"orderId\" : \"1234\", \"sku\" : \"B2\", \"missing\" : \"\" }", result);
+
+        // The body is only read the once, for all of the tokens
+        Mockito.verify(request, Mockito.times(1)).body();
+    }
+
+    @Test
+    public void enrichWithInboundParamMatches_reqBodyJsonTrimmed_Test() {
+
+        // Setup
+        final String responseBody = "Hello ${"+ ParamMatchTypeEnum.REQ_BODY_JSON.name() +"= $.name }";
+
+        Mockito.when(request.body()).thenReturn("{ \"name\" : \"Roger\" }");
+
+        // Test
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
+
+        // Assertions
+        Assert.assertEquals("Hello Roger", result);
+    }
+
+    @Test
+    public void enrichWithInboundParamMatches_reqBodyForm_Test() {
+
+        // Setup
+        final String responseBody = "Hello ${"+ ParamMatchTypeEnum.REQ_BODY_FORM.name() +"=first name} ${"+ ParamMatchTypeEnum.REQ_BODY_FORM.name() +"=surname}${"+ ParamMatchTypeEnum.REQ_BODY_FORM.name() +"=age}";
+
+        Mockito.when(request.body()).thenReturn("first+name=Roger&surname=Smith%21");
+
+        // Test
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, responseBody);
+
+        // Assertions
+        Assert.assertEquals("Hello Roger Smith!", result);
+        Mockito.verify(request, Mockito.times(1)).body();
+    }
+
+    @Test
+    public void enrichWithInboundParamMatches_isoDate_Test() {
 
         // Setup
         TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
         final String responseBody = "The date is ${"+ ParamMatchTypeEnum.ISO_DATE.name() + "}";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("The date is ", "");
@@ -338,14 +426,14 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_isoDateTime_Test() {
+    public void enrichWithInboundParamMatches_isoDateTime_Test() {
 
         // Setup
         TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
         final String responseBody = "The date and time is ${"+ ParamMatchTypeEnum.ISO_DATETIME.name() + "}";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("The date and time is ", "");
@@ -358,13 +446,13 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_uuid_Test() {
+    public void enrichWithInboundParamMatches_uuid_Test() {
 
         // Setup
         final String responseBody = "Your ID is ${"+ ParamMatchTypeEnum.UUID.name() + "}";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("Your ID is ", "");
@@ -377,13 +465,13 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_random_Test() {
+    public void enrichWithInboundParamMatches_random_Test() {
 
         // Setup
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "}";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("Your number is ", "");
@@ -391,13 +479,13 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_randomRangeTO_AllPositive_Test() {
+    public void enrichWithInboundParamMatches_randomRangeTO_AllPositive_Test() {
 
         // Setup
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=1to3}";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("Your number is ", "");
@@ -406,13 +494,13 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_randomRangeTO_NegativeToPositive_Test() {
+    public void enrichWithInboundParamMatches_randomRangeTO_NegativeToPositive_Test() {
 
         // Setup
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=-2to2}";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("Your number is ", "");
@@ -421,13 +509,13 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_randomRangeTO_NegativeToNegative_Test() {
+    public void enrichWithInboundParamMatches_randomRangeTO_NegativeToNegative_Test() {
 
         // Setup
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=-4to-2}";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("Your number is ", "");
@@ -436,13 +524,13 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_randomRangeTO_NegativeToZero_Test() {
+    public void enrichWithInboundParamMatches_randomRangeTO_NegativeToZero_Test() {
 
         // Setup
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=-3to0}";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("Your number is ", "");
@@ -451,13 +539,13 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_randomRangeTO_ZeroToPositive_Test() {
+    public void enrichWithInboundParamMatches_randomRangeTO_ZeroToPositive_Test() {
 
         // Setup
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=0to2}";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("Your number is ", "");
@@ -466,13 +554,13 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_randomRangeTO_Zero_Test() {
+    public void enrichWithInboundParamMatches_randomRangeTO_Zero_Test() {
 
         // Setup
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=0to0}";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("Your number is ", "");
@@ -481,13 +569,13 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_randomRangeTO_SamePositiveValue_Test() {
+    public void enrichWithInboundParamMatches_randomRangeTO_SamePositiveValue_Test() {
 
         // Setup
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=4to4}";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("Your number is ", "");
@@ -496,13 +584,13 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_randomRangeTO_SameNegativeValue_Test() {
+    public void enrichWithInboundParamMatches_randomRangeTO_SameNegativeValue_Test() {
 
         // Setup
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=-3 to -3}";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("Your number is ", "");
@@ -511,13 +599,13 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_randomRangeTOCase_Test() {
+    public void enrichWithInboundParamMatches_randomRangeTOCase_Test() {
 
         // Setup
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=1 tO 3}";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("Your number is ", "");
@@ -526,13 +614,13 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_randomRangeStartFrom5_Test() {
+    public void enrichWithInboundParamMatches_randomRangeStartFrom5_Test() {
 
         // Setup
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=5 to 6}";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("Your number is ", "");
@@ -541,13 +629,13 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_randomRangeUNTIL_Test() {
+    public void enrichWithInboundParamMatches_randomRangeUNTIL_Test() {
 
         // Setup
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=1until3}";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("Your number is ", "");
@@ -556,13 +644,13 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_randomRangeWhiteSpace_Test() {
+    public void enrichWithInboundParamMatches_randomRangeWhiteSpace_Test() {
 
         // Setup
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "= 1  until  3   }";
 
         // Test
-        final String result = inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        final String result = inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
 
         // Assertions
         final String remainder = result.replaceAll("Your number is ", "");
@@ -571,7 +659,7 @@ public class InboundParamMatchServiceTest {
     }
 
     @Test
-    public void processParamMatch_randomRangeMissingArg_Test() {
+    public void enrichWithInboundParamMatches_randomRangeMissingArg_Test() {
 
         // Assertions
         thrown.expect(IllegalArgumentException.class);
@@ -581,11 +669,11 @@ public class InboundParamMatchServiceTest {
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=}";
 
         // Test
-        inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
     }
 
     @Test
-    public void processParamMatch_randomRangeInvalidArg_Test() {
+    public void enrichWithInboundParamMatches_randomRangeInvalidArg_Test() {
 
         // Assertions
         thrown.expect(IllegalArgumentException.class);
@@ -595,11 +683,11 @@ public class InboundParamMatchServiceTest {
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=1foo2}";
 
         // Test
-        inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
     }
 
     @Test
-    public void processParamMatch_randomRangeMissingRangeNoNumbers_Test() {
+    public void enrichWithInboundParamMatches_randomRangeMissingRangeNoNumbers_Test() {
 
         // Assertions
         thrown.expect(IllegalArgumentException.class);
@@ -609,11 +697,11 @@ public class InboundParamMatchServiceTest {
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=" + inboundParamMatchServiceImpl.TO_ARG + "}";
 
         // Test
-        inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
     }
 
     @Test
-    public void processParamMatch_randomRangeMissingRangeStartNumberOnly_Test() {
+    public void enrichWithInboundParamMatches_randomRangeMissingRangeStartNumberOnly_Test() {
 
         // Assertions
         thrown.expect(IllegalArgumentException.class);
@@ -623,11 +711,11 @@ public class InboundParamMatchServiceTest {
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=2" + inboundParamMatchServiceImpl.TO_ARG + "}";
 
         // Test
-        inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
     }
 
     @Test
-    public void processParamMatch_randomRangeMissingRangeEndNumberOnly_Test() {
+    public void enrichWithInboundParamMatches_randomRangeMissingRangeEndNumberOnly_Test() {
 
         // Assertions
         thrown.expect(IllegalArgumentException.class);
@@ -637,11 +725,11 @@ public class InboundParamMatchServiceTest {
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=" + inboundParamMatchServiceImpl.TO_ARG + "5}";
 
         // Test
-        inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
     }
 
     @Test
-    public void processParamMatch_randomRangeMissingRangeIsText_Test() {
+    public void enrichWithInboundParamMatches_randomRangeMissingRangeIsText_Test() {
 
         // Assertions
         thrown.expect(IllegalArgumentException.class);
@@ -651,7 +739,7 @@ public class InboundParamMatchServiceTest {
         final String responseBody = "Your number is ${"+ ParamMatchTypeEnum.RANDOM_NUMBER.name() + "=A" + inboundParamMatchServiceImpl.TO_ARG + "Z}";
 
         // Test
-        inboundParamMatchServiceImpl.processParamMatch(request, responseBody);
+        inboundParamMatchServiceImpl.enrichWithInboundParamMatches(request, ResponseTemplate.compile(responseBody));
     }
 
 }
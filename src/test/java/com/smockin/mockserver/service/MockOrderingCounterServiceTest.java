@@ -2,6 +2,7 @@ package com.smockin.mockserver.service;
 
 import com.smockin.admin.persistence.entity.RestfulMock;
 import com.smockin.admin.persistence.entity.RestfulMockDefinitionOrder;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
 import com.smockin.utils.GeneralUtils;
 import com.smockin.mockserver.service.dto.RestfulResponseDTO;
 import org.junit.Assert;
@@ -9,12 +10,21 @@ import org.junit.Before;
 import org.junit.Test;
 import org.springframework.http.MediaType;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 /**
  * Created by mgallina.
  */
 public class MockOrderingCounterServiceTest {
 
     private MockOrderingCounterService mockOrderingCounterService;
+    private RestfulMockCompiler restfulMockCompiler;
     private RestfulMock restfulMock1, restfulMock2;
 
     private RestfulMockDefinitionOrder order1, order2, order3, order4, order5, order6;
@@ -23,6 +33,7 @@ public class MockOrderingCounterServiceTest {
     public void setUp() {
 
         mockOrderingCounterService = new MockOrderingCounterServiceImpl();
+        restfulMockCompiler = new RestfulMockCompilerImpl();
 
         //
         // Mock Definition 1
@@ -63,7 +74,7 @@ public class MockOrderingCounterServiceTest {
 
         // Test (run 1)
         // Start with calls to 'RestfulMockDefinition 1'...
-        final RestfulResponseDTO result1 = mockOrderingCounterService.process(restfulMock1);
+        final RestfulResponseDTO result1 = mockOrderingCounterService.process(compile(restfulMock1));
 
         // Assertions
         Assert.assertNotNull(result1);
@@ -73,7 +84,7 @@ public class MockOrderingCounterServiceTest {
 
 
         // Test (run 2)
-        final RestfulResponseDTO result2 = mockOrderingCounterService.process(restfulMock1);
+        final RestfulResponseDTO result2 = mockOrderingCounterService.process(compile(restfulMock1));
 
         // Assertions
         Assert.assertNotNull(result2);
@@ -83,7 +94,7 @@ public class MockOrderingCounterServiceTest {
 
 
         // Test (run 3)
-        final RestfulResponseDTO result3 = mockOrderingCounterService.process(restfulMock1);
+        final RestfulResponseDTO result3 = mockOrderingCounterService.process(compile(restfulMock1));
 
         // Assertions
         Assert.assertNotNull(result3);
@@ -94,7 +105,7 @@ public class MockOrderingCounterServiceTest {
 
         // Test (run 4)
         // Call 'RestfulMockDefinition 2' in-between calls to 'RestfulMockDefinition 1'
-        final RestfulResponseDTO result11 = mockOrderingCounterService.process(restfulMock2);
+        final RestfulResponseDTO result11 = mockOrderingCounterService.process(compile(restfulMock2));
 
         // Assertions
         Assert.assertNotNull(result11);
@@ -104,7 +115,7 @@ public class MockOrderingCounterServiceTest {
 
 
         // Test (run 5)
-        final RestfulResponseDTO result4 = mockOrderingCounterService.process(restfulMock1);
+        final RestfulResponseDTO result4 = mockOrderingCounterService.process(compile(restfulMock1));
 
         // Assertions
         Assert.assertNotNull(result4);
@@ -115,7 +126,7 @@ public class MockOrderingCounterServiceTest {
 
         // Test (run 6)
         // ... And again call 'RestfulMockDefinition 2' in-between calls to 'RestfulMockDefinition 1'
-        final RestfulResponseDTO result22 = mockOrderingCounterService.process(restfulMock2);
+        final RestfulResponseDTO result22 = mockOrderingCounterService.process(compile(restfulMock2));
 
         // Assertions
         Assert.assertNotNull(result22);
@@ -126,7 +137,7 @@ public class MockOrderingCounterServiceTest {
 
         // Test (run 7)
         // This call to 'RestfulMockDefinition 1' should now come around full circle returning the 1st response (with order no 1)
-        final RestfulResponseDTO result5 = mockOrderingCounterService.process(restfulMock1);
+        final RestfulResponseDTO result5 = mockOrderingCounterService.process(compile(restfulMock1));
 
         // Assertions
         Assert.assertNotNull(result5);
@@ -137,7 +148,7 @@ public class MockOrderingCounterServiceTest {
 
         // Test (run 8)
         // This call to 'RestfulMockDefinition 2' should now come around full circle returning the 1st response (with order no 1)
-        final RestfulResponseDTO result33 = mockOrderingCounterService.process(restfulMock2);
+        final RestfulResponseDTO result33 = mockOrderingCounterService.process(compile(restfulMock2));
 
         // Assertions
         Assert.assertNotNull(result33);
@@ -159,7 +170,7 @@ public class MockOrderingCounterServiceTest {
 
         // Test (run 1)
         // Expect order 1 to be returned once
-        final RestfulResponseDTO result1 = mockOrderingCounterService.process(restfulMock1);
+        final RestfulResponseDTO result1 = mockOrderingCounterService.process(compile(restfulMock1));
 
         // Assertions
         Assert.assertNotNull(result1);
@@ -170,7 +181,7 @@ public class MockOrderingCounterServiceTest {
 
         // Test (run 2)
         // Expect order 2 to be returned twice, once here...
-        final RestfulResponseDTO result2 = mockOrderingCounterService.process(restfulMock1);
+        final RestfulResponseDTO result2 = mockOrderingCounterService.process(compile(restfulMock1));
 
         // Assertions
         Assert.assertNotNull(result2);
@@ -181,7 +192,7 @@ public class MockOrderingCounterServiceTest {
 
         // Test (run 3)
         // ... and again here
-        final RestfulResponseDTO result3 = mockOrderingCounterService.process(restfulMock1);
+        final RestfulResponseDTO result3 = mockOrderingCounterService.process(compile(restfulMock1));
 
         // Assertions
         Assert.assertNotNull(result3);
@@ -192,7 +203,7 @@ public class MockOrderingCounterServiceTest {
 
         // Test (run 4)
         // Now expecting order 3
-        final RestfulResponseDTO result4 = mockOrderingCounterService.process(restfulMock1);
+        final RestfulResponseDTO result4 = mockOrderingCounterService.process(compile(restfulMock1));
 
         // Assertions
         Assert.assertNotNull(result4);
@@ -203,7 +214,7 @@ public class MockOrderingCounterServiceTest {
 
         // Test (run 5)
         // Then order 4
-        final RestfulResponseDTO result5 = mockOrderingCounterService.process(restfulMock1);
+        final RestfulResponseDTO result5 = mockOrderingCounterService.process(compile(restfulMock1));
 
         // Assertions
         Assert.assertNotNull(result5);
@@ -214,7 +225,7 @@ public class MockOrderingCounterServiceTest {
 
         // Test (run 6)
         // Finally back round to order 1
-        final RestfulResponseDTO result6 = mockOrderingCounterService.process(restfulMock1);
+        final RestfulResponseDTO result6 = mockOrderingCounterService.process(compile(restfulMock1));
 
         // Assertions
         Assert.assertNotNull(result6);
@@ -224,4 +235,82 @@ public class MockOrderingCounterServiceTest {
 
     }
 
+    @Test
+    public void getNextInSequence_clearState_Test() {
+
+        // Setup
+        final CompiledRestfulMock mock = compile(restfulMock1);
+        mockOrderingCounterService.process(mock);
+        mockOrderingCounterService.process(mock);
+
+        // Test
+        mockOrderingCounterService.clearState(restfulMock1.getExtId());
+        final RestfulResponseDTO result = mockOrderingCounterService.process(mock);
+
+        // Assertions
+        Assert.assertEquals(order1.getResponseBody(), result.getResponseBody());
+    }
+
+    @Test
+    public void getNextInSequence_concurrent_Test() throws Exception {
+
+        // Setup
+        order1.setFrequencyCount(3);
+        order2.setFrequencyCount(2);
+        final CompiledRestfulMock mock = compile(restfulMock1);
+        final int threads = 8;
+        final int callsPerThread = 7000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Test
+        final List<Future<Map<String, Integer>>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                final Map<String, Integer> counts = new HashMap<>();
+                for (int i = 0; i < callsPerThread; i++) {
+                    counts.merge(mockOrderingCounterService.process(mock).getResponseBody(), 1, Integer::sum);
+                }
+                return counts;
+            }));
+        }
+
+        final Map<String, Integer> totals = new HashMap<>();
+
+        for (Future<Map<String, Integer>> future : futures) {
+            future.get().forEach((body, count) -> totals.merge(body, count, Integer::sum));
+        }
+
+        executor.shutdown();
+
+        // Assertions
+        // 56000 calls is exactly 8000 cycles of 3 + 2 + 1 + 1, so no call is lost or doubled up
+        Assert.assertEquals(Integer.valueOf(24000), totals.get(order1.getResponseBody()));
+        Assert.assertEquals(Integer.valueOf(16000), totals.get(order2.getResponseBody()));
+        Assert.assertEquals(Integer.valueOf(8000), totals.get(order3.getResponseBody()));
+        Assert.assertEquals(Integer.valueOf(8000), totals.get(order4.getResponseBody()));
+    }
+
+    @Test
+    public void getRandomResponse_frequencyPercentage_Test() {
+
+        // Setup
+        restfulMock1.setRandomiseDefinitions(true);
+        order1.setFrequencyPercentage(0);
+        order2.setFrequencyPercentage(100);
+        order3.setFrequencyPercentage(0);
+        order4.setFrequencyPercentage(0);
+        final CompiledRestfulMock mock = compile(restfulMock1);
+
+        // Test & Assertions
+        // All of the 100% is taken by order 2, so no other definition is ever picked
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(order2.getResponseBody(), mockOrderingCounterService.process(mock).getResponseBody());
+        }
+    }
+
+    private CompiledRestfulMock compile(final RestfulMock restfulMock) {
+        return restfulMockCompiler.compile(restfulMock, restfulMock.getPath());
+    }
+
 }
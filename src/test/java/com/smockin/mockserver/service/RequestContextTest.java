@@ -0,0 +1,165 @@
+package com.smockin.mockserver.service;
+
+import com.smockin.mockserver.service.bean.JsonPathExtractor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import spark.Request;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Created by mgallina.
+ */
+public class RequestContextTest {
+
+    private Request request;
+    private RequestContext requestContext;
+
+    @Before
+    public void setUp() {
+
+        request = Mockito.mock(Request.class);
+        requestContext = new RequestContext(request);
+    }
+
+    @Test
+    public void from_storedOnRequest_Test() {
+
+        // Test
+        final RequestContext result = RequestContext.from(request);
+
+        // Assertions
+        Assert.assertNotNull(result);
+        Assert.assertSame(request, result.getRequest());
+        Mockito.verify(request, Mockito.times(1)).attribute(RequestContext.REQUEST_ATTRIBUTE, result);
+    }
+
+    @Test
+    public void from_existing_Test() {
+
+        // Setup
+        Mockito.when(request.attribute(RequestContext.REQUEST_ATTRIBUTE)).thenReturn(requestContext);
+
+        // Test
+        final RequestContext result = RequestContext.from(request);
+
+        // Assertions
+        Assert.assertSame(requestContext, result);
+        Mockito.verify(request, Mockito.never()).attribute(Matchers.anyString(), Matchers.any());
+    }
+
+    @Test
+    public void getJson_parsedOnce_Test() {
+
+        // Setup
+        Mockito.when(request.body()).thenReturn("{\"name\":\"joe\",\"age\":\"32\"}");
+
+        // Test
+        final Map<String, ?> json = requestContext.getJson();
+
+        // Assertions
+        Assert.assertNotNull(json);
+        Assert.assertSame(json, requestContext.getJson());
+        Assert.assertEquals("joe", json.get("name"));
+        Assert.assertEquals("{\"name\":\"joe\",\"age\":\"32\"}", requestContext.getBody());
+        Mockito.verify(request, Mockito.times(1)).body();
+    }
+
+    @Test
+    public void getJson_invalidJson_Test() {
+
+        // Setup
+        Mockito.when(request.body()).thenReturn("name = joe");
+
+        // Test
+        final Map<String, ?> json = requestContext.getJson();
+
+        // Assertions
+        Assert.assertNull(json);
+        Assert.assertNull(requestContext.getJson());
+        Mockito.verify(request, Mockito.times(1)).body();
+    }
+
+    @Test
+    public void getJsonPathValue_extractedOnce_Test() {
+
+        // Setup
+        final JsonPathExtractor extractor = JsonPathExtractor.compile(Arrays.asList("$.order.id", "$.order.items[0].sku"));
+        Mockito.when(request.body()).thenReturn("{\"order\":{\"id\":\"o1\",\"items\":[{\"sku\":\"A1\"}]}}");
+
+        // Test
+        final String id = requestContext.getJsonPathValue(extractor, extractor.slotOf("$.order.id"));
+        final String sku = requestContext.getJsonPathValue(extractor, extractor.slotOf("$.order.items[0].sku"));
+
+        // Assertions
+        Assert.assertEquals("o1", id);
+        Assert.assertEquals("A1", sku);
+        Assert.assertNull(requestContext.getJsonPathValue(extractor, -1));
+        Assert.assertNull(requestContext.getJsonPathValue(null, 0));
+        Mockito.verify(request, Mockito.times(1)).body();
+    }
+
+    @Test
+    public void getRequestParam_formParsedOnce_Test() {
+
+        // Setup
+        Mockito.when(request.contentType()).thenReturn("application/x-www-form-urlencoded; charset=UTF-8");
+        Mockito.when(request.body()).thenReturn("name=joe&age=32&name=bob");
+
+        // Test
+        final String name = requestContext.getRequestParam("name");
+        final String age = requestContext.getRequestParam("age");
+        final String missing = requestContext.getRequestParam("foo");
+
+        // Assertions
+        Assert.assertEquals("joe", name);
+        Assert.assertEquals("32", age);
+        Assert.assertNull(missing);
+        Mockito.verify(request, Mockito.times(1)).body();
+        Mockito.verify(request, Mockito.never()).queryParams(Matchers.anyString());
+    }
+
+    @Test
+    public void getRequestParam_query_Test() {
+
+        // Setup
+        Mockito.when(request.queryParams("name")).thenReturn("joe");
+
+        // Test
+        final String result = requestContext.getRequestParam("name");
+
+        // Assertions
+        Assert.assertEquals("joe", result);
+        Mockito.verify(request, Mockito.never()).body();
+    }
+
+    @Test
+    public void getHeaderIgnoreCase_Test() {
+
+        // Setup
+        Mockito.when(request.headers()).thenReturn(new HashSet<String>() {
+            {
+                add("X-Pet");
+                add("Content-Type");
+            }
+        });
+        Mockito.when(request.headers("X-Pet")).thenReturn("dog");
+        Mockito.when(request.headers("Content-Type")).thenReturn("text/plain");
+
+        // Test
+        final String pet = requestContext.getHeaderIgnoreCase("x-pet");
+        final String contentType = requestContext.getHeaderIgnoreCase("CONTENT-TYPE");
+
+        // Assertions
+        Assert.assertEquals("dog", pet);
+        Assert.assertEquals("text/plain", contentType);
+        Assert.assertNull(requestContext.getHeaderIgnoreCase("X-Foo"));
+        Mockito.verify(request, Mockito.times(1)).headers();
+    }
+
+}
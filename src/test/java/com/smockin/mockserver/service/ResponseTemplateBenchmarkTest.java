@@ -0,0 +1,126 @@
+package com.smockin.mockserver.service;
+
+import com.smockin.mockserver.service.bean.ResponseTemplate;
+import com.smockin.mockserver.service.enums.ParamMatchTypeEnum;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spark.Request;
+
+import java.util.Collections;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Created by mgallina.
+ *
+ * Compares enriching a ~1MB response body containing 500 tokens by repeatedly finding and replacing the first token
+ * (as InboundParamMatchServiceImpl used to), against rendering the body's compiled ResponseTemplate in a single pass.
+ *
+ * Timings are logged rather than asserted upon, as they depend on the build machine.
+ */
+public class ResponseTemplateBenchmarkTest {
+
+    // Looks for values within the brace format ${}, as the token search used to.
+    private static final String INBOUND_TOKEN_PATTERN = "\\$\\{(.*?)\\}";
+
+    private final Logger logger = LoggerFactory.getLogger(ResponseTemplateBenchmarkTest.class);
+
+    private final int bodyLength = 1024 * 1024;
+    private final int tokenCount = 500;
+    private final int replaceRequestCount = 3;
+    private final int renderRequestCount = 100;
+    private final int warmUpCount = 2;
+
+    @Test
+    public void largeBody_Test() {
+
+        // Setup
+        final String body = buildBody();
+        final ResponseTemplate template = ResponseTemplate.compile(body);
+        final InboundParamMatchServiceImpl inboundParamMatchService = new InboundParamMatchServiceImpl();
+
+        final Request req = Mockito.mock(Request.class);
+        Mockito.when(req.headers()).thenReturn(Collections.singleton("X-Name"));
+        Mockito.when(req.headers("X-Name")).thenReturn("Roger");
+
+        final RequestContext ctx = RequestContext.from(req);
+
+        // Test
+        for (int i = 0; i < warmUpCount; i++) {
+            replaceEachToken(inboundParamMatchService, ctx, body);
+            inboundParamMatchService.enrichWithInboundParamMatches(req, template);
+        }
+
+        long start = System.nanoTime();
+        String replaced = null;
+
+        for (int i = 0; i < replaceRequestCount; i++) {
+            replaced = replaceEachToken(inboundParamMatchService, ctx, body);
+        }
+
+        final long replaceElapsed = (System.nanoTime() - start) / replaceRequestCount;
+
+        start = System.nanoTime();
+        String rendered = null;
+
+        for (int i = 0; i < renderRequestCount; i++) {
+            rendered = inboundParamMatchService.enrichWithInboundParamMatches(req, template);
+        }
+
+        final long renderElapsed = (System.nanoTime() - start) / renderRequestCount;
+
+        // Assertions
+        Assert.assertEquals(tokenCount, template.getTokenCount());
+        Assert.assertEquals(replaced, rendered);
+
+        logger.info(String.format("ResponseTemplate: %dKB body with %d tokens, per request find and replace: %dms, compiled template: %.2fms",
+                body.length() / 1024, tokenCount, replaceElapsed / 1000000, renderElapsed / 1000000.0));
+    }
+
+    // The loop previously run by enrichWithInboundParamMatches(), searching the whole body again after each token is swapped out.
+    private String replaceEachToken(final InboundParamMatchServiceImpl inboundParamMatchService, final RequestContext ctx, final String body) {
+
+        String enriched = body;
+        String token;
+
+        while ((token = findFirstToken(enriched)) != null) {
+
+            final String value = inboundParamMatchService.resolveToken(ctx, ResponseTemplate.Token.parse(token));
+
+            enriched = StringUtils.replace(enriched, "${" + token + "}", (value != null) ? value : "", 1);
+        }
+
+        return enriched;
+    }
+
+    // As previously done by GeneralUtils.findFirstInboundParamMatch().
+    private String findFirstToken(final String input) {
+
+        final Matcher matcher = Pattern.compile(INBOUND_TOKEN_PATTERN).matcher(input);
+
+        return (matcher.find()) ? matcher.group(1) : null;
+    }
+
+    // Tokens spread evenly through the body, with a header value which never changes between requests.
+    private String buildBody() {
+
+        final StringBuilder sb = new StringBuilder(bodyLength + 64);
+        final int gap = bodyLength / tokenCount;
+
+        for (int t = 0; t < tokenCount; t++) {
+
+            for (int i = 0; i < gap; i++) {
+                sb.append((char) ('a' + (i % 26)));
+            }
+
+            sb.append("${").append(ParamMatchTypeEnum.REQ_HEAD.name()).append("=X-Name}");
+        }
+
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.smockin.mockserver.service;
+
+import com.smockin.admin.persistence.entity.RestfulMock;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionOrder;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRule;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroup;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroupCondition;
+import com.smockin.admin.persistence.entity.SmockinUser;
+import com.smockin.admin.persistence.enums.RecordStatusEnum;
+import com.smockin.admin.persistence.enums.RestMethodEnum;
+import com.smockin.admin.persistence.enums.RestMockTypeEnum;
+import com.smockin.admin.persistence.enums.RuleComparatorEnum;
+import com.smockin.admin.persistence.enums.RuleDataTypeEnum;
+import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+import com.smockin.admin.persistence.enums.SmockinUserRoleEnum;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
+import com.smockin.utils.GeneralUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Created by mgallina.
+ *
+ * Compares the heap retained by 10k deployed mocks, when held as detached entities (as the mock server used to)
+ * against their compiled runtime form.
+ *
+ * Figures are logged rather than asserted upon, as they depend on the JVM and collector in use.
+ * Note that the entities here are plain instances, so do not include the overhead of Hibernate's own
+ * persistent collections, meaning the real world saving is larger still.
+ */
+public class RestfulMockCompilerHeapTest {
+
+    private final Logger logger = LoggerFactory.getLogger(RestfulMockCompilerHeapTest.class);
+
+    private final int mockCount = 10000;
+
+    @Test
+    public void retainedHeap_Test() throws InterruptedException {
+
+        final RestfulMockCompiler restfulMockCompiler = new RestfulMockCompilerImpl();
+
+        final SmockinUser user = new SmockinUser();
+        user.setRole(SmockinUserRoleEnum.REGULAR);
+        user.setCtxPath("bob");
+
+        final long baseline = usedHeap();
+
+        List<RestfulMock> mocks = buildMocks(user);
+
+        final long entityHeap = usedHeap() - baseline;
+
+        final List<CompiledRestfulMock> compiledMocks = new ArrayList<>();
+
+        for (RestfulMock m : mocks) {
+            compiledMocks.add(restfulMockCompiler.compile(m, "/" + user.getCtxPath() + m.getPath()));
+        }
+
+        // Only the compiled mocks are retained from here on (along with the strings they share with the entities).
+        mocks = null;
+
+        final long compiledHeap = usedHeap() - baseline;
+
+        Assert.assertEquals(mockCount, compiledMocks.size());
+
+        logger.info(String.format("Entities: %6d mocks, %8d KB retained", mockCount, (entityHeap / 1024)));
+        logger.info(String.format("Compiled: %6d mocks, %8d KB retained", mockCount, (compiledHeap / 1024)));
+    }
+
+    private List<RestfulMock> buildMocks(final SmockinUser user) {
+
+        final List<RestfulMock> mocks = new ArrayList<>(mockCount);
+
+        for (int i = 0; i < mockCount; i++) {
+
+            final RestfulMock mock = new RestfulMock("/api/v1/resource" + i, RestMethodEnum.GET, RecordStatusEnum.ACTIVE,
+                    (i % 2 == 0) ? RestMockTypeEnum.SEQ : RestMockTypeEnum.RULE, 0, 0, 0, false, false, false, user);
+            mock.setId(i);
+            mock.setExtId(GeneralUtils.generateUUID());
+            mock.setDateCreated(new Date());
+            mock.setLastUpdated(new Date());
+
+            for (int d = 1; d <= 2; d++) {
+                final RestfulMockDefinitionOrder order = new RestfulMockDefinitionOrder(mock, 200, MediaType.APPLICATION_JSON_VALUE,
+                        "{ \"resource\" : " + i + ", \"order\" : " + d + " }", d, 0, false, 0, 0);
+                order.setExtId(GeneralUtils.generateUUID());
+                order.setDateCreated(new Date());
+                order.getResponseHeaders().put("X-Resource", String.valueOf(i));
+                mock.getDefinitions().add(order);
+            }
+
+            final RestfulMockDefinitionRule rule = new RestfulMockDefinitionRule(mock, 1, 201, MediaType.APPLICATION_JSON_VALUE,
+                    "{ \"resource\" : " + i + ", \"rule\" : 1 }", 0, false);
+            rule.setExtId(GeneralUtils.generateUUID());
+            rule.setDateCreated(new Date());
+
+            final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule, 1);
+            group.setExtId(GeneralUtils.generateUUID());
+            group.setDateCreated(new Date());
+
+            final RestfulMockDefinitionRuleGroupCondition condition = new RestfulMockDefinitionRuleGroupCondition(group, "name",
+                    RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "joe" + i, RuleMatchingTypeEnum.REQUEST_PARAM, false);
+            condition.setExtId(GeneralUtils.generateUUID());
+            condition.setDateCreated(new Date());
+
+            group.getConditions().add(condition);
+            rule.getConditionGroups().add(group);
+            mock.getRules().add(rule);
+
+            mocks.add(mock);
+        }
+
+        return mocks;
+    }
+
+    private long usedHeap() throws InterruptedException {
+
+        final Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,480 @@
+package com.smockin.mockserver.service;
+
+import com.smockin.admin.persistence.entity.RestfulMock;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionOrder;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRule;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroup;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroupCondition;
+import com.smockin.admin.persistence.entity.SmockinUser;
+import com.smockin.admin.persistence.enums.RecordStatusEnum;
+import com.smockin.admin.persistence.enums.RestMethodEnum;
+import com.smockin.admin.persistence.enums.RestMockTypeEnum;
+import com.smockin.admin.persistence.enums.RuleComparatorEnum;
+import com.smockin.admin.persistence.enums.RuleDataTypeEnum;
+import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+import com.smockin.admin.persistence.enums.SmockinUserRoleEnum;
+import com.smockin.mockserver.service.bean.CompiledRestfulMock;
+import com.smockin.mockserver.service.bean.CompiledRule;
+import com.smockin.mockserver.service.bean.CompiledRuleCondition;
+import com.smockin.mockserver.service.bean.CompiledRuleIndex;
+import com.smockin.mockserver.service.bean.ContainsAutomaton;
+import com.smockin.mockserver.service.bean.EncodedBody;
+import com.smockin.mockserver.service.bean.SharedRuleMatchers;
+import com.smockin.mockserver.service.dto.RestfulResponseDTO;
+import com.smockin.utils.CompressionUtils;
+import com.smockin.utils.GeneralUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Created by mgallina.
+ */
+public class RestfulMockCompilerTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private RestfulMockCompiler restfulMockCompiler;
+    private RestfulMock restfulMock;
+    private RestfulMockDefinitionOrder order1, order2;
+    private RestfulMockDefinitionRule rule1, rule2;
+
+    @Before
+    public void setUp() {
+
+        restfulMockCompiler = new RestfulMockCompilerImpl();
+
+        final SmockinUser user = new SmockinUser();
+        user.setRole(SmockinUserRoleEnum.REGULAR);
+        user.setCtxPath("bob");
+
+        restfulMock = new RestfulMock("/pets", RestMethodEnum.GET, RecordStatusEnum.ACTIVE, RestMockTypeEnum.RULE, 0, 0, 0, false, false, true, user);
+        restfulMock.setId(10);
+        restfulMock.setExtId(GeneralUtils.generateUUID());
+
+        order1 = new RestfulMockDefinitionOrder(restfulMock, 200, MediaType.APPLICATION_JSON_VALUE, "{ \"name\" : \"${REQ_PARAM=name}\" }", 1, 250, false, 2, 0);
+        order1.setExtId(GeneralUtils.generateUUID());
+        order1.getResponseHeaders().put("X-Pet", "dog");
+        order2 = new RestfulMockDefinitionOrder(restfulMock, 500, MediaType.TEXT_PLAIN_VALUE, "Error", 2, 0, true, 0, 0);
+        order2.setExtId(GeneralUtils.generateUUID());
+
+        restfulMock.getDefinitions().add(order1);
+        restfulMock.getDefinitions().add(order2);
+
+        rule1 = new RestfulMockDefinitionRule(restfulMock, 1, 201, MediaType.TEXT_PLAIN_VALUE, "Created", 0, false);
+        final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule1, 1);
+        group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "name", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "joe", RuleMatchingTypeEnum.REQUEST_PARAM, null));
+        rule1.getConditionGroups().add(group);
+        rule2 = new RestfulMockDefinitionRule(restfulMock, 2, 404, MediaType.TEXT_PLAIN_VALUE, "Not Found", 0, true);
+
+        restfulMock.getRules().add(rule1);
+        restfulMock.getRules().add(rule2);
+    }
+
+    @Test
+    public void compile_nullMock_Test() {
+
+        // Assertions
+        thrown.expect(NullPointerException.class);
+
+        // Test
+        restfulMockCompiler.compile(null, "/bob/pets");
+    }
+
+    @Test
+    public void compile_Test() {
+
+        // Test
+        final CompiledRestfulMock result = restfulMockCompiler.compile(restfulMock, "/bob/pets");
+
+        // Assertions
+        Assert.assertEquals(10, result.getId());
+        Assert.assertEquals(restfulMock.getExtId(), result.getExtId());
+        Assert.assertEquals(RestMethodEnum.GET, result.getMethod());
+        Assert.assertEquals(RestMockTypeEnum.RULE, result.getMockType());
+        Assert.assertEquals("/pets", result.getPath());
+        Assert.assertEquals("bob", result.getCtxPath());
+        Assert.assertEquals("/bob/pets", result.getUserPath());
+        Assert.assertTrue(result.isProxyForwardWhenNoRuleMatch());
+    }
+
+    @Test
+    public void compile_version_Test() {
+
+        // Setup
+        restfulMock.setDateCreated(new Date(1000));
+
+        // Test
+        final CompiledRestfulMock created = restfulMockCompiler.compile(restfulMock, "/bob/pets");
+        restfulMock.setLastUpdated(new Date(2000));
+        final CompiledRestfulMock updated = restfulMockCompiler.compile(restfulMock, "/bob/pets");
+
+        // Assertions
+        Assert.assertEquals(1000, created.getVersion());
+        Assert.assertEquals(2000, updated.getVersion());
+    }
+
+    @Test
+    public void compile_noBulkhead_Test() {
+
+        // Test
+        final CompiledRestfulMock result = restfulMockCompiler.compile(restfulMock, "/bob/pets");
+
+        // Assertions
+        Assert.assertNull(result.getBulkhead());
+    }
+
+    @Test
+    public void compile_bulkhead_Test() {
+
+        // Setup
+        restfulMock.setMaxConcurrentRequests(5);
+        restfulMock.setMaxQueuedRequests(10);
+        restfulMock.setOverloadStatusCode(429);
+        restfulMock.setOverloadRetryAfterSeconds(2);
+
+        // Test
+        final CompiledRestfulMock result = restfulMockCompiler.compile(restfulMock, "/bob/pets");
+
+        // Assertions
+        Assert.assertNotNull(result.getBulkhead());
+        Assert.assertEquals(0, result.getBulkhead().getInFlight());
+        Assert.assertEquals(429, result.getBulkhead().getRejectionStatusCode());
+        Assert.assertEquals(2, result.getBulkhead().getRetryAfterSeconds());
+    }
+
+    @Test
+    public void compile_jsonPathExtractorShared_Test() {
+
+        // Setup
+        final RestfulMockDefinitionRule rule3 = new RestfulMockDefinitionRule(restfulMock, 3, 200, MediaType.TEXT_PLAIN_VALUE, "Big order", 0, false);
+        final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule3, 1);
+        group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "$.order.customer.id", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "c1", RuleMatchingTypeEnum.REQUEST_BODY_JSON_PATH, false));
+        group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "order.items[0].sku", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "A1", RuleMatchingTypeEnum.REQUEST_BODY_JSON_PATH, false));
+        rule3.getConditionGroups().add(group);
+
+        final RestfulMockDefinitionRule rule4 = new RestfulMockDefinitionRule(restfulMock, 4, 200, MediaType.TEXT_PLAIN_VALUE, "Customer order", 0, false);
+        final RestfulMockDefinitionRuleGroup group2 = new RestfulMockDefinitionRuleGroup(rule4, 1);
+        group2.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group2, "order.customer.id", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "c2", RuleMatchingTypeEnum.REQUEST_BODY_JSON_PATH, false));
+        rule4.getConditionGroups().add(group2);
+
+        restfulMock.getRules().add(rule3);
+        restfulMock.getRules().add(rule4);
+
+        // Test
+        final CompiledRestfulMock result = restfulMockCompiler.compile(restfulMock, "/bob/pets");
+
+        // Assertions
+        final CompiledRuleCondition customerId = result.getRules().get(1).getConditionGroups().get(0).getConditions().get(0);
+        final CompiledRuleCondition sku = result.getRules().get(1).getConditionGroups().get(0).getConditions().get(1);
+        final CompiledRuleCondition customerId2 = result.getRules().get(2).getConditionGroups().get(0).getConditions().get(0);
+
+        // All paths in the mock are extracted together, with the same path (however written) sharing a slot.
+        Assert.assertNotNull(customerId.getJsonPathExtractor());
+        Assert.assertSame(customerId.getJsonPathExtractor(), sku.getJsonPathExtractor());
+        Assert.assertSame(customerId.getJsonPathExtractor(), customerId2.getJsonPathExtractor());
+        Assert.assertEquals(2, customerId.getJsonPathExtractor().getSlotCount());
+        Assert.assertEquals(customerId.getJsonPathSlot(), customerId2.getJsonPathSlot());
+        Assert.assertNotEquals(customerId.getJsonPathSlot(), sku.getJsonPathSlot());
+
+        // Other matching types are left without one.
+        Assert.assertNull(result.getRules().get(0).getConditionGroups().get(0).getConditions().get(0).getJsonPathExtractor());
+    }
+
+    @Test
+    public void compile_xPathExtractorShared_Test() {
+
+        // Setup
+        final RestfulMockDefinitionRule rule3 = new RestfulMockDefinitionRule(restfulMock, 3, 200, MediaType.TEXT_PLAIN_VALUE, "SOAP order", 0, false);
+        final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule3, 1);
+        group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "//order/@id", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.EQUALS, "7", RuleMatchingTypeEnum.REQUEST_BODY_XPATH, false));
+        group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "X-Client", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "web", RuleMatchingTypeEnum.REQUEST_HEADER, false));
+        group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "/Envelope/Body/order/customer/id", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "c1", RuleMatchingTypeEnum.REQUEST_BODY_XPATH, false));
+        rule3.getConditionGroups().add(group);
+
+        restfulMock.getRules().add(rule3);
+
+        // Test
+        final CompiledRestfulMock result = restfulMockCompiler.compile(restfulMock, "/bob/pets");
+
+        // Assertions
+        final List<CompiledRuleCondition> conditions = result.getRules().get(1).getConditionGroups().get(0).getConditions();
+
+        // The header is checked first, as it does not need the body.
+        Assert.assertEquals(RuleMatchingTypeEnum.REQUEST_HEADER, conditions.get(0).getRuleMatchingType());
+        Assert.assertNull(conditions.get(0).getXPathExtractor());
+
+        Assert.assertNotNull(conditions.get(1).getXPathExtractor());
+        Assert.assertSame(conditions.get(1).getXPathExtractor(), conditions.get(2).getXPathExtractor());
+        Assert.assertEquals(2, conditions.get(1).getXPathExtractor().getSlotCount());
+        Assert.assertNotEquals(conditions.get(1).getXPathSlot(), conditions.get(2).getXPathSlot());
+        Assert.assertNull(conditions.get(1).getJsonPathExtractor());
+    }
+
+    @Test
+    public void compile_containsAutomaton_Test() {
+
+        // Setup
+        final List<RestfulMockDefinitionRuleGroupCondition> conditions = new ArrayList<>();
+        final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule1, 2);
+
+        for (String keyword : new String[] { "refund", "cancel", "complaint", "REFUND" }) {
+            conditions.add(new RestfulMockDefinitionRuleGroupCondition(group, null, RuleDataTypeEnum.TEXT, RuleComparatorEnum.CONTAINS, keyword, RuleMatchingTypeEnum.REQUEST_BODY, false));
+        }
+
+        // Too few on the same field, or of the same case sensitivity.
+        conditions.add(new RestfulMockDefinitionRuleGroupCondition(group, null, RuleDataTypeEnum.TEXT, RuleComparatorEnum.CONTAINS, "urgent", RuleMatchingTypeEnum.REQUEST_BODY, true));
+        conditions.add(new RestfulMockDefinitionRuleGroupCondition(group, "X-Tags", RuleDataTypeEnum.TEXT, RuleComparatorEnum.CONTAINS, "vip", RuleMatchingTypeEnum.REQUEST_HEADER, false));
+
+        final RestfulMockCompilerImpl restfulMockCompilerImpl = (RestfulMockCompilerImpl) restfulMockCompiler;
+
+        // Test
+        final SharedRuleMatchers result = restfulMockCompilerImpl.compileSharedRuleMatchers(conditions);
+
+        // Assertions
+        final ContainsAutomaton automaton = result.findContainsAutomaton(RuleMatchingTypeEnum.REQUEST_BODY, null, false);
+
+        Assert.assertNotNull(automaton);
+        Assert.assertEquals(3, automaton.getPatternCount());
+        Assert.assertNull(result.findContainsAutomaton(RuleMatchingTypeEnum.REQUEST_BODY, null, true));
+        Assert.assertNull(result.findContainsAutomaton(RuleMatchingTypeEnum.REQUEST_HEADER, "X-Tags", false));
+
+        final CompiledRuleCondition refund = restfulMockCompilerImpl.compileRuleCondition(conditions.get(0), result);
+        final CompiledRuleCondition urgent = restfulMockCompilerImpl.compileRuleCondition(conditions.get(4), result);
+
+        Assert.assertSame(automaton, refund.getContainsAutomaton());
+        Assert.assertEquals(automaton.patternIdOf("REFUND"), refund.getContainsPatternId());
+        Assert.assertNull(urgent.getContainsAutomaton());
+    }
+
+    @Test
+    public void compile_definitions_Test() {
+
+        // Test
+        final CompiledRestfulMock result = restfulMockCompiler.compile(restfulMock, "/bob/pets");
+
+        // Assertions
+        // Suspended definitions are excluded.
+        Assert.assertEquals(1, result.getDefinitions().size());
+        Assert.assertEquals(order1.getExtId(), result.getDefinitions().get(0).getExtId());
+        Assert.assertEquals(2, result.getDefinitions().get(0).getFrequencyCount());
+
+        final RestfulResponseDTO response = result.getDefinitions().get(0).getResponse();
+        Assert.assertEquals(200, response.getHttpStatusCode());
+        Assert.assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getResponseContentType());
+        Assert.assertEquals(order1.getResponseBody(), response.getResponseBody());
+        Assert.assertEquals(250, response.getSleepInMillis());
+        Assert.assertTrue(response.isTemplated());
+        Assert.assertNull(response.getResponseBodyBytes());
+        Assert.assertNull(response.getETag());
+        Assert.assertEquals(1, response.getHeaderCount());
+        Assert.assertEquals("X-Pet", response.getHeaderName(0));
+        Assert.assertEquals("dog", response.getHeaderValue(0));
+    }
+
+    @Test
+    public void compile_rules_Test() {
+
+        // Test
+        final CompiledRestfulMock result = restfulMockCompiler.compile(restfulMock, "/bob/pets");
+
+        // Assertions
+        // Suspended rules are excluded.
+        Assert.assertEquals(1, result.getRules().size());
+
+        final CompiledRule rule = result.getRules().get(0);
+        Assert.assertEquals(201, rule.getResponse().getHttpStatusCode());
+        Assert.assertEquals("Created", rule.getResponse().getResponseBody());
+        Assert.assertFalse(rule.getResponse().isTemplated());
+        Assert.assertArrayEquals("Created".getBytes(StandardCharsets.UTF_8), rule.getResponse().getResponseBodyBytes());
+        Assert.assertEquals("\"" + DigestUtils.md5DigestAsHex("Created".getBytes(StandardCharsets.UTF_8)) + "\"", rule.getResponse().getETag());
+        Assert.assertEquals(0, rule.getResponse().getHeaderCount());
+        Assert.assertEquals(1, rule.getConditionGroups().size());
+
+        final CompiledRuleCondition condition = rule.getConditionGroups().get(0).getConditions().get(0);
+        Assert.assertEquals("name", condition.getField());
+        Assert.assertEquals(RuleDataTypeEnum.TEXT, condition.getDataType());
+        Assert.assertEquals(RuleComparatorEnum.EQUALS, condition.getComparator());
+        Assert.assertEquals("joe", condition.getMatchValue());
+        Assert.assertEquals(RuleMatchingTypeEnum.REQUEST_PARAM, condition.getRuleMatchingType());
+        Assert.assertFalse(condition.isCaseSensitive());
+    }
+
+    @Test
+    public void compile_ruleConditionMatcher_Test() {
+
+        // Test
+        final CompiledRuleCondition condition = restfulMockCompiler.compile(restfulMock, "/bob/pets")
+                .getRules().get(0).getConditionGroups().get(0).getConditions().get(0);
+
+        // Assertions
+        Assert.assertTrue(condition.matches("Joe"));
+        Assert.assertFalse(condition.matches("Jane"));
+        Assert.assertFalse(condition.matches(null));
+    }
+
+    @Test
+    public void compile_tooFewRulesToIndex_Test() {
+
+        // Test
+        final CompiledRestfulMock result = restfulMockCompiler.compile(restfulMock, "/bob/pets");
+
+        // Assertions
+        Assert.assertNull(result.getRuleIndex());
+    }
+
+    @Test
+    public void compileRuleIndex_Test() {
+
+        // Setup
+        restfulMock.getRules().clear();
+
+        for (int i = 0; i < RestfulMockCompilerImpl.MIN_INDEXED_GROUPS; i++) {
+            restfulMock.getRules().add(buildHeaderRule(i + 1, "X-Customer-Id", "c" + i, (i == 0)));
+        }
+
+        restfulMock.getRules().add(1, buildHeaderRule(100, "X-Pet", "dog", false));
+
+        // Test
+        final CompiledRuleIndex result = restfulMockCompiler.compile(restfulMock, "/bob/pets").getRuleIndex();
+
+        // Assertions
+        Assert.assertNotNull(result);
+        Assert.assertEquals(RuleMatchingTypeEnum.REQUEST_HEADER, result.getRuleMatchingType());
+        Assert.assertEquals("X-Customer-Id", result.getField());
+        Assert.assertArrayEquals(new int[] { 1 }, result.getFallbackPositions());
+
+        // c0 is case sensitive
+        Assert.assertArrayEquals(new int[] { 0 }, result.findPositions("c0"));
+        Assert.assertArrayEquals(new int[0], result.findPositions("C0"));
+
+        Assert.assertArrayEquals(new int[] { 4 }, result.findPositions("c3"));
+        Assert.assertArrayEquals(new int[] { 4 }, result.findPositions("C3"));
+        Assert.assertArrayEquals(new int[0], result.findPositions("c99"));
+        Assert.assertArrayEquals(new int[0], result.findPositions(null));
+        Assert.assertEquals("Customer c3", result.getRule(4).getResponse().getResponseBody());
+    }
+
+    @Test
+    public void compileRuleGroup_cheapestConditionsFirst_Test() {
+
+        // Setup
+        final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule1, 2);
+        group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "name", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "joe", RuleMatchingTypeEnum.REQUEST_BODY_JSON_ANY, null));
+        group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "age", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.EQUALS, "10", RuleMatchingTypeEnum.REQUEST_PARAM, null));
+        group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "X-Pet", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "dog", RuleMatchingTypeEnum.REQUEST_HEADER, null));
+        group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "id", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "1", RuleMatchingTypeEnum.PATH_VARIABLE, null));
+
+        // Test
+        final List<CompiledRuleCondition> result = ((RestfulMockCompilerImpl) restfulMockCompiler).compileRuleGroup(group).getConditions();
+
+        // Assertions
+        Assert.assertEquals(4, result.size());
+        Assert.assertEquals(RuleMatchingTypeEnum.PATH_VARIABLE, result.get(0).getRuleMatchingType());
+        Assert.assertEquals(RuleMatchingTypeEnum.REQUEST_HEADER, result.get(1).getRuleMatchingType());
+        Assert.assertEquals(RuleMatchingTypeEnum.REQUEST_PARAM, result.get(2).getRuleMatchingType());
+        Assert.assertEquals(RuleMatchingTypeEnum.REQUEST_BODY_JSON_ANY, result.get(3).getRuleMatchingType());
+    }
+
+    @Test
+    public void compile_compressedVariants_Test() {
+
+        // Setup
+        rule1.setResponseBody(StringUtils.repeat("Created ", 200));
+
+        // Test
+        final CompiledRestfulMock result = restfulMockCompiler.compile(restfulMock, "/bob/pets");
+
+        // Assertions
+        final RestfulResponseDTO response = result.getRules().get(0).getResponse();
+        Assert.assertTrue(response.isCompressed());
+
+        final EncodedBody gzipBody = response.getEncodedBody(CompressionUtils.GZIP);
+        final EncodedBody deflateBody = response.getEncodedBody(CompressionUtils.DEFLATE);
+        Assert.assertEquals(CompressionUtils.GZIP, gzipBody.getContentEncoding());
+        Assert.assertEquals(CompressionUtils.DEFLATE, deflateBody.getContentEncoding());
+        Assert.assertTrue(gzipBody.getBytes().length < response.getResponseBodyBytes().length);
+        Assert.assertNotEquals(response.getETag(), gzipBody.getETag());
+        Assert.assertNotEquals(gzipBody.getETag(), deflateBody.getETag());
+        Assert.assertNull(response.getEncodedBody(null).getContentEncoding());
+    }
+
+    @Test
+    public void compile_compressedVariants_contentEncodingHeader_Test() {
+
+        // Setup
+        rule1.setResponseBody(StringUtils.repeat("Created ", 200));
+        rule1.getResponseHeaders().put("Content-Encoding", "gzip");
+
+        // Test
+        final CompiledRestfulMock result = restfulMockCompiler.compile(restfulMock, "/bob/pets");
+
+        // Assertions
+        // Left to Spark to compress
+        final RestfulResponseDTO response = result.getRules().get(0).getResponse();
+        Assert.assertTrue(response.isContentEncoded());
+        Assert.assertFalse(response.isCompressed());
+        Assert.assertNull(response.getResponseBodyBytes());
+    }
+
+    @Test
+    public void compile_smallBody_notCompressed_Test() {
+
+        // Test
+        final CompiledRestfulMock result = restfulMockCompiler.compile(restfulMock, "/bob/pets");
+
+        // Assertions
+        final RestfulResponseDTO response = result.getRules().get(0).getResponse();
+        Assert.assertFalse(response.isCompressed());
+        Assert.assertSame(response.getEncodedBody(null), response.getEncodedBody(CompressionUtils.GZIP));
+    }
+
+    @Test
+    public void compile_isDetachedFromEntity_Test() {
+
+        // Setup
+        final CompiledRestfulMock result = restfulMockCompiler.compile(restfulMock, "/bob/pets");
+
+        // Test
+        restfulMock.getDefinitions().clear();
+        restfulMock.getRules().clear();
+        order1.getResponseHeaders().put("X-Owner", "joe");
+
+        // Assertions
+        Assert.assertEquals(1, result.getDefinitions().size());
+        Assert.assertEquals(1, result.getRules().size());
+        Assert.assertEquals(1, result.getDefinitions().get(0).getResponse().getHeaderCount());
+    }
+
+    @Test
+    public void compile_immutable_Test() {
+
+        // Assertions
+        thrown.expect(UnsupportedOperationException.class);
+
+        // Test
+        restfulMockCompiler.compile(restfulMock, "/bob/pets").getDefinitions().clear();
+    }
+
+    private RestfulMockDefinitionRule buildHeaderRule(final int orderNo, final String headerName, final String headerValue, final boolean caseSensitive) {
+
+        final RestfulMockDefinitionRule rule = new RestfulMockDefinitionRule(restfulMock, orderNo, 200, MediaType.TEXT_PLAIN_VALUE, "Customer " + headerValue, 0, false);
+        final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule, 1);
+        group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, headerName, RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, headerValue, RuleMatchingTypeEnum.REQUEST_HEADER, caseSensitive));
+        rule.getConditionGroups().add(group);
+
+        return rule;
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.smockin.mockserver.service;
+
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRule;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroup;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroupCondition;
+import com.smockin.admin.persistence.enums.RuleComparatorEnum;
+import com.smockin.admin.persistence.enums.RuleDataTypeEnum;
+import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+import com.smockin.mockserver.service.bean.CompiledRule;
+import com.smockin.mockserver.service.bean.CompiledRuleCondition;
+import com.smockin.mockserver.service.bean.CompiledRuleGroup;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by mgallina.
+ *
+ * Compares matching a request against a mock with many rules, where only the last rule is met,
+ * using the compiled (short circuiting) conditions against the previous approach of checking every condition
+ * in a group and resolving the comparator and data type on each call.
+ *
+ * Inbound values are looked up from a map rather than a Spark request, so only the matching itself is timed.
+ * Timings are logged rather than asserted upon, as they depend on the build machine.
+ */
+public class RuleEngineBenchmarkTest {
+
+    private final Logger logger = LoggerFactory.getLogger(RuleEngineBenchmarkTest.class);
+
+    private final int ruleCount = 60;
+    private final int requestCount = 20000;
+    private final int warmUpCount = 5000;
+
+    @Test
+    public void manyRules_Test() {
+
+        // Setup
+        final List<CompiledRule> rules = buildRules();
+        final Map<String, String> inboundValues = new HashMap<>();
+        inboundValues.put("X-Pet", "dog");
+        inboundValues.put("name", "Rex " + (ruleCount - 1));
+        inboundValues.put("age", String.valueOf(ruleCount - 1));
+
+        // Test
+        for (int i = 0; i < warmUpCount; i++) {
+            processLegacy(rules, inboundValues);
+            processCompiled(rules, inboundValues);
+        }
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < requestCount; i++) {
+            Assert.assertNotNull(processLegacy(rules, inboundValues));
+        }
+
+        final long legacyElapsed = System.nanoTime() - start;
+
+        start = System.nanoTime();
+
+        for (int i = 0; i < requestCount; i++) {
+            Assert.assertNotNull(processCompiled(rules, inboundValues));
+        }
+
+        final long compiledElapsed = System.nanoTime() - start;
+
+        // Assertions
+        Assert.assertSame(processLegacy(rules, inboundValues), processCompiled(rules, inboundValues));
+
+        logger.info(String.format("RuleEngine: %d requests against %d rules, every condition checked: %dms, short circuited: %dms",
+                requestCount, ruleCount, legacyElapsed / 1000000, compiledElapsed / 1000000));
+    }
+
+    private CompiledRule processCompiled(final List<CompiledRule> rules, final Map<String, String> inboundValues) {
+
+        for (CompiledRule rule : rules) {
+            for (CompiledRuleGroup group : rule.getConditionGroups()) {
+
+                boolean matched = true;
+
+                for (CompiledRuleCondition condition : group.getConditions()) {
+                    if (!condition.matches(inboundValues.get(condition.getField()))) {
+                        matched = false;
+                        break;
+                    }
+                }
+
+                if (matched) {
+                    return rule;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private CompiledRule processLegacy(final List<CompiledRule> rules, final Map<String, String> inboundValues) {
+
+        for (CompiledRule rule : rules) {
+            for (CompiledRuleGroup group : rule.getConditionGroups()) {
+
+                int groupMatchCount = 0;
+
+                for (CompiledRuleCondition condition : group.getConditions()) {
+                    if (legacyComparison(condition, inboundValues.get(condition.getField()))) {
+                        groupMatchCount++;
+                    }
+                }
+
+                if (groupMatchCount == group.getConditions().size()) {
+                    return rule;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    // As previously evaluated per call by the RuleResolver.
+    private boolean legacyComparison(final CompiledRuleCondition condition, final String inboundValue) {
+
+        if (inboundValue == null) {
+            return RuleComparatorEnum.IS_MISSING.equals(condition.getComparator());
+        }
+
+        switch (condition.getComparator()) {
+            case EQUALS:
+                if (RuleDataTypeEnum.TEXT.equals(condition.getDataType())) {
+                    return condition.isCaseSensitive()
+                            ? condition.getMatchValue().equals(inboundValue)
+                            : condition.getMatchValue().equalsIgnoreCase(inboundValue);
+                }
+                return NumberUtils.isCreatable(inboundValue)
+                        && NumberUtils.toDouble(inboundValue) == NumberUtils.toDouble(condition.getMatchValue());
+            case CONTAINS:
+                return condition.isCaseSensitive()
+                        ? inboundValue.contains(condition.getMatchValue())
+                        : inboundValue.toLowerCase().contains(condition.getMatchValue().toLowerCase());
+            case IS_MISSING:
+            default:
+                return StringUtils.isBlank(inboundValue);
+        }
+
+    }
+
+    private List<CompiledRule> buildRules() {
+
+        final RestfulMockCompilerImpl restfulMockCompiler = new RestfulMockCompilerImpl();
+        final List<CompiledRule> rules = new ArrayList<>();
+
+        for (int i = 0; i < ruleCount; i++) {
+
+            final RestfulMockDefinitionRule rule = new RestfulMockDefinitionRule(null, i + 1, 200, MediaType.TEXT_PLAIN_VALUE, "Rule " + i, 0, false);
+            final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule, 1);
+
+            // Each rule is ruled out by it's first condition, bar the last.
+            group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "age", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.EQUALS, String.valueOf(i), RuleMatchingTypeEnum.REQUEST_HEADER, false));
+            group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "X-Pet", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "DOG", RuleMatchingTypeEnum.REQUEST_HEADER, false));
+            group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "name", RuleDataTypeEnum.TEXT, RuleComparatorEnum.CONTAINS, "REX " + i, RuleMatchingTypeEnum.REQUEST_HEADER, false));
+            rule.getConditionGroups().add(group);
+
+            rules.add(restfulMockCompiler.compileRule(rule));
+        }
+
+        return rules;
+    }
+
+}
@@ -6,6 +6,11 @@ import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroupCondit
 import com.smockin.admin.persistence.enums.RuleComparatorEnum;
 import com.smockin.admin.persistence.enums.RuleDataTypeEnum;
 import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+import com.smockin.mockserver.service.bean.CompiledRule;
+import com.smockin.mockserver.service.bean.CompiledRuleCondition;
+import com.smockin.mockserver.service.bean.CompiledRuleGroup;
+import com.smockin.mockserver.service.bean.CompiledRuleIndex;
+import com.smockin.mockserver.service.bean.SharedRuleMatchers;
 import com.smockin.mockserver.service.dto.RestfulResponseDTO;
 import org.junit.Assert;
 import org.junit.Rule;
@@ -18,6 +23,7 @@ import org.springframework.http.MediaType;
 import spark.Request;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -33,7 +39,7 @@ public class RuleEngineTest {
     private Request req;
 
     @Mock
-    private List<RestfulMockDefinitionRule> rules;
+    private List<CompiledRule> rules;
 
     @Spy
     @InjectMocks
@@ -60,7 +66,7 @@ public class RuleEngineTest {
     public void process_emptyRules_Test() {
 
         // Setup
-        rules = new ArrayList<RestfulMockDefinitionRule>();
+        rules = new ArrayList<CompiledRule>();
 
         // Test
         final RestfulResponseDTO result = ruleEngine.process(req, rules);
@@ -74,7 +80,7 @@ public class RuleEngineTest {
     public void process_Test() {
 
         // Setup
-        rules = new ArrayList<RestfulMockDefinitionRule>();
+        rules = new ArrayList<CompiledRule>();
 
         final RestfulMockDefinitionRule rule = new RestfulMockDefinitionRule(null, 1, 200, MediaType.APPLICATION_JSON_VALUE, "{ \"msg\" : \"foobar\" }", 0, false);
         final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule, 1);
@@ -82,10 +88,10 @@ public class RuleEngineTest {
 
         group.getConditions().add(condition);
         rule.getConditionGroups().add(group);
-        rules.add(rule);
+        rules.add(new RestfulMockCompilerImpl().compileRule(rule));
 
         Mockito.when(req.body()).thenReturn("{ \"name\" : \"joe\" }");
-        Mockito.when(ruleResolver.processRuleComparison(Matchers.any(RestfulMockDefinitionRuleGroupCondition.class), Matchers.anyString())).thenReturn(true);
+        Mockito.when(ruleResolver.processRuleComparison(Matchers.any(CompiledRuleCondition.class), Matchers.anyString())).thenReturn(true);
 
         // Test
         final RestfulResponseDTO result = ruleEngine.process(req, rules);
@@ -97,6 +103,220 @@ public class RuleEngineTest {
         Assert.assertEquals(rule.getResponseBody(), result.getResponseBody());
     }
 
+    @Test
+    public void isGroupMatch_shortCircuit_Test() {
+
+        // Setup
+        final RestfulMockDefinitionRule rule = new RestfulMockDefinitionRule(null, 1, 200, MediaType.APPLICATION_JSON_VALUE, "{ \"msg\" : \"foobar\" }", 0, false);
+        final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule, 1);
+        group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "name", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "joe", RuleMatchingTypeEnum.REQUEST_BODY_JSON_ANY, false));
+        group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "X-Pet", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "dog", RuleMatchingTypeEnum.REQUEST_HEADER, false));
+
+        Mockito.when(req.headers("X-Pet")).thenReturn("cat");
+        Mockito.when(ruleResolver.processRuleComparison(Matchers.any(CompiledRuleCondition.class), Matchers.anyString())).thenReturn(false);
+
+        // Test
+        final boolean result = ruleEngine.isGroupMatch(new RestfulMockCompilerImpl().compileRuleGroup(group), RequestContext.from(req));
+
+        // Assertions
+        // The header condition is checked first and fails, so the body is never parsed.
+        Assert.assertFalse(result);
+        Mockito.verify(ruleResolver, Mockito.times(1)).processRuleComparison(Matchers.any(CompiledRuleCondition.class), Matchers.anyString());
+        Mockito.verify(req, Mockito.never()).body();
+    }
+
+    @Test
+    public void isGroupMatch_noConditions_Test() {
+
+        // Test
+        final boolean result = ruleEngine.isGroupMatch(new CompiledRuleGroup(new ArrayList<>()), RequestContext.from(req));
+
+        // Assertions
+        Assert.assertTrue(result);
+    }
+
+    @Test
+    public void process_jsonBodyParsedOnce_Test() {
+
+        // Setup
+        final List<CompiledRule> jsonRules = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            final RestfulMockDefinitionRule rule = new RestfulMockDefinitionRule(null, i + 1, 200, MediaType.TEXT_PLAIN_VALUE, "Rule " + i, 0, false);
+            final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule, 1);
+            group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "name", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "joe", RuleMatchingTypeEnum.REQUEST_BODY_JSON_ANY, false));
+            group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "age", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, String.valueOf(30 + i), RuleMatchingTypeEnum.REQUEST_BODY_JSON_ANY, false));
+            rule.getConditionGroups().add(group);
+            jsonRules.add(new RestfulMockCompilerImpl().compileRule(rule));
+        }
+
+        Mockito.when(req.body()).thenReturn("{\"name\":\"joe\",\"age\":\"32\"}");
+        Mockito.when(ruleResolver.processRuleComparison(Matchers.any(CompiledRuleCondition.class), Matchers.anyString()))
+                .thenAnswer(invocation -> ((CompiledRuleCondition) invocation.getArguments()[0]).matches((String) invocation.getArguments()[1]));
+
+        // Test
+        final RestfulResponseDTO result = ruleEngine.process(req, jsonRules);
+
+        // Assertions
+        // 6 JSON conditions are checked, against a body which is read and parsed the once.
+        Assert.assertEquals("Rule 2", result.getResponseBody());
+        Mockito.verify(ruleResolver, Mockito.times(6)).processRuleComparison(Matchers.any(CompiledRuleCondition.class), Matchers.anyString());
+        Mockito.verify(req, Mockito.times(1)).body();
+    }
+
+    @Test
+    public void process_containsAutomaton_Test() {
+
+        // Setup
+        final RestfulMockCompilerImpl restfulMockCompiler = new RestfulMockCompilerImpl();
+        final List<RestfulMockDefinitionRule> keywordRules = new ArrayList<>();
+        final List<RestfulMockDefinitionRuleGroupCondition> conditions = new ArrayList<>();
+
+        for (String keyword : new String[] { "refund", "cancel", "complaint", "delivery" }) {
+            final RestfulMockDefinitionRule rule = new RestfulMockDefinitionRule(null, keywordRules.size() + 1, 200, MediaType.TEXT_PLAIN_VALUE, keyword, 0, false);
+            final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule, 1);
+            group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, null, RuleDataTypeEnum.TEXT, RuleComparatorEnum.CONTAINS, keyword, RuleMatchingTypeEnum.REQUEST_BODY, false));
+            rule.getConditionGroups().add(group);
+            keywordRules.add(rule);
+            conditions.addAll(group.getConditions());
+        }
+
+        final SharedRuleMatchers sharedMatchers = restfulMockCompiler.compileSharedRuleMatchers(conditions);
+        final List<CompiledRule> compiledRules = new ArrayList<>();
+
+        for (RestfulMockDefinitionRule rule : keywordRules) {
+            compiledRules.add(restfulMockCompiler.compileRule(rule, sharedMatchers));
+        }
+
+        Mockito.when(req.body()).thenReturn("Where is my DELIVERY?");
+
+        // Test
+        final RestfulResponseDTO result = ruleEngine.process(req, compiledRules);
+
+        // Assertions
+        // All 4 conditions are decided by the one scan of the body, rather than the rule resolver.
+        Assert.assertEquals("delivery", result.getResponseBody());
+        Assert.assertNotNull(compiledRules.get(0).getConditionGroups().get(0).getConditions().get(0).getContainsAutomaton());
+        Mockito.verify(ruleResolver, Mockito.never()).processRuleComparison(Matchers.any(CompiledRuleCondition.class), Matchers.anyString());
+        Mockito.verify(req, Mockito.times(1)).body();
+    }
+
+    @Test
+    public void process_ruleIndex_Test() {
+
+        // Setup
+        final List<CompiledRule> indexedRules = buildIndexedRules();
+        final CompiledRuleIndex ruleIndex = new RestfulMockCompilerImpl().compileRuleIndex(indexedRules);
+
+        Mockito.when(req.headers("X-Customer-Id")).thenReturn("C7");
+        Mockito.when(ruleResolver.processRuleComparison(Matchers.any(CompiledRuleCondition.class), Matchers.anyString()))
+                .thenAnswer(invocation -> ((CompiledRuleCondition) invocation.getArguments()[0]).matches((String) invocation.getArguments()[1]));
+
+        // Test
+        final RestfulResponseDTO result = ruleEngine.process(req, indexedRules, ruleIndex);
+
+        // Assertions
+        Assert.assertNotNull(ruleIndex);
+        Assert.assertEquals("Customer 7", result.getResponseBody());
+
+        // Only the fallback rule and the indexed rule for C7 are checked.
+        Mockito.verify(ruleResolver, Mockito.times(2)).processRuleComparison(Matchers.any(CompiledRuleCondition.class), Matchers.anyString());
+    }
+
+    @Test
+    public void process_ruleIndexFallbackOrder_Test() {
+
+        // Setup
+        final List<CompiledRule> indexedRules = buildIndexedRules();
+        final CompiledRuleIndex ruleIndex = new RestfulMockCompilerImpl().compileRuleIndex(indexedRules);
+
+        Mockito.when(req.headers("X-Customer-Id")).thenReturn("c7");
+        Mockito.when(req.headers("X-Pet")).thenReturn("dog");
+        Mockito.when(ruleResolver.processRuleComparison(Matchers.any(CompiledRuleCondition.class), Matchers.anyString()))
+                .thenAnswer(invocation -> ((CompiledRuleCondition) invocation.getArguments()[0]).matches((String) invocation.getArguments()[1]));
+
+        // Test
+        final RestfulResponseDTO result = ruleEngine.process(req, indexedRules, ruleIndex);
+
+        // Assertions
+        // The fallback rule comes before the indexed one in rule order, so wins as it would with a full scan.
+        Assert.assertEquals("Dog", result.getResponseBody());
+        Assert.assertSame(ruleEngine.process(req, indexedRules), result);
+    }
+
+    @Test
+    public void process_ruleIndexNoMatch_Test() {
+
+        // Setup
+        final List<CompiledRule> indexedRules = buildIndexedRules();
+        final CompiledRuleIndex ruleIndex = new RestfulMockCompilerImpl().compileRuleIndex(indexedRules);
+
+        Mockito.when(req.headers("X-Customer-Id")).thenReturn("c99");
+        Mockito.when(ruleResolver.processRuleComparison(Matchers.any(CompiledRuleCondition.class), Matchers.anyString()))
+                .thenAnswer(invocation -> ((CompiledRuleCondition) invocation.getArguments()[0]).matches((String) invocation.getArguments()[1]));
+
+        // Test
+        final RestfulResponseDTO result = ruleEngine.process(req, indexedRules, ruleIndex);
+
+        // Assertions
+        Assert.assertNull(result);
+    }
+
+    @Test
+    public void process_ruleStats_Test() {
+
+        // Setup
+        final RestfulMockCompilerImpl restfulMockCompiler = new RestfulMockCompilerImpl();
+        final CompiledRule catRule = restfulMockCompiler.compileRule(buildRule(1, "Cat", "X-Pet", "cat"));
+        final CompiledRule dogRule = restfulMockCompiler.compileRule(buildRule(2, "Dog", "X-Pet", "dog"));
+        final CompiledRule fishRule = restfulMockCompiler.compileRule(buildRule(3, "Fish", "X-Pet", "fish"));
+
+        Mockito.when(req.headers("X-Pet")).thenReturn("dog");
+        Mockito.when(ruleResolver.processRuleComparison(Matchers.any(CompiledRuleCondition.class), Matchers.anyString()))
+                .thenAnswer(invocation -> ((CompiledRuleCondition) invocation.getArguments()[0]).matches((String) invocation.getArguments()[1]));
+
+        // Test
+        ruleEngine.process(req, Arrays.asList(catRule, dogRule, fishRule));
+        ruleEngine.process(req, Arrays.asList(catRule, dogRule, fishRule));
+
+        // Assertions
+        Assert.assertEquals(0, catRule.getStats().getHits());
+        Assert.assertEquals(2, catRule.getStats().getMisses());
+        Assert.assertEquals(2, dogRule.getStats().getHits());
+        Assert.assertEquals(0, dogRule.getStats().getMisses());
+
+        // Never reached, as the dog rule matched first.
+        Assert.assertEquals(0, fishRule.getStats().getHits() + fishRule.getStats().getMisses());
+
+        final CompiledRuleCondition catCondition = catRule.getConditionGroups().get(0).getConditions().get(0);
+        Assert.assertEquals(0, catCondition.getStats().getHits());
+        Assert.assertEquals(2, catCondition.getStats().getMisses());
+        Assert.assertEquals(2, dogRule.getConditionGroups().get(0).getConditions().get(0).getStats().getHits());
+    }
+
+    @Test
+    public void process_ruleIndexStats_Test() {
+
+        // Setup
+        final List<CompiledRule> indexedRules = buildIndexedRules();
+        final CompiledRuleIndex ruleIndex = new RestfulMockCompilerImpl().compileRuleIndex(indexedRules);
+
+        Mockito.when(req.headers("X-Customer-Id")).thenReturn("C7");
+        Mockito.when(ruleResolver.processRuleComparison(Matchers.any(CompiledRuleCondition.class), Matchers.anyString()))
+                .thenAnswer(invocation -> ((CompiledRuleCondition) invocation.getArguments()[0]).matches((String) invocation.getArguments()[1]));
+
+        // Test
+        ruleEngine.process(req, indexedRules, ruleIndex);
+
+        // Assertions
+        // Only the rules actually checked have stats, being the fallback (dog) rule and the rule for C7.
+        Assert.assertEquals(0, indexedRules.get(0).getStats().getHits() + indexedRules.get(0).getStats().getMisses());
+        Assert.assertEquals(1, indexedRules.get(1).getStats().getMisses());
+        Assert.assertEquals(0, indexedRules.get(1).getStats().getHits());
+        Assert.assertEquals(1, indexedRules.get(8).getStats().getHits());
+        Assert.assertEquals(0, indexedRules.get(8).getStats().getMisses());
+    }
+
     @Test
     public void extractInboundValue_nullRuleMatchingType_Test() {
 
@@ -237,4 +457,32 @@ public class RuleEngineTest {
 
     }
 
+    // A fallback rule on X-Pet, amongst 10 rules on X-Customer-Id.
+    private List<CompiledRule> buildIndexedRules() {
+
+        final RestfulMockCompilerImpl restfulMockCompiler = new RestfulMockCompilerImpl();
+        final List<CompiledRule> indexedRules = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+
+            indexedRules.add(restfulMockCompiler.compileRule(buildRule(i, "Customer " + i, "X-Customer-Id", "c" + i)));
+
+            if (i == 0) {
+                indexedRules.add(restfulMockCompiler.compileRule(buildRule(100, "Dog", "X-Pet", "dog")));
+            }
+        }
+
+        return indexedRules;
+    }
+
+    private RestfulMockDefinitionRule buildRule(final int orderNo, final String responseBody, final String headerName, final String headerValue) {
+
+        final RestfulMockDefinitionRule rule = new RestfulMockDefinitionRule(null, orderNo, 200, MediaType.TEXT_PLAIN_VALUE, responseBody, 0, false);
+        final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule, 1);
+        group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, headerName, RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, headerValue, RuleMatchingTypeEnum.REQUEST_HEADER, false));
+        rule.getConditionGroups().add(group);
+
+        return rule;
+    }
+
 }
@@ -0,0 +1,117 @@
+package com.smockin.mockserver.service;
+
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRule;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroup;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroupCondition;
+import com.smockin.admin.persistence.enums.RuleComparatorEnum;
+import com.smockin.admin.persistence.enums.RuleDataTypeEnum;
+import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+import com.smockin.mockserver.service.bean.CompiledRule;
+import com.smockin.mockserver.service.bean.CompiledRuleIndex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import spark.Request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by mgallina.
+ *
+ * Compares the throughput of a mock with 1k rules, each matching on a different customer id header,
+ * when the rules are scanned in order against when they are looked up via the compiled rule index.
+ *
+ * Requests are spread evenly across all customer ids.
+ * Figures are logged rather than asserted upon, as they depend on the build machine.
+ * That both approaches pick the same rule is covered by RuleIndexEquivalenceTest.
+ */
+public class RuleIndexBenchmarkTest {
+
+    private final Logger logger = LoggerFactory.getLogger(RuleIndexBenchmarkTest.class);
+
+    private final int ruleCount = 1000;
+    private final int requestCount = 5000;
+    private final int warmUpCount = 1000;
+
+    @Test
+    public void throughput_Test() {
+
+        // Setup
+        final RestfulMockCompilerImpl restfulMockCompiler = new RestfulMockCompilerImpl();
+        final RuleEngineImpl ruleEngine = new RuleEngineImpl();
+        ReflectionTestUtils.setField(ruleEngine, "ruleResolver", new RuleResolverImpl());
+
+        final List<CompiledRule> rules = new ArrayList<>();
+
+        for (int i = 0; i < ruleCount; i++) {
+
+            final RestfulMockDefinitionRule rule = new RestfulMockDefinitionRule(null, i + 1, 200, MediaType.TEXT_PLAIN_VALUE, "Customer " + i, 0, false);
+            final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule, 1);
+            group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "X-Customer-Id", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "cust-" + i, RuleMatchingTypeEnum.REQUEST_HEADER, false));
+            rule.getConditionGroups().add(group);
+
+            rules.add(restfulMockCompiler.compileRule(rule));
+        }
+
+        final CompiledRuleIndex ruleIndex = restfulMockCompiler.compileRuleIndex(rules);
+
+        final Request[] requests = new Request[ruleCount];
+
+        for (int i = 0; i < ruleCount; i++) {
+            requests[i] = buildRequest("cust-" + i);
+        }
+
+        Assert.assertNotNull(ruleIndex);
+
+        // Test
+        for (int i = 0; i < warmUpCount; i++) {
+            ruleEngine.process(requests[i % ruleCount], rules);
+            ruleEngine.process(requests[i % ruleCount], rules, ruleIndex);
+        }
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < requestCount; i++) {
+            Assert.assertNotNull(ruleEngine.process(requests[i % ruleCount], rules));
+        }
+
+        final long scanElapsed = System.nanoTime() - start;
+
+        start = System.nanoTime();
+
+        for (int i = 0; i < requestCount; i++) {
+            Assert.assertNotNull(ruleEngine.process(requests[i % ruleCount], rules, ruleIndex));
+        }
+
+        final long indexElapsed = System.nanoTime() - start;
+
+        logger.info(String.format("RuleIndex: %d rules, scanned: %.0f req/s, indexed: %.0f req/s",
+                ruleCount, perSecond(requestCount, scanElapsed), perSecond(requestCount, indexElapsed)));
+    }
+
+    // Not mocked, as Mockito records every call made, which would skew the timings.
+    private Request buildRequest(final String customerId) {
+        return new Request() {
+            @Override
+            public String headers(final String header) {
+                return "X-Customer-Id".equals(header) ? customerId : null;
+            }
+            @Override
+            public <T> T attribute(final String attribute) {
+                return null;
+            }
+            @Override
+            public void attribute(final String attribute, final Object value) {
+            }
+        };
+    }
+
+    private double perSecond(final int count, final long elapsedNanos) {
+        return count / (elapsedNanos / 1000000000d);
+    }
+
+}
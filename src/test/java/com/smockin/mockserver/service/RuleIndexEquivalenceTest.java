@@ -0,0 +1,127 @@
+package com.smockin.mockserver.service;
+
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRule;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroup;
+import com.smockin.admin.persistence.entity.RestfulMockDefinitionRuleGroupCondition;
+import com.smockin.admin.persistence.enums.RuleComparatorEnum;
+import com.smockin.admin.persistence.enums.RuleDataTypeEnum;
+import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+import com.smockin.mockserver.service.bean.CompiledRule;
+import com.smockin.mockserver.service.bean.CompiledRuleIndex;
+import com.smockin.mockserver.service.dto.RestfulResponseDTO;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import spark.Request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by mgallina.
+ *
+ * Checks a mock with 1k rules, each matching on a different customer id header, picks the same rule
+ * whether the rules are scanned in order or looked up via the compiled rule index.
+ */
+public class RuleIndexEquivalenceTest {
+
+    private final int ruleCount = 1000;
+
+    private RuleEngineImpl ruleEngine;
+    private List<CompiledRule> rules;
+    private CompiledRuleIndex ruleIndex;
+
+    @Before
+    public void setUp() {
+
+        final RestfulMockCompilerImpl restfulMockCompiler = new RestfulMockCompilerImpl();
+        ruleEngine = new RuleEngineImpl();
+        ReflectionTestUtils.setField(ruleEngine, "ruleResolver", new RuleResolverImpl());
+
+        rules = new ArrayList<>();
+
+        for (int i = 0; i < ruleCount; i++) {
+
+            final RestfulMockDefinitionRule rule = new RestfulMockDefinitionRule(null, i + 1, 200, MediaType.TEXT_PLAIN_VALUE, "Customer " + i, 0, false);
+            final RestfulMockDefinitionRuleGroup group = new RestfulMockDefinitionRuleGroup(rule, 1);
+            group.getConditions().add(new RestfulMockDefinitionRuleGroupCondition(group, "X-Customer-Id", RuleDataTypeEnum.TEXT, RuleComparatorEnum.EQUALS, "cust-" + i, RuleMatchingTypeEnum.REQUEST_HEADER, false));
+            rule.getConditionGroups().add(group);
+
+            rules.add(restfulMockCompiler.compileRule(rule));
+        }
+
+        ruleIndex = restfulMockCompiler.compileRuleIndex(rules);
+    }
+
+    @Test
+    public void process_everyCustomer_Test() {
+
+        // Assertions
+        Assert.assertNotNull(ruleIndex);
+
+        for (int i = 0; i < ruleCount; i++) {
+
+            // Test
+            final Request request = buildRequest("cust-" + i);
+            final RestfulResponseDTO scanned = ruleEngine.process(request, rules);
+            final RestfulResponseDTO indexed = ruleEngine.process(request, rules, ruleIndex);
+
+            // Assertions
+            Assert.assertNotNull(scanned);
+            Assert.assertSame(scanned, indexed);
+            Assert.assertEquals("Customer " + i, indexed.getResponseBody());
+        }
+    }
+
+    @Test
+    public void process_unknownCustomer_Test() {
+
+        // Setup
+        final Request request = buildRequest("cust-" + ruleCount);
+
+        // Test
+        final RestfulResponseDTO scanned = ruleEngine.process(request, rules);
+        final RestfulResponseDTO indexed = ruleEngine.process(request, rules, ruleIndex);
+
+        // Assertions
+        Assert.assertNull(scanned);
+        Assert.assertNull(indexed);
+    }
+
+    @Test
+    public void process_indexedChecksOneRule_Test() {
+
+        // Setup
+        final int customer = 731;
+
+        // Test
+        final RestfulResponseDTO result = ruleEngine.process(buildRequest("cust-" + customer), rules, ruleIndex);
+
+        // Assertions
+        Assert.assertEquals("Customer " + customer, result.getResponseBody());
+
+        for (int i = 0; i < ruleCount; i++) {
+            final long checks = rules.get(i).getStats().getHits() + rules.get(i).getStats().getMisses();
+            Assert.assertEquals("Rule " + i, (i == customer) ? 1 : 0, checks);
+        }
+    }
+
+    private Request buildRequest(final String customerId) {
+        return new Request() {
+            @Override
+            public String headers(final String header) {
+                return "X-Customer-Id".equals(header) ? customerId : null;
+            }
+            @Override
+            public <T> T attribute(final String attribute) {
+                return null;
+            }
+            @Override
+            public void attribute(final String attribute, final Object value) {
+            }
+        };
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.smockin.mockserver.service;
+
+import com.smockin.admin.persistence.enums.RuleComparatorEnum;
+import com.smockin.admin.persistence.enums.RuleDataTypeEnum;
+import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+import com.smockin.mockserver.service.bean.CompiledRuleCondition;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Created by mgallina.
+ */
+public class RuleResolverInSetTest {
+
+    private RuleResolver ruleResolver;
+
+    @Before
+    public void setup() {
+        ruleResolver = new RuleResolverImpl();
+    }
+
+    @Test
+    public void processRuleComparison_NullValue_InSet_Fail() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.IN_SET, "1,2,3", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, null);
+
+        // Assertions
+        Assert.assertFalse(result);
+    }
+
+    @Test
+    public void processRuleComparison_Whole_InSet_Pass() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.IN_SET, "404, 500, 200", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "200");
+
+        // Assertions
+        Assert.assertTrue(result);
+    }
+
+    @Test
+    public void processRuleComparison_WholeAsDecimal_InSet_Pass() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.IN_SET, "404,500,200", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "500.0");
+
+        // Assertions
+        Assert.assertTrue(result);
+    }
+
+    @Test
+    public void processRuleComparison_Decimal_InSet_Pass() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.IN_SET, "1.5,2.5", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "2.5");
+
+        // Assertions
+        Assert.assertTrue(result);
+    }
+
+    @Test
+    public void processRuleComparison_Whole_InSet_Fail() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.IN_SET, "404,500,200", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "201");
+
+        // Assertions
+        Assert.assertFalse(result);
+    }
+
+    @Test
+    public void processRuleComparison_Invalid_InSet_Fail() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.IN_SET, "404,500,200", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "abc");
+
+        // Assertions
+        Assert.assertFalse(result);
+    }
+
+    @Test
+    public void processRuleComparison_Text_InSet_Pass() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.TEXT, RuleComparatorEnum.IN_SET, "dog, cat, bird", RuleMatchingTypeEnum.REQUEST_PARAM, false);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "CAT");
+
+        // Assertions
+        Assert.assertTrue(result);
+    }
+
+    @Test
+    public void processRuleComparison_CaseSensitiveText_InSet_Fail() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.TEXT, RuleComparatorEnum.IN_SET, "dog, cat, bird", RuleMatchingTypeEnum.REQUEST_PARAM, true);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "CAT");
+
+        // Assertions
+        Assert.assertFalse(result);
+    }
+
+    @Test
+    public void processRuleComparison_CaseSensitiveText_InSet_Pass() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.TEXT, RuleComparatorEnum.IN_SET, "dog, cat, bird", RuleMatchingTypeEnum.REQUEST_PARAM, true);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "bird");
+
+        // Assertions
+        Assert.assertTrue(result);
+    }
+
+}
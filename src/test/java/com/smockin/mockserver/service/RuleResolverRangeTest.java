@@ -0,0 +1,219 @@
+package com.smockin.mockserver.service;
+
+import com.smockin.admin.persistence.enums.RuleComparatorEnum;
+import com.smockin.admin.persistence.enums.RuleDataTypeEnum;
+import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+import com.smockin.mockserver.service.bean.CompiledRuleCondition;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Created by mgallina.
+ */
+public class RuleResolverRangeTest {
+
+    private RuleResolver ruleResolver;
+
+    @Before
+    public void setup() {
+        ruleResolver = new RuleResolverImpl();
+    }
+
+    @Test
+    public void processRuleComparison_NullValue_GreaterThan_Fail() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.GREATER_THAN, "100", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, null);
+
+        // Assertions
+        Assert.assertFalse(result);
+    }
+
+    @Test
+    public void processRuleComparison_Whole_GreaterThan_Pass() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.GREATER_THAN, "100", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "101");
+
+        // Assertions
+        Assert.assertTrue(result);
+    }
+
+    @Test
+    public void processRuleComparison_Whole_GreaterThan_Equal_Fail() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.GREATER_THAN, "100", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "100");
+
+        // Assertions
+        Assert.assertFalse(result);
+    }
+
+    @Test
+    public void processRuleComparison_Decimal_GreaterThan_Pass() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.GREATER_THAN, "99.5", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "99.51");
+
+        // Assertions
+        Assert.assertTrue(result);
+    }
+
+    @Test
+    public void processRuleComparison_LargeWhole_GreaterThan_Pass() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.GREATER_THAN, "900000000000000000", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "900000000000000001");
+
+        // Assertions
+        Assert.assertTrue(result);
+    }
+
+    @Test
+    public void processRuleComparison_Invalid_GreaterThan_Fail() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.GREATER_THAN, "100", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "One hundred and one");
+
+        // Assertions
+        Assert.assertFalse(result);
+    }
+
+    @Test
+    public void processRuleComparison_Whole_LessThan_Pass() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.LESS_THAN, "100", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "-5");
+
+        // Assertions
+        Assert.assertTrue(result);
+    }
+
+    @Test
+    public void processRuleComparison_Decimal_LessThan_Fail() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.LESS_THAN, "100", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "100.001");
+
+        // Assertions
+        Assert.assertFalse(result);
+    }
+
+    @Test
+    public void processRuleComparison_InvalidMatchValue_LessThan_Fail() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.LESS_THAN, "abc", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "1");
+
+        // Assertions
+        Assert.assertFalse(result);
+    }
+
+    @Test
+    public void processRuleComparison_Whole_Between_Pass() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.BETWEEN, "10,20", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "10");
+
+        // Assertions
+        Assert.assertTrue(result);
+    }
+
+    @Test
+    public void processRuleComparison_Decimal_Between_Pass() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.BETWEEN, "10, 20", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "19.99");
+
+        // Assertions
+        Assert.assertTrue(result);
+    }
+
+    @Test
+    public void processRuleComparison_Reversed_Between_Pass() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.BETWEEN, "20,10", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "20");
+
+        // Assertions
+        Assert.assertTrue(result);
+    }
+
+    @Test
+    public void processRuleComparison_Whole_Between_Fail() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.BETWEEN, "10,20", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "21");
+
+        // Assertions
+        Assert.assertFalse(result);
+    }
+
+    @Test
+    public void processRuleComparison_MissingBound_Between_Fail() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.NUMERIC, RuleComparatorEnum.BETWEEN, "10", RuleMatchingTypeEnum.REQUEST_PARAM, null);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, "10");
+
+        // Assertions
+        Assert.assertFalse(result);
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.smockin.mockserver.service;
+
+import com.smockin.admin.persistence.enums.RuleComparatorEnum;
+import com.smockin.admin.persistence.enums.RuleDataTypeEnum;
+import com.smockin.admin.persistence.enums.RuleMatchingTypeEnum;
+import com.smockin.mockserver.service.bean.CompiledRuleCondition;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Created by mgallina.
+ */
+public class RuleResolverRegexTest {
+
+    private RuleResolver ruleResolver;
+
+    private final String inboundTextValue = "Order ORD-12345 placed by Joe";
+
+    @Before
+    public void setup() {
+        ruleResolver = new RuleResolverImpl();
+    }
+
+    @Test
+    public void processRuleComparison_NullValue_Text_Regex_Fail() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.TEXT, RuleComparatorEnum.REGEX, "ORD-\\d+", RuleMatchingTypeEnum.REQUEST_PARAM, false);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, null);
+
+        // Assertions
+        Assert.assertFalse(result);
+    }
+
+    @Test
+    public void processRuleComparison_Text_Regex_Pass() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.TEXT, RuleComparatorEnum.REGEX, "ord-\\d{5}", RuleMatchingTypeEnum.REQUEST_PARAM, false);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, inboundTextValue);
+
+        // Assertions
+        Assert.assertTrue(result);
+    }
+
+    @Test
+    public void processRuleComparison_CaseSensitiveText_Regex_Fail() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.TEXT, RuleComparatorEnum.REGEX, "ord-\\d{5}", RuleMatchingTypeEnum.REQUEST_PARAM, true);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, inboundTextValue);
+
+        // Assertions
+        Assert.assertFalse(result);
+    }
+
+    @Test
+    public void processRuleComparison_Text_RegexAnchored_Fail() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.TEXT, RuleComparatorEnum.REGEX, "^ORD-\\d+$", RuleMatchingTypeEnum.REQUEST_PARAM, true);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, inboundTextValue);
+
+        // Assertions
+        Assert.assertFalse(result);
+    }
+
+    @Test
+    public void processRuleComparison_InvalidRegex_Fail() {
+
+        // Setup
+        final CompiledRuleCondition condition =
+                new CompiledRuleCondition("NAME", RuleDataTypeEnum.TEXT, RuleComparatorEnum.REGEX, "ORD-(\\d+", RuleMatchingTypeEnum.REQUEST_PARAM, true);
+
+        // Test
+        final boolean result = ruleResolver.processRuleComparison(condition, inboundTextValue);
+
+        // Assertions
+        Assert.assertFalse(result);
+    }
+
+}
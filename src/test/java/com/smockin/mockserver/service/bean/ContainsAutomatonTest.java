@@ -0,0 +1,87 @@
+package com.smockin.mockserver.service.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Created by mgallina.
+ */
+public class ContainsAutomatonTest {
+
+    @Test
+    public void scan_Test() {
+
+        // Setup
+        final ContainsAutomaton automaton = ContainsAutomaton.compile(Arrays.asList("he", "she", "his", "hers", "cat"), true);
+
+        // Test
+        final boolean[] result = automaton.scan("ushers");
+
+        // Assertions
+        Assert.assertTrue(result[automaton.patternIdOf("he")]);
+        Assert.assertTrue(result[automaton.patternIdOf("she")]);
+        Assert.assertTrue(result[automaton.patternIdOf("hers")]);
+        Assert.assertFalse(result[automaton.patternIdOf("his")]);
+        Assert.assertFalse(result[automaton.patternIdOf("cat")]);
+    }
+
+    @Test
+    public void scan_caseSensitive_Test() {
+
+        // Setup
+        final ContainsAutomaton automaton = ContainsAutomaton.compile(Arrays.asList("Joe", "BOB"), true);
+
+        // Test
+        final boolean[] result = automaton.scan("Hey joe and BOB");
+
+        // Assertions
+        Assert.assertFalse(result[automaton.patternIdOf("Joe")]);
+        Assert.assertTrue(result[automaton.patternIdOf("BOB")]);
+    }
+
+    @Test
+    public void scan_caseInsensitive_Test() {
+
+        // Setup
+        final ContainsAutomaton automaton = ContainsAutomaton.compile(Arrays.asList("Joe", "BOB", "bob", "Max"), false);
+
+        // Test
+        final boolean[] result = automaton.scan("Hey joe and Bob");
+
+        // Assertions
+        Assert.assertEquals(3, automaton.getPatternCount());
+        Assert.assertEquals(automaton.patternIdOf("BOB"), automaton.patternIdOf("bob"));
+        Assert.assertTrue(result[automaton.patternIdOf("Joe")]);
+        Assert.assertTrue(result[automaton.patternIdOf("bob")]);
+        Assert.assertFalse(result[automaton.patternIdOf("Max")]);
+    }
+
+    @Test
+    public void scan_nullValue_Test() {
+
+        // Setup
+        final ContainsAutomaton automaton = ContainsAutomaton.compile(Collections.singletonList("a"), true);
+
+        // Test
+        final boolean[] result = automaton.scan(null);
+
+        // Assertions
+        Assert.assertFalse(result[0]);
+    }
+
+    @Test
+    public void patternIdOf_unknown_Test() {
+
+        // Setup
+        final ContainsAutomaton automaton = ContainsAutomaton.compile(Arrays.asList("a", "", null), true);
+
+        // Assertions
+        Assert.assertEquals(1, automaton.getPatternCount());
+        Assert.assertEquals(-1, automaton.patternIdOf(""));
+        Assert.assertEquals(-1, automaton.patternIdOf("b"));
+    }
+
+}
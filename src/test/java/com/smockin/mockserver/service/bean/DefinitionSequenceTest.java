@@ -0,0 +1,59 @@
+package com.smockin.mockserver.service.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Created by mgallina.
+ */
+public class DefinitionSequenceTest {
+
+    @Test
+    public void indexAt_Test() {
+
+        // Setup
+        final DefinitionSequence sequence = DefinitionSequence.compile(Arrays.asList(
+                new CompiledDefinition("a", 2, 0, null),
+                new CompiledDefinition("b", 0, 0, null),
+                new CompiledDefinition("c", 3, 0, null)));
+
+        // Assertions
+        Assert.assertEquals(6, sequence.getCycleLength());
+
+        final int[] expected = { 0, 0, 1, 2, 2, 2, 0, 0, 1 };
+
+        for (int position = 0; position < expected.length; position++) {
+            Assert.assertEquals(expected[position], sequence.indexAt(position));
+        }
+    }
+
+    @Test
+    public void indexAt_beyondIntRange_Test() {
+
+        // Setup
+        final DefinitionSequence sequence = DefinitionSequence.compile(Arrays.asList(
+                new CompiledDefinition("a", 1, 0, null),
+                new CompiledDefinition("b", 1, 0, null)));
+
+        // Assertions
+        Assert.assertEquals(1, sequence.indexAt(Integer.MAX_VALUE));
+        Assert.assertEquals(0, sequence.indexAt(Integer.MAX_VALUE + 1L));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void indexAt_noDefinitions_Test() {
+
+        // Setup
+        final DefinitionSequence sequence = DefinitionSequence.compile(Collections.emptyList());
+
+        // Assertions
+        Assert.assertEquals(0, sequence.getCycleLength());
+
+        // Test
+        sequence.indexAt(0);
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.smockin.mockserver.service.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Created by mgallina.
+ */
+public class JsonPathExtractorTest {
+
+    private final String json = "{ \"id\" : 7, \"order\" : { \"customer\" : { \"id\" : \"c1\", \"vip\" : true },"
+            + " \"items\" : [ { \"sku\" : \"A1\", \"qty\" : 2 }, { \"sku\" : \"B2\", \"qty\" : 1 } ], \"note\" : null,"
+            + " \"first name\" : \"Joe\" } }";
+
+    @Test
+    public void extract_nested_Test() {
+
+        // Setup
+        final JsonPathExtractor extractor = JsonPathExtractor.compile(Arrays.asList("$.order.customer.id", "order.customer.vip", "$.id"));
+
+        // Test
+        final String[] result = extractor.extract(json);
+
+        // Assertions
+        Assert.assertEquals("c1", result[extractor.slotOf("$.order.customer.id")]);
+        Assert.assertEquals("true", result[extractor.slotOf("order.customer.vip")]);
+        Assert.assertEquals("7", result[extractor.slotOf("$.id")]);
+    }
+
+    @Test
+    public void extract_arraysAndBrackets_Test() {
+
+        // Setup
+        final JsonPathExtractor extractor = JsonPathExtractor.compile(Arrays.asList("$.order.items[1].sku", "$['order']['first name']", "$.order.items[5].sku"));
+
+        // Test
+        final String[] result = extractor.extract(json);
+
+        // Assertions
+        Assert.assertEquals("B2", result[extractor.slotOf("$.order.items[1].sku")]);
+        Assert.assertEquals("Joe", result[extractor.slotOf("$['order']['first name']")]);
+        Assert.assertNull(result[extractor.slotOf("$.order.items[5].sku")]);
+    }
+
+    @Test
+    public void extract_objectAsRawJson_Test() {
+
+        // Setup
+        final JsonPathExtractor extractor = JsonPathExtractor.compile(Arrays.asList("$.order.customer", "$.order.customer.id", "$.order.note"));
+
+        // Test
+        final String[] result = extractor.extract(json);
+
+        // Assertions
+        Assert.assertEquals("{ \"id\" : \"c1\", \"vip\" : true }", result[extractor.slotOf("$.order.customer")]);
+        Assert.assertEquals("c1", result[extractor.slotOf("$.order.customer.id")]);
+        Assert.assertNull(result[extractor.slotOf("$.order.note")]);
+    }
+
+    @Test
+    public void extract_sharedSlot_Test() {
+
+        // Test
+        final JsonPathExtractor extractor = JsonPathExtractor.compile(Arrays.asList("$.order.customer.id", "order.customer.id", "$['order'].customer['id']"));
+
+        // Assertions
+        Assert.assertEquals(1, extractor.getSlotCount());
+        Assert.assertEquals(0, extractor.slotOf("order.customer.id"));
+        Assert.assertEquals(0, extractor.slotOf("$['order'].customer['id']"));
+    }
+
+    @Test
+    public void extract_stopsOnceAllFound_Test() {
+
+        // Setup
+        final JsonPathExtractor extractor = JsonPathExtractor.compile(Collections.singletonList("$.order.id"));
+
+        // Test
+        // Everything after the id is malformed, so would fail were it to be parsed.
+        final String[] result = extractor.extract("{ \"order\" : { \"id\" : \"o1\", \"items\" : [ { ,,, ");
+
+        // Assertions
+        Assert.assertEquals("o1", result[0]);
+    }
+
+    @Test
+    public void extract_malformed_Test() {
+
+        // Setup
+        final JsonPathExtractor extractor = JsonPathExtractor.compile(Arrays.asList("$.a", "$.b"));
+
+        // Test
+        final String[] result = extractor.extract("{ \"a\" : \"1\", ,,, \"b\" : \"2\" }");
+
+        // Assertions
+        Assert.assertEquals("1", result[extractor.slotOf("$.a")]);
+        Assert.assertNull(result[extractor.slotOf("$.b")]);
+    }
+
+    @Test
+    public void extract_nullBody_Test() {
+
+        // Setup
+        final JsonPathExtractor extractor = JsonPathExtractor.compile(Collections.singletonList("$.a"));
+
+        // Test
+        final String[] result = extractor.extract(null);
+
+        // Assertions
+        Assert.assertEquals(1, result.length);
+        Assert.assertNull(result[0]);
+    }
+
+    @Test
+    public void parsePath_Test() {
+
+        // Test
+        final List<Object> result = JsonPathExtractor.parsePath("$.order['line items'][10].sku");
+
+        // Assertions
+        Assert.assertEquals(Arrays.asList("order", "line items", 10, "sku"), result);
+    }
+
+    @Test
+    public void parsePath_unsupported_Test() {
+
+        // Assertions
+        Assert.assertNull(JsonPathExtractor.parsePath(null));
+        Assert.assertNull(JsonPathExtractor.parsePath(" "));
+        Assert.assertNull(JsonPathExtractor.parsePath("$.order.*.sku"));
+        Assert.assertNull(JsonPathExtractor.parsePath("$..sku"));
+        Assert.assertNull(JsonPathExtractor.parsePath("$.items[?(@.qty > 1)]"));
+        Assert.assertNull(JsonPathExtractor.parsePath("$.items[1"));
+        Assert.assertEquals(-1, JsonPathExtractor.compile(Collections.singletonList("$..sku")).slotOf("$..sku"));
+    }
+
+}
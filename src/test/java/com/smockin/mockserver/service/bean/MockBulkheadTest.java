@@ -0,0 +1,183 @@
+package com.smockin.mockserver.service.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by mgallina.
+ */
+public class MockBulkheadTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void create_noConcurrency_Test() {
+        new MockBulkhead(0, 0, 503, 0);
+    }
+
+    @Test
+    public void create_invalidStatusCode_Test() {
+
+        // Test
+        final MockBulkhead bulkhead = new MockBulkhead(1, 0, 200, -1);
+
+        // Assertions
+        Assert.assertEquals(503, bulkhead.getRejectionStatusCode());
+        Assert.assertEquals(0, bulkhead.getRetryAfterSeconds());
+    }
+
+    @Test
+    public void tryEnter_Test() {
+
+        // Setup
+        final MockBulkhead bulkhead = new MockBulkhead(2, 0, 429, 1);
+
+        // Test & Assertions
+        Assert.assertTrue(bulkhead.tryEnter());
+        Assert.assertTrue(bulkhead.tryEnter());
+        Assert.assertEquals(2, bulkhead.getInFlight());
+
+        // No queue, so shed straight away
+        Assert.assertFalse(bulkhead.tryEnter());
+
+        bulkhead.exit();
+
+        Assert.assertEquals(1, bulkhead.getInFlight());
+        Assert.assertTrue(bulkhead.tryEnter());
+    }
+
+    @Test
+    public void enter_queued_Test() {
+
+        // Setup
+        final MockBulkhead bulkhead = new MockBulkhead(1, 1, 503, 5);
+        final AtomicInteger handedSlot = new AtomicInteger();
+        final Runnable onEntered = handedSlot::incrementAndGet;
+
+        // Test & Assertions
+        Assert.assertEquals(MockBulkhead.Admission.ENTERED, bulkhead.enter(() -> {}));
+        Assert.assertEquals(MockBulkhead.Admission.QUEUED, bulkhead.enter(onEntered));
+        Assert.assertEquals(1, bulkhead.getQueued());
+        Assert.assertTrue(bulkhead.isQueueFull());
+
+        // Queue is full, so this one is shed
+        Assert.assertEquals(MockBulkhead.Admission.REJECTED, bulkhead.enter(() -> {}));
+
+        // Nor can a new arrival take a slot ahead of the queue
+        Assert.assertFalse(bulkhead.tryEnter());
+
+        bulkhead.exit();
+
+        // The slot is handed straight to the queued request
+        Assert.assertEquals(1, handedSlot.get());
+        Assert.assertEquals(0, bulkhead.getQueued());
+        Assert.assertEquals(1, bulkhead.getInFlight());
+        Assert.assertFalse(bulkhead.cancel(onEntered));
+
+        bulkhead.exit();
+
+        Assert.assertEquals(0, bulkhead.getInFlight());
+    }
+
+    @Test
+    public void enter_queueOrder_Test() {
+
+        // Setup
+        final MockBulkhead bulkhead = new MockBulkhead(1, 3, 503, 0);
+        final List<Integer> order = new ArrayList<>();
+
+        Assert.assertTrue(bulkhead.tryEnter());
+
+        for (int i = 0; i < 3; i++) {
+            final int position = i;
+            Assert.assertEquals(MockBulkhead.Admission.QUEUED, bulkhead.enter(() -> order.add(position)));
+        }
+
+        // Test
+        bulkhead.exit();
+        bulkhead.exit();
+        bulkhead.exit();
+
+        // Assertions
+        Assert.assertEquals(Arrays.asList(0, 1, 2), order);
+        Assert.assertEquals(1, bulkhead.getInFlight());
+    }
+
+    @Test
+    public void cancel_Test() {
+
+        // Setup
+        final MockBulkhead bulkhead = new MockBulkhead(1, 1, 503, 0);
+        final AtomicInteger handedSlot = new AtomicInteger();
+        final Runnable onEntered = handedSlot::incrementAndGet;
+
+        Assert.assertTrue(bulkhead.tryEnter());
+        Assert.assertEquals(MockBulkhead.Admission.QUEUED, bulkhead.enter(onEntered));
+
+        // Test
+        final boolean result = bulkhead.cancel(onEntered);
+
+        // Assertions
+        Assert.assertTrue(result);
+        Assert.assertEquals(0, bulkhead.getQueued());
+
+        bulkhead.exit();
+
+        Assert.assertEquals(0, handedSlot.get());
+        Assert.assertEquals(0, bulkhead.getInFlight());
+    }
+
+    @Test
+    public void tryEnter_concurrentLimit_Test() throws Exception {
+
+        // Setup
+        final int maxConcurrent = 4;
+        final int callers = 16;
+        final MockBulkhead bulkhead = new MockBulkhead(maxConcurrent, 0, 503, 0);
+        final ExecutorService executor = Executors.newFixedThreadPool(callers);
+        final CountDownLatch ready = new CountDownLatch(callers);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try {
+
+            // Test
+            for (int i = 0; i < callers; i++) {
+                executor.submit(() -> {
+
+                    final boolean entered = bulkhead.tryEnter();
+                    ready.countDown();
+
+                    if (entered) {
+                        release.await();
+                        bulkhead.exit();
+                    }
+
+                    return entered;
+                });
+            }
+
+            Assert.assertTrue(ready.await(5, TimeUnit.SECONDS));
+
+            // Assertions
+            Assert.assertEquals(maxConcurrent, bulkhead.getInFlight());
+
+            release.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+            Assert.assertEquals(0, bulkhead.getInFlight());
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+    }
+
+}
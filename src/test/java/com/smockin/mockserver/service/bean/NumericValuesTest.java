@@ -0,0 +1,71 @@
+package com.smockin.mockserver.service.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Created by mgallina.
+ */
+public class NumericValuesTest {
+
+    @Test
+    public void parseLong_Test() {
+
+        // Assertions
+        Assert.assertEquals(42, NumericValues.parseLong("42"));
+        Assert.assertEquals(-42, NumericValues.parseLong("-42"));
+        Assert.assertEquals(7, NumericValues.parseLong("+7"));
+        Assert.assertEquals(123456789012345678L, NumericValues.parseLong("123456789012345678"));
+    }
+
+    @Test
+    public void parseLong_notWhole_Test() {
+
+        // Assertions
+        Assert.assertEquals(NumericValues.NOT_A_LONG, NumericValues.parseLong(null));
+        Assert.assertEquals(NumericValues.NOT_A_LONG, NumericValues.parseLong(""));
+        Assert.assertEquals(NumericValues.NOT_A_LONG, NumericValues.parseLong("-"));
+        Assert.assertEquals(NumericValues.NOT_A_LONG, NumericValues.parseLong("1.5"));
+        Assert.assertEquals(NumericValues.NOT_A_LONG, NumericValues.parseLong(" 1"));
+        Assert.assertEquals(NumericValues.NOT_A_LONG, NumericValues.parseLong("1234567890123456789"));
+    }
+
+    @Test
+    public void parseDouble_Test() {
+
+        // Assertions
+        Assert.assertEquals(42.0, NumericValues.parseDouble("42"), 0);
+        Assert.assertEquals(0.5, NumericValues.parseDouble(".5"), 0);
+        Assert.assertEquals(5.0, NumericValues.parseDouble("5."), 0);
+        Assert.assertEquals(1000.0, NumericValues.parseDouble("1e3"), 0);
+        Assert.assertEquals(-50.0, NumericValues.parseDouble("-0.5E+2"), 0);
+        Assert.assertEquals(1.23456789012345677E18, NumericValues.parseDouble("1234567890123456789"), 0);
+    }
+
+    @Test
+    public void parseDouble_notANumber_Test() {
+
+        // Assertions
+        Assert.assertTrue(Double.isNaN(NumericValues.parseDouble(null)));
+        Assert.assertTrue(Double.isNaN(NumericValues.parseDouble("")));
+        Assert.assertTrue(Double.isNaN(NumericValues.parseDouble("NaN")));
+        Assert.assertTrue(Double.isNaN(NumericValues.parseDouble("Infinity")));
+        Assert.assertTrue(Double.isNaN(NumericValues.parseDouble("1f")));
+        Assert.assertTrue(Double.isNaN(NumericValues.parseDouble("0x10")));
+        Assert.assertTrue(Double.isNaN(NumericValues.parseDouble("e5")));
+        Assert.assertTrue(Double.isNaN(NumericValues.parseDouble("1.2.3")));
+        Assert.assertTrue(Double.isNaN(NumericValues.parseDouble(" 1")));
+    }
+
+    @Test
+    public void isWhole_Test() {
+
+        // Assertions
+        Assert.assertTrue(NumericValues.isWhole(500.0));
+        Assert.assertTrue(NumericValues.isWhole(-3));
+        Assert.assertFalse(NumericValues.isWhole(2.5));
+        Assert.assertFalse(NumericValues.isWhole(1e19));
+        Assert.assertFalse(NumericValues.isWhole(Double.NaN));
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.smockin.mockserver.service.bean;
+
+import com.smockin.mockserver.service.enums.ParamMatchTypeEnum;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Created by mgallina.
+ */
+public class ResponseTemplateTest {
+
+    @Test
+    public void compile_Test() {
+
+        // Test
+        final ResponseTemplate template = ResponseTemplate.compile("Hello ${REQ_HEAD= name }, today is ${ISO_DATE}. Pick ${RANDOM_NUMBER=1 TO 5}!");
+
+        // Assertions
+        final List<ResponseTemplate.Token> tokens = template.getTokens();
+        Assert.assertEquals(3, template.getTokenCount());
+        Assert.assertEquals(ParamMatchTypeEnum.REQ_HEAD, tokens.get(0).getType());
+        Assert.assertEquals("name", tokens.get(0).getArgument());
+        Assert.assertEquals(ParamMatchTypeEnum.ISO_DATE, tokens.get(1).getType());
+        Assert.assertNull(tokens.get(1).getArgument());
+        Assert.assertEquals(ParamMatchTypeEnum.RANDOM_NUMBER, tokens.get(2).getType());
+        Assert.assertEquals("1 TO 5", tokens.get(2).getArgument());
+        Assert.assertEquals("Hello , today is . Pick !".length(), template.getLiteralLength());
+    }
+
+    @Test
+    public void compile_reqBodyJsonShared_Test() {
+
+        // Test
+        final ResponseTemplate template = ResponseTemplate.compile("${REQ_BODY_JSON=$.a} ${REQ_BODY_FORM=b} ${REQ_BODY_JSON=c[0]} ${REQ_BODY_JSON=a}");
+
+        // Assertions
+        final List<ResponseTemplate.Token> tokens = template.getTokens();
+        Assert.assertEquals(ParamMatchTypeEnum.REQ_BODY_JSON, tokens.get(0).getType());
+        Assert.assertEquals("$.a", tokens.get(0).getArgument());
+        Assert.assertEquals(ParamMatchTypeEnum.REQ_BODY_FORM, tokens.get(1).getType());
+        Assert.assertEquals("b", tokens.get(1).getArgument());
+        Assert.assertNull(tokens.get(1).getJsonPathExtractor());
+
+        // All of the JSON paths share the one extractor, with paths to the same value sharing a slot
+        final JsonPathExtractor extractor = tokens.get(0).getJsonPathExtractor();
+        Assert.assertNotNull(extractor);
+        Assert.assertSame(extractor, tokens.get(2).getJsonPathExtractor());
+        Assert.assertSame(extractor, tokens.get(3).getJsonPathExtractor());
+        Assert.assertEquals(2, extractor.getSlotCount());
+        Assert.assertEquals(tokens.get(0).getJsonPathSlot(), tokens.get(3).getJsonPathSlot());
+        Assert.assertNotEquals(tokens.get(0).getJsonPathSlot(), tokens.get(2).getJsonPathSlot());
+    }
+
+    @Test
+    public void compile_unsupportedToken_Test() {
+
+        // Test
+        final ResponseTemplate template = ResponseTemplate.compile("Hello ${FOO=name} ${}");
+
+        // Assertions
+        Assert.assertEquals(2, template.getTokenCount());
+        Assert.assertNull(template.getTokens().get(0).getType());
+        Assert.assertEquals("FOO=name", template.getTokens().get(0).getText());
+        Assert.assertNull(template.getTokens().get(1).getType());
+        Assert.assertEquals("", template.getTokens().get(1).getText());
+    }
+
+    @Test
+    public void compile_tokenWhitespacePreserved_Test() {
+
+        // Test
+        final ResponseTemplate template = ResponseTemplate.compile("hello ${  REQ_HEAD=   joe   }. how are you ${REQ_HEAD bob }?");
+
+        // Assertions
+        Assert.assertEquals(2, template.getTokenCount());
+        Assert.assertEquals("  REQ_HEAD=   joe   ", template.getTokens().get(0).getText());
+        Assert.assertEquals("REQ_HEAD bob ", template.getTokens().get(1).getText());
+    }
+
+    @Test
+    public void compile_unclosedToken_Test() {
+
+        // Test
+        final ResponseTemplate template = ResponseTemplate.compile("{ \"a\" : \"${\n\" }, \"b\" : \"${ ${UUID}\" } ${ISO_DATE");
+
+        // Assertions
+        // Only the text up to the first '}' on the same line forms a token.
+        Assert.assertEquals(1, template.getTokenCount());
+        Assert.assertEquals(" ${UUID", template.getTokens().get(0).getText());
+    }
+
+    @Test
+    public void render_Test() {
+
+        // Setup
+        final ResponseTemplate template = ResponseTemplate.compile("${REQ_HEAD=a}-${REQ_HEAD=b}-${REQ_HEAD=c}");
+        final StringBuilder out = new StringBuilder("Prefix:");
+
+        // Test
+        template.render(out, t -> ("b".equals(t.getArgument())) ? null : t.getArgument().toUpperCase());
+
+        // Assertions
+        Assert.assertEquals("Prefix:A--C", out.toString());
+    }
+
+    @Test
+    public void render_noTokens_Test() {
+
+        // Setup
+        final StringBuilder out = new StringBuilder();
+
+        // Test
+        ResponseTemplate.compile("Hello World").render(out, t -> "X");
+
+        // Assertions
+        Assert.assertEquals("Hello World", out.toString());
+    }
+
+    @Test
+    public void render_valueNotReprocessed_Test() {
+
+        // Setup
+        final StringBuilder out = new StringBuilder();
+
+        // Test
+        ResponseTemplate.compile("Hi ${REQ_HEAD=name}").render(out, t -> "${UUID}");
+
+        // Assertions
+        Assert.assertEquals("Hi ${UUID}", out.toString());
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.smockin.mockserver.service.bean;
+
+import com.smockin.mockserver.service.enums.ParamMatchTypeEnum;
+import com.smockin.utils.GeneralUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Created by mgallina.
+ */
+public class TokenGeneratorsTest {
+
+    @Test
+    public void forType_requestBoundTypes_Test() {
+
+        // Assertions
+        Assert.assertNull(TokenGenerators.forType(ParamMatchTypeEnum.REQ_HEAD, "name"));
+        Assert.assertNull(TokenGenerators.forType(ParamMatchTypeEnum.REQ_PARAM, "name"));
+        Assert.assertNull(TokenGenerators.forType(ParamMatchTypeEnum.PATH_VAR, "name"));
+        Assert.assertNull(TokenGenerators.forType(ParamMatchTypeEnum.REQ_BODY_JSON, "$.name"));
+        Assert.assertNull(TokenGenerators.forType(ParamMatchTypeEnum.REQ_BODY_FORM, "name"));
+        Assert.assertNull(TokenGenerators.forType(null, null));
+    }
+
+    @Test
+    public void cachedDateFormat_Test() throws Exception {
+
+        // Setup
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        final TokenGenerators.CachedDateFormat isoDateTime = new TokenGenerators.CachedDateFormat(GeneralUtils.ISO_DATETIME_FORMAT);
+        final long epochSecond = 1500000000L;
+
+        // Test
+        final String first = isoDateTime.format(epochSecond);
+        final String second = isoDateTime.format(epochSecond);
+        final String next = isoDateTime.format(epochSecond + 1);
+
+        // Assertions
+        Assert.assertEquals(new SimpleDateFormat(GeneralUtils.ISO_DATETIME_FORMAT).format(new Date(epochSecond * 1000)), first);
+        Assert.assertSame(first, second);
+        Assert.assertEquals("2017-07-14T02:40:01+0000", next);
+    }
+
+    @Test
+    public void isoDate_Test() throws Exception {
+
+        // Setup
+        final Supplier<String> generator = TokenGenerators.forType(ParamMatchTypeEnum.ISO_DATE, null);
+
+        // Test
+        final String result = generator.get();
+
+        // Assertions
+        Assert.assertNotNull(new SimpleDateFormat(GeneralUtils.ISO_DATE_FORMAT).parse(result));
+        Assert.assertEquals(10, result.length());
+    }
+
+    @Test
+    public void randomUUID_Test() {
+
+        // Setup
+        final Set<String> results = new HashSet<>();
+
+        // Test
+        for (int i = 0; i < 1000; i++) {
+            results.add(TokenGenerators.forType(ParamMatchTypeEnum.UUID, null).get());
+        }
+
+        // Assertions
+        Assert.assertEquals(1000, results.size());
+
+        for (String result : results) {
+            final UUID uuid = UUID.fromString(result);
+            Assert.assertEquals(4, uuid.version());
+            Assert.assertEquals(2, uuid.variant());
+        }
+    }
+
+    @Test
+    public void randomRange_Test() {
+
+        // Setup
+        final Supplier<String> inclusive = TokenGenerators.forType(ParamMatchTypeEnum.RANDOM_NUMBER, "-2 to 2");
+        final Supplier<String> exclusive = TokenGenerators.forType(ParamMatchTypeEnum.RANDOM_NUMBER, "-4 until -2");
+        final Set<Integer> inclusiveResults = new HashSet<>();
+        final Set<Integer> exclusiveResults = new HashSet<>();
+
+        // Test
+        for (int i = 0; i < 1000; i++) {
+            inclusiveResults.add(Integer.valueOf(inclusive.get()));
+            exclusiveResults.add(Integer.valueOf(exclusive.get()));
+        }
+
+        // Assertions
+        for (Integer result : inclusiveResults) {
+            Assert.assertTrue(result >= -2 && result <= 2);
+        }
+        Assert.assertTrue(inclusiveResults.contains(-2));
+        Assert.assertTrue(inclusiveResults.contains(2));
+
+        for (Integer result : exclusiveResults) {
+            Assert.assertTrue(result >= -3 && result <= -2);
+        }
+    }
+
+    @Test
+    public void randomRange_sameValue_Test() {
+
+        // Assertions
+        Assert.assertEquals("4", TokenGenerators.forType(ParamMatchTypeEnum.RANDOM_NUMBER, "4TO4").get());
+        Assert.assertEquals("0", TokenGenerators.forType(ParamMatchTypeEnum.RANDOM_NUMBER, "0 until 0").get());
+    }
+
+    @Test
+    public void randomRange_invalidFailsOnGenerate_Test() {
+
+        // Setup
+        final Supplier<String> generator = TokenGenerators.forType(ParamMatchTypeEnum.RANDOM_NUMBER, "A TO Z");
+
+        // Test
+        try {
+            generator.get();
+            Assert.fail();
+        } catch (IllegalArgumentException ex) {
+
+            // Assertions
+            Assert.assertEquals("Range does not contain valid numbers. (i.e expect 1 TO 5)", ex.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.smockin.mockserver.service.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Created by mgallina.
+ */
+public class WeightedDefinitionTableTest {
+
+    @Test
+    public void compile_Test() {
+
+        // Test
+        final WeightedDefinitionTable table = WeightedDefinitionTable.compile(Arrays.asList(
+                new CompiledDefinition("a", 0, 97, null),
+                new CompiledDefinition("b", 0, 2, null),
+                new CompiledDefinition("c", 0, 1, null)));
+
+        // Assertions
+        Assert.assertEquals(3, table.size());
+        Assert.assertEquals(0.97, table.probabilityOf(0), 0.000001);
+        Assert.assertEquals(0.02, table.probabilityOf(1), 0.000001);
+        Assert.assertEquals(0.01, table.probabilityOf(2), 0.000001);
+    }
+
+    @Test
+    public void compile_noPercentages_Test() {
+
+        // Test
+        final WeightedDefinitionTable table = WeightedDefinitionTable.compile(Arrays.asList(
+                new CompiledDefinition("a", 0, 0, null),
+                new CompiledDefinition("b", 0, 0, null),
+                new CompiledDefinition("c", 0, 0, null),
+                new CompiledDefinition("d", 0, 0, null)));
+
+        // Assertions
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(0.25, table.probabilityOf(i), 0.000001);
+        }
+    }
+
+    @Test
+    public void weigh_remainderShared_Test() {
+
+        // Test
+        final double[] weights = WeightedDefinitionTable.weigh(Arrays.asList(
+                new CompiledDefinition("a", 0, 60, null),
+                new CompiledDefinition("b", 0, 0, null),
+                new CompiledDefinition("c", 0, 0, null)));
+
+        // Assertions
+        Assert.assertEquals(60.0, weights[0], 0.000001);
+        Assert.assertEquals(20.0, weights[1], 0.000001);
+        Assert.assertEquals(20.0, weights[2], 0.000001);
+    }
+
+    @Test
+    public void weigh_fullyAssigned_Test() {
+
+        // Test
+        final double[] weights = WeightedDefinitionTable.weigh(Arrays.asList(
+                new CompiledDefinition("a", 0, 80, null),
+                new CompiledDefinition("b", 0, 0, null),
+                new CompiledDefinition("c", 0, 40, null)));
+
+        // Assertions
+        // Nothing is left for 'b', and the rest are taken relative to one another.
+        final WeightedDefinitionTable table = WeightedDefinitionTable.compile(weights);
+        Assert.assertEquals(0.0, weights[1], 0.000001);
+        Assert.assertEquals(2.0 / 3, table.probabilityOf(0), 0.000001);
+        Assert.assertEquals(0.0, table.probabilityOf(1), 0.000001);
+        Assert.assertEquals(1.0 / 3, table.probabilityOf(2), 0.000001);
+    }
+
+    @Test
+    public void nextIndex_Test() {
+
+        // Setup
+        final WeightedDefinitionTable table = WeightedDefinitionTable.compile(new double[] { 70, 0, 20, 10 });
+        final int[] counts = new int[4];
+        final int picks = 100000;
+
+        // Test
+        for (int i = 0; i < picks; i++) {
+            counts[table.nextIndex()]++;
+        }
+
+        // Assertions
+        Assert.assertEquals(0, counts[1]);
+        Assert.assertEquals(0.7, (double) counts[0] / picks, 0.02);
+        Assert.assertEquals(0.2, (double) counts[2] / picks, 0.02);
+        Assert.assertEquals(0.1, (double) counts[3] / picks, 0.02);
+    }
+
+    @Test
+    public void nextIndex_noDefinitions_Test() {
+
+        // Test
+        final WeightedDefinitionTable table = WeightedDefinitionTable.compile(Collections.emptyList());
+
+        // Assertions
+        Assert.assertEquals(0, table.size());
+        Assert.assertEquals(0, table.nextIndex());
+    }
+
+}
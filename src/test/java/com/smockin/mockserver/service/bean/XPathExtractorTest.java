@@ -0,0 +1,137 @@
+package com.smockin.mockserver.service.bean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Created by mgallina.
+ */
+public class XPathExtractorTest {
+
+    private final String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:o=\"urn:orders\">"
+            + "<soap:Body><o:order id=\"7\" o:channel=\"web\">"
+            + "<customer><id> c1 </id><name>Joe <![CDATA[& Sons]]></name></customer>"
+            + "<items><item sku=\"A1\"><qty>2</qty></item><item sku=\"B2\"><qty>1</qty></item></items>"
+            + "</o:order></soap:Body></soap:Envelope>";
+
+    @Test
+    public void extract_absolute_Test() {
+
+        // Setup
+        final XPathExtractor extractor = XPathExtractor.compile(Arrays.asList("/Envelope/Body/order/customer/id", "/soap:Envelope/soap:Body/o:order/customer/name/text()"));
+
+        // Test
+        final String[] result = extractor.extract(xml);
+
+        // Assertions
+        Assert.assertEquals("c1", result[extractor.slotOf("/Envelope/Body/order/customer/id")]);
+        Assert.assertEquals("Joe & Sons", result[extractor.slotOf("/soap:Envelope/soap:Body/o:order/customer/name/text()")]);
+    }
+
+    @Test
+    public void extract_descendantAndWildcard_Test() {
+
+        // Setup
+        final XPathExtractor extractor = XPathExtractor.compile(Arrays.asList("//qty", "/Envelope/*/order/items//qty", "//customer"));
+
+        // Test
+        final String[] result = extractor.extract(xml);
+
+        // Assertions
+        Assert.assertEquals("2", result[extractor.slotOf("//qty")]);
+        Assert.assertEquals("2", result[extractor.slotOf("/Envelope/*/order/items//qty")]);
+        Assert.assertEquals("c1 Joe & Sons", result[extractor.slotOf("//customer")]);
+    }
+
+    @Test
+    public void extract_positionAndAttributes_Test() {
+
+        // Setup
+        final XPathExtractor extractor = XPathExtractor.compile(Arrays.asList("//item[2]/@sku", "//items/item[2]/qty", "//order/@id", "//order/@channel", "//item[3]/@sku", "//order/@missing"));
+
+        // Test
+        final String[] result = extractor.extract(xml);
+
+        // Assertions
+        Assert.assertEquals("B2", result[extractor.slotOf("//item[2]/@sku")]);
+        Assert.assertEquals("1", result[extractor.slotOf("//items/item[2]/qty")]);
+        Assert.assertEquals("7", result[extractor.slotOf("//order/@id")]);
+        Assert.assertEquals("web", result[extractor.slotOf("//order/@channel")]);
+        Assert.assertNull(result[extractor.slotOf("//item[3]/@sku")]);
+        Assert.assertNull(result[extractor.slotOf("//order/@missing")]);
+    }
+
+    @Test
+    public void extract_malformed_Test() {
+
+        // Setup
+        final XPathExtractor extractor = XPathExtractor.compile(Arrays.asList("/order/id", "/order/name"));
+
+        // Test
+        final String[] result = extractor.extract("<order><id>9</id><name>Joe</order>");
+
+        // Assertions
+        Assert.assertEquals("9", result[extractor.slotOf("/order/id")]);
+        Assert.assertNull(result[extractor.slotOf("/order/name")]);
+    }
+
+    @Test
+    public void extract_stopsOnceFound_Test() {
+
+        // Setup
+        final XPathExtractor extractor = XPathExtractor.compile(Collections.singletonList("/order/id"));
+
+        // Test (everything after the id is malformed, so would otherwise fail the parse)
+        final String[] result = extractor.extract("<order><id>9</id><<<");
+
+        // Assertions
+        Assert.assertEquals("9", result[0]);
+    }
+
+    @Test
+    public void extract_externalEntityNotResolved_Test() {
+
+        // Setup
+        final XPathExtractor extractor = XPathExtractor.compile(Collections.singletonList("/order/id"));
+
+        // Test
+        final String[] result = extractor.extract("<?xml version=\"1.0\"?><!DOCTYPE order [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]><order><id>&xxe;</id></order>");
+
+        // Assertions
+        Assert.assertTrue(result[0] == null || !result[0].contains("root"));
+    }
+
+    @Test
+    public void extract_notXml_Test() {
+
+        // Setup
+        final XPathExtractor extractor = XPathExtractor.compile(Collections.singletonList("/order/id"));
+
+        // Assertions
+        Assert.assertNull(extractor.extract("{ \"order\" : { \"id\" : 9 } }")[0]);
+        Assert.assertNull(extractor.extract("")[0]);
+        Assert.assertNull(extractor.extract(null)[0]);
+    }
+
+    @Test
+    public void compile_unsupported_Test() {
+
+        // Setup
+        final XPathExtractor extractor = XPathExtractor.compile(Arrays.asList("order/id", "/order[@id='7']", "count(//item)", "/order/item[0]", "/", "//item[last()]", "/order/id"));
+
+        // Assertions
+        Assert.assertEquals(1, extractor.getSlotCount());
+        Assert.assertEquals(-1, extractor.slotOf("order/id"));
+        Assert.assertEquals(-1, extractor.slotOf("/order[@id='7']"));
+        Assert.assertEquals(-1, extractor.slotOf("count(//item)"));
+        Assert.assertEquals(-1, extractor.slotOf("/order/item[0]"));
+        Assert.assertEquals(-1, extractor.slotOf("/"));
+        Assert.assertEquals(-1, extractor.slotOf("//item[last()]"));
+        Assert.assertEquals(0, extractor.slotOf("/order/id"));
+    }
+
+}
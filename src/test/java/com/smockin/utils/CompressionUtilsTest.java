@@ -0,0 +1,148 @@
+package com.smockin.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Created by mgallina.
+ */
+public class CompressionUtilsTest {
+
+    private final byte[] body = "{ \"name\" : \"Rex\", \"type\" : \"dog\" } { \"name\" : \"Felix\", \"type\" : \"cat\" } ".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void gzip_Test() throws IOException {
+
+        // Test
+        final byte[] result = CompressionUtils.gzip(body, Deflater.BEST_COMPRESSION);
+
+        // Assertions
+        Assert.assertArrayEquals(body, readFully(new GZIPInputStream(new ByteArrayInputStream(result))));
+    }
+
+    @Test
+    public void deflate_Test() throws IOException {
+
+        // Test
+        final byte[] result = CompressionUtils.deflate(body, Deflater.BEST_SPEED);
+
+        // Assertions
+        Assert.assertArrayEquals(body, readFully(new InflaterInputStream(new ByteArrayInputStream(result))));
+    }
+
+    @Test
+    public void gzip_emptyBody_Test() throws IOException {
+
+        // Test
+        final byte[] result = CompressionUtils.gzip(new byte[0], Deflater.DEFAULT_COMPRESSION);
+
+        // Assertions
+        Assert.assertEquals(0, readFully(new GZIPInputStream(new ByteArrayInputStream(result))).length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compress_unsupported_Test() {
+        CompressionUtils.compress("br", body, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Test
+    public void compressingStream_gzip_Test() throws IOException {
+
+        // Setup
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        final OutputStream out = CompressionUtils.compressingStream(CompressionUtils.GZIP, result, Deflater.BEST_SPEED);
+
+        // Test
+        for (int i = 0; i < 500; i++) {
+            out.write(body, 0, body.length);
+        }
+        out.close();
+
+        // Assertions
+        final byte[] decompressed = readFully(new GZIPInputStream(new ByteArrayInputStream(result.toByteArray())));
+        Assert.assertEquals(body.length * 500, decompressed.length);
+        Assert.assertArrayEquals(body, Arrays.copyOfRange(decompressed, body.length * 499, decompressed.length));
+        Assert.assertTrue(result.size() < body.length * 10);
+    }
+
+    @Test
+    public void compressingStream_deflate_Test() throws IOException {
+
+        // Setup
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        final OutputStream out = CompressionUtils.compressingStream(CompressionUtils.DEFLATE, result, Deflater.BEST_SPEED);
+
+        // Test
+        out.write(body[0]);
+        out.write(body, 1, body.length - 1);
+        out.close();
+
+        // Assertions
+        Assert.assertArrayEquals(body, readFully(new InflaterInputStream(new ByteArrayInputStream(result.toByteArray()))));
+    }
+
+    @Test
+    public void compressingStream_abort_Test() throws IOException {
+
+        // Setup
+        CompressionUtils.gzip(body, Deflater.BEST_SPEED);
+        final int pooled = CompressionUtils.getPooledDeflaterCount();
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        final CompressionUtils.PooledDeflaterOutputStream out = CompressionUtils.compressingStream(CompressionUtils.GZIP, result, Deflater.BEST_SPEED);
+        out.write(body, 0, body.length);
+        final int written = result.size();
+
+        // Test
+        out.abort();
+        out.close();
+
+        // Assertions
+        Assert.assertEquals(pooled, CompressionUtils.getPooledDeflaterCount());
+        Assert.assertEquals(written, result.size());
+
+        try {
+            out.write(body, 0, body.length);
+            Assert.fail();
+        } catch (IOException ex) {
+            Assert.assertEquals("Stream is closed", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void negotiateContentEncoding_Test() {
+        Assert.assertNull(CompressionUtils.negotiateContentEncoding(null));
+        Assert.assertNull(CompressionUtils.negotiateContentEncoding("identity"));
+        Assert.assertEquals(CompressionUtils.GZIP, CompressionUtils.negotiateContentEncoding("gzip, deflate, br"));
+        Assert.assertEquals(CompressionUtils.GZIP, CompressionUtils.negotiateContentEncoding("x-gzip"));
+        Assert.assertEquals(CompressionUtils.DEFLATE, CompressionUtils.negotiateContentEncoding("deflate"));
+        Assert.assertEquals(CompressionUtils.DEFLATE, CompressionUtils.negotiateContentEncoding("gzip;q=0.5, deflate"));
+        Assert.assertEquals(CompressionUtils.GZIP, CompressionUtils.negotiateContentEncoding("*"));
+        Assert.assertNull(CompressionUtils.negotiateContentEncoding("gzip;q=0, deflate;q=0"));
+        Assert.assertEquals(CompressionUtils.DEFLATE, CompressionUtils.negotiateContentEncoding("gzip;q=0, *"));
+    }
+
+    private byte[] readFully(final InputStream in) throws IOException {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] chunk = new byte[256];
+        int read;
+
+        while ((read = in.read(chunk)) != -1) {
+            out.write(chunk, 0, read);
+        }
+
+        return out.toByteArray();
+    }
+
+}
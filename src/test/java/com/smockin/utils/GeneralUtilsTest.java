@@ -34,44 +34,6 @@ public class GeneralUtilsTest {
         Assert.assertNotNull(GeneralUtils.getCurrentDate());
     }
 
-    @Test
-    public void findFirstInboundParamMatch_singleTokenWithSpace_Test() {
-        final String result = GeneralUtils.findFirstInboundParamMatch("hello ${REQ_HEAD= joe }. how are you?");
-        Assert.assertEquals("REQ_HEAD= joe ", result);
-    }
-
-    @Test
-    public void findFirstInboundParamMatch_singleTokenWithSpaces_Test() {
-        final String result = GeneralUtils.findFirstInboundParamMatch("hello ${  REQ_HEAD=   joe   }. how are you?");
-        Assert.assertEquals("  REQ_HEAD=   joe   ", result);
-    }
-
-    @Test
-    public void findFirstInboundParamMatch_multiToken_Test() {
-        final String result = GeneralUtils.findFirstInboundParamMatch("hello ${REQ_HEAD= max}. how are you ${REQ_HEAD bob }?");
-        Assert.assertEquals("REQ_HEAD= max", result);
-    }
-
-    @Test
-    public void findFirstInboundParamMatch_NoToken_Test() {
-        Assert.assertNull(GeneralUtils.findFirstInboundParamMatch("hello world"));
-    }
-
-    @Test
-    public void findFirstInboundParamMatch_Null_Test() {
-        Assert.assertNull(GeneralUtils.findFirstInboundParamMatch(null));
-    }
-
-    @Test
-    public void findFirstInboundParamMatch_Blank_Test() {
-        Assert.assertNull(GeneralUtils.findFirstInboundParamMatch(""));
-    }
-
-    @Test
-    public void findFirstInboundParamMatch_Empty_Test() {
-        Assert.assertNull(GeneralUtils.findFirstInboundParamMatch("  "));
-    }
-
     @Test
     public void findHeaderIgnoreCaseTest() {
 
@@ -157,6 +119,21 @@ public class GeneralUtilsTest {
         Assert.assertEquals("21", ageResult);
     }
 
+    @Test
+    public void isValidRegex_Test() {
+        Assert.assertTrue(GeneralUtils.isValidRegex("^cust-[0-9]+$"));
+    }
+
+    @Test
+    public void isValidRegex_Invalid_Test() {
+        Assert.assertFalse(GeneralUtils.isValidRegex("cust-[0-9"));
+    }
+
+    @Test
+    public void isValidRegex_Null_Test() {
+        Assert.assertFalse(GeneralUtils.isValidRegex(null));
+    }
+
     @Test
     public void prefixPath_AddPrefix_Test() {
         Assert.assertEquals("/xxx", GeneralUtils.prefixPath("xxx"));